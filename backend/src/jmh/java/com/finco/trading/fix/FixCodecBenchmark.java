@@ -0,0 +1,82 @@
+package com.finco.trading.fix;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding a NewOrderSingle and parsing an ExecutionReport, without the socket.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FixCodecBenchmark {
+
+    private static final byte[] SENDER = "FINCO".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TARGET = "EXCHANGE".getBytes(StandardCharsets.US_ASCII);
+
+    private final FixEncoder encoder = new FixEncoder(1024);
+    private final FixMessage message = new FixMessage();
+    private ByteBuffer executionReport;
+    private int length;
+    private long seqNum;
+
+    @Setup
+    public void setUp() {
+        ByteBuffer encoded = new FixEncoder(1024).begin(FixTags.EXECUTION_REPORT, TARGET, SENDER, 1, System.currentTimeMillis())
+                .putAscii(FixTags.ORDER_ID, "884213")
+                .putAscii(FixTags.EXEC_ID, "1772093")
+                .putAscii(FixTags.CL_ORD_ID, "ORD-1A2B3C4D")
+                .putChar(FixTags.EXEC_TYPE, FixTags.EXEC_TRADE)
+                .putChar(FixTags.ORD_STATUS, FixTags.EXEC_FILL)
+                .putAscii(FixTags.SYMBOL, "AAPL")
+                .putChar(FixTags.SIDE, FixTags.SIDE_BUY)
+                .putDecimal(FixTags.ORDER_QTY, 100_00000000L, 8)
+                .putDecimal(FixTags.LAST_QTY, 100_00000000L, 8)
+                .putDecimal(FixTags.LAST_PX, 187_2500, 4)
+                .putDecimal(FixTags.LEAVES_QTY, 0, 8)
+                .putDecimal(FixTags.CUM_QTY, 100_00000000L, 8)
+                .putDecimal(FixTags.AVG_PX, 187_2500, 4)
+                .putTimestamp(FixTags.TRANSACT_TIME, System.currentTimeMillis())
+                .finish();
+        length = encoded.remaining();
+        executionReport = ByteBuffer.allocateDirect(length);
+        executionReport.put(encoded).flip();
+    }
+
+    @Benchmark
+    public ByteBuffer encodeNewOrderSingle() {
+        return encoder.begin(FixTags.NEW_ORDER_SINGLE, SENDER, TARGET, ++seqNum, System.currentTimeMillis())
+                .putAscii(FixTags.CL_ORD_ID, "ORD-1A2B3C4D")
+                .putLong(FixTags.ACCOUNT, 7)
+                .putAscii(FixTags.SYMBOL, "AAPL")
+                .putChar(FixTags.SIDE, FixTags.SIDE_BUY)
+                .putTimestamp(FixTags.TRANSACT_TIME, System.currentTimeMillis())
+                .putDecimal(FixTags.ORDER_QTY, 100_00000000L, 8)
+                .putChar(FixTags.ORD_TYPE, FixTags.ORD_TYPE_LIMIT)
+                .putDecimal(FixTags.PRICE, 187_2500, 4)
+                .putChar(FixTags.TIME_IN_FORCE, FixTags.TIF_DAY)
+                .finish();
+    }
+
+    @Benchmark
+    public long decodeExecutionReport() {
+        message.parse(executionReport, 0, length);
+        return message.getDecimal(FixTags.LAST_QTY, 8, 0) + message.getDecimal(FixTags.LAST_PX, 4, 0)
+                + message.getChar(FixTags.EXEC_TYPE);
+    }
+}
@@ -0,0 +1,99 @@
+package com.finco.trading.fix;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order round trips through a real TCP session to the {@link FixLoopbackAcceptor}: NewOrderSingle
+ * out, ExecutionReport (New) and ExecutionReport (Trade) back.
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FixLoopbackBenchmark {
+
+    private static final int PIPELINE = 100;
+
+    private final Semaphore fills = new Semaphore(0);
+    private FixLoopbackAcceptor acceptor;
+    private FixSession session;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        FixSessionSettings settings = new FixSessionSettings("FINCO", "LOOPBACK", 30, true);
+        acceptor = new FixLoopbackAcceptor(settings.reversed(), true);
+        int port = acceptor.start(new InetSocketAddress("localhost", 0));
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", port));
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        session = new FixSession(channel, settings, FixSequenceStore.inMemory(), new FixMessageStore(16_384, 512),
+                (session, message) -> {
+                    if (message.getChar(FixTags.EXEC_TYPE) == FixTags.EXEC_TRADE) {
+                        fills.release();
+                    }
+                }, true);
+        session.start();
+        while (!session.isLoggedOn()) {
+            Thread.sleep(10);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        session.close();
+        acceptor.close();
+    }
+
+    /**
+     * Latency from sending an order to receiving its fill.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void orderToFill() throws InterruptedException {
+        session.send(FixTags.NEW_ORDER_SINGLE, FixLoopbackBenchmark::writeOrder, null);
+        fills.acquire();
+    }
+
+    /**
+     * Orders sent back to back, {@value #PIPELINE} in flight; each op is one order and two reports.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(PIPELINE)
+    public void pipelinedOrders() throws InterruptedException {
+        for (int i = 0; i < PIPELINE; i++) {
+            session.send(FixTags.NEW_ORDER_SINGLE, FixLoopbackBenchmark::writeOrder, null);
+        }
+        fills.acquire(PIPELINE);
+    }
+
+    private static void writeOrder(FixEncoder encoder, Object ignored) {
+        encoder.putAscii(FixTags.CL_ORD_ID, "ORD-1A2B3C4D")
+                .putAscii(FixTags.SYMBOL, "AAPL")
+                .putChar(FixTags.SIDE, FixTags.SIDE_BUY)
+                .putTimestamp(FixTags.TRANSACT_TIME, System.currentTimeMillis())
+                .putDecimal(FixTags.ORDER_QTY, 100_00000000L, 8)
+                .putChar(FixTags.ORD_TYPE, FixTags.ORD_TYPE_LIMIT)
+                .putDecimal(FixTags.PRICE, 187_2500, 4);
+    }
+}
@@ -0,0 +1,139 @@
+package com.finco.trading.gateway;
+
+import com.finco.trading.cluster.OrderRouter;
+import com.finco.trading.controller.OrderController;
+import com.finco.trading.dto.OrderRequest;
+import com.finco.trading.dto.OrderResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of one new order over the binary gateway ({@link OrderEntryClient} to
+ * {@link OrderEntryGateway}) and over {@code POST /api/v1/orders} (JDK HttpClient to the
+ * {@link OrderController} on embedded Tomcat, JSON both ways). Both end in the same stub
+ * {@link OrderRouter} answering with a canned order, so the difference is transport, framing and
+ * (de)serialization rather than order processing.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderEntryBenchmark {
+
+    private static final OrderResponse ACCEPTED = OrderResponse.builder()
+            .id(1L).orderId("ORD-0123456789ABCDEF").accountId(7L).symbol("AAPL").orderType("LIMIT").side("BUY")
+            .quantity(new BigDecimal("100.00000000")).price(new BigDecimal("187.2500")).status("PENDING")
+            .filledQuantity(BigDecimal.ZERO).timeInForce("DAY")
+            .build();
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private OrderEntryGateway gateway;
+    private OrderEntryClient client;
+    private ConfigurableApplicationContext restApi;
+    private HttpClient httpClient;
+    private HttpRequest restRequest;
+    private long clientOrderId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        OrderRouter router = new StubOrderRouter(objectMapper);
+        gateway = new OrderEntryGateway(router, 1, 1024, 1000);
+        int port = gateway.start(new InetSocketAddress("127.0.0.1", 0));
+        client = OrderEntryClient.connect(new InetSocketAddress("127.0.0.1", port));
+
+        restApi = new SpringApplicationBuilder(RestApi.class)
+                .properties("server.port=0", "server.address=127.0.0.1", "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .initializers(context -> context.getBeanFactory().registerSingleton("orderRouter", router))
+                .run();
+        int restPort = ((ServletWebServerApplicationContext) restApi).getWebServer().getPort();
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        restRequest = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + restPort + "/api/v1/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(OrderRequest.builder()
+                        .accountId(7L).symbol("AAPL").side("BUY").orderType("LIMIT").timeInForce("DAY")
+                        .quantity(new BigDecimal("100")).price(new BigDecimal("187.25"))
+                        .build())))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        client.close();
+        gateway.close();
+        restApi.close();
+        httpClient.close();
+    }
+
+    @Benchmark
+    public OrderEntryClient.Response binary() {
+        return client.newOrder(++clientOrderId, 7, "AAPL", OrderEntryProtocol.SIDE_BUY,
+                OrderEntryProtocol.ORDER_TYPE_LIMIT, OrderEntryProtocol.TIF_DAY, 100_00000000L, 187_2500).join();
+    }
+
+    @Benchmark
+    public OrderResponse rest() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(restRequest, HttpResponse.BodyHandlers.ofByteArray());
+        return objectMapper.readValue(response.body(), OrderResponse.class);
+    }
+
+    /**
+     * The order API as both entry points see it, without the services behind it.
+     */
+    static final class StubOrderRouter extends OrderRouter {
+
+        StubOrderRouter(ObjectMapper objectMapper) {
+            super(null, null, null, objectMapper, RestClient.builder(), 1000);
+        }
+
+        @Override
+        public OrderResponse createOrder(OrderRequest request, String forwardedBy) {
+            return ACCEPTED;
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class, DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class, JacksonAutoConfiguration.class})
+    static class RestApi {
+
+        @Bean
+        OrderController orderController(OrderRouter orderRouter, ObjectMapper objectMapper) {
+            return new OrderController(null, orderRouter, objectMapper);
+        }
+    }
+}
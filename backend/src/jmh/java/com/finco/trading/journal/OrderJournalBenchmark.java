@@ -0,0 +1,100 @@
+package com.finco.trading.journal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-record cost of appending to and replaying the memory-mapped order journal, one million
+ * FILL-sized records per invocation into a fresh directory. Replay reads every field a
+ * position rebuild uses, through the flyweight.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderJournalBenchmark {
+
+    private static final int RECORDS = 1_000_000;
+    private static final int SEGMENT_RECORDS = 262_144;
+
+    private Path dir;
+    private JournalLog journal;
+
+    @Setup(Level.Invocation)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("order-journal");
+        journal = JournalLog.open(dir, SEGMENT_RECORDS);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws IOException {
+        journal.close();
+        FileSystemUtils.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long append() throws IOException {
+        write(journal);
+        return journal.nextSequence();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long replay(ReplayState state, Blackhole blackhole) throws IOException {
+        return state.journal.replay(1, record -> {
+            blackhole.consume(record.accountId());
+            blackhole.consume(record.priceTicks());
+            blackhole.consume(record.quantityLots());
+            blackhole.consume(record.side());
+        });
+    }
+
+    @State(Scope.Benchmark)
+    public static class ReplayState {
+        private Path dir;
+        private JournalLog journal;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            dir = Files.createTempDirectory("order-journal-replay");
+            journal = JournalLog.open(dir, SEGMENT_RECORDS);
+            write(journal);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            journal.close();
+            FileSystemUtils.deleteRecursively(dir);
+        }
+    }
+
+    private static void write(JournalLog journal) throws IOException {
+        for (int i = 0; i < RECORDS; i++) {
+            journal.claim().type(JournalRecord.FILL).timestamp(i).id(i).orderId("ORD-0000ABCD").accountId(i & 1023)
+                    .symbol("AAPL").side(JournalRecord.sideCode("BUY")).liquidity(JournalRecord.MAKER)
+                    .priceTicks(1_500_000 + (i & 63)).quantityLots(100_000_000);
+            journal.commit();
+        }
+    }
+}
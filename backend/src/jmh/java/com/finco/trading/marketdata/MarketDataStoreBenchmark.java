@@ -0,0 +1,86 @@
+package com.finco.trading.marketdata;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a tick into the store with a subscriber attached, of reading a symbol back, and of a
+ * subscriber catching up after a burst of ticks over 500 symbols.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MarketDataStoreBenchmark {
+
+    private static final int SYMBOLS = 500;
+    private static final long LOT = 100_000_000L;
+
+    private final MarketDataStore store = new MarketDataStore(4096);
+    private final MarketDataStore.Quote quote = new MarketDataStore.Quote();
+    private MarketDataStore.Subscription subscription;
+    private String[] symbols;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        symbols = new String[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            symbols[i] = "SYM" + i;
+            store.onQuote(store.symbolId(symbols[i]), 100_0000, LOT, 100_0100, LOT, 0);
+            store.onTrade(i, 100_0050, LOT, 0);
+        }
+        subscription = store.subscribe();
+    }
+
+    @TearDown
+    public void tearDown() {
+        subscription.close();
+    }
+
+    @Benchmark
+    public void onQuote() {
+        int id = next++ % SYMBOLS;
+        store.onQuote(id, 100_0000 + id, LOT, 100_0100 + id, LOT, id);
+    }
+
+    @Benchmark
+    public boolean readQuote() {
+        return store.read(next++ % SYMBOLS, quote);
+    }
+
+    @Benchmark
+    public long markTicksBySymbol() {
+        return store.markTicks(symbols[next++ % SYMBOLS]);
+    }
+
+    /**
+     * 10,000 ticks, then one drain that reads the latest state of each changed symbol.
+     */
+    @Benchmark
+    @OperationsPerInvocation(10_000)
+    public void burstThenDrain(Blackhole blackhole) {
+        for (int i = 0; i < 10_000; i++) {
+            store.onTrade(i % SYMBOLS, 100_0000 + i, LOT, i);
+        }
+        subscription.drain(id -> {
+            store.read(id, quote);
+            blackhole.consume(quote.lastTicks());
+        });
+    }
+}
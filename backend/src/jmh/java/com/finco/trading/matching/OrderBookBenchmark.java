@@ -0,0 +1,66 @@
+package com.finco.trading.matching;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded {@link OrderBook} operations, i.e. the work one matching shard does per command.
+ * The book is kept at a steady depth: every resting order is eventually consumed by a crossing one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderBookBenchmark {
+
+    private static final int LEVELS = 50;
+    private static final long LOT = 100_000_000L;
+
+    private OrderBook book;
+    private long nextId;
+
+    @Setup
+    public void setUp() {
+        book = new OrderBook("AAPL");
+        for (int i = 0; i < LEVELS; i++) {
+            book.submit(order(Side.SELL, 100_0000 + i * 100, 10 * LOT));
+            book.submit(order(Side.BUY, 99_0000 - i * 100, 10 * LOT));
+        }
+    }
+
+    /**
+     * Rests a sell inside the spread, then takes it with an IOC buy: one insert and one full match.
+     */
+    @Benchmark
+    public MatchResult restAndTake() {
+        book.submit(order(Side.SELL, 99_5000, LOT));
+        return book.submit(new NewOrder(++nextId, "B" + nextId, 2, "AAPL", Side.BUY, false, TimeInForce.IOC, 99_5000, LOT));
+    }
+
+    /**
+     * Rests an order away from the touch and cancels it again.
+     */
+    @Benchmark
+    public long restAndCancel() {
+        NewOrder order = order(Side.BUY, 98_0000, LOT);
+        book.submit(order);
+        return book.cancel(order.orderId());
+    }
+
+    private NewOrder order(Side side, long priceTicks, long lots) {
+        long id = ++nextId;
+        return new NewOrder(id, "O" + id, 1, "AAPL", side, false, TimeInForce.GTC, priceTicks, lots);
+    }
+}
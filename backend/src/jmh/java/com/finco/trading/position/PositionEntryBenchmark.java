@@ -0,0 +1,53 @@
+package com.finco.trading.position;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ledger cost per fill and per position read.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PositionEntryBenchmark {
+
+    private static final long LOT = 100_000_000L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 14, 30);
+
+    private PositionEntry entry;
+    private boolean buy;
+
+    @Setup
+    public void setUp() {
+        entry = new PositionEntry(1L, "AAPL", NOW);
+        entry.applyFill(true, 100_0000, 1_000 * LOT, NOW);
+    }
+
+    /**
+     * Alternates buys and sells so the position oscillates between adding and realizing.
+     */
+    @Benchmark
+    public void applyFill() {
+        buy = !buy;
+        entry.applyFill(buy, buy ? 100_0000 : 100_0500, 10 * LOT, NOW);
+    }
+
+    @Benchmark
+    public PositionEntry.Snapshot snapshot() {
+        return entry.snapshot(101_0000);
+    }
+}
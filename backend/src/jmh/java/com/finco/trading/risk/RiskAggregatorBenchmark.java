@@ -0,0 +1,127 @@
+package com.finco.trading.risk;
+
+import com.finco.trading.dto.RiskResponse;
+import com.finco.trading.journal.OrderJournal;
+import com.finco.trading.marketdata.MarketDataStore;
+import com.finco.trading.matching.Fill;
+import com.finco.trading.matching.MatchResult;
+import com.finco.trading.matching.Side;
+import com.finco.trading.position.PositionLedger;
+import com.finco.trading.repository.PositionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Firm-wide risk over about {@code positions} ledger positions in 1000 symbols, ten per account:
+ * the copy of every position out of the ledger into arrays, the fork-join pass over the arrays,
+ * both together in a full recompute, and a read of the incrementally kept figures. {@code parallelism} 0 is one
+ * thread per available processor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class RiskAggregatorBenchmark {
+
+    private static final long LOT = 100_000_000L;
+    private static final int SYMBOLS = 1000;
+
+    @Param({"1000000", "2000000"})
+    private int positions;
+
+    @Param({"0", "1"})
+    private int parallelism;
+
+    private MarketDataStore marketDataStore;
+    private PositionLedger ledger;
+    private RiskAggregator aggregator;
+    private ForkJoinPool pool;
+    private RiskPositions columns;
+    private long[] marks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        marketDataStore = new MarketDataStore(SYMBOLS);
+        // Stub-only: every account is looked up once and unknown, which must not pile up invocations
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class, withSettings().stubOnly());
+        ledger = new PositionLedger(mock(PositionRepository.class), jdbcTemplate,
+                mock(PlatformTransactionManager.class), marketDataStore, mock(OrderJournal.class));
+        ReflectionTestUtils.setField(ledger, "enabled", true);
+        aggregator = new RiskAggregator(ledger, marketDataStore, jdbcTemplate, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(aggregator, "enabled", true);
+        ReflectionTestUtils.setField(aggregator, "parallelism", parallelism);
+        aggregator.start();
+
+        SplittableRandom random = new SplittableRandom(42);
+        int accounts = positions / 10;
+        for (int i = 0; i < positions / 2; i++) {
+            long maker = 1 + random.nextInt(accounts);
+            long taker = 1 + (maker + random.nextInt(accounts - 1)) % accounts;
+            Fill fill = new Fill(i, "ORD-" + i, maker, i, taker, random.nextBoolean() ? Side.BUY : Side.SELL,
+                    (10 + random.nextInt(500)) * 10_000L, (1 + random.nextInt(1_000)) * LOT);
+            ledger.onFills(new MatchResult(i, "S" + random.nextInt(SYMBOLS), List.of(fill), fill.quantityLots(), 0, 0));
+        }
+
+        columns = copy();
+        marks = new long[marketDataStore.symbolCount()];
+        for (int s = 0; s < marks.length; s++) {
+            marks[s] = marketDataStore.markTicks(s);
+        }
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+        aggregator.stop();
+    }
+
+    @Benchmark
+    public RiskPositions copy() {
+        RiskPositions copy = new RiskPositions(positions, accountId -> 0);
+        ledger.forEachPosition(null, (accountId, symbol, lots, averagePriceTicks) ->
+                copy.add(accountId, marketDataStore.symbolId(symbol), lots, averagePriceTicks));
+        return copy;
+    }
+
+    @Benchmark
+    public RiskComputation.Result compute() {
+        return RiskComputation.compute(pool, columns, marks, 1);
+    }
+
+    @Benchmark
+    public RiskResponse recompute() {
+        return aggregator.recompute(100);
+    }
+
+    @Benchmark
+    public RiskResponse liveExposure() {
+        return aggregator.getExposure(100);
+    }
+}
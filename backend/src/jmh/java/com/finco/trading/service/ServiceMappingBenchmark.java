@@ -0,0 +1,160 @@
+package com.finco.trading.service;
+
+import com.finco.trading.compliance.ComplianceCode;
+import com.finco.trading.compliance.ComplianceRuleSet;
+import com.finco.trading.dto.OrderRequest;
+import com.finco.trading.dto.OrderResponse;
+import com.finco.trading.dto.PositionResponse;
+import com.finco.trading.marketdata.MarketDataStore;
+import com.finco.trading.model.Order;
+import com.finco.trading.model.Position;
+import com.finco.trading.position.PositionLedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request work in {@link OrderService}, {@link PositionService} and {@link ComplianceService}
+ * that does not touch the database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceMappingBenchmark {
+
+    private Order order;
+    private Position position;
+    private OrderRequest request;
+    private static final int BATCH_SIZE = 100;
+
+    private ComplianceService complianceService;
+    private final OrderIdGenerator orderIdGenerator = new OrderIdGenerator(0, 0, Clock.systemUTC());
+    private List<OrderRequest> batch;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 14, 30);
+        order = Order.builder()
+                .id(42L)
+                .orderId("ORD-1A2B3C4D")
+                .accountId(7L)
+                .symbol("AAPL")
+                .orderType("LIMIT")
+                .side("BUY")
+                .quantity(new BigDecimal("100.00000000"))
+                .price(new BigDecimal("187.2500"))
+                .status("PARTIALLY_FILLED")
+                .filledQuantity(new BigDecimal("40.00000000"))
+                .averageFillPrice(new BigDecimal("187.2400"))
+                .timeInForce("DAY")
+                .createdAt(now)
+                .updatedAt(now)
+                .executedAt(now)
+                .build();
+        position = Position.builder()
+                .id(9L)
+                .accountId(7L)
+                .symbol("AAPL")
+                .quantity(new BigDecimal("40.00000000"))
+                .averagePrice(new BigDecimal("187.2400"))
+                .marketValue(new BigDecimal("7490.0000"))
+                .unrealizedPnl(new BigDecimal("0.4000"))
+                .realizedPnl(BigDecimal.ZERO)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        request = OrderRequest.builder()
+                .accountId(7L)
+                .symbol("AAPL")
+                .orderType("LIMIT")
+                .side("BUY")
+                .quantity(new BigDecimal("100"))
+                .price(new BigDecimal("187.25"))
+                .build();
+        MarketDataStore marketData = new MarketDataStore(16);
+        PositionLedger ledger = new PositionLedger(null, null, null, marketData, null);
+        ReflectionTestUtils.setField(ledger, "enabled", true);
+        complianceService = new ComplianceService(ledger, marketData,
+                new OrderMetrics(new SimpleMeterRegistry(), false, List.of()));
+        ReflectionTestUtils.setField(complianceService, "complianceEnabled", true);
+        complianceService.setClock(Clock.fixed(Instant.parse("2024-03-01T15:00:00Z"), ZoneOffset.UTC));
+        List<String> restricted = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            restricted.add("R" + i);
+        }
+        complianceService.install(ComplianceRuleSet.builder()
+                .restrict(restricted)
+                .maxOrderQuantity(new BigDecimal("100000"))
+                .maxOrderNotional(new BigDecimal("10000000"))
+                .maxPositionQuantity(new BigDecimal("500000"))
+                .symbolLimits("AAPL", new BigDecimal("50000"), null)
+                .tradingHours(LocalTime.of(9, 30), LocalTime.of(16, 0), ZoneId.of("America/New_York"),
+                        EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY))
+                .build());
+        batch = new ArrayList<>(BATCH_SIZE);
+        String[] symbols = {"AAPL", "MSFT", "GOOG", "R7", "TSLA"};
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(OrderRequest.builder()
+                    .accountId((long) (i % 10))
+                    .symbol(symbols[i % symbols.length])
+                    .orderType("LIMIT")
+                    .side(i % 2 == 0 ? "BUY" : "SELL")
+                    .quantity(BigDecimal.valueOf(10 + i))
+                    .price(new BigDecimal("187.25"))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public OrderResponse orderToResponse() {
+        return OrderService.toResponse(order);
+    }
+
+    @Benchmark
+    public PositionResponse positionToResponse() {
+        return PositionService.toResponse(position);
+    }
+
+    @Benchmark
+    public String generateOrderId() {
+        return orderIdGenerator.nextOrderId();
+    }
+
+    @Benchmark
+    public ComplianceCode complianceCheck() {
+        return complianceService.check(request);
+    }
+
+    /**
+     * One pass over a {@value #BATCH_SIZE}-order basket; divide by the batch size for per-order cost.
+     */
+    @Benchmark
+    public ComplianceCode[] complianceBatch() {
+        return complianceService.validateOrders(batch);
+    }
+}
@@ -0,0 +1,58 @@
+package com.finco.trading.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hand-off cost per element of the audit buffer against the ArrayBlockingQueue the write-behind
+ * journal uses: 100 offers, then one drain, as the audit writer sees bursts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MpscRingBufferBenchmark {
+
+    private static final int BURST = 100;
+    private static final Object ELEMENT = new Object();
+
+    private final MpscRingBuffer<Object> ring = new MpscRingBuffer<>(1024);
+    private final ArrayBlockingQueue<Object> queue = new ArrayBlockingQueue<>(1024);
+    private final List<Object> drained = new ArrayList<>(BURST);
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void ringBuffer(Blackhole blackhole) {
+        for (int i = 0; i < BURST; i++) {
+            ring.offer(ELEMENT);
+        }
+        ring.drain(blackhole::consume, BURST);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void arrayBlockingQueue(Blackhole blackhole) {
+        for (int i = 0; i < BURST; i++) {
+            queue.offer(ELEMENT);
+        }
+        queue.drainTo(drained, BURST);
+        blackhole.consume(drained);
+        drained.clear();
+    }
+}
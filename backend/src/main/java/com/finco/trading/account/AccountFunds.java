@@ -0,0 +1,99 @@
+package com.finco.trading.account;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cash of one account in price ticks, without locks: {@code available} is the balance less
+ * what working buy orders have reserved and is only ever lowered by a compare-and-set that keeps
+ * it non-negative, so concurrent orders cannot reserve more than the account holds. Cash moved by
+ * fills is also collected in {@code unsettled} until the next reconciliation writes it to
+ * {@code accounts.balance}.
+ */
+final class AccountFunds {
+
+    final long accountId;
+
+    private final AtomicLong available;
+    private final AtomicLong reserved = new AtomicLong();
+    private final AtomicLong unsettled = new AtomicLong();
+    // accounts.balance as of the last reconciliation; written by the reconciling thread only
+    private volatile long syncedBalanceTicks;
+
+    AccountFunds(long accountId, long balanceTicks) {
+        this.accountId = accountId;
+        this.available = new AtomicLong(balanceTicks);
+        this.syncedBalanceTicks = balanceTicks;
+    }
+
+    /**
+     * Takes {@code ticks} from the available cash if there is enough of it.
+     */
+    boolean tryReserve(long ticks) {
+        long current;
+        do {
+            current = available.get();
+            if (current < ticks) {
+                return false;
+            }
+        } while (!available.compareAndSet(current, current - ticks));
+        reserved.addAndGet(ticks);
+        return true;
+    }
+
+    /**
+     * Reserves regardless of the available cash, for orders that were accepted before.
+     */
+    void forceReserve(long ticks) {
+        available.addAndGet(-ticks);
+        reserved.addAndGet(ticks);
+    }
+
+    void release(long ticks) {
+        reserved.addAndGet(-ticks);
+        available.addAndGet(ticks);
+    }
+
+    /**
+     * Books a fill: {@code releasedTicks} of the reservation are used up and {@code cashTicks}
+     * (negative for a purchase) move the balance.
+     */
+    void settle(long releasedTicks, long cashTicks) {
+        reserved.addAndGet(-releasedTicks);
+        available.addAndGet(releasedTicks + cashTicks);
+        unsettled.addAndGet(cashTicks);
+    }
+
+    long drainUnsettled() {
+        return unsettled.getAndSet(0);
+    }
+
+    void restoreUnsettled(long ticks) {
+        unsettled.addAndGet(ticks);
+    }
+
+    /**
+     * Takes in the balance read back after {@code writtenTicks} were added to it; any other
+     * difference was made outside this ledger (a deposit, a correction) and is passed on to the
+     * available cash. Returns that difference.
+     */
+    long synced(long balanceTicks, long writtenTicks) {
+        long external = balanceTicks - syncedBalanceTicks - writtenTicks;
+        syncedBalanceTicks = balanceTicks;
+        if (external != 0) {
+            available.addAndGet(external);
+        }
+        return external;
+    }
+
+    long availableTicks() {
+        return available.get();
+    }
+
+    long reservedTicks() {
+        return reserved.get();
+    }
+
+    long balanceTicks() {
+        return syncedBalanceTicks + unsettled.get();
+    }
+}
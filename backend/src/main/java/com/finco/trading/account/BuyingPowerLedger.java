@@ -0,0 +1,368 @@
+package com.finco.trading.account;
+
+import com.finco.trading.compliance.ComplianceCode;
+import com.finco.trading.compliance.ComplianceException;
+import com.finco.trading.marketdata.MarketDataStore;
+import com.finco.trading.matching.Fill;
+import com.finco.trading.matching.MatchResult;
+import com.finco.trading.matching.Side;
+import com.finco.trading.model.Account;
+import com.finco.trading.model.Order;
+import com.finco.trading.repository.AccountRepository;
+import com.finco.trading.service.ActiveOrderIndex;
+import com.finco.trading.util.FixedPoint;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buying power per account, held in memory ({@code app.buying-power.enabled}). A buy order
+ * reserves its notional (limit price, or the reference price plus {@code market-collar-bps} for
+ * market orders) from the account's available cash when it is entered, without touching the
+ * {@code accounts} row; fills turn the reservation into spent cash and sells credit their
+ * proceeds, cancels and expiries give the rest back. Reservations are keyed by order id and
+ * follow the transaction of the order: they are undone on rollback, fills and releases are
+ * booked after commit.
+ *
+ * <p>Cash moved by fills is added to {@code accounts.balance} by {@link #reconcile} on a fixed
+ * delay, which also reads every balance back and passes changes made outside the ledger on to
+ * the available cash. On startup balances are loaded from the table and the reservations of the
+ * working orders in the {@link ActiveOrderIndex} are rebuilt.
+ */
+@Component
+@Slf4j
+public class BuyingPowerLedger {
+
+    private static final String UPDATE = "UPDATE accounts SET balance = balance + ?, updated_at = ? WHERE id = ?";
+    private static final String SELECT = "SELECT id, balance FROM accounts";
+
+    private final AccountRepository accountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MarketDataStore marketDataStore;
+    private final ActiveOrderIndex activeOrders;
+
+    private final Map<Long, AccountFunds> accounts = new ConcurrentHashMap<>();
+    private final Map<Long, Reservation> reservations = new ConcurrentHashMap<>();
+
+    @Value("${app.buying-power.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.buying-power.market-collar-bps:500}")
+    private long marketCollarBps;
+
+    public BuyingPowerLedger(AccountRepository accountRepository, JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager, MarketDataStore marketDataStore,
+                             ActiveOrderIndex activeOrders) {
+        this.accountRepository = accountRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.marketDataStore = marketDataStore;
+        this.activeOrders = activeOrders;
+    }
+
+    /**
+     * What a working buy order still holds: {@code lots} at {@code priceTicks}.
+     */
+    private record Reservation(long accountId, long priceTicks, long lots) {
+        long ticks() {
+            return notional(priceTicks, lots);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void load() {
+        if (!enabled) {
+            return;
+        }
+        for (Account account : accountRepository.findAll()) {
+            accounts.put(account.getId(), new AccountFunds(account.getId(), FixedPoint.toPriceTicks(account.getBalance())));
+        }
+        int restored = 0;
+        for (Order order : activeOrders.all()) {
+            if (isBuy(order) && order.getPrice() != null) {
+                long lots = FixedPoint.toQuantityLots(order.getQuantity().subtract(order.getFilledQuantity()));
+                AccountFunds funds = funds(order.getAccountId());
+                if (funds != null) {
+                    Reservation reservation = new Reservation(order.getAccountId(), FixedPoint.toPriceTicks(order.getPrice()), lots);
+                    funds.forceReserve(reservation.ticks());
+                    reservations.put(order.getId(), reservation);
+                    restored++;
+                }
+            }
+        }
+        log.info("Buying power ledger loaded {} accounts and {} reservations", accounts.size(), restored);
+    }
+
+    /**
+     * Reserves the notional of a buy order, which must carry its id. Sells pass without a
+     * reservation. Undone if the surrounding transaction rolls back.
+     */
+    public ComplianceCode reserve(Order order) {
+        if (!enabled || !isBuy(order)) {
+            return ComplianceCode.PASSED;
+        }
+        long priceTicks = reservationPrice(order);
+        if (priceTicks <= 0) {
+            return ComplianceCode.NO_REFERENCE_PRICE;
+        }
+        Reservation reservation = new Reservation(order.getAccountId(), priceTicks,
+                FixedPoint.toQuantityLots(order.getQuantity()));
+        AccountFunds funds = funds(order.getAccountId());
+        if (funds == null || !funds.tryReserve(reservation.ticks())) {
+            log.debug("Order {} of account {} exceeds its buying power", order.getOrderId(), order.getAccountId());
+            return ComplianceCode.INSUFFICIENT_BUYING_POWER;
+        }
+        reservations.put(order.getId(), reservation);
+        onRollback(() -> releaseNow(order.getId()));
+        return ComplianceCode.PASSED;
+    }
+
+    /**
+     * Resizes the reservation of an amended buy order to its new price and unfilled quantity;
+     * throws if the account cannot cover an increase. Undone if the surrounding transaction rolls
+     * back.
+     */
+    public void amend(Order order) {
+        if (!enabled || !isBuy(order)) {
+            return;
+        }
+        long lots = FixedPoint.toQuantityLots(order.getQuantity().subtract(order.getFilledQuantity()));
+        Reservation amended = new Reservation(order.getAccountId(), reservationPrice(order), lots);
+        Reservation previous = reservations.get(order.getId());
+        long increase = amended.ticks() - (previous != null ? previous.ticks() : 0);
+        AccountFunds funds = funds(order.getAccountId());
+        if (funds == null || (increase > 0 && !funds.tryReserve(increase))) {
+            throw new ComplianceException(ComplianceCode.INSUFFICIENT_BUYING_POWER);
+        }
+        if (increase < 0) {
+            funds.release(-increase);
+        }
+        reservations.put(order.getId(), amended);
+        onRollback(() -> {
+            if (previous != null) {
+                reservations.put(order.getId(), previous);
+            } else {
+                reservations.remove(order.getId());
+            }
+            if (increase > 0) {
+                funds.release(increase);
+            } else {
+                funds.forceReserve(-increase);
+            }
+        });
+    }
+
+    /**
+     * Gives back what a cancelled order still holds, once the surrounding transaction commits.
+     */
+    public void release(long orderId) {
+        if (enabled) {
+            afterCommit(() -> releaseNow(orderId));
+        }
+    }
+
+    public void releaseAll(Collection<Long> orderIds) {
+        if (enabled) {
+            List<Long> released = List.copyOf(orderIds);
+            afterCommit(() -> released.forEach(this::releaseNow));
+        }
+    }
+
+    /**
+     * Books the fills of a match for both counterparties after commit, and releases the part of
+     * the incoming order the engine discarded.
+     */
+    public void onMatch(MatchResult result) {
+        if (enabled && !result.isEmpty()) {
+            afterCommit(() -> apply(result));
+        }
+    }
+
+    /**
+     * Cash the account can still commit to new buy orders; zero for an unknown account.
+     */
+    public BigDecimal available(long accountId) {
+        AccountFunds funds = accounts.get(accountId);
+        return FixedPoint.fromPriceTicks(funds != null ? funds.availableTicks() : 0);
+    }
+
+    public BigDecimal reserved(long accountId) {
+        AccountFunds funds = accounts.get(accountId);
+        return FixedPoint.fromPriceTicks(funds != null ? funds.reservedTicks() : 0);
+    }
+
+    public BigDecimal balance(long accountId) {
+        AccountFunds funds = accounts.get(accountId);
+        return FixedPoint.fromPriceTicks(funds != null ? funds.balanceTicks() : 0);
+    }
+
+    /**
+     * Adds the cash moved by fills since the last run to {@code accounts.balance} and reads all
+     * balances back in one transaction. If the transaction fails the amounts are kept for the next
+     * run.
+     */
+    @Scheduled(fixedDelayString = "${app.buying-power.reconcile-interval-ms:5000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        Map<Long, Long> written = new HashMap<>();
+        for (AccountFunds funds : accounts.values()) {
+            long ticks = funds.drainUnsettled();
+            if (ticks != 0) {
+                written.put(funds.accountId, ticks);
+            }
+        }
+        Map<Long, Long> balances;
+        try {
+            balances = transactionTemplate.execute(status -> {
+                if (!written.isEmpty()) {
+                    Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                    List<Object[]> updates = new ArrayList<>(written.size());
+                    written.forEach((id, ticks) -> updates.add(new Object[] {FixedPoint.fromPriceTicks(ticks), now, id}));
+                    jdbcTemplate.batchUpdate(UPDATE, updates);
+                }
+                Map<Long, Long> rows = new HashMap<>();
+                jdbcTemplate.query(SELECT, row -> {
+                    rows.put(row.getLong(1), FixedPoint.toPriceTicks(row.getBigDecimal(2)));
+                });
+                return rows;
+            });
+        } catch (RuntimeException e) {
+            written.forEach((id, ticks) -> accounts.get(id).restoreUnsettled(ticks));
+            log.warn("Buying power reconciliation failed, retrying on the next run: {}", e.getMessage());
+            return;
+        }
+        balances.forEach((id, balance) -> {
+            AccountFunds funds = accounts.putIfAbsent(id, new AccountFunds(id, balance));
+            if (funds != null) {
+                long external = funds.synced(balance, written.getOrDefault(id, 0L));
+                if (external != 0) {
+                    log.info("Balance of account {} changed outside the buying power ledger by {}",
+                            id, FixedPoint.fromPriceTicks(external));
+                }
+            }
+        });
+        log.debug("Reconciled {} account balances, {} with fills", balances.size(), written.size());
+    }
+
+    private void apply(MatchResult result) {
+        for (Fill fill : result.fills()) {
+            boolean takerBuys = fill.takerSide() == Side.BUY;
+            settle(fill.takerId(), fill.takerAccountId(), takerBuys, fill.priceTicks(), fill.quantityLots());
+            settle(fill.makerId(), fill.makerAccountId(), !takerBuys, fill.priceTicks(), fill.quantityLots());
+        }
+        if (result.cancelledLots() > 0) {
+            releaseNow(result.orderId());
+        }
+    }
+
+    private void settle(long orderId, long accountId, boolean buy, long priceTicks, long lots) {
+        AccountFunds funds = funds(accountId);
+        if (funds == null) {
+            return;
+        }
+        long cost = notional(priceTicks, lots);
+        if (!buy) {
+            funds.settle(0, cost);
+            return;
+        }
+        long[] used = new long[1];
+        reservations.computeIfPresent(orderId, (id, reservation) -> {
+            long remaining = Math.max(reservation.lots() - lots, 0);
+            Reservation rest = new Reservation(reservation.accountId(), reservation.priceTicks(), remaining);
+            // Taken as the difference so the fills of an order release exactly what it reserved
+            used[0] = reservation.ticks() - rest.ticks();
+            return remaining > 0 ? rest : null;
+        });
+        funds.settle(used[0], -cost);
+    }
+
+    private void releaseNow(long orderId) {
+        Reservation reservation = reservations.remove(orderId);
+        if (reservation != null) {
+            AccountFunds funds = accounts.get(reservation.accountId());
+            if (funds != null) {
+                funds.release(reservation.ticks());
+            }
+        }
+    }
+
+    /**
+     * The account's funds, loaded from the table on first use; null for an unknown account.
+     */
+    private AccountFunds funds(long accountId) {
+        AccountFunds funds = accounts.get(accountId);
+        if (funds != null) {
+            return funds;
+        }
+        return accountRepository.findById(accountId)
+                .map(account -> accounts.computeIfAbsent(accountId,
+                        id -> new AccountFunds(id, FixedPoint.toPriceTicks(account.getBalance()))))
+                .orElse(null);
+    }
+
+    private long reservationPrice(Order order) {
+        if (order.getPrice() != null && !"MARKET".equals(order.getOrderType())) {
+            return FixedPoint.toPriceTicks(order.getPrice());
+        }
+        long reference = marketDataStore.referenceTicks(order.getSymbol(), true);
+        return reference + FixedPoint.mulDiv(reference, marketCollarBps, 10_000);
+    }
+
+    private static boolean isBuy(Order order) {
+        return "BUY".equals(order.getSide());
+    }
+
+    private static long notional(long priceTicks, long lots) {
+        return FixedPoint.mulDiv(priceTicks, lots, FixedPoint.ONE_LOT_UNITS);
+    }
+
+    private static void onRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
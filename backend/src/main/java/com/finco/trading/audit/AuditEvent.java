@@ -0,0 +1,16 @@
+package com.finco.trading.audit;
+
+import java.time.LocalDateTime;
+
+/**
+ * One {@code audit_log} row waiting to be written.
+ */
+public record AuditEvent(
+        String entityType,
+        long entityId,
+        String action,
+        String userId,
+        String details,
+        String ipAddress,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,419 @@
+package com.finco.trading.audit;
+
+import com.finco.trading.util.MpscRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes {@code audit_log} rows off the request path ({@code app.audit.enabled}). Events are
+ * captured on the calling thread, together with the user and client address, and queued in a
+ * lock-free {@link MpscRingBuffer}; a single writer thread drains the buffer and inserts up to
+ * {@code max-batch-size} rows per multi-row INSERT. With {@code ack: MEMORY} a transaction's events
+ * are queued once it commits and nobody waits for them. With {@code ack: DURABLE} they are queued
+ * just before it commits and the commit waits until their rows are, so an audit write that fails
+ * or times out rolls the change back; a commit that fails after that leaves audit rows for a change
+ * that did not happen, the safer way round. The writer then keeps a connection of its own, as the
+ * waiting callers hold theirs. A full buffer blocks callers for up to {@code append-timeout-ms},
+ * after which the event is dropped, logged and counted in {@code audit.events.dropped}.
+ */
+@Component
+@Slf4j
+public class AuditLogWriter {
+
+    public enum Ack {
+        MEMORY,
+        DURABLE
+    }
+
+    private static final String INSERT = "INSERT INTO audit_log (entity_type, entity_id, action, user_id, details, "
+            + "ip_address, created_at) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.audit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.audit.capacity:65536}")
+    private int capacity;
+
+    // Multi-row INSERTs bind 7 parameters per row, 1000 rows stay well below the protocol limit
+    @Value("${app.audit.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${app.audit.flush-interval-ms:5}")
+    private long flushIntervalMs;
+
+    @Value("${app.audit.append-timeout-ms:1000}")
+    private long appendTimeoutMs;
+
+    @Value("${app.audit.ack-timeout-ms:5000}")
+    private long ackTimeoutMs;
+
+    @Value("${app.audit.ack:MEMORY}")
+    private Ack ack;
+
+    private MpscRingBuffer<Queued> buffer;
+    private Thread writer;
+    private volatile boolean running;
+    private final Object pendingKey = new Object();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushed = flushLock.newCondition();
+    // Sequences below processed have been written or failed
+    private volatile long processed;
+
+    // Writer thread only: the connection it keeps in DURABLE mode, null until opened
+    private SingleConnectionDataSource ownConnection;
+    private JdbcTemplate writeJdbcTemplate;
+    private TransactionTemplate writeTransactionTemplate;
+
+    private Timer flushTimer;
+    private Counter written;
+    private Counter dropped;
+    private Counter failed;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        buffer = new MpscRingBuffer<>(capacity);
+        flushTimer = Timer.builder("audit.flush")
+                .description("Time to insert and commit one batch of audit rows")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        written = Counter.builder("audit.events.written").register(meterRegistry);
+        dropped = Counter.builder("audit.events.dropped")
+                .description("Audit events discarded because the buffer stayed full")
+                .register(meterRegistry);
+        failed = Counter.builder("audit.events.failed")
+                .description("Audit events lost to a failed insert")
+                .register(meterRegistry);
+        Gauge.builder("audit.queue.depth", buffer, MpscRingBuffer::size).register(meterRegistry);
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Audit log writer started (capacity {}, batch {}, ack {})", buffer.capacity(), maxBatchSize, ack);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (buffer.size() > 0) {
+            log.error("Audit log writer stopped with {} unwritten events", buffer.size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Audits an action on an entity by the current user. Inside a transaction the event is queued
+     * when it commits (see the class comment for when exactly), so rolled-back changes are not
+     * audited.
+     */
+    public void record(String entityType, long entityId, String action, String details) {
+        if (!running) {
+            return;
+        }
+        AuditEvent event = new AuditEvent(entityType, entityId, action, currentUser(), details, clientAddress(),
+                LocalDateTime.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingEvents().add(event);
+        } else {
+            await(enqueue(event));
+        }
+    }
+
+    /**
+     * Waits until every event queued so far has been written or has failed.
+     */
+    public void flush() {
+        if (running) {
+            awaitProcessed(buffer.head() + buffer.size() - 1);
+        }
+    }
+
+    public int pending() {
+        return buffer == null ? 0 : buffer.size();
+    }
+
+    /**
+     * The events of the current transaction, queued together when it commits.
+     */
+    @SuppressWarnings("unchecked")
+    private List<AuditEvent> pendingEvents() {
+        List<AuditEvent> events = (List<AuditEvent>) TransactionSynchronizationManager.getResource(pendingKey);
+        if (events != null) {
+            return events;
+        }
+        List<AuditEvent> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(pendingKey, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (ack == Ack.DURABLE) {
+                    // Queue all, then wait: the rows of one transaction share a batch where they fit
+                    created.stream().map(AuditLogWriter.this::enqueue).toList().forEach(AuditLogWriter.this::await);
+                }
+            }
+
+            @Override
+            public void afterCommit() {
+                if (ack == Ack.MEMORY) {
+                    created.forEach(AuditLogWriter.this::enqueue);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(pendingKey);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Queues the event; the returned future completes once its row is committed, or fails when
+     * the write or the event itself was dropped.
+     */
+    private CompletableFuture<Void> enqueue(AuditEvent event) {
+        Queued queued = new Queued(event, new CompletableFuture<>());
+        if (buffer.offer(queued) < 0 && offerBlocking(queued) < 0) {
+            dropped.increment();
+            log.error("Audit log buffer full, dropped {} {} {}", event.action(), event.entityType(), event.entityId());
+            queued.written.completeExceptionally(new IllegalStateException("Audit log buffer full"));
+        }
+        return queued.written;
+    }
+
+    private void await(CompletableFuture<Void> written) {
+        if (ack != Ack.DURABLE) {
+            return;
+        }
+        LockSupport.unpark(writer);
+        try {
+            written.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the audit log", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Audit log write failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Audit log write not acknowledged in time", e);
+        }
+    }
+
+    private long offerBlocking(Queued event) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(appendTimeoutMs);
+        LockSupport.unpark(writer);
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            long sequence = buffer.offer(event);
+            if (sequence >= 0) {
+                return sequence;
+            }
+        }
+        return -1;
+    }
+
+    private void awaitProcessed(long sequence) {
+        if (sequence < processed) {
+            return;
+        }
+        LockSupport.unpark(writer);
+        long remaining = TimeUnit.MILLISECONDS.toNanos(ackTimeoutMs);
+        flushLock.lock();
+        try {
+            while (sequence >= processed) {
+                if (remaining <= 0) {
+                    throw new RuntimeException("Audit log write not acknowledged in time");
+                }
+                remaining = flushed.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the audit log", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writeLoop() {
+        List<Queued> batch = new ArrayList<>(maxBatchSize);
+        try {
+            // Up front, before callers hold the pool: a failure here is retried with the first batch
+            connect();
+        } catch (RuntimeException e) {
+            log.warn("Audit log writer could not connect yet: {}", e.getMessage());
+        }
+        while (running || buffer.size() > 0) {
+            if (buffer.drain(batch::add, maxBatchSize) == 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+                continue;
+            }
+            try {
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            batch.clear();
+        }
+        closeConnection();
+    }
+
+    private void write(List<Queued> batch) throws InterruptedException {
+        long backoffMs = 10;
+        while (true) {
+            try {
+                connect();
+                flushTimer.record(() -> writeTransactionTemplate.executeWithoutResult(status -> insert(batch)));
+                written.increment(batch.size());
+                batch.forEach(queued -> queued.written.complete(null));
+                break;
+            } catch (TransientDataAccessException | RecoverableDataAccessException
+                     | CannotGetJdbcConnectionException e) {
+                // Keep the batch; the buffer absorbs new events meanwhile and blocks callers once full.
+                // The connection may be the broken part, so the retry opens a new one
+                closeConnection();
+                log.warn("Audit log write of {} events failed, retrying in {} ms: {}",
+                        batch.size(), backoffMs, e.getMessage());
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, 5000);
+            } catch (RuntimeException e) {
+                log.error("Audit log write of {} events failed permanently, events dropped", batch.size(), e);
+                failed.increment(batch.size());
+                batch.forEach(queued -> queued.written.completeExceptionally(e));
+                break;
+            }
+        }
+        flushLock.lock();
+        try {
+            processed += batch.size();
+            flushed.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Picks what the writer writes with: the shared pool in MEMORY mode, a connection of its own in
+     * DURABLE mode, where callers wait for the writer while holding pooled connections and could
+     * otherwise leave it none.
+     */
+    private void connect() {
+        if (writeTransactionTemplate != null) {
+            return;
+        }
+        if (ack == Ack.MEMORY) {
+            writeJdbcTemplate = jdbcTemplate;
+            writeTransactionTemplate = transactionTemplate;
+            return;
+        }
+        try {
+            ownConnection = new SingleConnectionDataSource(jdbcTemplate.getDataSource().getConnection(), true);
+        } catch (SQLException e) {
+            throw new CannotGetJdbcConnectionException("Failed to open the audit log writer's connection", e);
+        }
+        writeJdbcTemplate = new JdbcTemplate(ownConnection);
+        writeTransactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(ownConnection));
+    }
+
+    private void closeConnection() {
+        if (ownConnection != null) {
+            ownConnection.destroy();
+            ownConnection = null;
+        }
+        writeJdbcTemplate = null;
+        writeTransactionTemplate = null;
+    }
+
+    private void insert(List<Queued> batch) {
+        List<Object> args = new ArrayList<>(batch.size() * 7);
+        for (Queued queued : batch) {
+            AuditEvent event = queued.event;
+            args.add(event.entityType());
+            args.add(event.entityId());
+            args.add(event.action());
+            args.add(event.userId());
+            args.add(event.details());
+            args.add(event.ipAddress());
+            args.add(Timestamp.valueOf(event.createdAt()));
+        }
+        writeJdbcTemplate.update(INSERT + String.join(", ", Collections.nCopies(batch.size(), ROW)), args.toArray());
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    private static String clientAddress() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet.getRequest().getRemoteAddr() : null;
+    }
+
+    /**
+     * An event in the buffer and the future its DURABLE caller waits on.
+     */
+    private record Queued(AuditEvent event, CompletableFuture<Void> written) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.finco.trading.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.UUID;
+
+/**
+ * Broadcasts L1 invalidations over Redis pub/sub. Messages are
+ * {@code <nodeId>|E|<cache>|<key>} for a single entry and {@code <nodeId>|C|<cache>|} for a
+ * whole region; nodes ignore their own messages. Pub/sub is fire-and-forget, so a lost message
+ * leaves a stale L1 entry until its TTL expires, which bounds the staleness window.
+ */
+@Slf4j
+public class CacheInvalidationPublisher {
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CacheInvalidationPublisher(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    void evicted(String cacheName, String key) {
+        publish(nodeId + "|E|" + cacheName + "|" + key);
+    }
+
+    void cleared(String cacheName) {
+        publish(nodeId + "|C|" + cacheName + "|");
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (RuntimeException e) {
+            // The Redis write itself succeeded or failed on its own; peers fall back to the L1 TTL
+            log.warn("Failed to publish cache invalidation: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.finco.trading.cache;
+
+import com.finco.trading.dto.OrderResponse;
+import com.finco.trading.dto.PositionResponse;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Schema-based binary encoding for {@link OrderResponse} and {@link PositionResponse} values and
+ * lists of them. Each record is a presence bitmask followed by its non-null fields in declaration
+ * order: integers as zig-zag varints, strings as length-prefixed UTF-8, {@link BigDecimal} as
+ * unscaled long + scale and {@link LocalDateTime} as epoch micros (UTC, sub-microsecond digits are
+ * dropped). Payloads start with a magic byte; anything else, including entries written before the
+ * switch, goes through the fallback serializer.
+ */
+public class CompactResponseSerializer implements RedisSerializer<Object> {
+
+    private static final byte MAGIC = (byte) 0xB1;
+
+    private static final byte NULL_VALUE = 0;
+    private static final byte ORDER = 1;
+    private static final byte ORDER_LIST = 2;
+    private static final byte POSITION = 3;
+    private static final byte POSITION_LIST = 4;
+
+    private final RedisSerializer<Object> fallback;
+
+    public CompactResponseSerializer(RedisSerializer<Object> fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value instanceof OrderResponse order) {
+            Writer writer = new Writer(ORDER);
+            writeOrder(writer, order);
+            return writer.toByteArray();
+        }
+        if (value instanceof PositionResponse position) {
+            Writer writer = new Writer(POSITION);
+            writePosition(writer, position);
+            return writer.toByteArray();
+        }
+        if (value instanceof NullValue) {
+            return new Writer(NULL_VALUE).toByteArray();
+        }
+        if (value instanceof List<?> list) {
+            byte tag = listTag(list);
+            if (tag != 0) {
+                Writer writer = new Writer(tag);
+                writer.writeVarLong(list.size());
+                for (Object element : list) {
+                    if (tag == ORDER_LIST) {
+                        writeOrder(writer, (OrderResponse) element);
+                    } else {
+                        writePosition(writer, (PositionResponse) element);
+                    }
+                }
+                return writer.toByteArray();
+            }
+        }
+        return fallback.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0 || bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes.length < 2) {
+            throw new SerializationException("Truncated cache payload");
+        }
+        Reader reader = new Reader(bytes, 2);
+        try {
+            switch (bytes[1]) {
+                case NULL_VALUE:
+                    return NullValue.INSTANCE;
+                case ORDER:
+                    return readOrder(reader);
+                case POSITION:
+                    return readPosition(reader);
+                case ORDER_LIST: {
+                    int size = reader.readSize();
+                    List<OrderResponse> orders = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        orders.add(readOrder(reader));
+                    }
+                    return orders;
+                }
+                case POSITION_LIST: {
+                    int size = reader.readSize();
+                    List<PositionResponse> positions = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        positions.add(readPosition(reader));
+                    }
+                    return positions;
+                }
+                default:
+                    throw new SerializationException("Unknown cache payload type " + bytes[1]);
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated cache payload", e);
+        }
+    }
+
+    /**
+     * Returns the list tag when every element is of one supported type, 0 otherwise. Empty lists
+     * are encoded as order lists, they decode to an empty list either way.
+     */
+    private static byte listTag(List<?> list) {
+        boolean orders = true;
+        boolean positions = true;
+        for (Object element : list) {
+            orders &= element instanceof OrderResponse;
+            positions &= element instanceof PositionResponse;
+        }
+        return orders ? ORDER_LIST : positions ? POSITION_LIST : 0;
+    }
+
+    private static void writeOrder(Writer writer, OrderResponse order) {
+        Object[] fields = {
+                order.getId(), order.getOrderId(), order.getAccountId(), order.getSymbol(),
+                order.getOrderType(), order.getSide(), order.getQuantity(), order.getPrice(),
+                order.getStatus(), order.getFilledQuantity(), order.getAverageFillPrice(),
+                order.getTimeInForce(), order.getCreatedAt(), order.getUpdatedAt(), order.getExecutedAt()
+        };
+        writer.writeFields(fields);
+    }
+
+    private static OrderResponse readOrder(Reader reader) {
+        long mask = reader.readVarLong();
+        return OrderResponse.builder()
+                .id(reader.readLong(mask, 0))
+                .orderId(reader.readString(mask, 1))
+                .accountId(reader.readLong(mask, 2))
+                .symbol(reader.readString(mask, 3))
+                .orderType(reader.readString(mask, 4))
+                .side(reader.readString(mask, 5))
+                .quantity(reader.readDecimal(mask, 6))
+                .price(reader.readDecimal(mask, 7))
+                .status(reader.readString(mask, 8))
+                .filledQuantity(reader.readDecimal(mask, 9))
+                .averageFillPrice(reader.readDecimal(mask, 10))
+                .timeInForce(reader.readString(mask, 11))
+                .createdAt(reader.readTimestamp(mask, 12))
+                .updatedAt(reader.readTimestamp(mask, 13))
+                .executedAt(reader.readTimestamp(mask, 14))
+                .build();
+    }
+
+    private static void writePosition(Writer writer, PositionResponse position) {
+        Object[] fields = {
+                position.getId(), position.getAccountId(), position.getSymbol(), position.getQuantity(),
+                position.getAveragePrice(), position.getMarketValue(), position.getUnrealizedPnl(),
+                position.getRealizedPnl(), position.getCreatedAt(), position.getUpdatedAt()
+        };
+        writer.writeFields(fields);
+    }
+
+    private static PositionResponse readPosition(Reader reader) {
+        long mask = reader.readVarLong();
+        return PositionResponse.builder()
+                .id(reader.readLong(mask, 0))
+                .accountId(reader.readLong(mask, 1))
+                .symbol(reader.readString(mask, 2))
+                .quantity(reader.readDecimal(mask, 3))
+                .averagePrice(reader.readDecimal(mask, 4))
+                .marketValue(reader.readDecimal(mask, 5))
+                .unrealizedPnl(reader.readDecimal(mask, 6))
+                .realizedPnl(reader.readDecimal(mask, 7))
+                .createdAt(reader.readTimestamp(mask, 8))
+                .updatedAt(reader.readTimestamp(mask, 9))
+                .build();
+    }
+
+    private static final class Writer {
+
+        private byte[] buffer = new byte[256];
+        private int position;
+
+        Writer(byte tag) {
+            buffer[position++] = MAGIC;
+            buffer[position++] = tag;
+        }
+
+        void writeFields(Object[] fields) {
+            long mask = 0;
+            for (int i = 0; i < fields.length; i++) {
+                if (fields[i] != null) {
+                    mask |= 1L << i;
+                }
+            }
+            writeVarLong(mask);
+            for (Object field : fields) {
+                if (field instanceof Long value) {
+                    writeVarLong(zigZag(value));
+                } else if (field instanceof String value) {
+                    writeString(value);
+                } else if (field instanceof BigDecimal value) {
+                    writeDecimal(value);
+                } else if (field instanceof LocalDateTime value) {
+                    writeVarLong(zigZag(toEpochMicros(value)));
+                }
+            }
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            writeBytes(bytes);
+        }
+
+        /**
+         * Scale and a "wide" flag share the header varint; unscaled values that do not fit in a
+         * long are written as two's-complement bytes instead of failing the cache write.
+         */
+        void writeDecimal(BigDecimal value) {
+            BigInteger unscaled = value.unscaledValue();
+            boolean wide = unscaled.bitLength() > 63;
+            writeVarLong(zigZag(value.scale()) << 1 | (wide ? 1 : 0));
+            if (wide) {
+                byte[] bytes = unscaled.toByteArray();
+                writeVarLong(bytes.length);
+                writeBytes(bytes);
+            } else {
+                writeVarLong(zigZag(unscaled.longValue()));
+            }
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] buffer;
+        private int position;
+
+        Reader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        Long readLong(long mask, int field) {
+            return present(mask, field) ? unZigZag(readVarLong()) : null;
+        }
+
+        String readString(long mask, int field) {
+            if (!present(mask, field)) {
+                return null;
+            }
+            int length = readSize();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        BigDecimal readDecimal(long mask, int field) {
+            if (!present(mask, field)) {
+                return null;
+            }
+            long header = readVarLong();
+            int scale = (int) unZigZag(header >>> 1);
+            if ((header & 1) == 0) {
+                return BigDecimal.valueOf(unZigZag(readVarLong()), scale);
+            }
+            int length = readSize();
+            BigInteger unscaled = new BigInteger(buffer, position, length);
+            position += length;
+            return new BigDecimal(unscaled, scale);
+        }
+
+        LocalDateTime readTimestamp(long mask, int field) {
+            return present(mask, field) ? fromEpochMicros(unZigZag(readVarLong())) : null;
+        }
+
+        int readSize() {
+            long size = readVarLong();
+            if (size < 0 || size > buffer.length - position) {
+                throw new SerializationException("Corrupt cache payload, length " + size);
+            }
+            return (int) size;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Corrupt cache payload, varint too long");
+        }
+
+        private static boolean present(long mask, int field) {
+            return (mask & 1L << field) != 0;
+        }
+    }
+
+    private static long zigZag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    private static long unZigZag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private static long toEpochMicros(LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + value.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,132 @@
+package com.finco.trading.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Near cache: a bounded on-heap Caffeine cache (L1) in front of a {@link RedisCache} (L2).
+ * Reads are served from L1 without touching the network; misses fall through to Redis and
+ * populate L1. Writes go to both tiers and are broadcast so other nodes drop their L1 copy.
+ * L1 keys are the string form of the cache key, the same form Redis uses, so invalidation
+ * messages can address them. Cached values are shared, callers must not mutate them.
+ */
+public class TwoTierCache extends AbstractValueAdaptingCache {
+
+    private final RedisCache redisCache;
+    private final Cache<String, Object> localCache;
+    private final CacheInvalidationPublisher publisher;
+
+    public TwoTierCache(RedisCache redisCache, Cache<String, Object> localCache,
+                        CacheInvalidationPublisher publisher) {
+        super(true);
+        this.redisCache = redisCache;
+        this.localCache = localCache;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public String getName() {
+        return redisCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    public RedisCache getRedisCache() {
+        return redisCache;
+    }
+
+    public Cache<String, Object> getLocalCache() {
+        return localCache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = localKey(key);
+        Object value = localCache.getIfPresent(localKey);
+        if (value != null) {
+            return value;
+        }
+        ValueWrapper remote = redisCache.get(key);
+        if (remote == null) {
+            return null;
+        }
+        value = toStoreValue(remote.get());
+        localCache.put(localKey, value);
+        return value;
+    }
+
+    /**
+     * Loads a value missing from both tiers and stores it in both. Loads are serialized per
+     * cache, as {@link RedisCache} does; a load another thread finished meanwhile is picked up
+     * from L1, since {@link #lookup} has already found Redis empty.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            return (T) fromStoreValue(value);
+        }
+        String localKey = localKey(key);
+        synchronized (this) {
+            value = localCache.getIfPresent(localKey);
+            if (value != null) {
+                return (T) fromStoreValue(value);
+            }
+            T loaded;
+            try {
+                loaded = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            redisCache.put(key, loaded);
+            localCache.put(localKey, toStoreValue(loaded));
+            return loaded;
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        redisCache.put(key, value);
+        String localKey = localKey(key);
+        localCache.put(localKey, toStoreValue(value));
+        publisher.evicted(getName(), localKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        redisCache.evict(key);
+        String localKey = localKey(key);
+        localCache.invalidate(localKey);
+        publisher.evicted(getName(), localKey);
+    }
+
+    @Override
+    public void clear() {
+        redisCache.clear();
+        localCache.invalidateAll();
+        publisher.cleared(getName());
+    }
+
+    /**
+     * Applies an invalidation received from another node. Only L1 is touched, Redis already
+     * holds the other node's write.
+     */
+    void invalidateLocal(String localKey) {
+        if (localKey == null) {
+            localCache.invalidateAll();
+        } else {
+            localCache.invalidate(localKey);
+        }
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
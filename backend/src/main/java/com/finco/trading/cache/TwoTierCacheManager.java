@@ -0,0 +1,77 @@
+package com.finco.trading.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Wraps every cache of a {@link RedisCacheManager} in a {@link TwoTierCache} and applies
+ * invalidations published by other nodes.
+ */
+@Slf4j
+public class TwoTierCacheManager extends AbstractTransactionSupportingCacheManager implements MessageListener {
+
+    private final RedisCacheManager redisCacheManager;
+    private final CacheInvalidationPublisher publisher;
+    private final long maxEntries;
+    private final Duration ttl;
+
+    public TwoTierCacheManager(RedisCacheManager redisCacheManager, CacheInvalidationPublisher publisher,
+                               long maxEntries, Duration ttl) {
+        this.redisCacheManager = redisCacheManager;
+        this.publisher = publisher;
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        redisCacheManager.initializeCaches();
+        List<Cache> caches = new ArrayList<>();
+        for (String name : redisCacheManager.getCacheNames()) {
+            caches.add(wrap(redisCacheManager.getCache(name)));
+        }
+        return caches;
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        Cache redisCache = redisCacheManager.getCache(name);
+        return redisCache == null ? null : wrap(redisCache);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 4 || publisher.getNodeId().equals(parts[0])) {
+            return;
+        }
+        Cache cache = lookupCache(parts[2]);
+        if (cache == null) {
+            return;
+        }
+        TwoTierCache twoTierCache = (TwoTierCache) cache.getNativeCache();
+        twoTierCache.invalidateLocal("C".equals(parts[1]) ? null : parts[3]);
+    }
+
+    private TwoTierCache wrap(Cache redisCache) {
+        return new TwoTierCache((RedisCache) redisCache,
+                Caffeine.newBuilder()
+                        .maximumSize(maxEntries)
+                        .expireAfterWrite(ttl)
+                        .recordStats()
+                        .build(),
+                publisher);
+    }
+}
@@ -0,0 +1,25 @@
+package com.finco.trading.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+
+/**
+ * Exposes both tiers of a {@link TwoTierCache} through the standard cache metrics, tagged
+ * {@code tier=local} and {@code tier=redis}, so the L1 hit ratio can be read next to Redis.
+ */
+public class TwoTierCacheMeterBinderProvider implements CacheMeterBinderProvider<TwoTierCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(TwoTierCache cache, Iterable<Tag> tags) {
+        return registry -> {
+            new CaffeineCacheMetrics<>(cache.getLocalCache(), cache.getName(), Tags.concat(tags, "tier", "local"))
+                    .bindTo(registry);
+            new RedisCacheMetrics(cache.getRedisCache(), Tags.concat(tags, "tier", "redis"))
+                    .bindTo(registry);
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.finco.trading.cluster;
+
+/**
+ * A node of the cluster: its id, the region it runs in and the base URL other nodes forward
+ * orders to.
+ */
+public record ClusterMember(String id, String region, String url) {
+
+    /**
+     * Parses {@code id@region@url}, the format of {@code app.cluster.local.members} and the
+     * members file.
+     */
+    public static ClusterMember parse(String value) {
+        String[] parts = value.trim().split("@", 3);
+        if (parts.length != 3 || parts[0].isBlank() || parts[1].isBlank() || parts[2].isBlank()) {
+            throw new IllegalArgumentException("Invalid cluster member, expected id@region@url: " + value);
+        }
+        return new ClusterMember(parts[0].trim(), parts[1].trim(), parts[2].trim());
+    }
+
+    @Override
+    public String toString() {
+        return id + "@" + region + "@" + url;
+    }
+}
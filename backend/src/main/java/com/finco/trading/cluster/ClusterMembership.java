@@ -0,0 +1,59 @@
+package com.finco.trading.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * The live nodes of the cluster as seen from this one, always including itself. Implementations
+ * report what they observe through {@link #update}; listeners are told about every change, on the
+ * thread that observed it.
+ */
+@Slf4j
+public abstract class ClusterMembership {
+
+    private final ClusterMember self;
+    private final List<Consumer<List<ClusterMember>>> listeners = new CopyOnWriteArrayList<>();
+    private volatile List<ClusterMember> members;
+
+    protected ClusterMembership(ClusterMember self) {
+        this.self = self;
+        this.members = List.of(self);
+    }
+
+    public ClusterMember self() {
+        return self;
+    }
+
+    /**
+     * Current members in id order.
+     */
+    public List<ClusterMember> members() {
+        return members;
+    }
+
+    public void addListener(Consumer<List<ClusterMember>> listener) {
+        listeners.add(listener);
+    }
+
+    protected synchronized void update(Collection<ClusterMember> observed) {
+        List<ClusterMember> current = Stream.concat(Stream.of(self),
+                        observed.stream().filter(member -> !member.id().equals(self.id())))
+                .distinct()
+                .sorted(Comparator.comparing(ClusterMember::id))
+                .toList();
+        if (current.equals(members)) {
+            return;
+        }
+        log.info("Cluster membership changed: {} -> {}", members, current);
+        members = current;
+        for (Consumer<List<ClusterMember>> listener : listeners) {
+            listener.accept(current);
+        }
+    }
+}
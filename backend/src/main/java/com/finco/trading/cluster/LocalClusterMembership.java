@@ -0,0 +1,50 @@
+package com.finco.trading.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Membership from configuration, a stand-in for running several nodes locally: the members listed
+ * in {@code app.cluster.local.members}, or those in {@code app.cluster.local.file}, one
+ * {@code id@region@url} per line, re-read every {@code poll-interval-ms} so that editing the file
+ * simulates nodes joining and leaving. Lines starting with {@code #} are ignored.
+ */
+@Slf4j
+public class LocalClusterMembership extends ClusterMembership {
+
+    private final List<ClusterMember> configured;
+    private final Path file;
+
+    public LocalClusterMembership(ClusterMember self, List<String> members, String file) {
+        super(self);
+        this.configured = members.stream().filter(member -> !member.isBlank()).map(ClusterMember::parse).toList();
+        this.file = file == null || file.isBlank() ? null : Path.of(file);
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.local.poll-interval-ms:2000}")
+    public void refresh() {
+        if (file == null) {
+            update(configured);
+            return;
+        }
+        try {
+            List<ClusterMember> listed = new ArrayList<>();
+            for (String line : Files.readAllLines(file)) {
+                if (!line.isBlank() && !line.trim().startsWith("#")) {
+                    listed.add(ClusterMember.parse(line));
+                }
+            }
+            update(listed);
+        } catch (IOException | IllegalArgumentException e) {
+            // Keep the last good view rather than dropping every peer
+            log.warn("Failed to read cluster members from {}: {}", file, e.getMessage());
+        }
+    }
+}
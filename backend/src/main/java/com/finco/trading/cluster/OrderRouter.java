@@ -0,0 +1,287 @@
+package com.finco.trading.cluster;
+
+import com.finco.trading.dto.BulkOrderResult;
+import com.finco.trading.dto.OrderRequest;
+import com.finco.trading.dto.OrderResponse;
+import com.finco.trading.service.OrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Entry point of the order write API in multi-region mode: requests for symbols this node owns go
+ * to {@link OrderService}, the others are forwarded over HTTP to the owning node with the caller's
+ * Authorization header and {@value #FORWARDED_BY} set. A forwarded request is never forwarded again;
+ * if the receiving node does not own the symbol either (the two saw different memberships) it is
+ * refused and the client retries. Without multi-region mode everything is local.
+ *
+ * <p>A basket spanning several owners is split by owner; each part is created in its own
+ * transaction on its owner, and a part whose owner cannot be reached is reported as REJECTED, or
+ * as UNKNOWN if the owner did not answer.
+ *
+ * <p>A forwarded call that reached the owner but got no answer in time may still have taken
+ * effect there, so it fails with "outcome unknown" rather than "unreachable". Forwarded creates
+ * always carry a {@code clientOrderId}, generated if the client sent none, so resubmitting with
+ * it returns the order the owner created instead of creating another.
+ */
+@Component
+@Slf4j
+public class OrderRouter {
+
+    public static final String FORWARDED_BY = "X-Finco-Forwarded-By";
+
+    private static final String ORDERS = "/api/v1/orders";
+    private static final ParameterizedTypeReference<List<BulkOrderResult>> BULK_RESULTS = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<List<OrderResponse>> ORDER_LIST = new ParameterizedTypeReference<>() {
+    };
+
+    private final OrderService orderService;
+    private final SymbolOwnership ownership;
+    private final ShardRebalancer rebalancer;
+    private final ObjectMapper objectMapper;
+    private final RestClient restClient;
+
+    public OrderRouter(OrderService orderService, SymbolOwnership ownership, ShardRebalancer rebalancer,
+                       ObjectMapper objectMapper, RestClient.Builder restClientBuilder,
+                       @Value("${app.cluster.forward-timeout-ms:2000}") int forwardTimeoutMs) {
+        this.orderService = orderService;
+        this.ownership = ownership;
+        this.rebalancer = rebalancer;
+        this.objectMapper = objectMapper;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(forwardTimeoutMs);
+        requestFactory.setReadTimeout(forwardTimeoutMs);
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+    }
+
+    public OrderResponse createOrder(OrderRequest request, String forwardedBy) {
+        ClusterMember owner = remoteOwner(request.getSymbol(), forwardedBy);
+        if (owner == null) {
+            return orderService.createOrder(request);
+        }
+        String retry = "resubmit it with clientOrderId " + clientOrderId(request);
+        return forward(owner, retry, () -> restClient.post().uri(owner.url() + ORDERS).headers(this::forwardHeaders)
+                .body(request).retrieve().body(OrderResponse.class));
+    }
+
+    public List<BulkOrderResult> createOrders(List<OrderRequest> requests, String forwardedBy) {
+        if (!ownership.isEnabled()) {
+            return orderService.createOrders(requests);
+        }
+        BulkOrderResult[] results = new BulkOrderResult[requests.size()];
+        Map<ClusterMember, List<Integer>> byOwner = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ClusterMember owner;
+            try {
+                owner = remoteOwner(requests.get(i).getSymbol(), forwardedBy);
+            } catch (RuntimeException e) {
+                results[i] = BulkOrderResult.builder().index(i).status("REJECTED").error(e.getMessage()).build();
+                continue;
+            }
+            byOwner.computeIfAbsent(owner != null ? owner : ownership.self(), key -> new ArrayList<>()).add(i);
+        }
+        byOwner.forEach((owner, indexes) -> {
+            List<OrderRequest> part = indexes.stream().map(requests::get).toList();
+            List<BulkOrderResult> partResults;
+            if (owner.equals(ownership.self())) {
+                partResults = orderService.createOrders(part);
+            } else {
+                part.forEach(OrderRouter::clientOrderId);
+                try {
+                    partResults = forward(owner, "resubmit them with their clientOrderIds", () -> restClient.post()
+                            .uri(owner.url() + ORDERS + "/bulk").headers(this::forwardHeaders).body(part).retrieve()
+                            .body(BULK_RESULTS));
+                } catch (OutcomeUnknownException e) {
+                    partResults = part.stream().map(request -> BulkOrderResult.builder().status("UNKNOWN")
+                            .error(e.getMessage() + " (clientOrderId " + request.getClientOrderId() + ")").build())
+                            .toList();
+                } catch (RuntimeException e) {
+                    partResults = part.stream().map(request -> BulkOrderResult.builder().status("REJECTED")
+                            .error(e.getMessage()).build()).toList();
+                }
+            }
+            for (int i = 0; i < indexes.size(); i++) {
+                BulkOrderResult result = partResults.get(i);
+                result.setIndex(indexes.get(i));
+                results[indexes.get(i)] = result;
+            }
+        });
+        return List.of(results);
+    }
+
+    public OrderResponse updateOrder(String orderId, OrderRequest request, String forwardedBy) {
+        ClusterMember owner = remoteOwnerOfOrder(orderId, forwardedBy);
+        if (owner == null) {
+            return orderService.updateOrder(orderId, request);
+        }
+        return forward(owner, "check the order", () -> restClient.put()
+                .uri(owner.url() + ORDERS + "/{orderId}", orderId).headers(this::forwardHeaders).body(request)
+                .retrieve().body(OrderResponse.class));
+    }
+
+    public void cancelOrder(String orderId, String forwardedBy) {
+        ClusterMember owner = remoteOwnerOfOrder(orderId, forwardedBy);
+        if (owner == null) {
+            orderService.cancelOrder(orderId);
+            return;
+        }
+        forward(owner, "check the order", () -> restClient.delete().uri(owner.url() + ORDERS + "/{orderId}", orderId)
+                .headers(this::forwardHeaders).retrieve().toBodilessEntity());
+    }
+
+    /**
+     * Working orders of an account and/or symbol. Every node holds only the symbols it owns, so a
+     * query for one symbol goes to its owner and any other query is asked of every member.
+     */
+    public List<OrderResponse> getOpenOrders(Long accountId, String symbol, String forwardedBy) {
+        if (!ownership.isEnabled() || forwardedBy != null) {
+            return orderService.getOpenOrders(accountId, symbol);
+        }
+        List<ClusterMember> members = symbol != null ? List.of(ownership.ownerOf(symbol)) : ownership.members();
+        List<OrderResponse> orders = new ArrayList<>();
+        for (ClusterMember member : members) {
+            if (member.equals(ownership.self())) {
+                orders.addAll(orderService.getOpenOrders(accountId, symbol));
+            } else {
+                orders.addAll(forward(member, "retry", () -> restClient.get()
+                        .uri(member.url() + ORDERS + "/open", builder -> builder
+                                .queryParamIfPresent("accountId", Optional.ofNullable(accountId))
+                                .queryParamIfPresent("symbol", Optional.ofNullable(symbol))
+                                .build())
+                        .headers(this::forwardHeaders).retrieve().body(ORDER_LIST)));
+            }
+        }
+        orders.sort(Comparator.comparing(OrderResponse::getId));
+        return orders;
+    }
+
+    /**
+     * The member to forward to, or null to handle the symbol here.
+     */
+    private ClusterMember remoteOwner(String symbol, String forwardedBy) {
+        if (!ownership.isEnabled() || symbol == null) {
+            return null;
+        }
+        ClusterMember owner = ownership.ownerOf(symbol);
+        if (owner.equals(ownership.self())) {
+            if (rebalancer.isPending(symbol)) {
+                throw new RuntimeException("Symbol " + symbol + " is being moved to this node, retry shortly");
+            }
+            return null;
+        }
+        if (forwardedBy != null) {
+            throw new RuntimeException("Order for " + symbol + " forwarded by " + forwardedBy
+                    + " but owned by " + owner.id() + ", retry shortly");
+        }
+        return owner;
+    }
+
+    private ClusterMember remoteOwnerOfOrder(String orderId, String forwardedBy) {
+        if (!ownership.isEnabled()) {
+            return null;
+        }
+        return remoteOwner(orderService.getOrder(orderId).getSymbol(), forwardedBy);
+    }
+
+    private void forwardHeaders(HttpHeaders headers) {
+        headers.set(FORWARDED_BY, ownership.self().id());
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+            if (authorization != null) {
+                headers.set(HttpHeaders.AUTHORIZATION, authorization);
+            }
+        }
+    }
+
+    /**
+     * The request's client order id, generated and set if it has none.
+     */
+    private static String clientOrderId(OrderRequest request) {
+        if (request.getClientOrderId() == null) {
+            request.setClientOrderId(UUID.randomUUID().toString());
+        }
+        return request.getClientOrderId();
+    }
+
+    /**
+     * Runs a forwarded call, turning the owner's error response into an exception with its message.
+     * A failure to connect means the owner never saw the request; any other I/O failure, such as the
+     * read timeout, leaves the outcome unknown and tells the caller to {@code recovery}.
+     */
+    private <T> T forward(ClusterMember owner, String recovery, Supplier<T> call) {
+        try {
+            return call.get();
+        } catch (RestClientResponseException e) {
+            throw new RuntimeException(errorMessage(e, owner));
+        } catch (RestClientException e) {
+            log.warn("Failed to forward to {}: {}", owner, e.getMessage());
+            if (notConnected(e)) {
+                throw new RuntimeException("Owning node " + owner.id() + " is unreachable: " + e.getMessage(), e);
+            }
+            throw new OutcomeUnknownException("Owning node " + owner.id() + " did not answer (" + e.getMessage()
+                    + "), the outcome is unknown; " + recovery, e);
+        }
+    }
+
+    private static boolean notConnected(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof UnknownHostException
+                    || cause instanceof NoRouteToHostException) {
+                return true;
+            }
+            // HttpURLConnection says which of its two timeouts expired only in the message
+            if (cause instanceof SocketTimeoutException && "Connect timed out".equalsIgnoreCase(cause.getMessage())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A forwarded call whose effect on the owner is not known.
+     */
+    static class OutcomeUnknownException extends RuntimeException {
+        OutcomeUnknownException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private String errorMessage(RestClientResponseException e, ClusterMember owner) {
+        try {
+            JsonNode message = objectMapper.readTree(e.getResponseBodyAsString()).get("message");
+            if (message != null && !message.asText().isBlank()) {
+                return message.asText();
+            }
+        } catch (JsonProcessingException ignored) {
+            // Not a Spring error body
+        }
+        return "Owning node " + owner.id() + " answered " + e.getStatusCode();
+    }
+}
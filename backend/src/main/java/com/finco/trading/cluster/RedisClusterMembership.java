@@ -0,0 +1,63 @@
+package com.finco.trading.cluster;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Membership through heartbeats in a Redis hash: every node writes
+ * {@code <id> -> <region>|<url>|<expiresAtMillis>} each {@code heartbeat-interval-ms} and treats
+ * entries past their expiry as gone, removing them. A node that shuts down removes its own entry
+ * right away. The TTL must exceed the heartbeat interval plus the clock skew between nodes.
+ */
+@Slf4j
+public class RedisClusterMembership extends ClusterMembership {
+
+    private final StringRedisTemplate redisTemplate;
+    private final String key;
+    private final long ttlMillis;
+
+    public RedisClusterMembership(ClusterMember self, StringRedisTemplate redisTemplate, String key, long ttlMillis) {
+        super(self);
+        this.redisTemplate = redisTemplate;
+        this.key = key;
+        this.ttlMillis = ttlMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.redis.heartbeat-interval-ms:1000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        ClusterMember self = self();
+        try {
+            redisTemplate.opsForHash().put(key, self.id(), self.region() + "|" + self.url() + "|" + (now + ttlMillis));
+            List<ClusterMember> alive = new ArrayList<>();
+            for (Map.Entry<Object, Object> entry : redisTemplate.opsForHash().entries(key).entrySet()) {
+                String id = (String) entry.getKey();
+                String[] fields = ((String) entry.getValue()).split("\\|", 3);
+                if (fields.length == 3 && Long.parseLong(fields[2]) > now) {
+                    alive.add(new ClusterMember(id, fields[0], fields[1]));
+                } else {
+                    redisTemplate.opsForHash().delete(key, id);
+                }
+            }
+            update(alive);
+        } catch (RuntimeException e) {
+            // Without Redis the last view stands; peers that stop hearing from us will drop us
+            log.warn("Cluster heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void leave() {
+        try {
+            redisTemplate.opsForHash().delete(key, self().id());
+        } catch (RuntimeException e) {
+            log.warn("Failed to leave the cluster: {}", e.getMessage());
+        }
+    }
+}
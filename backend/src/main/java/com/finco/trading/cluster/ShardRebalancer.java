@@ -0,0 +1,109 @@
+package com.finco.trading.cluster;
+
+import com.finco.trading.model.Order;
+import com.finco.trading.service.ActiveOrderIndex;
+import com.finco.trading.service.ExecutionService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Moves books between nodes when {@link SymbolOwnership} changes, with the shared database as
+ * the handoff: symbols this node lost are released right away, symbols it gained are loaded after
+ * {@code app.cluster.handoff-delay-ms}, which gives the previous owner time to notice the change
+ * and flush. Until then the gained symbols are {@linkplain #isPending pending} and orders for them
+ * are refused rather than booked against an incomplete book.
+ */
+@Component
+@Slf4j
+public class ShardRebalancer {
+
+    private final SymbolOwnership ownership;
+    private final ExecutionService executionService;
+    private final ActiveOrderIndex activeOrders;
+    private final long handoffDelayMs;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "shard-rebalancer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ShardRebalancer(SymbolOwnership ownership, ExecutionService executionService,
+                           ActiveOrderIndex activeOrders,
+                           @Value("${app.cluster.handoff-delay-ms:2000}") long handoffDelayMs) {
+        this.ownership = ownership;
+        this.executionService = executionService;
+        this.activeOrders = activeOrders;
+        this.handoffDelayMs = handoffDelayMs;
+    }
+
+    @PostConstruct
+    void register() {
+        if (ownership.isEnabled()) {
+            ownership.addChangeListener(wasLocal -> executor.execute(() -> rebalance(wasLocal)));
+        }
+    }
+
+    /**
+     * Whether the symbol was just taken over and its book is not loaded yet.
+     */
+    public boolean isPending(String symbol) {
+        return pending.contains(symbol);
+    }
+
+    private void rebalance(Predicate<String> wasLocal) {
+        try {
+            Set<String> lost = activeOrders.all().stream().map(Order::getSymbol)
+                    .filter(symbol -> !ownership.isLocal(symbol))
+                    .collect(Collectors.toSet());
+            if (!lost.isEmpty()) {
+                pending.removeAll(lost);
+                executionService.releaseSymbols(lost);
+            }
+            List<String> gained = executionService.workingSymbols().stream()
+                    .filter(symbol -> ownership.isLocal(symbol) && !wasLocal.test(symbol))
+                    .toList();
+            if (!gained.isEmpty()) {
+                pending.addAll(gained);
+                executor.schedule(() -> takeOver(gained), handoffDelayMs, TimeUnit.MILLISECONDS);
+            }
+            log.info("Rebalanced symbols: released {}, taking over {}", lost, gained);
+        } catch (RuntimeException e) {
+            log.error("Failed to rebalance symbols", e);
+        }
+    }
+
+    private void takeOver(List<String> gained) {
+        // Ownership may have moved on again while waiting
+        List<String> symbols = gained.stream().filter(symbol -> pending.contains(symbol) && ownership.isLocal(symbol))
+                .toList();
+        try {
+            if (!symbols.isEmpty()) {
+                executionService.loadSymbols(symbols);
+            }
+            pending.removeAll(gained);
+        } catch (RuntimeException e) {
+            // The symbols stay pending, and refuse orders, until they are loaded
+            log.error("Failed to take over symbols {}, retrying", symbols, e);
+            executor.schedule(() -> takeOver(gained), handoffDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,184 @@
+package com.finco.trading.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+/**
+ * Which node owns each symbol when {@code app.multi-region-enabled} is set: symbols are placed on
+ * a consistent hash ring over the {@link ClusterMembership} members, {@code virtual-nodes} points
+ * per member, so a member joining or leaving only moves the symbol ranges next to its points.
+ * Symbols pinned to a region in {@code app.cluster.symbol-regions} hash onto a ring of that
+ * region's members only, as long as it has any. Only the owner books orders for a symbol; the
+ * ring is rebuilt on every membership change and {@link ChangeListener}s are told which symbols
+ * used to be local. Without multi-region mode every symbol is local.
+ */
+@Component
+@Slf4j
+public class SymbolOwnership {
+
+    private final ClusterMembership membership;
+    private final int virtualNodes;
+    private final Map<String, String> symbolRegions;
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Rings rings;
+
+    @Autowired
+    public SymbolOwnership(ObjectProvider<ClusterMembership> membership,
+                           @Value("${app.multi-region-enabled:false}") boolean enabled,
+                           @Value("${app.cluster.virtual-nodes:128}") int virtualNodes,
+                           @Value("${app.cluster.symbol-regions:}") List<String> symbolRegions) {
+        this(enabled ? membership.getIfAvailable() : null, virtualNodes, symbolRegions);
+    }
+
+    SymbolOwnership(ClusterMembership membership, int virtualNodes, List<String> symbolRegions) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Cluster ring needs at least one virtual node per member");
+        }
+        this.membership = membership;
+        this.virtualNodes = virtualNodes;
+        this.symbolRegions = new HashMap<>();
+        for (String entry : symbolRegions) {
+            // SYMBOL:region
+            String[] parts = entry.trim().split(":", -1);
+            if (parts.length != 2 || parts[0].isBlank() || parts[1].isBlank()) {
+                throw new IllegalArgumentException("Invalid cluster symbol region: " + entry);
+            }
+            this.symbolRegions.put(parts[0].trim(), parts[1].trim());
+        }
+        if (membership != null) {
+            this.rings = build(membership.members());
+            membership.addListener(this::rebuild);
+            log.info("Symbol ownership across {} as {}", membership.members(), membership.self());
+        }
+    }
+
+    public boolean isEnabled() {
+        return membership != null;
+    }
+
+    public ClusterMember self() {
+        return membership != null ? membership.self() : null;
+    }
+
+    public List<ClusterMember> members() {
+        return membership != null ? membership.members() : List.of();
+    }
+
+    /**
+     * The node owning the symbol; null when multi-region mode is off.
+     */
+    public ClusterMember ownerOf(String symbol) {
+        Rings current = rings;
+        return current != null ? current.ownerOf(symbol) : null;
+    }
+
+    public boolean isLocal(String symbol) {
+        Rings current = rings;
+        return current == null || current.ownerOf(symbol).id().equals(membership.self().id());
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    private void rebuild(List<ClusterMember> members) {
+        Rings previous = rings;
+        rings = build(members);
+        String self = membership.self().id();
+        for (ChangeListener listener : listeners) {
+            listener.ownershipChanged(symbol -> previous.ownerOf(symbol).id().equals(self));
+        }
+    }
+
+    private Rings build(List<ClusterMember> members) {
+        Map<String, List<ClusterMember>> byRegion = new HashMap<>();
+        for (ClusterMember member : members) {
+            byRegion.computeIfAbsent(member.region(), region -> new ArrayList<>()).add(member);
+        }
+        Map<String, Ring> regional = new HashMap<>();
+        byRegion.forEach((region, regionMembers) -> regional.put(region, new Ring(regionMembers, virtualNodes)));
+        return new Rings(new Ring(members, virtualNodes), regional, symbolRegions);
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer so that similar
+     * strings (AAPL, AAPM) land far apart on the ring.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private record Rings(Ring all, Map<String, Ring> byRegion, Map<String, String> symbolRegions) {
+        ClusterMember ownerOf(String symbol) {
+            String region = symbolRegions.get(symbol);
+            Ring ring = region != null ? byRegion.getOrDefault(region, all) : all;
+            return ring.ownerOf(symbol);
+        }
+    }
+
+    /**
+     * Sorted points and the member at each; a symbol belongs to the first point at or after its
+     * hash, wrapping around.
+     */
+    private static final class Ring {
+
+        private final long[] points;
+        private final ClusterMember[] owners;
+
+        Ring(List<ClusterMember> members, int virtualNodes) {
+            long[][] entries = new long[members.size() * virtualNodes][];
+            int n = 0;
+            for (int m = 0; m < members.size(); m++) {
+                for (int v = 0; v < virtualNodes; v++) {
+                    entries[n++] = new long[] {hash(members.get(m).id() + "#" + v), m};
+                }
+            }
+            // Ties between members are broken by member order, which is id order
+            Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+            points = new long[n];
+            owners = new ClusterMember[n];
+            for (int i = 0; i < n; i++) {
+                points[i] = entries[i][0];
+                owners[i] = members.get((int) entries[i][1]);
+            }
+        }
+
+        ClusterMember ownerOf(String symbol) {
+            int index = Arrays.binarySearch(points, hash(symbol));
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return owners[index == points.length ? 0 : index];
+        }
+    }
+
+    @FunctionalInterface
+    public interface ChangeListener {
+        /**
+         * Called after the ring changed; {@code wasLocal} tells which symbols this node owned before.
+         */
+        void ownershipChanged(Predicate<String> wasLocal);
+    }
+}
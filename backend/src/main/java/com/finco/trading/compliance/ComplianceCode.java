@@ -0,0 +1,40 @@
+package com.finco.trading.compliance;
+
+/**
+ * Outcome of the pre-trade checks for one order. Everything but {@link #PASSED} is a rejection.
+ * Each code has a fixed number, which the binary order entry protocol sends as the reject
+ * reason: new codes take the next unused number and existing ones are never renumbered.
+ */
+public enum ComplianceCode {
+
+    PASSED(0, "Passed"),
+    INVALID_SYMBOL(1, "Invalid symbol"),
+    INVALID_QUANTITY(2, "Invalid quantity"),
+    OUTSIDE_TRADING_HOURS(3, "Outside trading hours"),
+    RESTRICTED_SYMBOL(4, "Symbol is restricted"),
+    MAX_QUANTITY_EXCEEDED(5, "Order quantity exceeds the limit"),
+    MAX_NOTIONAL_EXCEEDED(6, "Order notional exceeds the limit"),
+    POSITION_LIMIT_EXCEEDED(7, "Order would exceed the position limit"),
+    INSUFFICIENT_BUYING_POWER(8, "Insufficient buying power"),
+    NO_REFERENCE_PRICE(9, "No reference price to value the market order");
+
+    private final int number;
+    private final String message;
+
+    ComplianceCode(int number, String message) {
+        this.number = number;
+        this.message = message;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isPassed() {
+        return this == PASSED;
+    }
+}
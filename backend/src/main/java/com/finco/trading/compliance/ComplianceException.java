@@ -0,0 +1,19 @@
+package com.finco.trading.compliance;
+
+/**
+ * A single order rejected by a pre-trade check, carrying the {@link ComplianceCode} so callers
+ * can report the reason without parsing the message, which is the code's.
+ */
+public class ComplianceException extends RuntimeException {
+
+    private final ComplianceCode code;
+
+    public ComplianceException(ComplianceCode code) {
+        super(code.getMessage());
+        this.code = code;
+    }
+
+    public ComplianceCode getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,218 @@
+package com.finco.trading.compliance;
+
+import com.finco.trading.util.FixedPoint;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, compiled form of the pre-trade rules. Every symbol named by a rule gets a dense id;
+ * restrictions are a bit set and limits are {@code long[]} columns indexed by that id, in lots
+ * and price ticks. Symbols without their own rules use the defaults at no lookup cost beyond the
+ * id miss. Evaluation does not allocate.
+ *
+ * <p>A limit of 0 means unlimited. Instances are built once and swapped whole, see
+ * {@code ComplianceService#install}.
+ */
+public final class ComplianceRuleSet {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final Map<String, Integer> symbolIds;
+    private final BitSet restricted;
+    private final long[] maxOrderLots;
+    private final long[] maxPositionLots;
+    private final long defaultMaxOrderLots;
+    private final long defaultMaxPositionLots;
+    private final long maxOrderNotionalTicks;
+
+    private final boolean tradingHoursEnabled;
+    private final ZoneId zone;
+    private final int openMinute;
+    private final int closeMinute;
+    private final int tradingDays; // bit (DayOfWeek.getValue() - 1)
+
+    private ComplianceRuleSet(Builder builder) {
+        Map<String, Integer> ids = new HashMap<>();
+        builder.restricted.forEach(symbol -> ids.putIfAbsent(symbol, ids.size()));
+        builder.symbolLimits.keySet().forEach(symbol -> ids.putIfAbsent(symbol, ids.size()));
+        this.symbolIds = Map.copyOf(ids);
+
+        this.restricted = new BitSet(ids.size());
+        builder.restricted.forEach(symbol -> restricted.set(ids.get(symbol)));
+
+        this.defaultMaxOrderLots = lots(builder.maxOrderQuantity);
+        this.defaultMaxPositionLots = lots(builder.maxPositionQuantity);
+        this.maxOrderNotionalTicks = builder.maxOrderNotional != null ? FixedPoint.toPriceTicks(builder.maxOrderNotional) : 0;
+        this.maxOrderLots = new long[ids.size()];
+        this.maxPositionLots = new long[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            maxOrderLots[i] = defaultMaxOrderLots;
+            maxPositionLots[i] = defaultMaxPositionLots;
+        }
+        builder.symbolLimits.forEach((symbol, limits) -> {
+            int id = ids.get(symbol);
+            if (limits[0] != null) {
+                maxOrderLots[id] = lots(limits[0]);
+            }
+            if (limits[1] != null) {
+                maxPositionLots[id] = lots(limits[1]);
+            }
+        });
+
+        this.tradingHoursEnabled = builder.open != null;
+        this.zone = builder.zone;
+        this.openMinute = tradingHoursEnabled ? minuteOfDay(builder.open) : 0;
+        this.closeMinute = tradingHoursEnabled ? minuteOfDay(builder.close) : MINUTES_PER_DAY;
+        int days = 0;
+        for (DayOfWeek day : builder.days) {
+            days |= 1 << (day.getValue() - 1);
+        }
+        this.tradingDays = days;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Dense id of a symbol named by some rule, -1 for every other symbol.
+     */
+    public int symbolId(String symbol) {
+        Integer id = symbolIds.get(symbol);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Whether the trading window is open at {@code now}; always true without trading hours.
+     * Windows with close before open run past midnight.
+     */
+    public boolean isOpen(ZonedDateTime now) {
+        if (!tradingHoursEnabled) {
+            return true;
+        }
+        ZonedDateTime local = now.withZoneSameInstant(zone);
+        if ((tradingDays & 1 << (local.getDayOfWeek().getValue() - 1)) == 0) {
+            return false;
+        }
+        int minute = local.getHour() * 60 + local.getMinute();
+        return openMinute <= closeMinute
+                ? minute >= openMinute && minute < closeMinute
+                : minute >= openMinute || minute < closeMinute;
+    }
+
+    public boolean hasPositionLimit(int symbolId) {
+        return (symbolId >= 0 ? maxPositionLots[symbolId] : defaultMaxPositionLots) > 0;
+    }
+
+    /**
+     * Checks one order that already has a valid symbol and a positive quantity.
+     *
+     * @param priceTicks   limit price, or the best known mark for market orders; 0 skips the notional check
+     * @param positionLots signed position the order adds to, including earlier orders of the same batch
+     */
+    public ComplianceCode check(int symbolId, boolean buy, long quantityLots, long priceTicks, long positionLots) {
+        if (symbolId >= 0 && restricted.get(symbolId)) {
+            return ComplianceCode.RESTRICTED_SYMBOL;
+        }
+        long maxOrder = symbolId >= 0 ? maxOrderLots[symbolId] : defaultMaxOrderLots;
+        if (maxOrder > 0 && quantityLots > maxOrder) {
+            return ComplianceCode.MAX_QUANTITY_EXCEEDED;
+        }
+        if (maxOrderNotionalTicks > 0 && priceTicks > 0
+                && FixedPoint.mulDiv(priceTicks, quantityLots, FixedPoint.ONE_LOT_UNITS) > maxOrderNotionalTicks) {
+            return ComplianceCode.MAX_NOTIONAL_EXCEEDED;
+        }
+        long maxPosition = symbolId >= 0 ? maxPositionLots[symbolId] : defaultMaxPositionLots;
+        if (maxPosition > 0) {
+            long projected = Math.abs(positionLots + (buy ? quantityLots : -quantityLots));
+            // Orders that shrink a position already over the limit are let through
+            if (projected > maxPosition && projected > Math.abs(positionLots)) {
+                return ComplianceCode.POSITION_LIMIT_EXCEEDED;
+            }
+        }
+        return ComplianceCode.PASSED;
+    }
+
+    @Override
+    public String toString() {
+        return "ComplianceRuleSet{symbols=" + symbolIds.size() + ", restricted=" + restricted.cardinality()
+                + ", maxOrderLots=" + defaultMaxOrderLots + ", maxPositionLots=" + defaultMaxPositionLots
+                + ", maxOrderNotionalTicks=" + maxOrderNotionalTicks
+                + ", tradingHours=" + (tradingHoursEnabled ? openMinute + "-" + closeMinute + " " + zone : "none") + "}";
+    }
+
+    private static long lots(BigDecimal quantity) {
+        return quantity != null ? FixedPoint.toQuantityLots(quantity) : 0;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    public static final class Builder {
+
+        private final Set<String> restricted = new LinkedHashSet<>();
+        private final Map<String, BigDecimal[]> symbolLimits = new LinkedHashMap<>();
+        private BigDecimal maxOrderQuantity;
+        private BigDecimal maxOrderNotional;
+        private BigDecimal maxPositionQuantity;
+        private LocalTime open;
+        private LocalTime close;
+        private ZoneId zone = ZoneId.of("UTC");
+        private Set<DayOfWeek> days = Set.of(DayOfWeek.values());
+
+        private Builder() {
+        }
+
+        public Builder restrict(Collection<String> symbols) {
+            symbols.stream().map(String::trim).filter(symbol -> !symbol.isEmpty()).forEach(restricted::add);
+            return this;
+        }
+
+        public Builder maxOrderQuantity(BigDecimal quantity) {
+            this.maxOrderQuantity = quantity;
+            return this;
+        }
+
+        public Builder maxOrderNotional(BigDecimal notional) {
+            this.maxOrderNotional = notional;
+            return this;
+        }
+
+        public Builder maxPositionQuantity(BigDecimal quantity) {
+            this.maxPositionQuantity = quantity;
+            return this;
+        }
+
+        /**
+         * Per-symbol limits overriding the defaults; a null limit keeps the default.
+         */
+        public Builder symbolLimits(String symbol, BigDecimal maxOrderQuantity, BigDecimal maxPositionQuantity) {
+            symbolLimits.put(symbol.trim(), new BigDecimal[] {maxOrderQuantity, maxPositionQuantity});
+            return this;
+        }
+
+        public Builder tradingHours(LocalTime open, LocalTime close, ZoneId zone, Set<DayOfWeek> days) {
+            this.open = open;
+            this.close = close;
+            this.zone = zone;
+            this.days = Set.copyOf(days);
+            return this;
+        }
+
+        public ComplianceRuleSet build() {
+            return new ComplianceRuleSet(this);
+        }
+    }
+}
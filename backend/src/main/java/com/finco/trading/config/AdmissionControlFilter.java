@@ -0,0 +1,70 @@
+package com.finco.trading.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the number of API requests in flight. With virtual threads Tomcat no longer caps
+ * concurrency at its worker pool, so without a limit every request would queue on a Hikari
+ * connection and time out after {@code connection-timeout}. Requests that cannot get a permit
+ * within {@code maxWaitMs} are answered with 503 and {@code Retry-After} instead.
+ */
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final int limit;
+    private final long maxWaitMs;
+    private final Counter rejected;
+
+    public AdmissionControlFilter(int limit, long maxWaitMs, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(limit, true);
+        this.limit = limit;
+        this.maxWaitMs = maxWaitMs;
+        this.rejected = Counter.builder("http.admission.rejected")
+                .description("API requests rejected because the admission limit was reached")
+                .register(meterRegistry);
+        Gauge.builder("http.admission.active", this, filter -> filter.limit - filter.permits.availablePermits())
+                .description("API requests currently admitted")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            rejected.increment();
+            log.debug("Rejected {} {}: {} requests in flight", request.getMethod(), request.getRequestURI(), limit);
+            // Written directly: sendError would dispatch to /error, which is not open to anonymous callers
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType("text/plain");
+            response.getWriter().write("Server busy, retry later");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -1,5 +1,12 @@
 package com.finco.trading.config;
 
+import com.finco.trading.cache.CacheInvalidationPublisher;
+import com.finco.trading.cache.CompactResponseSerializer;
+import com.finco.trading.cache.TwoTierCacheManager;
+import com.finco.trading.cache.TwoTierCacheMeterBinderProvider;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -7,27 +14,97 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.Set;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    // Single order by orderId
+    public static final String ORDERS = "orders";
+    // Orders of one account by accountId
+    public static final String ORDERS_BY_ACCOUNT = "ordersByAccount";
+    // Full order list under the single key 'all'
+    public static final String ALL_ORDERS = "allOrders";
+    // Single position by accountId:symbol
+    public static final String POSITIONS = "positions";
+    // Positions of one account by accountId
+    public static final String POSITIONS_BY_ACCOUNT = "positionsByAccount";
+    // Full position list under the single key 'all'
+    public static final String ALL_POSITIONS = "allPositions";
+
+    @Value("${app.cache.near.enabled:false}")
+    private boolean nearCacheEnabled;
+
+    @Value("${app.cache.near.max-entries:10000}")
+    private long nearCacheMaxEntries;
+
+    @Value("${app.cache.near.ttl-seconds:30}")
+    private long nearCacheTtlSeconds;
+
+    // Regions whose values use the binary OrderResponse/PositionResponse encoding instead of JSON
+    @Value("${app.cache.binary-caches:}")
+    private String[] binaryCaches;
+
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory, StringRedisTemplate redisTemplate,
+                                     @Value("${app.cache.near.channel:finco:cache:invalidation}") String channel) {
+        GenericJackson2JsonRedisSerializer valueSerializer = new GenericJackson2JsonRedisSerializer();
+        valueSerializer.configure(mapper -> mapper.registerModule(new JavaTimeModule()));
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10))
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(
-                        RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()));
+                        RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
 
-        return RedisCacheManager.builder(connectionFactory)
+        // Regions are declared up front so Actuator binds cache.gets/cache.puts/cache.evictions for each;
+        // puts and evictions are deferred until the surrounding transaction commits.
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
-                .build();
+                .initialCacheNames(Set.of(ORDERS, ORDERS_BY_ACCOUNT, ALL_ORDERS,
+                        POSITIONS, POSITIONS_BY_ACCOUNT, ALL_POSITIONS))
+                .enableStatistics();
+        RedisCacheConfiguration binaryConfig = config.serializeValuesWith(
+                RedisSerializationContext.SerializationPair.fromSerializer(new CompactResponseSerializer(valueSerializer)));
+        for (String name : binaryCaches) {
+            if (!name.isBlank()) {
+                builder.withCacheConfiguration(name.trim(), binaryConfig);
+            }
+        }
+
+        if (!nearCacheEnabled) {
+            return builder.transactionAware().build();
+        }
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(builder.build(),
+                new CacheInvalidationPublisher(redisTemplate, channel),
+                nearCacheMaxEntries, Duration.ofSeconds(nearCacheTtlSeconds));
+        cacheManager.setTransactionAware(true);
+        return cacheManager;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.near.enabled", havingValue = "true")
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory connectionFactory, CacheManager cacheManager,
+            @Value("${app.cache.near.channel:finco:cache:invalidation}") String channel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((TwoTierCacheManager) cacheManager, new ChannelTopic(channel));
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.near.enabled", havingValue = "true")
+    public TwoTierCacheMeterBinderProvider twoTierCacheMeterBinderProvider() {
+        return new TwoTierCacheMeterBinderProvider();
     }
 }
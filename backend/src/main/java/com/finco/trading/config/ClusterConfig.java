@@ -0,0 +1,50 @@
+package com.finco.trading.config;
+
+import com.finco.trading.cluster.ClusterMember;
+import com.finco.trading.cluster.LocalClusterMembership;
+import com.finco.trading.cluster.RedisClusterMembership;
+import com.finco.trading.cluster.SymbolOwnership;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+
+/**
+ * Selects how nodes find each other in multi-region mode ({@code app.cluster.membership}):
+ * {@code local} from configuration or a members file, for running several nodes on one machine,
+ * or {@code redis} through heartbeats. {@link SymbolOwnership} shards symbols over the result.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.multi-region-enabled", havingValue = "true")
+public class ClusterConfig {
+
+    @Bean
+    public ClusterMember clusterSelf(@Value("${app.cluster.node-id}") String nodeId,
+                                     @Value("${app.region}") String region,
+                                     @Value("${app.cluster.url}") String url) {
+        return new ClusterMember(nodeId, region, url);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.cluster.membership", havingValue = "local", matchIfMissing = true)
+    public LocalClusterMembership localClusterMembership(
+            ClusterMember clusterSelf,
+            @Value("${app.cluster.local.members:}") List<String> members,
+            @Value("${app.cluster.local.file:}") String file) {
+        return new LocalClusterMembership(clusterSelf, members, file);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.cluster.membership", havingValue = "redis")
+    public RedisClusterMembership redisClusterMembership(
+            ClusterMember clusterSelf, StringRedisTemplate redisTemplate,
+            @Value("${app.cluster.redis.key:finco:cluster:members}") String key,
+            @Value("${app.cluster.redis.ttl-ms:5000}") long ttlMs) {
+        RedisClusterMembership membership = new RedisClusterMembership(clusterSelf, redisTemplate, key, ttlMs);
+        membership.heartbeat();
+        return membership;
+    }
+}
@@ -0,0 +1,66 @@
+package com.finco.trading.config;
+
+import com.finco.trading.persistence.ReadReplicaGuard;
+import com.finco.trading.persistence.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource hikariDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Separate pool on the read replica for read-only transactions, sized by
+     * {@code app.persistence.read-replica.hikari}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.persistence.read-replica.enabled", havingValue = "true")
+    @ConfigurationProperties("app.persistence.read-replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${app.persistence.read-replica.url}") String url,
+                                              @Value("${app.persistence.read-replica.username:${spring.datasource.username}}") String username,
+                                              @Value("${app.persistence.read-replica.password:${spring.datasource.password}}") String password) {
+        HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url).username(username).password(password)
+                .build();
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    /**
+     * Defers borrowing a pooled connection until the first statement runs, so transactions
+     * that never reach the database (write-behind mode, engine-only paths) do not hold one
+     * of the Hikari connections for their whole duration. With a read replica the connection
+     * comes from a {@link ReplicaRoutingDataSource}, which can only tell a read-only transaction
+     * apart once it has begun.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("hikariDataSource") HikariDataSource hikariDataSource,
+                                 @Qualifier("replicaDataSource") ObjectProvider<HikariDataSource> replicaDataSource,
+                                 ReadReplicaGuard readReplicaGuard) {
+        HikariDataSource replica = replicaDataSource.getIfAvailable();
+        if (replica == null || !readReplicaGuard.isEnabled()) {
+            return new LazyConnectionDataSourceProxy(hikariDataSource);
+        }
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(hikariDataSource, replica, readReplicaGuard));
+    }
+}
@@ -0,0 +1,32 @@
+package com.finco.trading.config;
+
+import com.finco.trading.cluster.OrderRouter;
+import com.finco.trading.gateway.OrderEntryGateway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * Starts the binary order entry gateway ({@code app.gateway.enabled}) next to the REST API.
+ */
+@Configuration
+public class GatewayConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.gateway.enabled", havingValue = "true")
+    public OrderEntryGateway orderEntryGateway(
+            OrderRouter orderRouter,
+            @Value("${app.gateway.host:127.0.0.1}") String host,
+            @Value("${app.gateway.port:9878}") int port,
+            @Value("${app.gateway.event-loops:0}") int eventLoops,
+            @Value("${app.gateway.max-in-flight:1024}") int maxInFlight,
+            @Value("${app.gateway.write-timeout-ms:1000}") long writeTimeoutMs) throws IOException {
+        OrderEntryGateway gateway = new OrderEntryGateway(orderRouter, eventLoops, maxInFlight, writeTimeoutMs);
+        gateway.start(new InetSocketAddress(host, port));
+        return gateway;
+    }
+}
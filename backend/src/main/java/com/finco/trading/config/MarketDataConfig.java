@@ -0,0 +1,29 @@
+package com.finco.trading.config;
+
+import com.finco.trading.marketdata.MarketDataStore;
+import com.finco.trading.marketdata.ReplayMarketDataFeed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+/**
+ * Selects the market data feed ({@code app.market-data.feed}) and starts it into the
+ * {@link MarketDataStore}. Without a feed the store still carries the prices of internal fills.
+ */
+@Configuration
+public class MarketDataConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.market-data.feed", havingValue = "replay")
+    public ReplayMarketDataFeed replayMarketDataFeed(
+            MarketDataStore marketDataStore,
+            @Value("${app.market-data.replay.file:classpath:marketdata/sample-ticks.csv}") Resource file,
+            @Value("${app.market-data.replay.ticks-per-second:1000}") int ticksPerSecond,
+            @Value("${app.market-data.replay.loop:true}") boolean loop) {
+        ReplayMarketDataFeed feed = new ReplayMarketDataFeed(file, ticksPerSecond, loop);
+        feed.start(marketDataStore);
+        return feed;
+    }
+}
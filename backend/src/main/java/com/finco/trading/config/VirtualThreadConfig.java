@@ -0,0 +1,37 @@
+package com.finco.trading.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Companion settings for {@code spring.threads.virtual.enabled}, which moves Tomcat request
+ * handling, {@code @Async} and {@code @Scheduled} work onto virtual threads. Admission control
+ * sizes the number of concurrent API requests from the Hikari pool so the pool is not
+ * oversubscribed once the worker-thread limit is gone.
+ */
+@Configuration
+@Slf4j
+public class VirtualThreadConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.admission.enabled", havingValue = "true")
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            @Qualifier("hikariDataSource") HikariDataSource hikariDataSource, MeterRegistry meterRegistry,
+            @Value("${app.admission.requests-per-connection:2}") int requestsPerConnection,
+            @Value("${app.admission.max-wait-ms:500}") long maxWaitMs) {
+        int limit = hikariDataSource.getMaximumPoolSize() * requestsPerConnection;
+        log.info("Admission control: {} concurrent API requests for {} pooled connections",
+                limit, hikariDataSource.getMaximumPoolSize());
+        FilterRegistrationBean<AdmissionControlFilter> registration =
+                new FilterRegistrationBean<>(new AdmissionControlFilter(limit, maxWaitMs, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
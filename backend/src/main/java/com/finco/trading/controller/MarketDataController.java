@@ -0,0 +1,30 @@
+package com.finco.trading.controller;
+
+import com.finco.trading.dto.MarketDataResponse;
+import com.finco.trading.service.MarketDataService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/market-data")
+@RequiredArgsConstructor
+public class MarketDataController {
+
+    private final MarketDataService marketDataService;
+
+    @GetMapping
+    public ResponseEntity<List<MarketDataResponse>> getQuotes() {
+        return ResponseEntity.ok(marketDataService.getQuotes());
+    }
+
+    @GetMapping("/{symbol}")
+    public ResponseEntity<MarketDataResponse> getQuote(@PathVariable String symbol) {
+        return ResponseEntity.ok(marketDataService.getQuote(symbol));
+    }
+}
@@ -1,12 +1,19 @@
 package com.finco.trading.controller;
 
+import com.finco.trading.cluster.OrderRouter;
+import com.finco.trading.dto.BulkOrderResult;
 import com.finco.trading.dto.OrderRequest;
 import com.finco.trading.dto.OrderResponse;
+import com.finco.trading.dto.PageResponse;
 import com.finco.trading.service.OrderService;
+import com.finco.trading.util.NdjsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -16,13 +23,24 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderRouter orderRouter;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
-    public ResponseEntity<OrderResponse> createOrder(@RequestBody OrderRequest request) {
-        OrderResponse response = orderService.createOrder(request);
+    public ResponseEntity<OrderResponse> createOrder(
+            @RequestBody OrderRequest request,
+            @RequestHeader(value = OrderRouter.FORWARDED_BY, required = false) String forwardedBy) {
+        OrderResponse response = orderRouter.createOrder(request, forwardedBy);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkOrderResult>> createOrders(
+            @RequestBody List<OrderRequest> requests,
+            @RequestHeader(value = OrderRouter.FORWARDED_BY, required = false) String forwardedBy) {
+        return ResponseEntity.ok(orderRouter.createOrders(requests, forwardedBy));
+    }
+
     @GetMapping
     public ResponseEntity<List<OrderResponse>> getAllOrders(
             @RequestParam(required = false) Long accountId) {
@@ -32,6 +50,33 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<PageResponse<OrderResponse>> getOrdersPage(
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + PageResponse.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(orderService.getOrdersPage(accountId, after, limit));
+    }
+
+    @GetMapping("/open")
+    public ResponseEntity<List<OrderResponse>> getOpenOrders(
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(required = false) String symbol,
+            @RequestHeader(value = OrderRouter.FORWARDED_BY, required = false) String forwardedBy) {
+        return ResponseEntity.ok(orderRouter.getOpenOrders(accountId, symbol, forwardedBy));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) Long accountId) {
+        StreamingResponseBody body = out -> {
+            NdjsonWriter writer = new NdjsonWriter(objectMapper, out);
+            orderService.exportOrders(accountId, writer::write);
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{orderId}")
     public ResponseEntity<OrderResponse> getOrder(@PathVariable String orderId) {
         OrderResponse response = orderService.getOrder(orderId);
@@ -41,14 +86,17 @@ public class OrderController {
     @PutMapping("/{orderId}")
     public ResponseEntity<OrderResponse> updateOrder(
             @PathVariable String orderId, 
-            @RequestBody OrderRequest request) {
-        OrderResponse response = orderService.updateOrder(orderId, request);
+            @RequestBody OrderRequest request,
+            @RequestHeader(value = OrderRouter.FORWARDED_BY, required = false) String forwardedBy) {
+        OrderResponse response = orderRouter.updateOrder(orderId, request, forwardedBy);
         return ResponseEntity.ok(response);
     }
 
     @DeleteMapping("/{orderId}")
-    public ResponseEntity<Void> cancelOrder(@PathVariable String orderId) {
-        orderService.cancelOrder(orderId);
+    public ResponseEntity<Void> cancelOrder(
+            @PathVariable String orderId,
+            @RequestHeader(value = OrderRouter.FORWARDED_BY, required = false) String forwardedBy) {
+        orderRouter.cancelOrder(orderId, forwardedBy);
         return ResponseEntity.noContent().build();
     }
 }
@@ -1,10 +1,15 @@
 package com.finco.trading.controller;
 
+import com.finco.trading.dto.PageResponse;
 import com.finco.trading.dto.PositionResponse;
 import com.finco.trading.service.PositionService;
+import com.finco.trading.util.NdjsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -14,6 +19,7 @@ import java.util.List;
 public class PositionController {
 
     private final PositionService positionService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public ResponseEntity<List<PositionResponse>> getAllPositions(
@@ -24,6 +30,25 @@ public class PositionController {
         return ResponseEntity.ok(positions);
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<PageResponse<PositionResponse>> getPositionsPage(
+            @RequestParam(required = false) Long accountId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + PageResponse.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(positionService.getPositionsPage(accountId, after, limit));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPositions(
+            @RequestParam(required = false) Long accountId) {
+        StreamingResponseBody body = out -> {
+            NdjsonWriter writer = new NdjsonWriter(objectMapper, out);
+            positionService.exportPositions(accountId, writer::write);
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{symbol}")
     public ResponseEntity<PositionResponse> getPositionBySymbol(
             @PathVariable String symbol,
@@ -0,0 +1,44 @@
+package com.finco.trading.controller;
+
+import com.finco.trading.dto.PageResponse;
+import com.finco.trading.dto.RiskResponse;
+import com.finco.trading.risk.RiskAggregator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/risk")
+@RequiredArgsConstructor
+public class RiskController {
+
+    private final RiskAggregator riskAggregator;
+
+    @GetMapping
+    public ResponseEntity<RiskResponse> getExposure(
+            @RequestParam(defaultValue = "" + PageResponse.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(riskAggregator.getExposure(limit));
+    }
+
+    @GetMapping("/accounts/{accountId}")
+    public ResponseEntity<RiskResponse> getAccountExposure(@PathVariable Long accountId) {
+        return ResponseEntity.ok(riskAggregator.getAccountExposure(accountId));
+    }
+
+    @GetMapping("/snapshot")
+    public ResponseEntity<RiskResponse> getSnapshot(
+            @RequestParam(defaultValue = "" + PageResponse.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(riskAggregator.getSnapshot(limit));
+    }
+
+    @PostMapping("/recompute")
+    public ResponseEntity<RiskResponse> recompute(
+            @RequestParam(defaultValue = "" + PageResponse.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(riskAggregator.recompute(limit));
+    }
+}
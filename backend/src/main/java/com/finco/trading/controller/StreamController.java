@@ -0,0 +1,26 @@
+package com.finco.trading.controller;
+
+import com.finco.trading.push.UpdateStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/v1/stream")
+@RequiredArgsConstructor
+public class StreamController {
+
+    private final UpdateStream updateStream;
+
+    /**
+     * Server-sent {@code orders} and {@code positions} events, for one account or all of them.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Long accountId) {
+        return updateStream.subscribe(accountId);
+    }
+}
@@ -0,0 +1,24 @@
+package com.finco.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one order in a bulk submission, at the same position as its request.
+ * {@code order} is set for ACCEPTED results, {@code error} for REJECTED ones, along with
+ * {@code errorCode} when compliance rejected the order, and for UNKNOWN ones, whose owning node
+ * did not answer in time.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderResult {
+    private int index;
+    private String status; // ACCEPTED, REJECTED, UNKNOWN
+    private OrderResponse order;
+    private String errorCode; // ComplianceCode name
+    private String error;
+}
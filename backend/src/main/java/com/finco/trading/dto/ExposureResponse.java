@@ -0,0 +1,29 @@
+package com.finco.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Exposure of one symbol, account type or account. Notionals are market values, gross is long
+ * plus short and net long minus short; {@code share} is the fraction of the enclosing gross.
+ * {@code netQuantity} is set for symbols, {@code accountType} for accounts.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExposureResponse {
+    private String name;
+    private String accountType;
+    private int positions;
+    private BigDecimal netQuantity;
+    private BigDecimal longNotional;
+    private BigDecimal shortNotional;
+    private BigDecimal netNotional;
+    private BigDecimal grossNotional;
+    private BigDecimal share;
+}
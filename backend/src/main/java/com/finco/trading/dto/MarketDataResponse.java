@@ -0,0 +1,24 @@
+package com.finco.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarketDataResponse {
+    private String symbol;
+    private BigDecimal bidPrice;
+    private BigDecimal bidSize;
+    private BigDecimal askPrice;
+    private BigDecimal askSize;
+    private BigDecimal lastPrice;
+    private BigDecimal lastSize;
+    private Instant timestamp;
+}
@@ -0,0 +1,35 @@
+package com.finco.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        CANCELLED,
+        FILLED;
+
+        /**
+         * Type of an event that left the order in {@code status}: fills and cancellations
+         * reported as such, anything else as {@code fallback}.
+         */
+        public static Type of(String status, Type fallback) {
+            return switch (status) {
+                case "CANCELLED" -> CANCELLED;
+                case "FILLED", "PARTIALLY_FILLED" -> FILLED;
+                default -> fallback;
+            };
+        }
+    }
+
+    private Type type;
+    private OrderResponse order;
+}
@@ -19,4 +19,5 @@ public class OrderRequest {
     private BigDecimal quantity;
     private BigDecimal price; // Optional for MARKET orders
     private String timeInForce; // DAY, GTC, IOC, FOK
+    private String clientOrderId; // Optional idempotency key, unique per account; a repeat returns the original order
 }
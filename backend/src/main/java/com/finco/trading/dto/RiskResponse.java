@@ -0,0 +1,35 @@
+package com.finco.trading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Exposure of the firm, or of one account, broken down by symbol, largest first. Concentration
+ * is given as the share of the largest symbol and the Herfindahl index of the symbol shares,
+ * 1 for a single symbol. {@code accountTypes} is set for the firm, {@code accounts} (the largest
+ * by gross notional) and {@code computeMillis} for a full recompute.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RiskResponse {
+    private LocalDateTime asOf;
+    private Long computeMillis;
+    private int positions;
+    private BigDecimal longNotional;
+    private BigDecimal shortNotional;
+    private BigDecimal netNotional;
+    private BigDecimal grossNotional;
+    private BigDecimal largestSymbolShare;
+    private BigDecimal herfindahlIndex;
+    private List<ExposureResponse> symbols;
+    private List<ExposureResponse> accountTypes;
+    private List<ExposureResponse> accounts;
+}
@@ -0,0 +1,262 @@
+package com.finco.trading.fix;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes one FIX message at a time into a reusable direct buffer. {@link #begin} writes the
+ * standard header after a gap left for BeginString and BodyLength, the put methods append fields
+ * as ASCII straight into the buffer, and {@link #finish} fills the gap in front of the body and
+ * appends the checksum, which is summed while writing. Nothing is copied or allocated per message.
+ * Not thread-safe; a session owns one encoder and guards it with its send lock.
+ */
+public final class FixEncoder {
+
+    static final byte SOH = 1;
+
+    private static final byte[] PREFIX = "8=FIX.4.4\u00019=".getBytes(StandardCharsets.US_ASCII);
+    // Prefix, up to 10 BodyLength digits and their delimiter
+    private static final int PREFIX_RESERVE = 24;
+    private static final long[] POW10 = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    private final ByteBuffer buffer;
+    private final byte[] digits = new byte[20];
+    private int position;
+    private int bodyStart;
+    private int checksum;
+
+    public FixEncoder(int capacity) {
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * Starts a message: MsgType, SenderCompID, TargetCompID, MsgSeqNum and SendingTime.
+     */
+    public FixEncoder begin(byte msgType, byte[] senderCompId, byte[] targetCompId, long seqNum, long sendingTimeMillis) {
+        buffer.clear();
+        position = PREFIX_RESERVE;
+        bodyStart = position;
+        checksum = 0;
+        putChar(FixTags.MSG_TYPE, msgType);
+        putBytes(FixTags.SENDER_COMP_ID, senderCompId);
+        putBytes(FixTags.TARGET_COMP_ID, targetCompId);
+        putLong(FixTags.MSG_SEQ_NUM, seqNum);
+        putTimestamp(FixTags.SENDING_TIME, sendingTimeMillis);
+        return this;
+    }
+
+    /**
+     * Completes the message and returns the buffer positioned over it, ready for a channel write.
+     */
+    public ByteBuffer finish() {
+        int bodyLength = position - bodyStart;
+        int count = toDigits(bodyLength);
+        int start = bodyStart - PREFIX.length - count - 1;
+        int at = start;
+        for (byte b : PREFIX) {
+            buffer.put(at++, b);
+            checksum += b;
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            buffer.put(at++, digits[i]);
+            checksum += digits[i];
+        }
+        buffer.put(at, SOH);
+        checksum += SOH;
+
+        int sum = checksum & 0xFF;
+        buffer.put(position++, (byte) '1');
+        buffer.put(position++, (byte) '0');
+        buffer.put(position++, (byte) '=');
+        buffer.put(position++, (byte) ('0' + sum / 100));
+        buffer.put(position++, (byte) ('0' + sum / 10 % 10));
+        buffer.put(position++, (byte) ('0' + sum % 10));
+        buffer.put(position++, SOH);
+        return buffer.limit(position).position(start);
+    }
+
+    public FixEncoder putChar(int tag, byte value) {
+        putTag(tag);
+        put(value);
+        put(SOH);
+        return this;
+    }
+
+    public FixEncoder putLong(int tag, long value) {
+        putTag(tag);
+        appendNumber(value);
+        put(SOH);
+        return this;
+    }
+
+    public FixEncoder putAscii(int tag, CharSequence value) {
+        putTag(tag);
+        appendAscii(value);
+        put(SOH);
+        return this;
+    }
+
+    public FixEncoder putBytes(int tag, byte[] value) {
+        putTag(tag);
+        for (byte b : value) {
+            put(b);
+        }
+        put(SOH);
+        return this;
+    }
+
+    /**
+     * Writes {@code unscaled / 10^scale} as a plain decimal without trailing zeros,
+     * e.g. price ticks with scale 4 or lots with scale 8.
+     */
+    public FixEncoder putDecimal(int tag, long unscaled, int scale) {
+        putTag(tag);
+        if (unscaled < 0) {
+            put((byte) '-');
+            unscaled = -unscaled;
+        }
+        appendNumber(unscaled / POW10[scale]);
+        long fraction = unscaled % POW10[scale];
+        if (fraction != 0) {
+            int digitsLeft = scale;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digitsLeft--;
+            }
+            put((byte) '.');
+            for (int i = digitsLeft - 1; i >= 0; i--) {
+                put((byte) ('0' + fraction / POW10[i] % 10));
+            }
+        }
+        put(SOH);
+        return this;
+    }
+
+    /**
+     * Writes a UTCTimestamp with milliseconds, {@code yyyyMMdd-HH:mm:ss.SSS}.
+     */
+    public FixEncoder putTimestamp(int tag, long epochMillis) {
+        putTag(tag);
+        long days = Math.floorDiv(epochMillis, 86_400_000L);
+        int millisOfDay = (int) Math.floorMod(epochMillis, 86_400_000L);
+        // Civil date from days since the epoch (Howard Hinnant's algorithm)
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+        int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+        appendFixed(year, 4);
+        appendFixed(month, 2);
+        appendFixed(day, 2);
+        put((byte) '-');
+        appendFixed(millisOfDay / 3_600_000, 2);
+        put((byte) ':');
+        appendFixed(millisOfDay / 60_000 % 60, 2);
+        put((byte) ':');
+        appendFixed(millisOfDay / 1_000 % 60, 2);
+        put((byte) '.');
+        appendFixed(millisOfDay % 1_000, 3);
+        put(SOH);
+        return this;
+    }
+
+    /**
+     * Copies a field of a received message verbatim under {@code tag}; does nothing if it is absent.
+     */
+    public FixEncoder copy(int tag, FixMessage message, int sourceTag) {
+        int index = message.index(sourceTag);
+        if (index >= 0) {
+            putTag(tag);
+            ByteBuffer source = message.buffer();
+            int offset = message.valueOffset(index);
+            int end = offset + message.valueLength(index);
+            for (int i = offset; i < end; i++) {
+                put(source.get(i));
+            }
+            put(SOH);
+        }
+        return this;
+    }
+
+    /**
+     * Starts a field whose value is assembled with the append methods and closed with {@link #endField()}.
+     */
+    public FixEncoder putTag(int tag) {
+        appendNumber(tag);
+        put((byte) '=');
+        return this;
+    }
+
+    public FixEncoder appendAscii(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            put((byte) value.charAt(i));
+        }
+        return this;
+    }
+
+    public FixEncoder appendNumber(long value) {
+        if (value < 0) {
+            put((byte) '-');
+            value = -value;
+        }
+        for (int i = toDigits(value) - 1; i >= 0; i--) {
+            put(digits[i]);
+        }
+        return this;
+    }
+
+    public FixEncoder endField() {
+        put(SOH);
+        return this;
+    }
+
+    int position() {
+        return position;
+    }
+
+    int checksum() {
+        return checksum;
+    }
+
+    /**
+     * Appends raw field bytes whose byte sum is already known, e.g. a stored message body.
+     */
+    void appendRaw(ByteBuffer source, int offset, int length, int sum) {
+        buffer.put(position, source, offset, length);
+        position += length;
+        checksum += sum;
+    }
+
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    private void put(byte b) {
+        buffer.put(position++, b);
+        checksum += b;
+    }
+
+    private void appendFixed(int value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            put((byte) ('0' + value / (int) POW10[i] % 10));
+        }
+    }
+
+    /**
+     * Fills {@link #digits} least significant first and returns the digit count.
+     */
+    private int toDigits(long value) {
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        return count;
+    }
+}
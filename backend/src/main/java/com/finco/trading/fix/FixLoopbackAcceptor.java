@@ -0,0 +1,203 @@
+package com.finco.trading.fix;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-process FIX acceptor standing in for a venue, for tests and for measuring order latency and
+ * ExecutionReport throughput without one. Every NewOrderSingle is acknowledged with an
+ * ExecutionReport (New); with auto-fill it is then filled in full at its limit price, otherwise it
+ * rests until an OrderCancelRequest cancels it. Serves one counterparty at a time and keeps its
+ * sequence numbers across reconnects, like a venue would.
+ */
+@Slf4j
+public final class FixLoopbackAcceptor implements FixSession.Application, Closeable {
+
+    private static final long MARKET_FILL_PRICE_TICKS = 100_0000;
+
+    private final FixSessionSettings settings;
+    private final boolean autoFill;
+    private final FixSequenceStore sequences = FixSequenceStore.inMemory();
+    private final FixMessageStore sentMessages = new FixMessageStore(4096, 512);
+    private final Report report = new Report();
+    private final Map<String, RestingOrder> resting = new HashMap<>();
+
+    private ServerSocketChannel server;
+    private Thread acceptor;
+    private volatile FixSession session;
+    private long nextOrderId;
+    private long nextExecId;
+
+    /**
+     * @param settings the acceptor's side of the session, i.e. the initiator's settings reversed
+     */
+    public FixLoopbackAcceptor(FixSessionSettings settings, boolean autoFill) {
+        this.settings = settings;
+        this.autoFill = autoFill;
+    }
+
+    /**
+     * Binds and starts accepting; returns the bound port, which matters when asking for port 0.
+     */
+    public int start(InetSocketAddress address) throws IOException {
+        server = ServerSocketChannel.open().bind(address);
+        acceptor = new Thread(this::acceptLoop, "fix-loopback-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+        log.info("FIX loopback acceptor listening on port {} as {}", port, settings.senderCompId());
+        return port;
+    }
+
+    public void onTimer(long now) {
+        FixSession current = session;
+        if (current != null) {
+            current.onTimer(now);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        FixSession current = session;
+        if (current != null) {
+            current.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel channel = server.accept();
+                FixSession current = session;
+                if (current != null && current.getState() != FixSession.State.CLOSED) {
+                    log.warn("FIX loopback acceptor already has a session, refusing {}", channel.getRemoteAddress());
+                    channel.close();
+                    continue;
+                }
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                session = new FixSession(channel, settings, sequences, sentMessages, this, false);
+                session.start();
+            } catch (IOException e) {
+                if (server.isOpen()) {
+                    log.warn("FIX loopback accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(FixSession session, FixMessage message) {
+        switch (message.msgType()) {
+            case FixTags.NEW_ORDER_SINGLE -> onNewOrder(session, message);
+            case FixTags.ORDER_CANCEL_REQUEST -> onCancel(session, message);
+            default -> log.debug("FIX loopback ignored {}", message);
+        }
+    }
+
+    private void onNewOrder(FixSession session, FixMessage message) {
+        long quantity = message.getDecimal(FixTags.ORDER_QTY, 8, 0);
+        long price = message.getDecimal(FixTags.PRICE, 4, MARKET_FILL_PRICE_TICKS);
+        report.prepare(message, ++nextOrderId, FixTags.EXEC_NEW, quantity, 0, 0);
+        send(session);
+        if (autoFill) {
+            report.prepare(message, nextOrderId, FixTags.EXEC_TRADE, quantity, quantity, price);
+            send(session);
+        } else {
+            resting.put(message.getString(FixTags.CL_ORD_ID), new RestingOrder(nextOrderId,
+                    message.getString(FixTags.SYMBOL), message.getChar(FixTags.SIDE), quantity));
+        }
+    }
+
+    private void onCancel(FixSession session, FixMessage message) {
+        RestingOrder order = resting.remove(message.getString(FixTags.ORIG_CL_ORD_ID));
+        if (order == null) {
+            session.send(FixTags.ORDER_CANCEL_REJECT, FixLoopbackAcceptor::writeCancelReject, message);
+            return;
+        }
+        report.prepare(message, order.orderId(), FixTags.EXEC_CANCELED, order.quantityLots(), 0, 0);
+        report.symbol = order.symbol();
+        report.side = order.side();
+        send(session);
+    }
+
+    private void send(FixSession session) {
+        report.execId = ++nextExecId;
+        session.send(FixTags.EXECUTION_REPORT, FixLoopbackAcceptor::writeExecutionReport, report);
+    }
+
+    private static void writeExecutionReport(FixEncoder encoder, Report report) {
+        FixMessage request = report.request;
+        boolean trade = report.execType == FixTags.EXEC_TRADE;
+        byte status = trade ? FixTags.EXEC_FILL : report.execType;
+        encoder.putLong(FixTags.ORDER_ID, report.orderId)
+                .putLong(FixTags.EXEC_ID, report.execId)
+                .copy(FixTags.CL_ORD_ID, request, FixTags.CL_ORD_ID)
+                .copy(FixTags.ORIG_CL_ORD_ID, request, FixTags.ORIG_CL_ORD_ID)
+                .putChar(FixTags.EXEC_TYPE, report.execType)
+                .putChar(FixTags.ORD_STATUS, status);
+        if (report.symbol != null) {
+            encoder.putAscii(FixTags.SYMBOL, report.symbol).putChar(FixTags.SIDE, report.side);
+        } else {
+            encoder.copy(FixTags.SYMBOL, request, FixTags.SYMBOL).copy(FixTags.SIDE, request, FixTags.SIDE);
+        }
+        encoder.putDecimal(FixTags.ORDER_QTY, report.quantityLots, 8);
+        if (trade) {
+            encoder.putDecimal(FixTags.LAST_QTY, report.filledLots, 8)
+                    .putDecimal(FixTags.LAST_PX, report.priceTicks, 4);
+        }
+        long leaves = report.execType == FixTags.EXEC_NEW ? report.quantityLots - report.filledLots : 0;
+        encoder.putDecimal(FixTags.LEAVES_QTY, leaves, 8)
+                .putDecimal(FixTags.CUM_QTY, report.filledLots, 8)
+                .putDecimal(FixTags.AVG_PX, report.priceTicks, 4)
+                .putTimestamp(FixTags.TRANSACT_TIME, System.currentTimeMillis());
+    }
+
+    private static void writeCancelReject(FixEncoder encoder, FixMessage request) {
+        encoder.putAscii(FixTags.ORDER_ID, "NONE")
+                .copy(FixTags.CL_ORD_ID, request, FixTags.CL_ORD_ID)
+                .copy(FixTags.ORIG_CL_ORD_ID, request, FixTags.ORIG_CL_ORD_ID)
+                .putChar(FixTags.ORD_STATUS, FixTags.EXEC_REJECTED)
+                .putChar(FixTags.CXL_REJ_RESPONSE_TO, (byte) '1')
+                .putChar(FixTags.CXL_REJ_REASON, (byte) '1')
+                .putAscii(FixTags.TEXT, "Unknown order");
+    }
+
+    /**
+     * ExecutionReport being written; reused, only touched on the session's reader thread.
+     */
+    private static final class Report {
+        FixMessage request;
+        long orderId;
+        long execId;
+        byte execType;
+        long quantityLots;
+        long filledLots;
+        long priceTicks;
+        String symbol;
+        byte side;
+
+        void prepare(FixMessage request, long orderId, byte execType, long quantityLots, long filledLots, long priceTicks) {
+            this.request = request;
+            this.orderId = orderId;
+            this.execType = execType;
+            this.quantityLots = quantityLots;
+            this.filledLots = filledLots;
+            this.priceTicks = priceTicks;
+            this.symbol = null;
+        }
+    }
+
+    private record RestingOrder(long orderId, String symbol, byte side, long quantityLots) {
+    }
+}
@@ -0,0 +1,265 @@
+package com.finco.trading.fix;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable view of one received FIX message. {@link #parse} indexes the tag=value pairs in place
+ * (tag, value offset and length per field) and the getters decode values straight from the
+ * buffer, so reading a message allocates nothing unless a value is asked for as a {@link String}.
+ * Only valid until the buffer is reused, i.e. for the duration of a message callback.
+ */
+public final class FixMessage {
+
+    static final int MAX_MESSAGE_LENGTH = 64 * 1024;
+    private static final int MAX_FIELDS = 256;
+    private static final byte[] PREFIX = "8=FIX.4.4\u00019=".getBytes(StandardCharsets.US_ASCII);
+    private static final int TRAILER_LENGTH = 7; // 10=nnn<SOH>
+
+    private final int[] tags = new int[MAX_FIELDS];
+    private final int[] offsets = new int[MAX_FIELDS];
+    private final int[] lengths = new int[MAX_FIELDS];
+    private int fieldCount;
+    private ByteBuffer buffer;
+    private byte msgType;
+
+    /**
+     * Length of the message starting at {@code start}, 0 if more bytes are needed to tell, or -1
+     * if the bytes there are not the start of a FIX 4.4 message.
+     */
+    public static int frame(ByteBuffer buffer, int start, int end) {
+        int available = end - start;
+        for (int i = 0; i < PREFIX.length; i++) {
+            if (i == available) {
+                return 0;
+            }
+            if (buffer.get(start + i) != PREFIX[i]) {
+                return -1;
+            }
+        }
+        int at = start + PREFIX.length;
+        int bodyLength = 0;
+        while (true) {
+            if (at == end) {
+                return 0;
+            }
+            byte b = buffer.get(at++);
+            if (b == FixEncoder.SOH) {
+                break;
+            }
+            if (b < '0' || b > '9' || bodyLength > MAX_MESSAGE_LENGTH) {
+                return -1;
+            }
+            bodyLength = bodyLength * 10 + (b - '0');
+        }
+        int length = at - start + bodyLength + TRAILER_LENGTH;
+        return available >= length ? length : 0;
+    }
+
+    /**
+     * Indexes a message found by {@link #frame}. Returns false, leaving the view empty, when the
+     * checksum does not match or the fields are malformed.
+     */
+    public boolean parse(ByteBuffer buffer, int start, int length) {
+        this.buffer = buffer;
+        fieldCount = 0;
+        msgType = 0;
+        int trailer = start + length - TRAILER_LENGTH;
+        int sum = 0;
+        for (int i = start; i < trailer; i++) {
+            sum += buffer.get(i);
+        }
+        if (buffer.get(trailer) != '1' || buffer.get(trailer + 1) != '0' || buffer.get(trailer + 2) != '='
+                || buffer.get(trailer + 6) != FixEncoder.SOH || parseDigits(trailer + 3, 3) != (sum & 0xFF)) {
+            return false;
+        }
+        int at = start;
+        while (at < trailer) {
+            int tag = 0;
+            byte b;
+            while ((b = buffer.get(at++)) != '=') {
+                if (b < '0' || b > '9' || at >= trailer) {
+                    fieldCount = 0;
+                    return false;
+                }
+                tag = tag * 10 + (b - '0');
+            }
+            int valueStart = at;
+            while (at < trailer && buffer.get(at) != FixEncoder.SOH) {
+                at++;
+            }
+            if (at == trailer || fieldCount == MAX_FIELDS) {
+                fieldCount = 0;
+                return false;
+            }
+            tags[fieldCount] = tag;
+            offsets[fieldCount] = valueStart;
+            lengths[fieldCount] = at - valueStart;
+            fieldCount++;
+            at++;
+        }
+        // BeginString, BodyLength, MsgType must come first
+        if (fieldCount < 3 || tags[2] != FixTags.MSG_TYPE || lengths[2] == 0) {
+            fieldCount = 0;
+            return false;
+        }
+        msgType = lengths[2] == 1 ? buffer.get(offsets[2]) : 0;
+        return true;
+    }
+
+    /**
+     * Single-character MsgType, 0 for longer types, which the session hands to the application as is.
+     */
+    public byte msgType() {
+        return msgType;
+    }
+
+    public boolean has(int tag) {
+        return index(tag) >= 0;
+    }
+
+    public long getLong(int tag, long defaultValue) {
+        int index = index(tag);
+        if (index < 0) {
+            return defaultValue;
+        }
+        int offset = offsets[index];
+        boolean negative = buffer.get(offset) == '-';
+        long value = parseDigits(negative ? offset + 1 : offset, negative ? lengths[index] - 1 : lengths[index]);
+        return negative ? -value : value;
+    }
+
+    /**
+     * First character of a value, 0 if the tag is absent.
+     */
+    public byte getChar(int tag) {
+        int index = index(tag);
+        return index >= 0 && lengths[index] > 0 ? buffer.get(offsets[index]) : 0;
+    }
+
+    public boolean isTrue(int tag) {
+        return getChar(tag) == 'Y';
+    }
+
+    /**
+     * Decimal value as a fixed-point long with {@code scale} decimals, rounded half-up,
+     * e.g. scale 4 for price ticks; {@code defaultValue} if the tag is absent.
+     */
+    public long getDecimal(int tag, int scale, long defaultValue) {
+        int index = index(tag);
+        if (index < 0) {
+            return defaultValue;
+        }
+        int at = offsets[index];
+        int end = at + lengths[index];
+        boolean negative = buffer.get(at) == '-';
+        if (negative) {
+            at++;
+        }
+        long value = 0;
+        int decimals = -1;
+        boolean roundUp = false;
+        for (; at < end; at++) {
+            byte b = buffer.get(at);
+            if (b == '.') {
+                decimals = 0;
+            } else if (decimals < scale) {
+                value = value * 10 + (b - '0');
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else {
+                roundUp = b >= '5';
+                break;
+            }
+        }
+        for (int i = Math.max(decimals, 0); i < scale; i++) {
+            value *= 10;
+        }
+        if (roundUp) {
+            value++;
+        }
+        return negative ? -value : value;
+    }
+
+    public String getString(int tag) {
+        int index = index(tag);
+        if (index < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[lengths[index]];
+        buffer.get(offsets[index], bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    public boolean valueEquals(int tag, byte[] expected) {
+        int index = index(tag);
+        if (index < 0 || lengths[index] != expected.length) {
+            return false;
+        }
+        int offset = offsets[index];
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(offset + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Field position of the first occurrence of {@code tag}, -1 if absent. A linear scan: order and
+     * execution messages have a few dozen fields and the arrays stay in cache.
+     */
+    int index(int tag) {
+        for (int i = 0; i < fieldCount; i++) {
+            if (tags[i] == tag) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    int valueOffset(int index) {
+        return offsets[index];
+    }
+
+    int valueLength(int index) {
+        return lengths[index];
+    }
+
+    /**
+     * The message with {@code |} for SOH, for logs.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < fieldCount; i++) {
+            text.append(tags[i]).append('=');
+            for (int j = 0; j < lengths[i]; j++) {
+                text.append((char) buffer.get(offsets[i] + j));
+            }
+            text.append('|');
+        }
+        return text.toString();
+    }
+
+    private long parseDigits(int offset, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer.get(offset + i);
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,71 @@
+package com.finco.trading.fix;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Bodies of recently sent application messages for answering ResendRequests, in fixed-size slots
+ * of one direct buffer indexed by MsgSeqNum modulo capacity. Sequence numbers that were
+ * overwritten, never stored (session messages) or did not fit a slot are gap-filled instead.
+ */
+public final class FixMessageStore {
+
+    private final int capacity;
+    private final int slotSize;
+    private final ByteBuffer bodies;
+    private final long[] seqNums;
+    private final byte[] msgTypes;
+    private final long[] sendingTimes;
+    private final int[] lengths;
+    private final int[] sums;
+
+    public FixMessageStore(int capacity, int slotSize) {
+        this.capacity = capacity;
+        this.slotSize = slotSize;
+        this.bodies = ByteBuffer.allocateDirect(capacity * slotSize);
+        this.seqNums = new long[capacity];
+        this.msgTypes = new byte[capacity];
+        this.sendingTimes = new long[capacity];
+        this.lengths = new int[capacity];
+        this.sums = new int[capacity];
+    }
+
+    void store(long seqNum, byte msgType, long sendingTime, ByteBuffer source, int offset, int length, int sum) {
+        int slot = slot(seqNum);
+        if (length > slotSize) {
+            seqNums[slot] = 0;
+            return;
+        }
+        bodies.put(slot * slotSize, source, offset, length);
+        seqNums[slot] = seqNum;
+        msgTypes[slot] = msgType;
+        sendingTimes[slot] = sendingTime;
+        lengths[slot] = length;
+        sums[slot] = sum;
+    }
+
+    boolean contains(long seqNum) {
+        return seqNums[slot(seqNum)] == seqNum;
+    }
+
+    byte msgType(long seqNum) {
+        return msgTypes[slot(seqNum)];
+    }
+
+    long sendingTime(long seqNum) {
+        return sendingTimes[slot(seqNum)];
+    }
+
+    void copyBody(long seqNum, FixEncoder encoder) {
+        int slot = slot(seqNum);
+        encoder.appendRaw(bodies, slot * slotSize, lengths[slot], sums[slot]);
+    }
+
+    void clear() {
+        Arrays.fill(seqNums, 0);
+    }
+
+    private int slot(long seqNum) {
+        return (int) (seqNum % capacity);
+    }
+}
@@ -0,0 +1,73 @@
+package com.finco.trading.fix;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Next outgoing and next expected incoming MsgSeqNum of a session. The file-backed store keeps
+ * them in a 16-byte memory-mapped file, so every update is a plain memory write that survives a
+ * process crash and sequence numbers carry over restarts.
+ */
+public final class FixSequenceStore implements Closeable {
+
+    private static final int SENDER = 0;
+    private static final int TARGET = 8;
+
+    private final ByteBuffer state;
+    private final FileChannel channel;
+
+    private FixSequenceStore(ByteBuffer state, FileChannel channel) {
+        this.state = state;
+        this.channel = channel;
+        if (state.getLong(SENDER) == 0) {
+            reset();
+        }
+    }
+
+    public static FixSequenceStore open(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        MappedByteBuffer state = channel.map(FileChannel.MapMode.READ_WRITE, 0, 16);
+        return new FixSequenceStore(state, channel);
+    }
+
+    public static FixSequenceStore inMemory() {
+        return new FixSequenceStore(ByteBuffer.allocate(16), null);
+    }
+
+    public long nextSenderSeq() {
+        return state.getLong(SENDER);
+    }
+
+    public void setNextSenderSeq(long seq) {
+        state.putLong(SENDER, seq);
+    }
+
+    public long nextTargetSeq() {
+        return state.getLong(TARGET);
+    }
+
+    public void setNextTargetSeq(long seq) {
+        state.putLong(TARGET, seq);
+    }
+
+    public void reset() {
+        state.putLong(SENDER, 1);
+        state.putLong(TARGET, 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            ((MappedByteBuffer) state).force();
+            channel.close();
+        }
+    }
+}
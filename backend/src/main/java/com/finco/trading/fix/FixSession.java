@@ -0,0 +1,472 @@
+package com.finco.trading.fix;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * FIX 4.4 session over one connected {@link SocketChannel}: logon and logout, heartbeats and test
+ * requests, MsgSeqNum checking, ResendRequest in both directions and SequenceReset-GapFill.
+ * Application messages are handed to an {@link Application} on the session's reader thread.
+ *
+ * <p>Sends are serialized by a lock and encoded into one reusable direct buffer that is written
+ * to the channel as is; receives are parsed in place from a direct read buffer. Sequence numbers
+ * live in a {@link FixSequenceStore} and sent application messages in a {@link FixMessageStore},
+ * both owned by the caller so they outlive the connection.
+ */
+@Slf4j
+public final class FixSession implements Closeable {
+
+    public enum State {
+        CONNECTED,
+        LOGON_SENT,
+        LOGGED_ON,
+        LOGOUT_SENT,
+        CLOSED
+    }
+
+    public interface Application {
+
+        /**
+         * Called on the reader thread for every in-sequence application message; the message is
+         * only valid during the call.
+         */
+        void onMessage(FixSession session, FixMessage message);
+
+        default void onLogon(FixSession session) {
+        }
+
+        default void onLogout(FixSession session) {
+        }
+    }
+
+    /**
+     * Writes the body fields of a message. Pass a method reference that captures nothing, or one
+     * held in a field, to keep sends allocation-free.
+     */
+    @FunctionalInterface
+    public interface BodyWriter<T> {
+        void write(FixEncoder encoder, T value);
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final FixSessionSettings settings;
+    private final FixSequenceStore sequences;
+    private final FixMessageStore sentMessages;
+    private final Application application;
+    private final boolean initiator;
+    private final byte[] senderCompId;
+    private final byte[] targetCompId;
+    private final String id;
+
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private final FixEncoder encoder = new FixEncoder(BUFFER_SIZE);
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final FixMessage inbound = new FixMessage();
+    private final AtomicReference<State> state = new AtomicReference<>(State.CONNECTED);
+
+    private final long connectedAt = System.currentTimeMillis();
+    private volatile long lastSentMillis = connectedAt;
+    private volatile long lastReceivedMillis = connectedAt;
+    private volatile long testRequestSentMillis;
+    private boolean resetRequested;
+    private long resendRequestedThrough;
+    private Thread reader;
+
+    public FixSession(SocketChannel channel, FixSessionSettings settings, FixSequenceStore sequences,
+                      FixMessageStore sentMessages, Application application, boolean initiator) {
+        this.channel = channel;
+        this.settings = settings;
+        this.sequences = sequences;
+        this.sentMessages = sentMessages;
+        this.application = application;
+        this.initiator = initiator;
+        this.senderCompId = settings.senderCompId().getBytes(StandardCharsets.US_ASCII);
+        this.targetCompId = settings.targetCompId().getBytes(StandardCharsets.US_ASCII);
+        this.id = settings.senderCompId() + "->" + settings.targetCompId();
+    }
+
+    /**
+     * Starts the reader thread and, on the initiating side, sends the Logon.
+     */
+    public void start() {
+        reader = new Thread(this::readLoop, "fix-" + id);
+        reader.setDaemon(true);
+        reader.start();
+        if (initiator) {
+            if (settings.resetOnLogon()) {
+                sequences.reset();
+                sentMessages.clear();
+                resetRequested = true;
+            }
+            state.set(State.LOGON_SENT);
+            trySend(FixTags.LOGON, FixSession::writeLogon, this);
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public boolean isLoggedOn() {
+        return state.get() == State.LOGGED_ON;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Sends an application message. It is kept for resends and goes out with the next MsgSeqNum.
+     */
+    public <T> void send(byte msgType, BodyWriter<T> writer, T value) {
+        if (state.get() != State.LOGGED_ON) {
+            throw new RuntimeException("FIX session " + id + " is not logged on");
+        }
+        send(msgType, writer, value, true);
+    }
+
+    /**
+     * Drives heartbeats and test requests; call about once a second.
+     */
+    public void onTimer(long now) {
+        State current = state.get();
+        long interval = settings.heartbeatIntervalSeconds() * 1000L;
+        if (current == State.LOGON_SENT && now - connectedAt > interval) {
+            disconnect("no Logon response");
+            return;
+        }
+        if (current != State.LOGGED_ON) {
+            return;
+        }
+        if (testRequestSentMillis != 0) {
+            if (now - testRequestSentMillis > interval) {
+                disconnect("no response to TestRequest");
+                return;
+            }
+        } else if (now - lastReceivedMillis > interval + interval / 5) {
+            testRequestSentMillis = now;
+            trySend(FixTags.TEST_REQUEST, FixSession::writeTestReqId, "TEST-" + now);
+        }
+        if (now - lastSentMillis >= interval) {
+            trySend(FixTags.HEARTBEAT, null, null);
+        }
+    }
+
+    /**
+     * Logs out, waits briefly for the counterparty's Logout and closes the connection.
+     */
+    @Override
+    public void close() {
+        if (state.compareAndSet(State.LOGGED_ON, State.LOGOUT_SENT)) {
+            trySend(FixTags.LOGOUT, FixSession::writeText, null);
+            try {
+                reader.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        disconnect("closed locally");
+    }
+
+    private <T> void send(byte msgType, BodyWriter<T> writer, T value, boolean store) {
+        sendLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            long seqNum = sequences.nextSenderSeq();
+            encoder.begin(msgType, senderCompId, targetCompId, seqNum, now);
+            int bodyStart = encoder.position();
+            int sumBefore = encoder.checksum();
+            if (writer != null) {
+                writer.write(encoder, value);
+            }
+            if (store) {
+                sentMessages.store(seqNum, msgType, now, encoder.buffer(), bodyStart,
+                        encoder.position() - bodyStart, encoder.checksum() - sumBefore);
+            }
+            // Consumed even if the write fails; the counterparty will ask for a resend
+            sequences.setNextSenderSeq(seqNum + 1);
+            write(encoder.finish(), now);
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /**
+     * Session-level send that must not throw into timers or the reader; failures already disconnect.
+     */
+    private <T> void trySend(byte msgType, BodyWriter<T> writer, T value) {
+        try {
+            send(msgType, writer, value, false);
+        } catch (RuntimeException e) {
+            log.debug("FIX session {} could not send {}: {}", id, (char) msgType, e.getMessage());
+        }
+    }
+
+    private void write(ByteBuffer message, long now) {
+        try {
+            while (message.hasRemaining()) {
+                channel.write(message);
+            }
+            lastSentMillis = now;
+        } catch (IOException e) {
+            disconnect("write failed: " + e.getMessage());
+            throw new RuntimeException("FIX send failed on " + id, e);
+        }
+    }
+
+    private void readLoop() {
+        try {
+            while (state.get() != State.CLOSED) {
+                if (channel.read(readBuffer) < 0) {
+                    break;
+                }
+                readBuffer.flip();
+                int at = readBuffer.position();
+                int end = readBuffer.limit();
+                while (true) {
+                    int length = FixMessage.frame(readBuffer, at, end);
+                    if (length == 0) {
+                        break;
+                    }
+                    if (length < 0) {
+                        disconnect("garbled data");
+                        return;
+                    }
+                    if (inbound.parse(readBuffer, at, length)) {
+                        handle(inbound);
+                    } else {
+                        log.warn("FIX session {} dropped a message with a bad checksum or format", id);
+                    }
+                    at += length;
+                }
+                readBuffer.position(at).compact();
+                if (!readBuffer.hasRemaining()) {
+                    disconnect("message larger than the read buffer");
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            if (state.get() != State.CLOSED) {
+                log.warn("FIX session {} read failed: {}", id, e.getMessage());
+            }
+        } catch (RuntimeException e) {
+            log.error("FIX session {} failed handling a message", id, e);
+        }
+        disconnect("connection closed");
+    }
+
+    private void handle(FixMessage message) {
+        lastReceivedMillis = System.currentTimeMillis();
+        testRequestSentMillis = 0;
+        byte type = message.msgType();
+        long seqNum = message.getLong(FixTags.MSG_SEQ_NUM, 0);
+
+        if (!message.valueEquals(FixTags.SENDER_COMP_ID, targetCompId)
+                || !message.valueEquals(FixTags.TARGET_COMP_ID, senderCompId)) {
+            logout("CompID problem");
+            return;
+        }
+        if (type == FixTags.LOGON && message.isTrue(FixTags.RESET_SEQ_NUM_FLAG)) {
+            sequences.setNextTargetSeq(seqNum);
+            if (!initiator) {
+                sendLock.lock();
+                try {
+                    sequences.setNextSenderSeq(1);
+                    sentMessages.clear();
+                } finally {
+                    sendLock.unlock();
+                }
+                resetRequested = true;
+            }
+        }
+        if (type == FixTags.SEQUENCE_RESET && !message.isTrue(FixTags.GAP_FILL_FLAG)) {
+            long newSeqNum = message.getLong(FixTags.NEW_SEQ_NO, 0);
+            if (newSeqNum > sequences.nextTargetSeq()) {
+                sequences.setNextTargetSeq(newSeqNum);
+            }
+            return;
+        }
+
+        long expected = sequences.nextTargetSeq();
+        if (seqNum > expected) {
+            if (type == FixTags.LOGON) {
+                onLogon();
+            } else if (type == FixTags.LOGOUT) {
+                disconnect("Logout received");
+                return;
+            }
+            // Messages past the gap are dropped; the resend brings them back in order
+            if (seqNum > resendRequestedThrough) {
+                resendRequestedThrough = seqNum;
+                log.info("FIX session {} gap: expected {} got {}, requesting resend", id, expected, seqNum);
+                trySend(FixTags.RESEND_REQUEST, FixSession::writeResendRequest, expected);
+            }
+            return;
+        }
+        if (seqNum < expected) {
+            if (!message.isTrue(FixTags.POSS_DUP_FLAG)) {
+                logout("MsgSeqNum too low, expecting " + expected + " but received " + seqNum);
+            }
+            return;
+        }
+
+        long next = expected + 1;
+        if (type == FixTags.SEQUENCE_RESET) {
+            next = Math.max(next, message.getLong(FixTags.NEW_SEQ_NO, next));
+        }
+        sequences.setNextTargetSeq(next);
+
+        switch (type) {
+            case FixTags.LOGON -> onLogon();
+            case FixTags.HEARTBEAT, FixTags.SEQUENCE_RESET -> { }
+            case FixTags.TEST_REQUEST ->
+                    trySend(FixTags.HEARTBEAT, FixSession::writeTestReqId, message.getString(FixTags.TEST_REQ_ID));
+            case FixTags.RESEND_REQUEST ->
+                    resend(message.getLong(FixTags.BEGIN_SEQ_NO, 1), message.getLong(FixTags.END_SEQ_NO, 0));
+            case FixTags.LOGOUT -> {
+                if (state.get() != State.LOGOUT_SENT) {
+                    trySend(FixTags.LOGOUT, FixSession::writeText, null);
+                }
+                disconnect("Logout received");
+            }
+            case FixTags.REJECT -> log.warn("FIX session {} message {} rejected: {}", id,
+                    message.getLong(FixTags.REF_SEQ_NUM, 0), message.getString(FixTags.TEXT));
+            default -> {
+                if (state.get() == State.LOGGED_ON) {
+                    dispatch(message);
+                } else {
+                    log.warn("FIX session {} ignored message type {} before Logon", id, (char) type);
+                }
+            }
+        }
+    }
+
+    private void dispatch(FixMessage message) {
+        try {
+            application.onMessage(this, message);
+        } catch (RuntimeException e) {
+            log.error("FIX session {} application failed on {}", id, message, e);
+        }
+    }
+
+    private void onLogon() {
+        if (state.get() == State.LOGGED_ON) {
+            return;
+        }
+        if (!initiator) {
+            trySend(FixTags.LOGON, FixSession::writeLogon, this);
+        }
+        resetRequested = false;
+        state.set(State.LOGGED_ON);
+        log.info("FIX session {} logged on, next outgoing {} next incoming {}", id,
+                sequences.nextSenderSeq(), sequences.nextTargetSeq());
+        application.onLogon(this);
+    }
+
+    /**
+     * Replays stored application messages in [begin, end] with PossDupFlag set and fills
+     * everything else with SequenceReset-GapFill.
+     */
+    private void resend(long begin, long end) {
+        sendLock.lock();
+        try {
+            long last = sequences.nextSenderSeq() - 1;
+            if (end == 0 || end > last) {
+                end = last;
+            }
+            log.info("FIX session {} resending {} to {}", id, begin, end);
+            long gapStart = 0;
+            for (long seqNum = begin; seqNum <= end; seqNum++) {
+                if (!sentMessages.contains(seqNum)) {
+                    if (gapStart == 0) {
+                        gapStart = seqNum;
+                    }
+                    continue;
+                }
+                if (gapStart != 0) {
+                    sendGapFill(gapStart, seqNum);
+                    gapStart = 0;
+                }
+                long now = System.currentTimeMillis();
+                encoder.begin(sentMessages.msgType(seqNum), senderCompId, targetCompId, seqNum, now)
+                        .putChar(FixTags.POSS_DUP_FLAG, (byte) 'Y')
+                        .putTimestamp(FixTags.ORIG_SENDING_TIME, sentMessages.sendingTime(seqNum));
+                sentMessages.copyBody(seqNum, encoder);
+                write(encoder.finish(), now);
+            }
+            if (gapStart != 0) {
+                sendGapFill(gapStart, end + 1);
+            }
+        } catch (RuntimeException e) {
+            log.debug("FIX session {} resend aborted: {}", id, e.getMessage());
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    private void sendGapFill(long seqNum, long newSeqNum) {
+        long now = System.currentTimeMillis();
+        encoder.begin(FixTags.SEQUENCE_RESET, senderCompId, targetCompId, seqNum, now)
+                .putChar(FixTags.POSS_DUP_FLAG, (byte) 'Y')
+                .putTimestamp(FixTags.ORIG_SENDING_TIME, now)
+                .putChar(FixTags.GAP_FILL_FLAG, (byte) 'Y')
+                .putLong(FixTags.NEW_SEQ_NO, newSeqNum);
+        write(encoder.finish(), now);
+    }
+
+    private void logout(String reason) {
+        log.warn("FIX session {} logging out: {}", id, reason);
+        state.set(State.LOGOUT_SENT);
+        trySend(FixTags.LOGOUT, FixSession::writeText, reason);
+        disconnect(reason);
+    }
+
+    private void disconnect(String reason) {
+        State previous = state.getAndSet(State.CLOSED);
+        if (previous == State.CLOSED) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("FIX session {} close failed", id, e);
+        }
+        log.info("FIX session {} disconnected: {}", id, reason);
+        if (previous == State.LOGGED_ON || previous == State.LOGOUT_SENT) {
+            application.onLogout(this);
+        }
+    }
+
+    private static void writeLogon(FixEncoder encoder, FixSession session) {
+        encoder.putChar(FixTags.ENCRYPT_METHOD, (byte) '0')
+                .putLong(FixTags.HEART_BT_INT, session.settings.heartbeatIntervalSeconds());
+        if (session.resetRequested) {
+            encoder.putChar(FixTags.RESET_SEQ_NUM_FLAG, (byte) 'Y');
+        }
+    }
+
+    private static void writeTestReqId(FixEncoder encoder, String testReqId) {
+        if (testReqId != null) {
+            encoder.putAscii(FixTags.TEST_REQ_ID, testReqId);
+        }
+    }
+
+    private static void writeResendRequest(FixEncoder encoder, Long beginSeqNum) {
+        encoder.putLong(FixTags.BEGIN_SEQ_NO, beginSeqNum).putLong(FixTags.END_SEQ_NO, 0);
+    }
+
+    private static void writeText(FixEncoder encoder, String text) {
+        if (text != null) {
+            encoder.putAscii(FixTags.TEXT, text);
+        }
+    }
+}
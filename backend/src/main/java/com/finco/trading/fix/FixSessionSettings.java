@@ -0,0 +1,15 @@
+package com.finco.trading.fix;
+
+/**
+ * Identity and timers of one side of a FIX session.
+ */
+public record FixSessionSettings(String senderCompId, String targetCompId, int heartbeatIntervalSeconds,
+                                 boolean resetOnLogon) {
+
+    /**
+     * The same session seen from the counterparty.
+     */
+    public FixSessionSettings reversed() {
+        return new FixSessionSettings(targetCompId, senderCompId, heartbeatIntervalSeconds, false);
+    }
+}
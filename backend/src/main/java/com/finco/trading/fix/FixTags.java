@@ -0,0 +1,96 @@
+package com.finco.trading.fix;
+
+/**
+ * FIX 4.4 tag numbers, message types and enumerated values used by the session layer and the
+ * order messages. Message types and single-character values are bytes so they can be written and
+ * compared without going through strings.
+ */
+public final class FixTags {
+
+    // Standard header and trailer
+    public static final int BEGIN_STRING = 8;
+    public static final int BODY_LENGTH = 9;
+    public static final int CHECKSUM = 10;
+    public static final int MSG_SEQ_NUM = 34;
+    public static final int MSG_TYPE = 35;
+    public static final int POSS_DUP_FLAG = 43;
+    public static final int SENDER_COMP_ID = 49;
+    public static final int SENDING_TIME = 52;
+    public static final int TARGET_COMP_ID = 56;
+    public static final int ORIG_SENDING_TIME = 122;
+
+    // Session messages
+    public static final int BEGIN_SEQ_NO = 7;
+    public static final int END_SEQ_NO = 16;
+    public static final int NEW_SEQ_NO = 36;
+    public static final int REF_SEQ_NUM = 45;
+    public static final int TEXT = 58;
+    public static final int ENCRYPT_METHOD = 98;
+    public static final int HEART_BT_INT = 108;
+    public static final int TEST_REQ_ID = 112;
+    public static final int GAP_FILL_FLAG = 123;
+    public static final int RESET_SEQ_NUM_FLAG = 141;
+
+    // Orders and executions
+    public static final int ACCOUNT = 1;
+    public static final int AVG_PX = 6;
+    public static final int CL_ORD_ID = 11;
+    public static final int CUM_QTY = 14;
+    public static final int EXEC_ID = 17;
+    public static final int LAST_PX = 31;
+    public static final int LAST_QTY = 32;
+    public static final int ORDER_ID = 37;
+    public static final int ORDER_QTY = 38;
+    public static final int ORD_STATUS = 39;
+    public static final int ORD_TYPE = 40;
+    public static final int ORIG_CL_ORD_ID = 41;
+    public static final int PRICE = 44;
+    public static final int SIDE = 54;
+    public static final int SYMBOL = 55;
+    public static final int TIME_IN_FORCE = 59;
+    public static final int TRANSACT_TIME = 60;
+    public static final int CXL_REJ_REASON = 102;
+    public static final int EXEC_TYPE = 150;
+    public static final int LEAVES_QTY = 151;
+    public static final int CXL_REJ_RESPONSE_TO = 434;
+
+    // MsgType (35)
+    public static final byte HEARTBEAT = '0';
+    public static final byte TEST_REQUEST = '1';
+    public static final byte RESEND_REQUEST = '2';
+    public static final byte REJECT = '3';
+    public static final byte SEQUENCE_RESET = '4';
+    public static final byte LOGOUT = '5';
+    public static final byte EXECUTION_REPORT = '8';
+    public static final byte ORDER_CANCEL_REJECT = '9';
+    public static final byte LOGON = 'A';
+    public static final byte NEW_ORDER_SINGLE = 'D';
+    public static final byte ORDER_CANCEL_REQUEST = 'F';
+
+    // Side (54)
+    public static final byte SIDE_BUY = '1';
+    public static final byte SIDE_SELL = '2';
+
+    // OrdType (40)
+    public static final byte ORD_TYPE_MARKET = '1';
+    public static final byte ORD_TYPE_LIMIT = '2';
+    public static final byte ORD_TYPE_STOP = '3';
+    public static final byte ORD_TYPE_STOP_LIMIT = '4';
+
+    // TimeInForce (59)
+    public static final byte TIF_DAY = '0';
+    public static final byte TIF_GTC = '1';
+    public static final byte TIF_IOC = '3';
+    public static final byte TIF_FOK = '4';
+
+    // ExecType (150) and OrdStatus (39) share these codes
+    public static final byte EXEC_NEW = '0';
+    public static final byte EXEC_PARTIAL_FILL = '1';
+    public static final byte EXEC_FILL = '2';
+    public static final byte EXEC_CANCELED = '4';
+    public static final byte EXEC_REJECTED = '8';
+    public static final byte EXEC_TRADE = 'F';
+
+    private FixTags() {
+    }
+}
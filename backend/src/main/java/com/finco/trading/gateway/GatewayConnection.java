@@ -0,0 +1,321 @@
+package com.finco.trading.gateway;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * One client connection of the {@link OrderEntryGateway}. Reads are done by the connection's
+ * event loop, which frames the messages and queues them as {@link Request}s; the queue is drained
+ * on the worker executor one request at a time, so a connection's requests are handled and
+ * answered in order while the event loop goes on reading. With {@code maxInFlight} requests
+ * queued the event loop stops reading from the connection until the worker has caught up.
+ *
+ * <p>Responses are encoded by the worker into the connection's write buffer and written straight
+ * away; what the socket does not take is flushed by the event loop when the channel becomes
+ * writable. A worker finding the write buffer full waits up to {@code writeTimeoutMs} for the
+ * client to read, then drops the connection.
+ */
+@Slf4j
+final class GatewayConnection {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * A decoded request. Fields that do not apply to its type are 0 or null; {@code malformed}
+     * requests carry only the client order id, if that much was readable, and are answered by the
+     * connection itself with a REJECT before it closes.
+     */
+    record Request(byte type, long clientOrderId, long accountId, String symbol, byte side, byte orderType,
+                   byte timeInForce, long orderId, long quantityLots, long priceTicks, boolean malformed) {
+    }
+
+    private final SocketChannel channel;
+    private final Selector selector;
+    private final Executor worker;
+    private final BiConsumer<GatewayConnection, Request> handler;
+    private final int maxInFlight;
+    private final long writeTimeoutNanos;
+    private final String id;
+
+    // Event loop only
+    private final ByteBuffer readBuffer = OrderEntryProtocol.allocate(BUFFER_SIZE);
+    private SelectionKey key;
+
+    // Pending bytes between 0 and position, guarded by writeLock
+    private final ByteBuffer writeBuffer = OrderEntryProtocol.allocate(BUFFER_SIZE);
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Condition writable = writeLock.newCondition();
+
+    private final Queue<Request> requests = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean paused;
+
+    GatewayConnection(SocketChannel channel, Selector selector, Executor worker, BiConsumer<GatewayConnection, Request> handler,
+                      int maxInFlight, long writeTimeoutMs, String id) {
+        this.channel = channel;
+        this.selector = selector;
+        this.worker = worker;
+        this.handler = handler;
+        this.maxInFlight = maxInFlight;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        this.id = id;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    boolean isOpen() {
+        return !closed.get();
+    }
+
+    /**
+     * Registers the channel with the event loop's selector; called on the event loop.
+     */
+    void register() throws IOException {
+        key = channel.register(selector, SelectionKey.OP_READ, this);
+    }
+
+    /**
+     * Called on the event loop when the channel is readable.
+     */
+    void onReadable() {
+        int read;
+        try {
+            read = channel.read(readBuffer);
+        } catch (IOException e) {
+            close("read failed: " + e.getMessage());
+            return;
+        }
+        if (read < 0) {
+            close("closed by client");
+            return;
+        }
+        readBuffer.flip();
+        int at = readBuffer.position();
+        int end = readBuffer.limit();
+        int queued = 0;
+        while (true) {
+            int length = OrderEntryProtocol.frame(readBuffer, at, end);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0) {
+                // Without a valid length the stream cannot be resynchronised; the worker answers
+                // what came before, rejects this and closes
+                enqueue(malformed(end - at >= OrderEntryProtocol.CLIENT_ORDER_ID + 8
+                        ? readBuffer.getLong(at + OrderEntryProtocol.CLIENT_ORDER_ID) : 0));
+                key.interestOpsAnd(~SelectionKey.OP_READ);
+                readBuffer.clear();
+                drain();
+                return;
+            }
+            enqueue(decode(readBuffer, at));
+            queued++;
+            at += length;
+        }
+        readBuffer.position(at).compact();
+        if (queued > 0) {
+            if (inFlight.get() >= maxInFlight && !paused) {
+                paused = true;
+                key.interestOpsAnd(~SelectionKey.OP_READ);
+            }
+            drain();
+        }
+    }
+
+    /**
+     * Called on the event loop when the channel is writable again.
+     */
+    void onWritable() {
+        writeLock.lock();
+        try {
+            flush();
+            if (writeBuffer.position() == 0) {
+                key.interestOpsAnd(~SelectionKey.OP_WRITE);
+            }
+            writable.signalAll();
+        } catch (IOException e) {
+            close("write failed: " + e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void sendAck(long clientOrderId, long orderId, byte status, long filledLots, long averagePriceTicks) {
+        writeLock.lock();
+        try {
+            if (reserve(OrderEntryProtocol.ACK_LENGTH)) {
+                OrderEntryProtocol.putAck(writeBuffer, clientOrderId, orderId, status, filledLots, averagePriceTicks);
+                send();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void sendReject(long clientOrderId, long orderId, int reason, String text) {
+        writeLock.lock();
+        try {
+            if (reserve(OrderEntryProtocol.REJECT_LENGTH)) {
+                OrderEntryProtocol.putReject(writeBuffer, clientOrderId, orderId, reason, text);
+                send();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void close(String reason) {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Order entry connection {} did not close cleanly: {}", id, e.getMessage());
+        }
+        writeLock.lock();
+        try {
+            writable.signalAll();
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Order entry connection {} closed: {}", id, reason);
+    }
+
+    private void enqueue(Request request) {
+        requests.add(request);
+        inFlight.incrementAndGet();
+    }
+
+    private void drain() {
+        if (draining.compareAndSet(false, true)) {
+            worker.execute(this::run);
+        }
+    }
+
+    private void run() {
+        Request request;
+        while ((request = requests.poll()) != null) {
+            if (request.malformed()) {
+                sendReject(request.clientOrderId(), 0, OrderEntryProtocol.REASON_MALFORMED, "Malformed message");
+                close("malformed message");
+            } else if (!closed.get()) {
+                try {
+                    handler.accept(this, request);
+                } catch (RuntimeException e) {
+                    log.error("Order entry connection {} failed to handle {}", id, request, e);
+                }
+            }
+            if (inFlight.decrementAndGet() <= maxInFlight / 2 && paused) {
+                paused = false;
+                if (!closed.get()) {
+                    key.interestOpsOr(SelectionKey.OP_READ);
+                    selector.wakeup();
+                }
+            }
+        }
+        draining.set(false);
+        // A request queued after the poll above but before the flag was cleared
+        if (!requests.isEmpty()) {
+            drain();
+        }
+    }
+
+    /**
+     * Waits until the write buffer has room for a message; false if the connection is or gets
+     * closed first. Called with the write lock held.
+     */
+    private boolean reserve(int length) {
+        long remaining = writeTimeoutNanos;
+        while (!closed.get() && writeBuffer.remaining() < length) {
+            if (remaining <= 0) {
+                close("client is not reading its responses");
+                return false;
+            }
+            try {
+                remaining = writable.awaitNanos(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return !closed.get();
+    }
+
+    /**
+     * Writes what the socket takes and leaves the rest to the event loop. Called with the write
+     * lock held.
+     */
+    private void send() {
+        try {
+            flush();
+        } catch (IOException e) {
+            close("write failed: " + e.getMessage());
+            return;
+        }
+        if (writeBuffer.position() > 0) {
+            key.interestOpsOr(SelectionKey.OP_WRITE);
+            selector.wakeup();
+        }
+    }
+
+    private void flush() throws IOException {
+        writeBuffer.flip();
+        try {
+            channel.write(writeBuffer);
+        } finally {
+            writeBuffer.compact();
+        }
+    }
+
+    private static Request decode(ByteBuffer buffer, int start) {
+        byte type = OrderEntryProtocol.type(buffer, start);
+        long clientOrderId = buffer.getLong(start + OrderEntryProtocol.CLIENT_ORDER_ID);
+        return switch (type) {
+            case OrderEntryProtocol.NEW_ORDER -> new Request(type, clientOrderId,
+                    buffer.getLong(start + OrderEntryProtocol.ACCOUNT_ID),
+                    OrderEntryProtocol.getSymbol(buffer, start),
+                    buffer.get(start + OrderEntryProtocol.SIDE),
+                    buffer.get(start + OrderEntryProtocol.ORDER_TYPE),
+                    buffer.get(start + OrderEntryProtocol.TIME_IN_FORCE),
+                    0,
+                    buffer.getLong(start + OrderEntryProtocol.NEW_QUANTITY),
+                    buffer.getLong(start + OrderEntryProtocol.NEW_PRICE),
+                    false);
+            case OrderEntryProtocol.MODIFY_ORDER -> new Request(type, clientOrderId, 0, null, (byte) 0, (byte) 0,
+                    (byte) 0, buffer.getLong(start + OrderEntryProtocol.ORDER_ID),
+                    buffer.getLong(start + OrderEntryProtocol.MODIFY_QUANTITY),
+                    buffer.getLong(start + OrderEntryProtocol.MODIFY_PRICE),
+                    false);
+            case OrderEntryProtocol.CANCEL_ORDER -> new Request(type, clientOrderId, 0, null, (byte) 0, (byte) 0,
+                    (byte) 0, buffer.getLong(start + OrderEntryProtocol.ORDER_ID), 0, 0, false);
+            // A well-formed response type sent by the client
+            default -> malformed(clientOrderId);
+        };
+    }
+
+    private static Request malformed(long clientOrderId) {
+        return new Request((byte) 0, clientOrderId, 0, null, (byte) 0, (byte) 0, (byte) 0, 0, 0, 0, true);
+    }
+}
@@ -0,0 +1,199 @@
+package com.finco.trading.gateway;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Java client of the {@link OrderEntryGateway}: one blocking connection, requests sent from any
+ * thread and answered through futures, which complete on the client's reader thread. Requests
+ * are matched to their responses by client order id, so every request in flight needs its own,
+ * non-zero one; on a new order it is also the idempotency key, so a retry after a lost
+ * connection gets the original order back. Quantities are lots and prices ticks, see
+ * {@link OrderEntryProtocol}.
+ */
+@Slf4j
+public final class OrderEntryClient implements Closeable {
+
+    /**
+     * The gateway's answer: an ACK with the order's state, or a REJECT with a reason and text.
+     */
+    public record Response(long clientOrderId, long orderId, boolean rejected, byte status, long filledLots,
+                           long averagePriceTicks, int rejectReason, String rejectText) {
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final ReentrantLock sendLock = new ReentrantLock();
+    private final ByteBuffer writeBuffer = OrderEntryProtocol.allocate(OrderEntryProtocol.MAX_MESSAGE_LENGTH);
+    private final ByteBuffer readBuffer = OrderEntryProtocol.allocate(BUFFER_SIZE);
+    private final Map<Long, CompletableFuture<Response>> pending = new ConcurrentHashMap<>();
+    private final Thread reader;
+    private volatile boolean closed;
+
+    private OrderEntryClient(SocketChannel channel) {
+        this.channel = channel;
+        this.reader = new Thread(this::readLoop, "order-entry-client");
+        reader.setDaemon(true);
+    }
+
+    public static OrderEntryClient connect(InetSocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        OrderEntryClient client = new OrderEntryClient(channel);
+        client.reader.start();
+        return client;
+    }
+
+    /**
+     * Enters an order; {@code priceTicks} is ignored for market orders.
+     */
+    public CompletableFuture<Response> newOrder(long clientOrderId, long accountId, String symbol, byte side,
+                                                byte orderType, byte timeInForce, long quantityLots, long priceTicks) {
+        if (symbol.length() > OrderEntryProtocol.SYMBOL_LENGTH) {
+            throw new IllegalArgumentException("Symbol longer than " + OrderEntryProtocol.SYMBOL_LENGTH
+                    + " characters: " + symbol);
+        }
+        CompletableFuture<Response> response = expect(clientOrderId);
+        sendLock.lock();
+        try {
+            OrderEntryProtocol.putNewOrder(writeBuffer.clear(), clientOrderId, accountId, symbol, side, orderType,
+                    timeInForce, quantityLots, priceTicks);
+            write(clientOrderId);
+        } finally {
+            sendLock.unlock();
+        }
+        return response;
+    }
+
+    /**
+     * Changes the quantity and/or price of a working order; 0 leaves either unchanged.
+     */
+    public CompletableFuture<Response> modifyOrder(long clientOrderId, long orderId, long quantityLots, long priceTicks) {
+        CompletableFuture<Response> response = expect(clientOrderId);
+        sendLock.lock();
+        try {
+            OrderEntryProtocol.putModifyOrder(writeBuffer.clear(), clientOrderId, orderId, quantityLots, priceTicks);
+            write(clientOrderId);
+        } finally {
+            sendLock.unlock();
+        }
+        return response;
+    }
+
+    public CompletableFuture<Response> cancelOrder(long clientOrderId, long orderId) {
+        CompletableFuture<Response> response = expect(clientOrderId);
+        sendLock.lock();
+        try {
+            OrderEntryProtocol.putCancelOrder(writeBuffer.clear(), clientOrderId, orderId);
+            write(clientOrderId);
+        } finally {
+            sendLock.unlock();
+        }
+        return response;
+    }
+
+    /**
+     * Closes the connection; requests still in flight fail.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        channel.close();
+        failAll(new IOException("Order entry client closed"));
+    }
+
+    private CompletableFuture<Response> expect(long clientOrderId) {
+        if (clientOrderId == 0) {
+            throw new IllegalArgumentException("Client order id must not be 0");
+        }
+        CompletableFuture<Response> response = new CompletableFuture<>();
+        if (pending.putIfAbsent(clientOrderId, response) != null) {
+            throw new IllegalStateException("Client order id " + clientOrderId + " is already in flight");
+        }
+        if (closed) {
+            fail(clientOrderId, new IOException("Order entry client closed"));
+        }
+        return response;
+    }
+
+    private void write(long clientOrderId) {
+        writeBuffer.flip();
+        try {
+            while (writeBuffer.hasRemaining()) {
+                channel.write(writeBuffer);
+            }
+        } catch (IOException e) {
+            fail(clientOrderId, e);
+        }
+    }
+
+    private void readLoop() {
+        try {
+            while (!closed) {
+                if (channel.read(readBuffer) < 0) {
+                    break;
+                }
+                readBuffer.flip();
+                int at = readBuffer.position();
+                int end = readBuffer.limit();
+                int length;
+                while ((length = OrderEntryProtocol.frame(readBuffer, at, end)) > 0) {
+                    complete(readBuffer, at);
+                    at += length;
+                }
+                if (length < 0) {
+                    throw new IOException("Garbled data from the order entry gateway");
+                }
+                readBuffer.position(at).compact();
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                log.warn("Order entry client read failed: {}", e.getMessage());
+            }
+        }
+        closed = true;
+        failAll(new IOException("Order entry connection closed"));
+    }
+
+    private void complete(ByteBuffer buffer, int start) {
+        long clientOrderId = buffer.getLong(start + OrderEntryProtocol.CLIENT_ORDER_ID);
+        long orderId = buffer.getLong(start + OrderEntryProtocol.ORDER_ID);
+        Response response = OrderEntryProtocol.type(buffer, start) == OrderEntryProtocol.ACK
+                ? new Response(clientOrderId, orderId, false, buffer.get(start + OrderEntryProtocol.ACK_STATUS),
+                        buffer.getLong(start + OrderEntryProtocol.ACK_FILLED),
+                        buffer.getLong(start + OrderEntryProtocol.ACK_AVERAGE_PRICE), 0, null)
+                : new Response(clientOrderId, orderId, true, OrderEntryProtocol.STATUS_UNKNOWN, 0, 0,
+                        buffer.getShort(start + OrderEntryProtocol.REJECT_REASON) & 0xFFFF,
+                        OrderEntryProtocol.getRejectText(buffer, start));
+        CompletableFuture<Response> future = pending.remove(clientOrderId);
+        if (future != null) {
+            future.complete(response);
+        } else {
+            log.warn("Order entry response for unknown client order id {}", clientOrderId);
+        }
+    }
+
+    private void fail(long clientOrderId, Throwable cause) {
+        CompletableFuture<Response> future = pending.remove(clientOrderId);
+        if (future != null) {
+            future.completeExceptionally(cause);
+        }
+    }
+
+    private void failAll(Throwable cause) {
+        for (Long clientOrderId : pending.keySet()) {
+            fail(clientOrderId, cause);
+        }
+    }
+}
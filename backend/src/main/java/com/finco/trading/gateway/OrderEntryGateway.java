@@ -0,0 +1,255 @@
+package com.finco.trading.gateway;
+
+import com.finco.trading.cluster.OrderRouter;
+import com.finco.trading.compliance.ComplianceException;
+import com.finco.trading.dto.OrderRequest;
+import com.finco.trading.dto.OrderResponse;
+import com.finco.trading.service.OrderIdGenerator;
+import com.finco.trading.util.FixedPoint;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TCP order entry with the fixed-layout messages of {@link OrderEntryProtocol}, next to the REST
+ * API and for clients to whom HTTP and JSON cost too much. Connections are spread round-robin over
+ * a fixed number of event loops, each a thread with its own {@link Selector} doing the
+ * non-blocking reads and writes of its connections. Requests go through the same
+ * {@link OrderRouter} and {@link com.finco.trading.service.OrderService} as the REST API, with its
+ * compliance checks, buying power and multi-region forwarding; that work blocks, so it runs on
+ * virtual threads, one connection's requests at a time (see {@link GatewayConnection}).
+ *
+ * <p>There is no logon: like {@code /api/v1} the gateway does not authenticate, so it listens on
+ * the loopback interface unless configured otherwise.
+ */
+@Slf4j
+public final class OrderEntryGateway implements Closeable {
+
+    private final OrderRouter orderRouter;
+    private final EventLoop[] eventLoops;
+    private final int maxInFlight;
+    private final long writeTimeoutMs;
+    private final ExecutorService worker = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("order-gateway-worker-", 0).factory());
+    private final AtomicLong connections = new AtomicLong();
+
+    private ServerSocketChannel server;
+    private Thread acceptor;
+
+    /**
+     * @param eventLoops number of selector threads, 0 for one per available processor
+     */
+    public OrderEntryGateway(OrderRouter orderRouter, int eventLoops, int maxInFlight, long writeTimeoutMs) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Order gateway needs at least one request in flight per connection");
+        }
+        this.orderRouter = orderRouter;
+        this.maxInFlight = maxInFlight;
+        this.writeTimeoutMs = writeTimeoutMs;
+        this.eventLoops = new EventLoop[eventLoops > 0 ? eventLoops : Runtime.getRuntime().availableProcessors()];
+    }
+
+    /**
+     * Binds and starts the event loops; returns the bound port, which matters when asking for port 0.
+     */
+    public int start(InetSocketAddress address) throws IOException {
+        for (int i = 0; i < eventLoops.length; i++) {
+            eventLoops[i] = new EventLoop(i);
+            eventLoops[i].thread.start();
+        }
+        server = ServerSocketChannel.open().bind(address);
+        acceptor = new Thread(this::acceptLoop, "order-gateway-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+        log.info("Order entry gateway listening on {}:{} with {} event loops", address.getHostString(), port,
+                eventLoops.length);
+        return port;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+        for (EventLoop eventLoop : eventLoops) {
+            if (eventLoop != null) {
+                eventLoop.close();
+            }
+        }
+        worker.shutdown();
+        try {
+            if (!worker.awaitTermination(5, TimeUnit.SECONDS)) {
+                worker.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            worker.shutdownNow();
+        }
+    }
+
+    private void acceptLoop() {
+        while (server.isOpen()) {
+            try {
+                SocketChannel channel = server.accept();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                long number = connections.incrementAndGet();
+                EventLoop eventLoop = eventLoops[(int) (number % eventLoops.length)];
+                String id = number + "@" + channel.getRemoteAddress();
+                eventLoop.add(new GatewayConnection(channel, eventLoop.selector, worker, this::handle, maxInFlight,
+                        writeTimeoutMs, id));
+                log.info("Order entry connection {} accepted", id);
+            } catch (IOException e) {
+                if (server.isOpen()) {
+                    log.warn("Order entry gateway accept failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs one request through the order API and answers it; called on a worker thread.
+     */
+    private void handle(GatewayConnection connection, GatewayConnection.Request request) {
+        try {
+            switch (request.type()) {
+                case OrderEntryProtocol.NEW_ORDER -> acknowledge(connection, request,
+                        orderRouter.createOrder(newOrder(request), null));
+                case OrderEntryProtocol.MODIFY_ORDER -> acknowledge(connection, request,
+                        orderRouter.updateOrder(OrderIdGenerator.format(request.orderId()), amendment(request), null));
+                default -> {
+                    orderRouter.cancelOrder(OrderIdGenerator.format(request.orderId()), null);
+                    connection.sendAck(request.clientOrderId(), request.orderId(), OrderEntryProtocol.STATUS_CANCELLED,
+                            0, 0);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            connection.sendReject(request.clientOrderId(), request.orderId(), OrderEntryProtocol.REASON_MALFORMED,
+                    e.getMessage());
+        } catch (ComplianceException e) {
+            connection.sendReject(request.clientOrderId(), request.orderId(), e.getCode().getNumber(), e.getMessage());
+        } catch (RuntimeException e) {
+            connection.sendReject(request.clientOrderId(), request.orderId(), OrderEntryProtocol.REASON_OTHER,
+                    e.getMessage());
+        }
+    }
+
+    private static OrderRequest newOrder(GatewayConnection.Request request) {
+        String side = OrderEntryProtocol.side(request.side());
+        String orderType = OrderEntryProtocol.orderType(request.orderType());
+        String timeInForce = OrderEntryProtocol.timeInForce(request.timeInForce());
+        if (side == null || orderType == null || timeInForce == null) {
+            throw new IllegalArgumentException("Unknown side, order type or time in force");
+        }
+        boolean market = request.orderType() == OrderEntryProtocol.ORDER_TYPE_MARKET;
+        return OrderRequest.builder()
+                .accountId(request.accountId())
+                .symbol(request.symbol())
+                .side(side)
+                .orderType(orderType)
+                .timeInForce(timeInForce)
+                .quantity(FixedPoint.fromQuantityLots(request.quantityLots()))
+                .price(market ? null : FixedPoint.fromPriceTicks(request.priceTicks()))
+                .clientOrderId(request.clientOrderId() != 0 ? Long.toString(request.clientOrderId()) : null)
+                .build();
+    }
+
+    private static OrderRequest amendment(GatewayConnection.Request request) {
+        return OrderRequest.builder()
+                .quantity(request.quantityLots() != 0 ? FixedPoint.fromQuantityLots(request.quantityLots()) : null)
+                .price(request.priceTicks() != 0 ? FixedPoint.fromPriceTicks(request.priceTicks()) : null)
+                .build();
+    }
+
+    private static void acknowledge(GatewayConnection connection, GatewayConnection.Request request,
+                                    OrderResponse order) {
+        connection.sendAck(request.clientOrderId(), OrderIdGenerator.parse(order.getOrderId()),
+                OrderEntryProtocol.statusCode(order.getStatus()),
+                order.getFilledQuantity() != null ? FixedPoint.toQuantityLots(order.getFilledQuantity()) : 0,
+                order.getAverageFillPrice() != null ? FixedPoint.toPriceTicks(order.getAverageFillPrice()) : 0);
+    }
+
+    /**
+     * A selector thread. Connections are handed over by the acceptor and registered by the loop
+     * itself, since registering with a selector blocks while it selects.
+     */
+    private static final class EventLoop {
+
+        private final Selector selector;
+        private final Thread thread;
+        private final Queue<GatewayConnection> added = new ConcurrentLinkedQueue<>();
+        private volatile boolean running = true;
+
+        EventLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this::run, "order-gateway-" + index);
+            thread.setDaemon(true);
+        }
+
+        void add(GatewayConnection connection) {
+            added.add(connection);
+            selector.wakeup();
+        }
+
+        void close() {
+            running = false;
+            selector.wakeup();
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void run() {
+            while (running) {
+                try {
+                    selector.select();
+                } catch (IOException e) {
+                    log.error("Order gateway selector failed", e);
+                    break;
+                }
+                GatewayConnection connection;
+                while ((connection = added.poll()) != null) {
+                    try {
+                        connection.register();
+                    } catch (IOException e) {
+                        connection.close("register failed: " + e.getMessage());
+                    }
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    GatewayConnection selected = (GatewayConnection) key.attachment();
+                    if (key.isValid() && key.isReadable()) {
+                        selected.onReadable();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        selected.onWritable();
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+            for (SelectionKey key : selector.keys()) {
+                ((GatewayConnection) key.attachment()).close("gateway stopped");
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                log.debug("Order gateway selector did not close cleanly: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.finco.trading.gateway;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-layout binary messages of the order entry gateway, shared by {@link OrderEntryGateway}
+ * and {@link OrderEntryClient}. Every message starts with a 4-byte header, the message length
+ * ({@code u16}, header included), the message type and the protocol version, followed by the
+ * fields of that type at fixed offsets. Integers are little-endian; quantities are lots
+ * (scale 8) and prices ticks (scale 4) as in {@link com.finco.trading.util.FixedPoint}, order ids
+ * are the numeric part of the business order id and symbols are ASCII, NUL-padded.
+ *
+ * <pre>
+ * NEW_ORDER    (56)  clientOrderId i64, accountId i64, symbol char[16], quantity i64, price i64 (0 for
+ *                    market), side u8, orderType u8, timeInForce u8 (0 is DAY), pad u8
+ * MODIFY_ORDER (36)  clientOrderId i64, orderId i64, quantity i64, price i64 (0 leaves either unchanged)
+ * CANCEL_ORDER (20)  clientOrderId i64, orderId i64
+ * ACK          (40)  clientOrderId i64, orderId i64, filled i64, averagePrice i64, status u8, pad u8[3]
+ * REJECT       (88)  clientOrderId i64, orderId i64 (0 if none), reason u16, textLength u8, pad u8,
+ *                    text char[64]
+ * </pre>
+ *
+ * <p>The client order id is echoed in the response to correlate it; on a new order a non-zero one
+ * is also the idempotency key of the REST API's {@code clientOrderId}. Every request gets exactly
+ * one ACK or REJECT, in request order per connection.
+ */
+public final class OrderEntryProtocol {
+
+    public static final byte VERSION = 1;
+    public static final int HEADER_LENGTH = 4;
+
+    // Message types, client to gateway
+    public static final byte NEW_ORDER = 'N';
+    public static final byte MODIFY_ORDER = 'M';
+    public static final byte CANCEL_ORDER = 'C';
+    // Message types, gateway to client
+    public static final byte ACK = 'A';
+    public static final byte REJECT = 'J';
+
+    public static final int NEW_ORDER_LENGTH = 56;
+    public static final int MODIFY_ORDER_LENGTH = 36;
+    public static final int CANCEL_ORDER_LENGTH = 20;
+    public static final int ACK_LENGTH = 40;
+    public static final int REJECT_LENGTH = 88;
+    public static final int MAX_MESSAGE_LENGTH = REJECT_LENGTH;
+
+    public static final int SYMBOL_LENGTH = 16;
+    public static final int TEXT_LENGTH = 64;
+
+    // Field offsets from the start of the message
+    public static final int CLIENT_ORDER_ID = 4;
+    public static final int ORDER_ID = 12;
+    public static final int ACCOUNT_ID = 12;
+    public static final int SYMBOL = 20;
+    public static final int NEW_QUANTITY = 36;
+    public static final int NEW_PRICE = 44;
+    public static final int SIDE = 52;
+    public static final int ORDER_TYPE = 53;
+    public static final int TIME_IN_FORCE = 54;
+    public static final int MODIFY_QUANTITY = 20;
+    public static final int MODIFY_PRICE = 28;
+    public static final int ACK_FILLED = 20;
+    public static final int ACK_AVERAGE_PRICE = 28;
+    public static final int ACK_STATUS = 36;
+    public static final int REJECT_REASON = 20;
+    public static final int REJECT_TEXT_LENGTH = 22;
+    public static final int REJECT_TEXT = 24;
+
+    public static final byte SIDE_BUY = 1;
+    public static final byte SIDE_SELL = 2;
+
+    public static final byte ORDER_TYPE_MARKET = 1;
+    public static final byte ORDER_TYPE_LIMIT = 2;
+
+    public static final byte TIF_DAY = 1;
+    public static final byte TIF_GTC = 2;
+    public static final byte TIF_IOC = 3;
+    public static final byte TIF_FOK = 4;
+
+    public static final byte STATUS_UNKNOWN = 0;
+    public static final byte STATUS_PENDING = 1;
+    public static final byte STATUS_PARTIALLY_FILLED = 2;
+    public static final byte STATUS_FILLED = 3;
+    public static final byte STATUS_CANCELLED = 4;
+
+    /**
+     * Reject reasons other than the compliance checks; those are reported as the number of their
+     * {@link com.finco.trading.compliance.ComplianceCode}, which is never 0 for a rejection.
+     */
+    public static final int REASON_OTHER = 0;
+    public static final int REASON_MALFORMED = 1000;
+
+    private static final String[] SIDES = {null, "BUY", "SELL"};
+    private static final String[] ORDER_TYPES = {null, "MARKET", "LIMIT"};
+    private static final String[] TIMES_IN_FORCE = {"DAY", "DAY", "GTC", "IOC", "FOK"};
+    private static final String[] STATUSES = {null, "PENDING", "PARTIALLY_FILLED", "FILLED", "CANCELLED"};
+
+    private OrderEntryProtocol() {
+    }
+
+    /**
+     * A direct little-endian buffer, the only kind the put and get methods expect.
+     */
+    public static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Length of the message starting at {@code start}, 0 if more bytes are needed to tell, or -1
+     * if the header is not one of this protocol.
+     */
+    public static int frame(ByteBuffer buffer, int start, int end) {
+        if (end - start < HEADER_LENGTH) {
+            return 0;
+        }
+        int length = buffer.getShort(start) & 0xFFFF;
+        if (buffer.get(start + 3) != VERSION || length != expectedLength(buffer.get(start + 2))) {
+            return -1;
+        }
+        return end - start >= length ? length : 0;
+    }
+
+    public static byte type(ByteBuffer buffer, int start) {
+        return buffer.get(start + 2);
+    }
+
+    public static void putNewOrder(ByteBuffer buffer, long clientOrderId, long accountId, String symbol, byte side,
+                                   byte orderType, byte timeInForce, long quantityLots, long priceTicks) {
+        int start = header(buffer, NEW_ORDER, NEW_ORDER_LENGTH);
+        buffer.putLong(start + CLIENT_ORDER_ID, clientOrderId)
+                .putLong(start + ACCOUNT_ID, accountId)
+                .putLong(start + NEW_QUANTITY, quantityLots)
+                .putLong(start + NEW_PRICE, priceTicks)
+                .put(start + SIDE, side)
+                .put(start + ORDER_TYPE, orderType)
+                .put(start + TIME_IN_FORCE, timeInForce);
+        putAscii(buffer, start + SYMBOL, SYMBOL_LENGTH, symbol);
+    }
+
+    public static void putModifyOrder(ByteBuffer buffer, long clientOrderId, long orderId, long quantityLots,
+                                      long priceTicks) {
+        int start = header(buffer, MODIFY_ORDER, MODIFY_ORDER_LENGTH);
+        buffer.putLong(start + CLIENT_ORDER_ID, clientOrderId)
+                .putLong(start + ORDER_ID, orderId)
+                .putLong(start + MODIFY_QUANTITY, quantityLots)
+                .putLong(start + MODIFY_PRICE, priceTicks);
+    }
+
+    public static void putCancelOrder(ByteBuffer buffer, long clientOrderId, long orderId) {
+        int start = header(buffer, CANCEL_ORDER, CANCEL_ORDER_LENGTH);
+        buffer.putLong(start + CLIENT_ORDER_ID, clientOrderId)
+                .putLong(start + ORDER_ID, orderId);
+    }
+
+    public static void putAck(ByteBuffer buffer, long clientOrderId, long orderId, byte status, long filledLots,
+                              long averagePriceTicks) {
+        int start = header(buffer, ACK, ACK_LENGTH);
+        buffer.putLong(start + CLIENT_ORDER_ID, clientOrderId)
+                .putLong(start + ORDER_ID, orderId)
+                .putLong(start + ACK_FILLED, filledLots)
+                .putLong(start + ACK_AVERAGE_PRICE, averagePriceTicks)
+                .put(start + ACK_STATUS, status);
+    }
+
+    /**
+     * Writes a REJECT; the text is cut to {@value #TEXT_LENGTH} characters and non-ASCII ones are
+     * replaced.
+     */
+    public static void putReject(ByteBuffer buffer, long clientOrderId, long orderId, int reason, String text) {
+        int start = header(buffer, REJECT, REJECT_LENGTH);
+        int length = text != null ? Math.min(text.length(), TEXT_LENGTH) : 0;
+        buffer.putLong(start + CLIENT_ORDER_ID, clientOrderId)
+                .putLong(start + ORDER_ID, orderId)
+                .putShort(start + REJECT_REASON, (short) reason)
+                .put(start + REJECT_TEXT_LENGTH, (byte) length);
+        putAscii(buffer, start + REJECT_TEXT, TEXT_LENGTH, length > 0 ? text.substring(0, length) : "");
+    }
+
+    public static String getSymbol(ByteBuffer buffer, int start) {
+        return getAscii(buffer, start + SYMBOL, SYMBOL_LENGTH);
+    }
+
+    public static String getRejectText(ByteBuffer buffer, int start) {
+        int length = Math.min(buffer.get(start + REJECT_TEXT_LENGTH) & 0xFF, TEXT_LENGTH);
+        return getAscii(buffer, start + REJECT_TEXT, length);
+    }
+
+    /**
+     * The API value of a wire code, null if the code is not defined.
+     */
+    public static String side(byte code) {
+        return lookup(SIDES, code);
+    }
+
+    public static String orderType(byte code) {
+        return lookup(ORDER_TYPES, code);
+    }
+
+    public static String timeInForce(byte code) {
+        return lookup(TIMES_IN_FORCE, code);
+    }
+
+    public static String status(byte code) {
+        return lookup(STATUSES, code);
+    }
+
+    public static byte statusCode(String status) {
+        for (int i = 1; i < STATUSES.length; i++) {
+            if (STATUSES[i].equals(status)) {
+                return (byte) i;
+            }
+        }
+        return STATUS_UNKNOWN;
+    }
+
+    private static int expectedLength(byte type) {
+        return switch (type) {
+            case NEW_ORDER -> NEW_ORDER_LENGTH;
+            case MODIFY_ORDER -> MODIFY_ORDER_LENGTH;
+            case CANCEL_ORDER -> CANCEL_ORDER_LENGTH;
+            case ACK -> ACK_LENGTH;
+            case REJECT -> REJECT_LENGTH;
+            default -> -1;
+        };
+    }
+
+    /**
+     * Writes the header at the buffer's position, zeroes the rest of the message and moves the
+     * position past it; returns where the message starts.
+     */
+    private static int header(ByteBuffer buffer, byte type, int length) {
+        int start = buffer.position();
+        for (int i = HEADER_LENGTH; i < length; i++) {
+            buffer.put(start + i, (byte) 0);
+        }
+        buffer.putShort(start, (short) length).put(start + 2, type).put(start + 3, VERSION);
+        buffer.position(start + length);
+        return start;
+    }
+
+    private static void putAscii(ByteBuffer buffer, int at, int width, String value) {
+        if (value.length() > width) {
+            throw new IllegalArgumentException("Longer than " + width + " characters: " + value);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            buffer.put(at + i, c < 0x80 ? (byte) c : (byte) '?');
+        }
+    }
+
+    private static String getAscii(ByteBuffer buffer, int at, int width) {
+        byte[] bytes = new byte[width];
+        int length = 0;
+        while (length < width && (bytes[length] = buffer.get(at + length)) != 0) {
+            length++;
+        }
+        return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    private static String lookup(String[] values, byte code) {
+        return code >= 0 && code < values.length ? values[code] : null;
+    }
+}
@@ -0,0 +1,182 @@
+package com.finco.trading.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of {@link JournalRecord}s in memory-mapped segment files of
+ * {@code segmentRecords} fixed-size slots, named after the sequence of their first record. An
+ * append is a handful of stores into the mapping, so a record survives a process crash as soon as
+ * it is committed and reaches the disk on {@link #force()} or when the OS writes the page back.
+ * On open the last segment is scanned up to the first slot whose sequence or checksum does not
+ * match, which is where appending resumes; a torn record left by a crash is cleared.
+ *
+ * <p>Appends are single-writer: {@link #claim()} and {@link #commit()} must not be called
+ * concurrently. {@link #replay} may run alongside the writer and stops at the records committed
+ * when it started.
+ */
+@Slf4j
+public final class JournalLog implements Closeable {
+
+    private static final String SUFFIX = ".journal";
+
+    private final Path dir;
+    private final int segmentRecords;
+    private final JournalRecord writer = new JournalRecord();
+    private final CRC32C writerCrc = new CRC32C();
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int slot;
+    private volatile long nextSequence;
+
+    private JournalLog(Path dir, int segmentRecords) {
+        this.dir = dir;
+        this.segmentRecords = segmentRecords;
+    }
+
+    public static JournalLog open(Path dir, int segmentRecords) throws IOException {
+        if (segmentRecords <= 0 || segmentRecords > Integer.MAX_VALUE / JournalRecord.SIZE) {
+            throw new IllegalArgumentException("Unsupported journal segment size: " + segmentRecords);
+        }
+        Files.createDirectories(dir);
+        JournalLog journal = new JournalLog(dir, segmentRecords);
+        List<Path> segments = journal.segments();
+        if (segments.isEmpty()) {
+            journal.startSegment(1);
+        } else {
+            journal.resume(segments.get(segments.size() - 1));
+        }
+        return journal;
+    }
+
+    /**
+     * Sequence the next committed record gets; 1 for an empty journal.
+     */
+    public long nextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * The cleared slot for the next record, to be filled in and then {@link #commit() committed}.
+     */
+    public JournalRecord claim() throws IOException {
+        if (slot == segmentRecords) {
+            segment.force();
+            channel.close();
+            startSegment(nextSequence);
+        }
+        JournalRecord record = writer.wrap(segment, slot * JournalRecord.SIZE);
+        record.clear();
+        return record;
+    }
+
+    /**
+     * Stamps the claimed record with its sequence and checksum and makes it visible to replays.
+     */
+    public long commit() {
+        long sequence = nextSequence;
+        writer.sequence(sequence).seal(writerCrc);
+        slot++;
+        nextSequence = sequence + 1;
+        return sequence;
+    }
+
+    /**
+     * Hands every committed record from {@code fromSequence} on to {@code handler}, in sequence
+     * order, through one reused flyweight over read-only mappings of the segments.
+     *
+     * @return the number of records replayed
+     */
+    public long replay(long fromSequence, Consumer<JournalRecord> handler) throws IOException {
+        long end = nextSequence;
+        JournalRecord record = new JournalRecord();
+        CRC32C crc = new CRC32C();
+        long replayed = 0;
+        for (Path path : segments()) {
+            long first = firstSequence(path);
+            if (first >= end) {
+                break;
+            }
+            if (first + segmentRecords <= fromSequence) {
+                continue;
+            }
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+                long last = Math.min(end, first + file.size() / JournalRecord.SIZE);
+                for (long sequence = Math.max(first, fromSequence); sequence < last; sequence++) {
+                    record.wrap(mapped, (int) (sequence - first) * JournalRecord.SIZE);
+                    if (record.sequence() != sequence || !record.isValid(crc)) {
+                        throw new IllegalStateException("Corrupt journal record " + sequence + " in " + path);
+                    }
+                    handler.accept(record);
+                    replayed++;
+                }
+            }
+        }
+        return replayed;
+    }
+
+    public void force() {
+        segment.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        segment.force();
+        channel.close();
+    }
+
+    private void startSegment(long firstSequence) throws IOException {
+        map(dir.resolve(String.format("%020d%s", firstSequence, SUFFIX)));
+        slot = 0;
+        nextSequence = firstSequence;
+    }
+
+    private void resume(Path path) throws IOException {
+        long first = firstSequence(path);
+        map(path);
+        JournalRecord record = new JournalRecord();
+        int valid = 0;
+        while (valid < segmentRecords) {
+            record.wrap(segment, valid * JournalRecord.SIZE);
+            if (record.sequence() != first + valid || !record.isValid(writerCrc)) {
+                break;
+            }
+            valid++;
+        }
+        if (valid < segmentRecords && record.sequence() != 0) {
+            log.warn("Order journal {} ends in a torn record at sequence {}, truncated", path, first + valid);
+            record.clear();
+        }
+        slot = valid;
+        nextSequence = first + valid;
+    }
+
+    private void map(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * JournalRecord.SIZE);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+    }
+
+    private static long firstSequence(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,329 @@
+package com.finco.trading.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+/**
+ * Flyweight over one fixed-size record of the order journal. Fields are read and written in place
+ * at absolute offsets of the underlying (memory-mapped) buffer; a consumer handed a record during
+ * {@link JournalLog#replay} must copy what it keeps, the record moves on to the next slot.
+ *
+ * <pre>
+ *   0  long   sequence, 1-based, 0 marks an unused slot
+ *   8  long   timestamp, local date-time as microseconds since the epoch
+ *  16  long   order id (orders.id)
+ *  24  long   account id
+ *  32  long   price in ticks (scale 4), 0 for none
+ *  40  long   quantity in lots (scale 8): order quantity for NEW/AMEND, fill quantity for FILL
+ *  48  byte   type: N(ew), A(mend), F(ill), C(ancel)
+ *  49  byte   side: B, S
+ *  50  byte   order type: M(arket), L(imit), S(top), T (stop limit)
+ *  51  byte   time in force: D(ay), G(TC), I(OC), F(OK)
+ *  52  byte   liquidity of a fill: M(aker), T(aker)
+ *  56  32     orderId, ASCII, zero padded
+ *  88  32     symbol, ASCII, zero padded
+ * 124  int    CRC32C of bytes 0..123
+ * </pre>
+ */
+public final class JournalRecord {
+
+    public static final int SIZE = 128;
+
+    public static final byte NEW = 'N';
+    public static final byte AMEND = 'A';
+    public static final byte FILL = 'F';
+    public static final byte CANCEL = 'C';
+
+    public static final byte MAKER = 'M';
+    public static final byte TAKER = 'T';
+
+    static final int TEXT_LENGTH = 32;
+
+    private static final int SEQUENCE = 0;
+    private static final int TIMESTAMP = 8;
+    private static final int ID = 16;
+    private static final int ACCOUNT_ID = 24;
+    private static final int PRICE = 32;
+    private static final int QUANTITY = 40;
+    private static final int TYPE = 48;
+    private static final int SIDE = 49;
+    private static final int ORDER_TYPE = 50;
+    private static final int TIME_IN_FORCE = 51;
+    private static final int LIQUIDITY = 52;
+    private static final int ORDER_ID = 56;
+    private static final int SYMBOL = 88;
+    private static final int CHECKSUM = 124;
+
+    private ByteBuffer buffer;
+    private ByteBuffer view;
+    private int offset;
+    private final byte[] text = new byte[TEXT_LENGTH];
+
+    JournalRecord wrap(ByteBuffer buffer, int offset) {
+        if (this.buffer != buffer) {
+            this.buffer = buffer;
+            this.view = buffer.duplicate();
+        }
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * The buffer the record lives in, for consumers that copy or forward raw records;
+     * the record spans {@link #SIZE} bytes from {@link #offset()}.
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    public int offset() {
+        return offset;
+    }
+
+    public long sequence() {
+        return buffer.getLong(offset + SEQUENCE);
+    }
+
+    public long timestamp() {
+        return buffer.getLong(offset + TIMESTAMP);
+    }
+
+    public LocalDateTime dateTime() {
+        return toDateTime(timestamp());
+    }
+
+    public byte type() {
+        return buffer.get(offset + TYPE);
+    }
+
+    public long id() {
+        return buffer.getLong(offset + ID);
+    }
+
+    public long accountId() {
+        return buffer.getLong(offset + ACCOUNT_ID);
+    }
+
+    public long priceTicks() {
+        return buffer.getLong(offset + PRICE);
+    }
+
+    public long quantityLots() {
+        return buffer.getLong(offset + QUANTITY);
+    }
+
+    public byte side() {
+        return buffer.get(offset + SIDE);
+    }
+
+    public boolean isBuy() {
+        return side() == 'B';
+    }
+
+    public byte orderType() {
+        return buffer.get(offset + ORDER_TYPE);
+    }
+
+    public byte timeInForce() {
+        return buffer.get(offset + TIME_IN_FORCE);
+    }
+
+    public byte liquidity() {
+        return buffer.get(offset + LIQUIDITY);
+    }
+
+    public String orderId() {
+        return getText(ORDER_ID);
+    }
+
+    public String symbol() {
+        return getText(SYMBOL);
+    }
+
+    public boolean isValid(CRC32C crc) {
+        return buffer.getInt(offset + CHECKSUM) == checksum(crc);
+    }
+
+    JournalRecord sequence(long sequence) {
+        buffer.putLong(offset + SEQUENCE, sequence);
+        return this;
+    }
+
+    JournalRecord timestamp(long micros) {
+        buffer.putLong(offset + TIMESTAMP, micros);
+        return this;
+    }
+
+    JournalRecord type(byte type) {
+        buffer.put(offset + TYPE, type);
+        return this;
+    }
+
+    JournalRecord id(long id) {
+        buffer.putLong(offset + ID, id);
+        return this;
+    }
+
+    JournalRecord accountId(long accountId) {
+        buffer.putLong(offset + ACCOUNT_ID, accountId);
+        return this;
+    }
+
+    JournalRecord priceTicks(long ticks) {
+        buffer.putLong(offset + PRICE, ticks);
+        return this;
+    }
+
+    JournalRecord quantityLots(long lots) {
+        buffer.putLong(offset + QUANTITY, lots);
+        return this;
+    }
+
+    JournalRecord side(byte side) {
+        buffer.put(offset + SIDE, side);
+        return this;
+    }
+
+    JournalRecord orderType(byte orderType) {
+        buffer.put(offset + ORDER_TYPE, orderType);
+        return this;
+    }
+
+    JournalRecord timeInForce(byte timeInForce) {
+        buffer.put(offset + TIME_IN_FORCE, timeInForce);
+        return this;
+    }
+
+    JournalRecord liquidity(byte liquidity) {
+        buffer.put(offset + LIQUIDITY, liquidity);
+        return this;
+    }
+
+    JournalRecord orderId(String orderId) {
+        putText(ORDER_ID, orderId);
+        return this;
+    }
+
+    JournalRecord symbol(String symbol) {
+        putText(SYMBOL, symbol);
+        return this;
+    }
+
+    void seal(CRC32C crc) {
+        buffer.putInt(offset + CHECKSUM, checksum(crc));
+    }
+
+    void clear() {
+        for (int i = 0; i < SIZE; i += 8) {
+            buffer.putLong(offset + i, 0);
+        }
+    }
+
+    private int checksum(CRC32C crc) {
+        crc.reset();
+        view.limit(offset + CHECKSUM).position(offset);
+        crc.update(view);
+        view.clear();
+        return (int) crc.getValue();
+    }
+
+    private String getText(int field) {
+        int length = 0;
+        while (length < TEXT_LENGTH && buffer.get(offset + field + length) != 0) {
+            text[length] = buffer.get(offset + field + length);
+            length++;
+        }
+        return length == 0 ? null : new String(text, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    private void putText(int field, String value) {
+        int length = value != null ? value.length() : 0;
+        if (length > TEXT_LENGTH) {
+            throw new IllegalArgumentException("Journal text field longer than " + TEXT_LENGTH + " characters: " + value);
+        }
+        for (int i = 0; i < TEXT_LENGTH; i++) {
+            buffer.put(offset + field + i, i < length ? (byte) value.charAt(i) : 0);
+        }
+    }
+
+    /**
+     * Rounded half-up to the microsecond, as PostgreSQL stores timestamps.
+     */
+    public static long toMicros(LocalDateTime dateTime) {
+        LocalDateTime rounded = dateTime.plusNanos(500);
+        return rounded.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + rounded.getNano() / 1_000;
+    }
+
+    public static LocalDateTime toDateTime(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    public static byte sideCode(String side) {
+        if (side == null) {
+            return 0;
+        }
+        return switch (side) {
+            case "BUY" -> 'B';
+            case "SELL" -> 'S';
+            default -> 0;
+        };
+    }
+
+    public static String sideName(byte code) {
+        return switch (code) {
+            case 'B' -> "BUY";
+            case 'S' -> "SELL";
+            default -> null;
+        };
+    }
+
+    public static byte orderTypeCode(String orderType) {
+        if (orderType == null) {
+            return 0;
+        }
+        return switch (orderType) {
+            case "MARKET" -> 'M';
+            case "LIMIT" -> 'L';
+            case "STOP" -> 'S';
+            case "STOP_LIMIT" -> 'T';
+            default -> 0;
+        };
+    }
+
+    public static String orderTypeName(byte code) {
+        return switch (code) {
+            case 'M' -> "MARKET";
+            case 'L' -> "LIMIT";
+            case 'S' -> "STOP";
+            case 'T' -> "STOP_LIMIT";
+            default -> null;
+        };
+    }
+
+    public static byte timeInForceCode(String timeInForce) {
+        if (timeInForce == null) {
+            return 0;
+        }
+        return switch (timeInForce) {
+            case "DAY" -> 'D';
+            case "GTC" -> 'G';
+            case "IOC" -> 'I';
+            case "FOK" -> 'F';
+            default -> 0;
+        };
+    }
+
+    public static String timeInForceName(byte code) {
+        return switch (code) {
+            case 'D' -> "DAY";
+            case 'G' -> "GTC";
+            case 'I' -> "IOC";
+            case 'F' -> "FOK";
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,320 @@
+package com.finco.trading.journal;
+
+import com.finco.trading.matching.Fill;
+import com.finco.trading.matching.MatchResult;
+import com.finco.trading.matching.Side;
+import com.finco.trading.model.Order;
+import com.finco.trading.util.FixedPoint;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Event-sourced record of every order change ({@code app.journal.enabled}): NEW, AMEND, FILL (one
+ * per side of each fill) and CANCEL events appended to a memory-mapped {@link JournalLog} once the
+ * transaction making the change commits. Unlike the {@code orders} row, which is overwritten, the
+ * journal keeps the full history and does not depend on the database being reachable.
+ *
+ * <p>With {@code app.journal.recover} the working orders of the {@link
+ * com.finco.trading.service.ActiveOrderIndex} and the positions of the {@link
+ * com.finco.trading.position.PositionLedger} are rebuilt by replaying the journal on startup instead
+ * of being loaded from the database. That requires the journal to have been enabled since the
+ * first order, it is never trimmed.
+ */
+@Component
+@Slf4j
+public class OrderJournal {
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentRecords;
+    private final boolean recover;
+
+    private JournalLog journal;
+
+    public OrderJournal(@Value("${app.journal.enabled:false}") boolean enabled,
+                        @Value("${app.journal.dir:./data/journal}") String dir,
+                        @Value("${app.journal.segment-records:262144}") int segmentRecords,
+                        @Value("${app.journal.recover:false}") boolean recover) {
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.segmentRecords = segmentRecords;
+        this.recover = recover;
+    }
+
+    @PostConstruct
+    void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            journal = JournalLog.open(dir, segmentRecords);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the order journal in " + dir, e);
+        }
+        log.info("Order journal opened in {}, next sequence {}", dir, journal.nextSequence());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether in-memory order and position state is to be rebuilt from the journal rather than
+     * loaded from the database.
+     */
+    public boolean isRecoverySource() {
+        return enabled && recover && journal.nextSequence() > 1;
+    }
+
+    public void orderNew(Order order) {
+        if (!enabled) {
+            return;
+        }
+        long id = order.getId();
+        String orderId = order.getOrderId();
+        long accountId = order.getAccountId();
+        String symbol = order.getSymbol();
+        byte side = JournalRecord.sideCode(order.getSide());
+        byte orderType = JournalRecord.orderTypeCode(order.getOrderType());
+        byte timeInForce = JournalRecord.timeInForceCode(order.getTimeInForce());
+        long price = ticks(order.getPrice());
+        long quantity = FixedPoint.toQuantityLots(order.getQuantity());
+        long timestamp = JournalRecord.toMicros(order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now());
+        afterCommit(() -> append(record -> record.type(JournalRecord.NEW).timestamp(timestamp).id(id)
+                .orderId(orderId).accountId(accountId).symbol(symbol).side(side).orderType(orderType)
+                .timeInForce(timeInForce).priceTicks(price).quantityLots(quantity)));
+    }
+
+    public void orderAmend(Order order) {
+        if (!enabled) {
+            return;
+        }
+        long id = order.getId();
+        String orderId = order.getOrderId();
+        long price = ticks(order.getPrice());
+        long quantity = FixedPoint.toQuantityLots(order.getQuantity());
+        long timestamp = JournalRecord.toMicros(order.getUpdatedAt());
+        afterCommit(() -> append(record -> record.type(JournalRecord.AMEND).timestamp(timestamp).id(id)
+                .orderId(orderId).priceTicks(price).quantityLots(quantity)));
+    }
+
+    public void orderCancel(Order order) {
+        if (!enabled) {
+            return;
+        }
+        long id = order.getId();
+        String orderId = order.getOrderId();
+        long accountId = order.getAccountId();
+        String symbol = order.getSymbol();
+        long timestamp = JournalRecord.toMicros(LocalDateTime.now());
+        afterCommit(() -> append(record -> record.type(JournalRecord.CANCEL).timestamp(timestamp).id(id)
+                .orderId(orderId).accountId(accountId).symbol(symbol)));
+    }
+
+    /**
+     * Cancels known by database id only, such as DAY order expiry.
+     */
+    public void ordersCancelled(List<Long> ids) {
+        if (!enabled || ids.isEmpty()) {
+            return;
+        }
+        List<Long> cancelled = List.copyOf(ids);
+        long timestamp = JournalRecord.toMicros(LocalDateTime.now());
+        afterCommit(() -> {
+            synchronized (this) {
+                for (Long id : cancelled) {
+                    append(record -> record.type(JournalRecord.CANCEL).timestamp(timestamp).id(id));
+                }
+            }
+        });
+    }
+
+    /**
+     * One FILL event for the taker and one for the maker of every fill of {@code result}.
+     */
+    public void fills(Order taker, MatchResult result, LocalDateTime executedAt) {
+        if (!enabled || result.fills().isEmpty()) {
+            return;
+        }
+        String takerOrderId = taker.getOrderId();
+        long timestamp = JournalRecord.toMicros(executedAt);
+        afterCommit(() -> {
+            synchronized (this) {
+                for (Fill fill : result.fills()) {
+                    Side makerSide = fill.takerSide().opposite();
+                    append(record -> record.type(JournalRecord.FILL).timestamp(timestamp).id(fill.takerId())
+                            .orderId(takerOrderId).accountId(fill.takerAccountId()).symbol(result.symbol())
+                            .side(JournalRecord.sideCode(fill.takerSide().name())).liquidity(JournalRecord.TAKER)
+                            .priceTicks(fill.priceTicks()).quantityLots(fill.quantityLots()));
+                    append(record -> record.type(JournalRecord.FILL).timestamp(timestamp).id(fill.makerId())
+                            .orderId(fill.makerOrderId()).accountId(fill.makerAccountId()).symbol(result.symbol())
+                            .side(JournalRecord.sideCode(makerSide.name())).liquidity(JournalRecord.MAKER)
+                            .priceTicks(fill.priceTicks()).quantityLots(fill.quantityLots()));
+                }
+            }
+        });
+    }
+
+    /**
+     * Replays the whole journal into {@code handler}; see {@link JournalLog#replay}.
+     */
+    public long replay(Consumer<JournalRecord> handler) {
+        try {
+            return journal.replay(1, handler);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Order journal replay failed", e);
+        }
+    }
+
+    /**
+     * Folds the journal into the orders still working at its end, in id order. The average fill
+     * price is recomputed from the journaled fills.
+     */
+    public List<Order> recoverWorkingOrders() {
+        Map<Long, ReplayedOrder> replayed = new HashMap<>();
+        long events = replay(record -> {
+            // A maker's fill can commit before the NEW of its order, so entries are created by any event
+            ReplayedOrder entry = replayed.computeIfAbsent(record.id(), id -> new ReplayedOrder());
+            switch (record.type()) {
+                case JournalRecord.NEW -> entry.order = Order.builder()
+                        .id(record.id())
+                        .orderId(record.orderId())
+                        .accountId(record.accountId())
+                        .symbol(record.symbol())
+                        .side(JournalRecord.sideName(record.side()))
+                        .orderType(JournalRecord.orderTypeName(record.orderType()))
+                        .timeInForce(JournalRecord.timeInForceName(record.timeInForce()))
+                        .price(price(record.priceTicks()))
+                        .quantity(FixedPoint.fromQuantityLots(record.quantityLots()))
+                        .createdAt(record.dateTime())
+                        .updatedAt(record.dateTime())
+                        .build();
+                case JournalRecord.AMEND -> entry.amend(record);
+                case JournalRecord.FILL -> entry.fill(record);
+                case JournalRecord.CANCEL -> entry.cancelled = true;
+                default -> throw new IllegalStateException("Unknown journal record type " + record.type()
+                        + " at sequence " + record.sequence());
+            }
+        });
+        List<Order> working = new ArrayList<>();
+        for (ReplayedOrder entry : replayed.values()) {
+            Order order = entry.toWorkingOrder();
+            if (order != null) {
+                working.add(order);
+            }
+        }
+        working.sort(Comparator.comparing(Order::getId));
+        log.info("Replayed {} journal events into {} working orders", events, working.size());
+        return working;
+    }
+
+    @Scheduled(fixedDelayString = "${app.journal.force-interval-ms:1000}")
+    public void force() {
+        if (enabled) {
+            journal.force();
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (enabled) {
+            journal.close();
+        }
+    }
+
+    private synchronized void append(Consumer<JournalRecord> writer) {
+        try {
+            writer.accept(journal.claim());
+            journal.commit();
+        } catch (IOException e) {
+            // Called after commit, the change itself stands
+            log.error("Order journal append failed", e);
+        }
+    }
+
+    private static long ticks(BigDecimal price) {
+        return price != null ? FixedPoint.toPriceTicks(price) : 0;
+    }
+
+    private static BigDecimal price(long ticks) {
+        return ticks != 0 ? FixedPoint.fromPriceTicks(ticks) : null;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class ReplayedOrder {
+        private Order order;
+        private long filledLots;
+        private BigDecimal notional = BigDecimal.ZERO;
+        private long executedAt;
+        private boolean cancelled;
+
+        void amend(JournalRecord record) {
+            // Only pending orders are amended, the NEW is always journaled first
+            if (order != null) {
+                order.setPrice(price(record.priceTicks()));
+                order.setQuantity(FixedPoint.fromQuantityLots(record.quantityLots()));
+                order.setUpdatedAt(record.dateTime());
+            }
+        }
+
+        void fill(JournalRecord record) {
+            filledLots += record.quantityLots();
+            notional = notional.add(FixedPoint.fromPriceTicks(record.priceTicks())
+                    .multiply(FixedPoint.fromQuantityLots(record.quantityLots())));
+            executedAt = record.timestamp();
+        }
+
+        Order toWorkingOrder() {
+            if (order == null || cancelled) {
+                return null;
+            }
+            long quantityLots = FixedPoint.toQuantityLots(order.getQuantity());
+            if (filledLots >= quantityLots) {
+                return null;
+            }
+            order.setFilledQuantity(FixedPoint.fromQuantityLots(filledLots));
+            order.setStatus(filledLots > 0 ? "PARTIALLY_FILLED" : "PENDING");
+            if (filledLots > 0) {
+                order.setAverageFillPrice(notional.divide(order.getFilledQuantity(), FixedPoint.PRICE_SCALE,
+                        RoundingMode.HALF_UP));
+                LocalDateTime lastFill = JournalRecord.toDateTime(executedAt);
+                order.setExecutedAt(lastFill);
+                if (lastFill.isAfter(order.getUpdatedAt())) {
+                    order.setUpdatedAt(lastFill);
+                }
+            }
+            return order;
+        }
+    }
+}
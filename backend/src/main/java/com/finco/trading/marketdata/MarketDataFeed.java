@@ -0,0 +1,17 @@
+package com.finco.trading.marketdata;
+
+/**
+ * Source of quotes and trades. An adapter resolves each of its symbols to a
+ * {@link MarketDataStore#symbolId} once and then publishes by id, so a tick reaches the store
+ * without allocating.
+ */
+public interface MarketDataFeed extends AutoCloseable {
+
+    /**
+     * Starts publishing into {@code store}; returns once the feed runs on its own thread.
+     */
+    void start(MarketDataStore store);
+
+    @Override
+    void close();
+}
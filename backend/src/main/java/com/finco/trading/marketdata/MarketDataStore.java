@@ -0,0 +1,338 @@
+package com.finco.trading.marketdata;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/**
+ * Latest top of book and last trade per symbol, in price ticks and quantity lots. Symbols get
+ * dense ids on first use; each id owns one 64-byte slot of a flat {@code long[]} guarded by a
+ * sequence lock, so an update is a CAS, seven stores and a release, and readers never block
+ * writers or each other. Nothing is queued per tick: a {@link Subscription} only records which
+ * symbols changed since it was last drained, so a slow consumer skips intermediate ticks and
+ * reads the latest state.
+ */
+@Component
+public class MarketDataStore implements MeterBinder {
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int STRIDE = 8;
+    private static final int VERSION = 0;
+    private static final int BID = 1;
+    private static final int BID_SIZE = 2;
+    private static final int ASK = 3;
+    private static final int ASK_SIZE = 4;
+    private static final int LAST = 5;
+    private static final int LAST_SIZE = 6;
+    private static final int TIME = 7;
+
+    private final int maxSymbols;
+    private final long[] slots;
+    private final String[] symbols;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final LongAdder updates = new LongAdder();
+    private volatile Subscription[] subscriptions = new Subscription[0];
+
+    public MarketDataStore(@Value("${app.market-data.max-symbols:4096}") int maxSymbols) {
+        this.maxSymbols = maxSymbols;
+        this.slots = new long[maxSymbols * STRIDE];
+        this.symbols = new String[maxSymbols];
+    }
+
+    /**
+     * Id of a symbol, assigned on first use. Feeds resolve their symbols once and publish by id.
+     */
+    public int symbolId(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : register(symbol);
+    }
+
+    /**
+     * Id of a symbol, or -1 when it has never been published.
+     */
+    public int findSymbolId(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : -1;
+    }
+
+    public String symbol(int symbolId) {
+        return symbols[symbolId];
+    }
+
+    public int symbolCount() {
+        return ids.size();
+    }
+
+    public int maxSymbols() {
+        return maxSymbols;
+    }
+
+    /**
+     * Replaces the top of book. A side with a price of 0 is empty.
+     */
+    public void onQuote(int symbolId, long bidTicks, long bidLots, long askTicks, long askLots, long timeMillis) {
+        int base = lock(symbolId);
+        LONGS.setOpaque(slots, base + BID, bidTicks);
+        LONGS.setOpaque(slots, base + BID_SIZE, bidLots);
+        LONGS.setOpaque(slots, base + ASK, askTicks);
+        LONGS.setOpaque(slots, base + ASK_SIZE, askLots);
+        LONGS.setOpaque(slots, base + TIME, timeMillis);
+        unlock(symbolId, base);
+    }
+
+    public void onTrade(int symbolId, long priceTicks, long lots, long timeMillis) {
+        int base = lock(symbolId);
+        LONGS.setOpaque(slots, base + LAST, priceTicks);
+        LONGS.setOpaque(slots, base + LAST_SIZE, lots);
+        LONGS.setOpaque(slots, base + TIME, timeMillis);
+        unlock(symbolId, base);
+    }
+
+    public void onTrade(String symbol, long priceTicks, long lots, long timeMillis) {
+        onTrade(symbolId(symbol), priceTicks, lots, timeMillis);
+    }
+
+    /**
+     * Copies the latest state of a symbol into {@code quote}; false when nothing was published for it.
+     */
+    public boolean read(int symbolId, Quote quote) {
+        int base = symbolId * STRIDE;
+        while (true) {
+            long version = (long) LONGS.getAcquire(slots, base + VERSION);
+            if ((version & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            quote.bidTicks = (long) LONGS.getOpaque(slots, base + BID);
+            quote.bidLots = (long) LONGS.getOpaque(slots, base + BID_SIZE);
+            quote.askTicks = (long) LONGS.getOpaque(slots, base + ASK);
+            quote.askLots = (long) LONGS.getOpaque(slots, base + ASK_SIZE);
+            quote.lastTicks = (long) LONGS.getOpaque(slots, base + LAST);
+            quote.lastLots = (long) LONGS.getOpaque(slots, base + LAST_SIZE);
+            quote.timeMillis = (long) LONGS.getOpaque(slots, base + TIME);
+            VarHandle.loadLoadFence();
+            if ((long) LONGS.getOpaque(slots, base + VERSION) == version) {
+                quote.symbol = symbols[symbolId];
+                return version != 0;
+            }
+        }
+    }
+
+    public boolean read(String symbol, Quote quote) {
+        int symbolId = findSymbolId(symbol);
+        return symbolId >= 0 && read(symbolId, quote);
+    }
+
+    public long lastTicks(String symbol) {
+        int symbolId = findSymbolId(symbol);
+        return symbolId >= 0 ? field(symbolId, LAST) : 0;
+    }
+
+    /**
+     * Price to value a position at: the last trade, else the mid of a two-sided quote, else 0.
+     */
+    public long markTicks(String symbol) {
+        int symbolId = findSymbolId(symbol);
+        return symbolId >= 0 ? markTicks(symbolId) : 0;
+    }
+
+    public long markTicks(int symbolId) {
+        long last = field(symbolId, LAST);
+        if (last > 0) {
+            return last;
+        }
+        long bid = field(symbolId, BID);
+        long ask = field(symbolId, ASK);
+        return bid > 0 && ask > 0 ? (bid + ask) / 2 : 0;
+    }
+
+    /**
+     * Price a market order would be expected to trade at: the far touch (ask for a buy, bid for a
+     * sell), else the mark.
+     */
+    public long referenceTicks(String symbol, boolean buy) {
+        int symbolId = findSymbolId(symbol);
+        if (symbolId < 0) {
+            return 0;
+        }
+        long touch = field(symbolId, buy ? ASK : BID);
+        return touch > 0 ? touch : markTicks(symbol);
+    }
+
+    /**
+     * Starts tracking which symbols change; close the subscription when done with it.
+     */
+    public Subscription subscribe() {
+        Subscription subscription = new Subscription(this, maxSymbols);
+        synchronized (this) {
+            Subscription[] current = subscriptions;
+            Subscription[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = subscription;
+            subscriptions = next;
+        }
+        return subscription;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("market.data.updates", updates, LongAdder::sum)
+                .description("Quote and trade updates applied to the market data store")
+                .register(registry);
+        Gauge.builder("market.data.symbols", ids, Map::size).register(registry);
+    }
+
+    private synchronized void unsubscribe(Subscription subscription) {
+        Subscription[] current = subscriptions;
+        Subscription[] next = new Subscription[current.length];
+        int size = 0;
+        for (Subscription s : current) {
+            if (s != subscription) {
+                next[size++] = s;
+            }
+        }
+        subscriptions = Arrays.copyOf(next, size);
+    }
+
+    private synchronized int register(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id != null) {
+            return id;
+        }
+        int next = ids.size();
+        if (next == maxSymbols) {
+            throw new RuntimeException("Market data store is full: " + maxSymbols + " symbols");
+        }
+        symbols[next] = symbol;
+        ids.put(symbol, next);
+        return next;
+    }
+
+    private long field(int symbolId, int field) {
+        return (long) LONGS.getOpaque(slots, symbolId * STRIDE + field);
+    }
+
+    private int lock(int symbolId) {
+        int base = symbolId * STRIDE;
+        while (true) {
+            long version = (long) LONGS.getVolatile(slots, base + VERSION);
+            if ((version & 1) == 0 && LONGS.compareAndSet(slots, base + VERSION, version, version + 1)) {
+                return base;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void unlock(int symbolId, int base) {
+        LONGS.setRelease(slots, base + VERSION, (long) LONGS.getOpaque(slots, base + VERSION) + 1);
+        updates.increment();
+        for (Subscription subscription : subscriptions) {
+            subscription.changed(symbolId);
+        }
+    }
+
+    /**
+     * Mutable holder for {@link #read}; reuse one per reader to keep reads allocation free.
+     */
+    public static final class Quote {
+        private String symbol;
+        private long bidTicks;
+        private long bidLots;
+        private long askTicks;
+        private long askLots;
+        private long lastTicks;
+        private long lastLots;
+        private long timeMillis;
+
+        public String symbol() {
+            return symbol;
+        }
+
+        public long bidTicks() {
+            return bidTicks;
+        }
+
+        public long bidLots() {
+            return bidLots;
+        }
+
+        public long askTicks() {
+            return askTicks;
+        }
+
+        public long askLots() {
+            return askLots;
+        }
+
+        public long lastTicks() {
+            return lastTicks;
+        }
+
+        public long lastLots() {
+            return lastLots;
+        }
+
+        public long timeMillis() {
+            return timeMillis;
+        }
+    }
+
+    /**
+     * Set of symbols changed since the last {@link #drain}. Updates only set a bit, so however
+     * far the consumer falls behind it holds at most one pending entry per symbol.
+     */
+    public static final class Subscription implements AutoCloseable {
+
+        private final MarketDataStore store;
+        private final long[] changed;
+
+        private Subscription(MarketDataStore store, int maxSymbols) {
+            this.store = store;
+            this.changed = new long[(maxSymbols + 63) >>> 6];
+        }
+
+        /**
+         * Passes the id of every symbol changed since the previous call to {@code consumer} and
+         * returns how many there were; read the symbols' latest state with {@link MarketDataStore#read}.
+         */
+        public int drain(IntConsumer consumer) {
+            int count = 0;
+            for (int word = 0; word < changed.length; word++) {
+                if ((long) LONGS.getOpaque(changed, word) == 0) {
+                    continue;
+                }
+                long bits = (long) LONGS.getAndSet(changed, word, 0L);
+                while (bits != 0) {
+                    consumer.accept((word << 6) + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {
+            store.unsubscribe(this);
+        }
+
+        private void changed(int symbolId) {
+            int word = symbolId >>> 6;
+            long mask = 1L << symbolId;
+            if (((long) LONGS.getOpaque(changed, word) & mask) == 0) {
+                LONGS.getAndBitwiseOr(changed, word, mask);
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.finco.trading.marketdata;
+
+import com.finco.trading.util.FixedPoint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays ticks from a CSV file, for running locally without a market data vendor. Each line is
+ * {@code symbol,bid,bidSize,ask,askSize,last,lastSize}; empty quote fields make it a trade-only
+ * tick and empty trade fields a quote-only one. Lines starting with {@code #} are comments. The
+ * file is parsed into primitive arrays up front and replayed at {@code ticksPerSecond}
+ * (0 for as fast as possible), stamped with the current time, optionally in a loop.
+ */
+@Slf4j
+public class ReplayMarketDataFeed implements MarketDataFeed {
+
+    private static final int FIELDS = 6;
+
+    private final Resource resource;
+    private final int ticksPerSecond;
+    private final boolean loop;
+
+    private int[] symbolIds;
+    private long[] ticks;
+    private int count;
+    private volatile boolean running;
+    private volatile long published;
+    private Thread thread;
+
+    public ReplayMarketDataFeed(Resource resource, int ticksPerSecond, boolean loop) {
+        this.resource = resource;
+        this.ticksPerSecond = ticksPerSecond;
+        this.loop = loop;
+    }
+
+    @Override
+    public void start(MarketDataStore store) {
+        load(store);
+        running = true;
+        thread = new Thread(() -> replay(store), "market-data-replay");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Replaying {} ticks from {} at {} ticks/s{}", count, resource.getDescription(),
+                ticksPerSecond > 0 ? ticksPerSecond : "max", loop ? " in a loop" : "");
+    }
+
+    /**
+     * Ticks published so far.
+     */
+    public long getPublished() {
+        return published;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void load(MarketDataStore store) {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && line.charAt(0) != '#') {
+                    rows.add(line.split(",", -1));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read market data replay file " + resource.getDescription(), e);
+        }
+        symbolIds = new int[rows.size()];
+        ticks = new long[rows.size() * FIELDS];
+        for (String[] row : rows) {
+            if (row.length != 7 || row[0].isBlank()) {
+                throw new RuntimeException("Malformed market data line " + (count + 1) + " in "
+                        + resource.getDescription() + ": " + String.join(",", row));
+            }
+            symbolIds[count] = store.symbolId(row[0].trim());
+            int base = count * FIELDS;
+            ticks[base] = parse(row[1], FixedPoint.PRICE_SCALE);
+            ticks[base + 1] = parse(row[2], FixedPoint.QUANTITY_SCALE);
+            ticks[base + 2] = parse(row[3], FixedPoint.PRICE_SCALE);
+            ticks[base + 3] = parse(row[4], FixedPoint.QUANTITY_SCALE);
+            ticks[base + 4] = parse(row[5], FixedPoint.PRICE_SCALE);
+            ticks[base + 5] = parse(row[6], FixedPoint.QUANTITY_SCALE);
+            count++;
+        }
+    }
+
+    private void replay(MarketDataStore store) {
+        long interval = ticksPerSecond > 0 ? 1_000_000_000L / ticksPerSecond : 0;
+        long next = System.nanoTime();
+        do {
+            for (int i = 0; i < count && running; i++) {
+                if (interval > 0) {
+                    // Pace against the schedule rather than the previous tick, so short sleeps catch up
+                    next += interval;
+                    long wait = next - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                publish(store, i, System.currentTimeMillis());
+                published++;
+            }
+        } while (loop && running && count > 0);
+        running = false;
+    }
+
+    private void publish(MarketDataStore store, int index, long timeMillis) {
+        int base = index * FIELDS;
+        if (ticks[base] != 0 || ticks[base + 2] != 0) {
+            store.onQuote(symbolIds[index], ticks[base], ticks[base + 1], ticks[base + 2], ticks[base + 3], timeMillis);
+        }
+        if (ticks[base + 4] != 0) {
+            store.onTrade(symbolIds[index], ticks[base + 4], ticks[base + 5], timeMillis);
+        }
+    }
+
+    private static long parse(String value, int scale) {
+        if (value.isBlank()) {
+            return 0;
+        }
+        return scale == FixedPoint.PRICE_SCALE
+                ? FixedPoint.toPriceTicks(new BigDecimal(value.trim()))
+                : FixedPoint.toQuantityLots(new BigDecimal(value.trim()));
+    }
+}
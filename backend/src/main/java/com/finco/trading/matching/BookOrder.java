@@ -0,0 +1,29 @@
+package com.finco.trading.matching;
+
+/**
+ * Resting order, linked into the FIFO queue of its {@link PriceLevel}.
+ */
+final class BookOrder {
+
+    final long id;
+    final String orderId;
+    final long accountId;
+    final Side side;
+    final TimeInForce timeInForce;
+    final long priceTicks;
+    long remainingLots;
+
+    PriceLevel level;
+    BookOrder prev;
+    BookOrder next;
+
+    BookOrder(NewOrder order, long remainingLots) {
+        this.id = order.id();
+        this.orderId = order.orderId();
+        this.accountId = order.accountId();
+        this.side = order.side();
+        this.timeInForce = order.timeInForce();
+        this.priceTicks = order.priceTicks();
+        this.remainingLots = remainingLots;
+    }
+}
@@ -0,0 +1,88 @@
+package com.finco.trading.matching;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * One side of an order book. Price levels are kept in a sorted primitive array with the
+ * best price at the end, so matching and inserting at the touch do not shift anything.
+ * Emptied levels are recycled to keep the matching loop allocation-free.
+ */
+final class BookSide {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Side side;
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private PriceLevel[] levels = new PriceLevel[INITIAL_CAPACITY];
+    private int size;
+    private final ArrayDeque<PriceLevel> pool = new ArrayDeque<>();
+
+    BookSide(Side side) {
+        this.side = side;
+    }
+
+    PriceLevel best() {
+        return size == 0 ? null : levels[size - 1];
+    }
+
+    int depth() {
+        return size;
+    }
+
+    /**
+     * Level {@code index} counted from the best price, or null past the end of the book.
+     */
+    PriceLevel level(int index) {
+        return index < size ? levels[size - 1 - index] : null;
+    }
+
+    PriceLevel getOrCreate(long priceTicks) {
+        long key = key(priceTicks);
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            return levels[index];
+        }
+        int insertAt = -index - 1;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            levels = Arrays.copyOf(levels, size * 2);
+        }
+        System.arraycopy(keys, insertAt, keys, insertAt + 1, size - insertAt);
+        System.arraycopy(levels, insertAt, levels, insertAt + 1, size - insertAt);
+        PriceLevel level = pool.isEmpty() ? new PriceLevel() : pool.pop();
+        level.priceTicks = priceTicks;
+        level.totalLots = 0;
+        keys[insertAt] = key;
+        levels[insertAt] = level;
+        size++;
+        return level;
+    }
+
+    void remove(PriceLevel level) {
+        int index = Arrays.binarySearch(keys, 0, size, key(level.priceTicks));
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(levels, index + 1, levels, index, size - index - 1);
+        size--;
+        levels[size] = null;
+        pool.push(level);
+    }
+
+    /**
+     * Whether an incoming order on the other side at {@code limitTicks} trades with {@code level}.
+     */
+    boolean crosses(PriceLevel level, boolean market, long limitTicks) {
+        if (market) {
+            return true;
+        }
+        return side == Side.SELL ? level.priceTicks <= limitTicks : level.priceTicks >= limitTicks;
+    }
+
+    // Bids are stored ascending and asks descending so that the best level is always last.
+    private long key(long priceTicks) {
+        return side == Side.BUY ? priceTicks : -priceTicks;
+    }
+}
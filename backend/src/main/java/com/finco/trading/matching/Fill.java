@@ -0,0 +1,16 @@
+package com.finco.trading.matching;
+
+/**
+ * A single execution between a resting (maker) order and an incoming (taker) order.
+ * Fills always print at the maker's price level.
+ */
+public record Fill(
+        long makerId,
+        String makerOrderId,
+        long makerAccountId,
+        long takerId,
+        long takerAccountId,
+        Side takerSide,
+        long priceTicks,
+        long quantityLots) {
+}
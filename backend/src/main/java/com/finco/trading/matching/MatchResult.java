@@ -0,0 +1,21 @@
+package com.finco.trading.matching;
+
+import java.util.List;
+
+/**
+ * Outcome of submitting an order: the fills it generated and what happened to the remainder.
+ * {@code restingLots} stayed on the book, {@code cancelledLots} were discarded because of the
+ * time in force (IOC/FOK) or because the order was a market order with no more liquidity.
+ */
+public record MatchResult(
+        long orderId,
+        String symbol,
+        List<Fill> fills,
+        long filledLots,
+        long restingLots,
+        long cancelledLots) {
+
+    public boolean isEmpty() {
+        return fills.isEmpty() && cancelledLots == 0;
+    }
+}
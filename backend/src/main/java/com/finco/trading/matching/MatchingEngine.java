@@ -0,0 +1,159 @@
+package com.finco.trading.matching;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * In-memory matching engine. Symbols are hashed onto a fixed number of shards and every shard
+ * owns its books and a single writer thread, so books are mutated without locks and commands
+ * for one symbol are processed strictly in submission order.
+ */
+@Component
+@Slf4j
+public class MatchingEngine {
+
+    private final Shard[] shards;
+
+    public MatchingEngine(@Value("${app.matching.shards:4}") int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Matching engine needs at least one shard");
+        }
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+        log.info("Matching engine started with {} shards", shardCount);
+    }
+
+    public CompletableFuture<MatchResult> submit(NewOrder order) {
+        Shard shard = shardFor(order.symbol());
+        return shard.call(() -> shard.book(order.symbol()).submit(order));
+    }
+
+    public CompletableFuture<Void> restore(NewOrder order) {
+        Shard shard = shardFor(order.symbol());
+        return shard.call(() -> {
+            shard.book(order.symbol()).restore(order);
+            return null;
+        });
+    }
+
+    /**
+     * Cancels a resting order. Completes with the cancelled remainder in lots, or -1 if the
+     * order was not resting (already filled, cancelled or never booked).
+     */
+    public CompletableFuture<Long> cancel(String symbol, String orderId) {
+        Shard shard = shardFor(symbol);
+        return shard.call(() -> shard.book(symbol).cancel(orderId));
+    }
+
+    /**
+     * Atomically cancels a resting order and submits its replacement, which loses time priority
+     * and may trade immediately. Completes with null if the original was not resting.
+     */
+    public CompletableFuture<MatchResult> replace(String orderId, NewOrder replacement) {
+        Shard shard = shardFor(replacement.symbol());
+        return shard.call(() -> {
+            OrderBook book = shard.book(replacement.symbol());
+            return book.cancel(orderId) < 0 ? null : book.submit(replacement);
+        });
+    }
+
+    /**
+     * Removes all resting DAY orders from every book and completes with their database ids.
+     */
+    public CompletableFuture<List<Long>> expireDayOrders() {
+        List<CompletableFuture<List<Long>>> perShard = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            perShard.add(shard.call(() -> {
+                List<Long> expired = new ArrayList<>();
+                for (OrderBook book : shard.books.values()) {
+                    expired.addAll(book.expireDayOrders());
+                }
+                return expired;
+            }));
+        }
+        return CompletableFuture.allOf(perShard.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    List<Long> expired = new ArrayList<>();
+                    perShard.forEach(future -> expired.addAll(future.join()));
+                    return expired;
+                });
+    }
+
+    /**
+     * Best bid and ask in ticks, 0 when that side is empty.
+     */
+    public CompletableFuture<long[]> topOfBook(String symbol) {
+        Shard shard = shardFor(symbol);
+        return shard.call(() -> {
+            OrderBook book = shard.book(symbol);
+            return new long[] {book.bestBid(), book.bestAsk()};
+        });
+    }
+
+    /**
+     * Discards the book of a symbol with everything resting in it, for a symbol handed over to
+     * another node. Completes with whether there was a book.
+     */
+    public CompletableFuture<Boolean> dropBook(String symbol) {
+        Shard shard = shardFor(symbol);
+        return shard.call(() -> shard.books.remove(symbol) != null);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+        for (Shard shard : shards) {
+            try {
+                if (!shard.executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    shard.executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                shard.executor.shutdownNow();
+            }
+        }
+    }
+
+    private Shard shardFor(String symbol) {
+        return shards[Math.floorMod(symbol.hashCode(), shards.length)];
+    }
+
+    private static final class Shard {
+
+        private final ExecutorService executor;
+        // Only accessed from the shard thread
+        private final Map<String, OrderBook> books = new HashMap<>();
+
+        Shard(int index) {
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "matching-shard-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        OrderBook book(String symbol) {
+            return books.computeIfAbsent(symbol, OrderBook::new);
+        }
+
+        <T> CompletableFuture<T> call(Supplier<T> command) {
+            return CompletableFuture.supplyAsync(command, executor);
+        }
+    }
+}
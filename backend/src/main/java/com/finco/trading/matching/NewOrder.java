@@ -0,0 +1,17 @@
+package com.finco.trading.matching;
+
+/**
+ * Order as submitted to the matching engine. Prices are in ticks and quantities in lots,
+ * see {@link com.finco.trading.util.FixedPoint}. {@code priceTicks} is ignored for market orders.
+ */
+public record NewOrder(
+        long id,
+        String orderId,
+        long accountId,
+        String symbol,
+        Side side,
+        boolean market,
+        TimeInForce timeInForce,
+        long priceTicks,
+        long quantityLots) {
+}
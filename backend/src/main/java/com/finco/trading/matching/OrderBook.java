@@ -0,0 +1,145 @@
+package com.finco.trading.matching;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Price-time priority limit order book for a single symbol.
+ * Not thread-safe: each book is only ever touched by the shard thread that owns it.
+ */
+final class OrderBook {
+
+    private final String symbol;
+    private final BookSide bids = new BookSide(Side.BUY);
+    private final BookSide asks = new BookSide(Side.SELL);
+    private final Map<String, BookOrder> orders = new HashMap<>();
+
+    OrderBook(String symbol) {
+        this.symbol = symbol;
+    }
+
+    MatchResult submit(NewOrder order) {
+        BookSide opposite = order.side() == Side.BUY ? asks : bids;
+        long quantity = order.quantityLots();
+
+        if (order.timeInForce() == TimeInForce.FOK
+                && availableLots(opposite, order.market(), order.priceTicks(), quantity) < quantity) {
+            return new MatchResult(order.id(), symbol, List.of(), 0, 0, quantity);
+        }
+
+        List<Fill> fills = List.of();
+        long remaining = quantity;
+        while (remaining > 0) {
+            PriceLevel level = opposite.best();
+            if (level == null || !opposite.crosses(level, order.market(), order.priceTicks())) {
+                break;
+            }
+            BookOrder maker = level.head;
+            long traded = Math.min(remaining, maker.remainingLots);
+            if (fills.isEmpty()) {
+                fills = new ArrayList<>(4);
+            }
+            fills.add(new Fill(maker.id, maker.orderId, maker.accountId, order.id(), order.accountId(),
+                    order.side(), level.priceTicks, traded));
+            remaining -= traded;
+            maker.remainingLots -= traded;
+            level.totalLots -= traded;
+            if (maker.remainingLots == 0) {
+                level.remove(maker);
+                orders.remove(maker.orderId);
+                if (level.isEmpty()) {
+                    opposite.remove(level);
+                }
+            }
+        }
+
+        long filled = quantity - remaining;
+        if (remaining > 0 && !order.market() && order.timeInForce().rests()) {
+            rest(order, remaining);
+            return new MatchResult(order.id(), symbol, fills, filled, remaining, 0);
+        }
+        return new MatchResult(order.id(), symbol, fills, filled, 0, remaining);
+    }
+
+    /**
+     * Adds an order that is already known to be resting, without matching it. Used to rebuild
+     * the book from the database on startup.
+     */
+    void restore(NewOrder order) {
+        if (order.quantityLots() > 0 && !orders.containsKey(order.orderId())) {
+            rest(order, order.quantityLots());
+        }
+    }
+
+    /**
+     * Removes a resting order. Returns the cancelled remainder, or -1 if the order is not on the book.
+     */
+    long cancel(String orderId) {
+        BookOrder order = orders.remove(orderId);
+        if (order == null) {
+            return -1;
+        }
+        long remaining = order.remainingLots;
+        unlink(order);
+        return remaining;
+    }
+
+    /**
+     * Pulls every resting DAY order off the book and returns their database ids.
+     */
+    List<Long> expireDayOrders() {
+        List<Long> expired = new ArrayList<>();
+        orders.values().removeIf(order -> {
+            if (order.timeInForce != TimeInForce.DAY) {
+                return false;
+            }
+            unlink(order);
+            expired.add(order.id);
+            return true;
+        });
+        return expired;
+    }
+
+    long bestBid() {
+        PriceLevel level = bids.best();
+        return level == null ? 0 : level.priceTicks;
+    }
+
+    long bestAsk() {
+        PriceLevel level = asks.best();
+        return level == null ? 0 : level.priceTicks;
+    }
+
+    int size() {
+        return orders.size();
+    }
+
+    private void rest(NewOrder order, long remainingLots) {
+        BookOrder resting = new BookOrder(order, remainingLots);
+        BookSide own = order.side() == Side.BUY ? bids : asks;
+        own.getOrCreate(order.priceTicks()).append(resting);
+        orders.put(order.orderId(), resting);
+    }
+
+    private void unlink(BookOrder order) {
+        PriceLevel level = order.level;
+        level.remove(order);
+        if (level.isEmpty()) {
+            (order.side == Side.BUY ? bids : asks).remove(level);
+        }
+    }
+
+    private static long availableLots(BookSide opposite, boolean market, long limitTicks, long needed) {
+        long available = 0;
+        for (int i = 0; available < needed; i++) {
+            PriceLevel level = opposite.level(i);
+            if (level == null || !opposite.crosses(level, market, limitTicks)) {
+                break;
+            }
+            available += level.totalLots;
+        }
+        return available;
+    }
+}
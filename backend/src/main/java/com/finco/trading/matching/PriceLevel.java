@@ -0,0 +1,46 @@
+package com.finco.trading.matching;
+
+/**
+ * All resting orders at one price, in time priority.
+ */
+final class PriceLevel {
+
+    long priceTicks;
+    long totalLots;
+    BookOrder head;
+    BookOrder tail;
+
+    void append(BookOrder order) {
+        order.level = this;
+        order.prev = tail;
+        order.next = null;
+        if (tail == null) {
+            head = order;
+        } else {
+            tail.next = order;
+        }
+        tail = order;
+        totalLots += order.remainingLots;
+    }
+
+    void remove(BookOrder order) {
+        if (order.prev == null) {
+            head = order.next;
+        } else {
+            order.prev.next = order.next;
+        }
+        if (order.next == null) {
+            tail = order.prev;
+        } else {
+            order.next.prev = order.prev;
+        }
+        totalLots -= order.remainingLots;
+        order.level = null;
+        order.prev = null;
+        order.next = null;
+    }
+
+    boolean isEmpty() {
+        return head == null;
+    }
+}
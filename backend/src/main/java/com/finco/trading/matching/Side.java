@@ -0,0 +1,10 @@
+package com.finco.trading.matching;
+
+public enum Side {
+    BUY,
+    SELL;
+
+    public Side opposite() {
+        return this == BUY ? SELL : BUY;
+    }
+}
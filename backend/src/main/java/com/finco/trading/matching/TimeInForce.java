@@ -0,0 +1,16 @@
+package com.finco.trading.matching;
+
+/**
+ * Lifetime of the unfilled remainder of an order.
+ * IOC and FOK never rest on the book; DAY rests until {@link MatchingEngine#expireDayOrders()}.
+ */
+public enum TimeInForce {
+    DAY,
+    GTC,
+    IOC,
+    FOK;
+
+    public boolean rests() {
+        return this == DAY || this == GTC;
+    }
+}
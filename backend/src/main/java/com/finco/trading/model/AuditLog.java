@@ -0,0 +1,47 @@
+package com.finco.trading.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of {@code audit_log}. Written in batches by {@link com.finco.trading.audit.AuditLogWriter},
+ * mapped here for reading.
+ */
+@Entity
+@Table(name = "audit_log")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entity_type", nullable = false, length = 50)
+    private String entityType; // ORDER
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false, length = 50)
+    private String action; // CREATE, UPDATE, CANCEL
+
+    @Column(name = "user_id", length = 100)
+    private String userId;
+
+    @Column(columnDefinition = "TEXT")
+    private String details;
+
+    @Column(name = "ip_address", length = 45)
+    private String ipAddress;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
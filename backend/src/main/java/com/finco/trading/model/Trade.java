@@ -0,0 +1,50 @@
+package com.finco.trading.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "trades")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Trade {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "trade_id", unique = true, nullable = false, length = 50)
+    private String tradeId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId; // orders.id, not the ORD- business id
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false, length = 20)
+    private String symbol;
+
+    @Column(nullable = false, length = 10)
+    private String side; // BUY, SELL
+
+    @Column(nullable = false, precision = 19, scale = 8)
+    private BigDecimal quantity;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal price;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal commission;
+
+    @Column(name = "executed_at", nullable = false)
+    private LocalDateTime executedAt;
+}
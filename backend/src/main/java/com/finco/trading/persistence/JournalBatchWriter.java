@@ -0,0 +1,150 @@
+package com.finco.trading.persistence;
+
+import com.finco.trading.model.Order;
+import com.finco.trading.model.Trade;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes one drained batch of {@link JournalEvent}s. Must be called inside a transaction.
+ * Order and trade rows go out as multi-row INSERT statements, followed by the row updates
+ * in journal order so that later changes to the same order win.
+ */
+@Component
+@RequiredArgsConstructor
+class JournalBatchWriter {
+
+    // Keeps each statement well below the 32767 bind parameter limit of the Postgres protocol
+    static final int MAX_ROWS_PER_INSERT = 1000;
+
+    private static final String INSERT_ORDERS = "INSERT INTO orders (id, order_id, account_id, symbol, order_type, side, "
+            + "quantity, price, status, filled_quantity, average_fill_price, time_in_force, created_at, updated_at, "
+            + "executed_at) VALUES ";
+    private static final String ORDER_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_TRADES = "INSERT INTO trades (trade_id, order_id, account_id, symbol, side, "
+            + "quantity, price, commission, executed_at) VALUES ";
+    private static final String TRADE_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // CANCELLED is sticky: a fill journaled after the cancel cannot resurrect the order
+    private static final String APPLY_FILL = "UPDATE orders SET "
+            + "average_fill_price = (COALESCE(average_fill_price, 0) * filled_quantity + ?) / (filled_quantity + ?), "
+            + "filled_quantity = filled_quantity + ?, "
+            + "status = CASE WHEN status = 'CANCELLED' THEN status "
+            + "WHEN filled_quantity + ? >= quantity THEN 'FILLED' ELSE 'PARTIALLY_FILLED' END, "
+            + "executed_at = ?, updated_at = ? WHERE id = ?";
+
+    private static final String AMEND = "UPDATE orders SET price = ?, quantity = ?, updated_at = ? WHERE id = ?";
+
+    private static final String UPDATE_STATUS = "UPDATE orders SET status = ?, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    void write(List<JournalEvent> events) {
+        List<Order> orders = new ArrayList<>();
+        List<Trade> trades = new ArrayList<>();
+        List<JournalEvent> updates = new ArrayList<>();
+        for (JournalEvent event : events) {
+            if (event instanceof JournalEvent.OrderInsert insert) {
+                orders.add(insert.order());
+            } else if (event instanceof JournalEvent.TradeInsert insert) {
+                trades.add(insert.trade());
+            } else {
+                updates.add(event);
+            }
+        }
+        insertOrders(orders);
+        insertTrades(trades);
+        applyUpdates(updates);
+    }
+
+    private void insertOrders(List<Order> orders) {
+        for (int from = 0; from < orders.size(); from += MAX_ROWS_PER_INSERT) {
+            List<Order> chunk = orders.subList(from, Math.min(orders.size(), from + MAX_ROWS_PER_INSERT));
+            List<Object> args = new ArrayList<>(chunk.size() * 15);
+            for (Order order : chunk) {
+                args.add(order.getId());
+                args.add(order.getOrderId());
+                args.add(order.getAccountId());
+                args.add(order.getSymbol());
+                args.add(order.getOrderType());
+                args.add(order.getSide());
+                args.add(order.getQuantity());
+                args.add(order.getPrice());
+                args.add(order.getStatus());
+                args.add(order.getFilledQuantity());
+                args.add(order.getAverageFillPrice());
+                args.add(order.getTimeInForce());
+                args.add(timestamp(order.getCreatedAt()));
+                args.add(timestamp(order.getUpdatedAt()));
+                args.add(timestamp(order.getExecutedAt()));
+            }
+            jdbcTemplate.update(INSERT_ORDERS + rows(ORDER_ROW, chunk.size()), args.toArray());
+        }
+    }
+
+    private void insertTrades(List<Trade> trades) {
+        for (int from = 0; from < trades.size(); from += MAX_ROWS_PER_INSERT) {
+            List<Trade> chunk = trades.subList(from, Math.min(trades.size(), from + MAX_ROWS_PER_INSERT));
+            List<Object> args = new ArrayList<>(chunk.size() * 9);
+            for (Trade trade : chunk) {
+                args.add(trade.getTradeId());
+                args.add(trade.getOrderId());
+                args.add(trade.getAccountId());
+                args.add(trade.getSymbol());
+                args.add(trade.getSide());
+                args.add(trade.getQuantity());
+                args.add(trade.getPrice());
+                args.add(trade.getCommission());
+                args.add(timestamp(trade.getExecutedAt()));
+            }
+            jdbcTemplate.update(INSERT_TRADES + rows(TRADE_ROW, chunk.size()), args.toArray());
+        }
+    }
+
+    /**
+     * Runs the updates in order, sending each run of consecutive same-statement updates as one JDBC batch.
+     */
+    private void applyUpdates(List<JournalEvent> updates) {
+        int from = 0;
+        while (from < updates.size()) {
+            Class<?> type = updates.get(from).getClass();
+            int to = from + 1;
+            while (to < updates.size() && updates.get(to).getClass() == type) {
+                to++;
+            }
+            List<Object[]> batch = new ArrayList<>(to - from);
+            String sql = null;
+            for (JournalEvent event : updates.subList(from, to)) {
+                if (event instanceof JournalEvent.OrderFill fill) {
+                    sql = APPLY_FILL;
+                    batch.add(new Object[] {fill.notional(), fill.quantity(), fill.quantity(), fill.quantity(),
+                        timestamp(fill.executedAt()), timestamp(fill.executedAt()), fill.id()});
+                } else if (event instanceof JournalEvent.OrderAmend amend) {
+                    sql = AMEND;
+                    batch.add(new Object[] {amend.price(), amend.quantity(), timestamp(amend.updatedAt()), amend.id()});
+                } else if (event instanceof JournalEvent.OrderStatus status) {
+                    sql = UPDATE_STATUS;
+                    batch.add(new Object[] {status.status(), timestamp(status.updatedAt()), status.id()});
+                }
+            }
+            jdbcTemplate.batchUpdate(sql, batch);
+            from = to;
+        }
+    }
+
+    private static String rows(String row, int count) {
+        return String.join(", ", Collections.nCopies(count, row));
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value == null ? null : Timestamp.valueOf(value);
+    }
+}
@@ -0,0 +1,35 @@
+package com.finco.trading.persistence;
+
+import com.finco.trading.model.Order;
+import com.finco.trading.model.Trade;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Row changes queued in the {@link WriteBehindJournal}. Updates are expressed as deltas against
+ * the current row so they can be applied in journal order without reading the row first.
+ */
+public sealed interface JournalEvent {
+
+    /**
+     * Inserts the order as-is. The entity must already carry an id from
+     * {@link OrderRowIds} and must not be modified after it is journaled.
+     */
+    record OrderInsert(Order order) implements JournalEvent {
+    }
+
+    record OrderFill(long id, BigDecimal quantity, BigDecimal notional, LocalDateTime executedAt)
+            implements JournalEvent {
+    }
+
+    record OrderAmend(long id, BigDecimal price, BigDecimal quantity, LocalDateTime updatedAt)
+            implements JournalEvent {
+    }
+
+    record OrderStatus(long id, String status, LocalDateTime updatedAt) implements JournalEvent {
+    }
+
+    record TradeInsert(Trade trade) implements JournalEvent {
+    }
+}
@@ -0,0 +1,10 @@
+package com.finco.trading.persistence;
+
+/**
+ * Allocates {@code orders.id} values ahead of the insert, so an order can be journaled, matched
+ * and referenced by trades before its row exists.
+ */
+public interface OrderRowIds {
+
+    long next();
+}
@@ -0,0 +1,207 @@
+package com.finco.trading.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the time-partitioned tables from {@code V3__Time_Partitioning.sql} supplied with
+ * partitions ({@code app.partitioning.enabled}). On startup and on {@code cron} it creates the
+ * partitions for the current period and the next {@code ahead-months} / {@code ahead-days}, so
+ * rows do not land in the default partition. Rows that did, because a run was missed or failed,
+ * are moved into the partition when it is created. It also detaches partitions that ended more
+ * than the configured retention ago into the {@code archive} schema, where they stay queryable
+ * and can be dumped or dropped. An {@code orders} partition still holding working orders is kept
+ * attached. New {@code orders} and {@code trades} partitions get the unique index on the business
+ * id that the migration gives the existing ones.
+ */
+@Component
+@Slf4j
+public class PartitionMaintenance {
+
+    enum Period {
+        DAY(ChronoUnit.DAYS, "yyyy_MM_dd"),
+        MONTH(ChronoUnit.MONTHS, "yyyy_MM");
+
+        private final ChronoUnit unit;
+        private final DateTimeFormatter suffix;
+
+        Period(ChronoUnit unit, String suffix) {
+            this.unit = unit;
+            this.suffix = DateTimeFormatter.ofPattern(suffix);
+        }
+
+        LocalDate start(LocalDate date) {
+            return this == MONTH ? date.withDayOfMonth(1) : date;
+        }
+
+        LocalDate plus(LocalDate start, long periods) {
+            return start.plus(periods, unit);
+        }
+    }
+
+    /**
+     * @param key the partition key column
+     * @param retention periods a partition is kept attached after it ends, 0 for ever
+     * @param unique column unique within each partition, or null
+     * @param keepWhile condition on the partition's rows that keeps it attached regardless
+     */
+    record PartitionedTable(String name, String key, Period period, int ahead, int retention, String unique,
+                            String keepWhile) {
+    }
+
+    // Upper bound in pg_get_expr(relpartbound): FOR VALUES FROM ('...') TO ('2026-11-01 00:00:00')
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('(\\d{4}-\\d{2}-\\d{2})[^']*'\\)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final List<PartitionedTable> tables;
+
+    public PartitionMaintenance(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                @Value("${app.partitioning.enabled:true}") boolean enabled,
+                                @Value("${app.partitioning.ahead-months:2}") int aheadMonths,
+                                @Value("${app.partitioning.ahead-days:7}") int aheadDays,
+                                @Value("${app.partitioning.retention.orders-months:0}") int ordersMonths,
+                                @Value("${app.partitioning.retention.trades-months:0}") int tradesMonths,
+                                @Value("${app.partitioning.retention.audit-log-days:0}") int auditLogDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.tables = List.of(
+                new PartitionedTable("orders", "created_at", Period.MONTH, aheadMonths, ordersMonths, "order_id",
+                        "status IN ('PENDING', 'PARTIALLY_FILLED')"),
+                new PartitionedTable("trades", "executed_at", Period.MONTH, aheadMonths, tradesMonths, "trade_id", null),
+                new PartitionedTable("audit_log", "created_at", Period.DAY, aheadDays, auditLogDays, null, null));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.partitioning.cron:0 15 0 * * *}")
+    public synchronized void maintain() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        for (PartitionedTable table : tables) {
+            try {
+                if (!isPartitioned(table.name())) {
+                    log.debug("Table {} is not partitioned, skipping partition maintenance", table.name());
+                    continue;
+                }
+                createPartitions(table, today);
+                if (table.retention() > 0) {
+                    detachPartitions(table, today);
+                }
+            } catch (RuntimeException e) {
+                // The default partition takes the rows until a later run creates the partition and moves them
+                log.error("Partition maintenance of {} failed", table.name(), e);
+            }
+        }
+    }
+
+    private boolean isPartitioned(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))",
+                Boolean.class, table));
+    }
+
+    void createPartitions(PartitionedTable table, LocalDate today) {
+        LocalDate current = table.period().start(today);
+        for (int i = 0; i <= table.ahead(); i++) {
+            LocalDate from = table.period().plus(current, i);
+            LocalDate to = table.period().plus(current, i + 1);
+            String partition = partitionName(table, from);
+            if (exists(partition)) {
+                continue;
+            }
+            String range = String.format("%s >= '%s' AND %s < '%s'", table.key(), from, table.key(), to);
+            String defaultPartition = table.name() + "_default";
+            if (exists(defaultPartition) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + defaultPartition + " WHERE " + range + ")", Boolean.class))) {
+                moveFromDefault(table, partition, defaultPartition, range, from, to);
+                continue;
+            }
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    partition, table.name(), from, to));
+            createUniqueIndex(table, partition);
+        }
+    }
+
+    /**
+     * Creates a partition whose rows are already in the default partition, which a plain
+     * {@code CREATE TABLE ... PARTITION OF} refuses: the partition is built as a table, the rows
+     * are moved into it and it is attached. Inserts into the default partition wait meanwhile.
+     */
+    private void moveFromDefault(PartitionedTable table, String partition, String defaultPartition, String range,
+                                 LocalDate from, LocalDate to) {
+        Integer moved = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(String.format("CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS)", partition, table.name()));
+            createUniqueIndex(table, partition);
+            int rows = jdbcTemplate.update(String.format(
+                    "WITH moved AS (DELETE FROM %s WHERE %s RETURNING *) INSERT INTO %s SELECT * FROM moved",
+                    defaultPartition, range, partition));
+            jdbcTemplate.execute(String.format("ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+                    table.name(), partition, from, to));
+            return rows;
+        });
+        log.warn("Created partition {} of {} and moved {} rows into it from the default partition",
+                partition, table.name(), moved);
+    }
+
+    private void createUniqueIndex(PartitionedTable table, String partition) {
+        if (table.unique() != null) {
+            jdbcTemplate.execute(String.format("CREATE UNIQUE INDEX IF NOT EXISTS %s_%s_key ON %s (%s)",
+                    partition, table.unique(), partition, table.unique()));
+        }
+    }
+
+    private boolean exists(String relation) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, relation));
+    }
+
+    void detachPartitions(PartitionedTable table, LocalDate today) {
+        LocalDate cutoff = table.period().plus(table.period().start(today), -table.retention());
+        List<Map<String, Object>> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname AS name, pg_get_expr(c.relpartbound, c.oid) AS bound FROM pg_inherits i "
+                        + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = to_regclass(?) ORDER BY c.relname",
+                table.name());
+        for (Map<String, Object> partition : partitions) {
+            String name = (String) partition.get("name");
+            Matcher upper = UPPER_BOUND.matcher((String) partition.get("bound"));
+            if (!upper.find() || LocalDate.parse(upper.group(1)).isAfter(cutoff)) {
+                continue;
+            }
+            if (table.keepWhile() != null && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + name + " WHERE " + table.keepWhile() + ")", Boolean.class))) {
+                log.warn("Partition {} is past retention but still has rows where {}, kept attached",
+                        name, table.keepWhile());
+                continue;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("ALTER TABLE " + table.name() + " DETACH PARTITION " + name);
+                jdbcTemplate.execute("ALTER TABLE " + name + " SET SCHEMA archive");
+            });
+            log.info("Detached partition {} of {} into the archive schema", name, table.name());
+        }
+    }
+
+    static String partitionName(PartitionedTable table, LocalDate from) {
+        return table.name() + "_p" + table.period().suffix.format(from);
+    }
+}
@@ -0,0 +1,183 @@
+package com.finco.trading.persistence;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides whether a read-only transaction may run on the read replica
+ * ({@code app.persistence.read-replica.enabled}), see {@link ReplicaRoutingDataSource}.
+ *
+ * <p>The replica's lag is probed every {@code lag-probe-interval-ms}; while it is above
+ * {@code max-lag-ms}, or unknown because the probe failed, every read goes to the primary. On top
+ * of that an account whose orders or positions were written is read from the primary for
+ * {@code read-your-writes-ms} plus the last measured lag after the commit, so a client sees its
+ * own order right away and a stale replica row is not put back into a cache entry the write has
+ * just evicted. Services declare which account they read with {@link #readYourWrites} at the
+ * start of the read-only transaction, before its first statement.
+ */
+@Component
+@Slf4j
+public class ReadReplicaGuard {
+
+    private static final String PIN = ReadReplicaGuard.class.getName() + ".PRIMARY";
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final long maxLagMs;
+    private final long readYourWritesMs;
+    private final Clock clock;
+
+    private final Map<Long, Long> primaryUntil = new ConcurrentHashMap<>();
+    private volatile long anyPrimaryUntil;
+    // -1 until the first successful probe
+    private volatile long lagMs = -1;
+
+    @Autowired
+    public ReadReplicaGuard(@Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.persistence.read-replica.enabled:false}") boolean enabled,
+                            @Value("${app.persistence.read-replica.lag-query:SELECT 0}") String lagQuery,
+                            @Value("${app.persistence.read-replica.max-lag-ms:5000}") long maxLagMs,
+                            @Value("${app.persistence.read-replica.read-your-writes-ms:1000}") long readYourWritesMs) {
+        this(enabled ? replicaDataSource.getIfAvailable() : null, lagQuery, maxLagMs, readYourWritesMs, Clock.systemUTC());
+        if (replica != null) {
+            Gauge.builder("datasource.replica.lag", this, guard -> guard.lagMs)
+                    .description("Last measured replication lag of the read replica in ms, -1 when unknown")
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    ReadReplicaGuard(DataSource replicaDataSource, String lagQuery, long maxLagMs, long readYourWritesMs, Clock clock) {
+        this.replica = replicaDataSource != null ? new JdbcTemplate(replicaDataSource) : null;
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+        this.readYourWritesMs = readYourWritesMs;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return replica != null;
+    }
+
+    /**
+     * Records that the account's orders or positions changed. Inside a transaction the
+     * read-your-writes window starts when it commits.
+     */
+    public void written(Long accountId) {
+        if (replica == null || accountId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pinAccount(accountId);
+                }
+            });
+        } else {
+            pinAccount(accountId);
+        }
+    }
+
+    public void written(Collection<Long> accountIds) {
+        if (replica != null) {
+            new HashSet<>(accountIds).forEach(this::written);
+        }
+    }
+
+    /**
+     * Sends the current read-only transaction to the primary if the account was written within
+     * its read-your-writes window. A null account (a read across all accounts) only follows the
+     * lag guard.
+     */
+    public void readYourWrites(Long accountId) {
+        if (replica != null && accountId != null && primaryUntil.getOrDefault(accountId, 0L) > clock.millis()) {
+            pinTransaction();
+        }
+    }
+
+    /**
+     * Like {@link #readYourWrites} for a cached read across all accounts, which any write may
+     * have invalidated.
+     */
+    public void readYourWritesAll() {
+        if (replica != null && anyPrimaryUntil > clock.millis()) {
+            pinTransaction();
+        }
+    }
+
+    /**
+     * Whether the statement about to run in the current read-only transaction may use the replica.
+     */
+    boolean replicaUsable() {
+        long lag = lagMs;
+        return lag >= 0 && lag <= maxLagMs && !TransactionSynchronizationManager.hasResource(PIN);
+    }
+
+    long lagMs() {
+        return lagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.persistence.read-replica.lag-probe-interval-ms:1000}")
+    public void probe() {
+        if (replica == null) {
+            return;
+        }
+        long previous = lagMs;
+        try {
+            Long lag = replica.queryForObject(lagQuery, Long.class);
+            lagMs = lag != null ? Math.max(lag, 0) : -1;
+        } catch (RuntimeException e) {
+            lagMs = -1;
+            if (previous >= 0) {
+                log.warn("Read replica lag probe failed, reading from the primary: {}", e.getMessage());
+            }
+        }
+        boolean usable = lagMs >= 0 && lagMs <= maxLagMs;
+        if (usable != (previous >= 0 && previous <= maxLagMs) && lagMs >= 0) {
+            log.info("Read replica lag {} ms, reading from the {}", lagMs, usable ? "replica" : "primary");
+        }
+        long now = clock.millis();
+        primaryUntil.values().removeIf(until -> until <= now);
+    }
+
+    private void pinAccount(Long accountId) {
+        long until = clock.millis() + readYourWritesMs + Math.max(lagMs, 0);
+        primaryUntil.merge(accountId, until, Math::max);
+        if (until > anyPrimaryUntil) {
+            anyPrimaryUntil = until;
+        }
+    }
+
+    private void pinTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(PIN)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(PIN, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PIN);
+            }
+        });
+    }
+}
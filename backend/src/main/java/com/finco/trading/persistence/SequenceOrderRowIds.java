@@ -0,0 +1,45 @@
+package com.finco.trading.persistence;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out {@code orders.id} values from blocks of the Postgres {@code orders} sequence, one
+ * round trip per {@code app.persistence.write-behind.id-block-size} ids.
+ */
+@Component
+public class SequenceOrderRowIds implements OrderRowIds {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.persistence.write-behind.id-block-size:1000}")
+    private int idBlockSize;
+
+    private final ReentrantLock idLock = new ReentrantLock();
+    private long[] idBlock = new long[0];
+    private int idIndex;
+
+    public SequenceOrderRowIds(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long next() {
+        // A lock rather than synchronized: the refill blocks on JDBC and would pin a virtual thread
+        idLock.lock();
+        try {
+            if (idIndex == idBlock.length) {
+                idBlock = jdbcTemplate.queryForList(
+                        "SELECT nextval(pg_get_serial_sequence('orders', 'id')) FROM generate_series(1, ?)",
+                        Long.class, idBlockSize).stream().mapToLong(Long::longValue).toArray();
+                idIndex = 0;
+            }
+            return idBlock[idIndex++];
+        } finally {
+            idLock.unlock();
+        }
+    }
+}
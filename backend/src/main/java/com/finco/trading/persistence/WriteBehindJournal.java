@@ -0,0 +1,255 @@
+package com.finco.trading.persistence;
+
+import com.finco.trading.model.Order;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Optional write-behind path for order and trade rows ({@code app.persistence.write-behind.enabled}).
+ * Request threads append groups of {@link JournalEvent}s to a bounded in-memory queue and a single
+ * flusher thread writes them in batches, one transaction per batch. Each append returns a future
+ * that completes once its events are committed; with {@code ack: DURABLE} callers wait on it,
+ * which turns per-order commits into group commits, with {@code ack: MEMORY} they do not.
+ * Order rows carry ids from {@link OrderRowIds} so they can be referenced before they are inserted.
+ */
+@Component
+@Slf4j
+public class WriteBehindJournal {
+
+    public enum Ack {
+        MEMORY,
+        DURABLE
+    }
+
+    private final JournalBatchWriter batchWriter;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.persistence.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.persistence.write-behind.capacity:65536}")
+    private int capacity;
+
+    @Value("${app.persistence.write-behind.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${app.persistence.write-behind.flush-interval-ms:5}")
+    private long flushIntervalMs;
+
+    @Value("${app.persistence.write-behind.append-timeout-ms:1000}")
+    private long appendTimeoutMs;
+
+    @Value("${app.persistence.write-behind.ack-timeout-ms:5000}")
+    private long ackTimeoutMs;
+
+    @Value("${app.persistence.write-behind.ack:DURABLE}")
+    private Ack ack;
+
+    private BlockingQueue<Entry> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    public WriteBehindJournal(JournalBatchWriter batchWriter, PlatformTransactionManager transactionManager) {
+        this.batchWriter = batchWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        flusher = new Thread(this::flushLoop, "write-behind-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Write-behind journal started (capacity {}, batch {}, ack {})", capacity, maxBatchSize, ack);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Inserts orders carrying ids from {@link OrderRowIds} right away, in the caller's
+     * transaction, as multi-row INSERTs. Used by batch creates when write-behind mode is off.
+     */
+    public void insertOrders(List<Order> orders) {
+        batchWriter.write(orders.stream().<JournalEvent>map(JournalEvent.OrderInsert::new).toList());
+    }
+
+    /**
+     * Journals the events as one unit and, depending on the ack mode, waits for them to be committed.
+     */
+    public void write(List<JournalEvent> events) {
+        CompletableFuture<Void> durable = append(events);
+        if (ack == Ack.DURABLE) {
+            await(durable);
+        }
+    }
+
+    public CompletableFuture<Void> append(List<JournalEvent> events) {
+        if (!running) {
+            throw new IllegalStateException("Write-behind journal is not running");
+        }
+        Entry entry = new Entry(events, new CompletableFuture<>());
+        try {
+            if (!queue.offer(entry, appendTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Write-behind journal is full, retry later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while appending to the write-behind journal", e);
+        }
+        return entry.durable;
+    }
+
+    /**
+     * Waits until everything journaled so far has been committed, so the database can be read back.
+     */
+    public void flush() {
+        if (running) {
+            await(append(List.of()));
+        }
+    }
+
+    public int pending() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.error("Write-behind journal stopped with {} unflushed entries", queue.size());
+        }
+    }
+
+    private void flushLoop() {
+        List<Entry> batch = new ArrayList<>();
+        List<JournalEvent> events = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                events.addAll(first.events);
+                while (events.size() < maxBatchSize) {
+                    Entry next = queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    events.addAll(next.events);
+                }
+                flush(batch, events);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+                events.clear();
+            }
+        }
+    }
+
+    /**
+     * Commits a drained batch. If it fails for a reason other than a transient one, its entries
+     * are written again one at a time, so that only the entries that fail on their own are lost
+     * and not every request that happened to share the batch.
+     */
+    private void flush(List<Entry> batch, List<JournalEvent> events) throws InterruptedException {
+        try {
+            commit(events);
+            batch.forEach(entry -> entry.durable.complete(null));
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return;
+            }
+            log.warn("Write-behind flush of {} events failed, writing its {} entries one at a time: {}",
+                    events.size(), batch.size(), e.getMessage());
+        }
+        for (Entry entry : batch) {
+            try {
+                commit(entry.events);
+                entry.durable.complete(null);
+            } catch (RuntimeException e) {
+                fail(entry, e);
+            }
+        }
+    }
+
+    /**
+     * Writes the events in one transaction, retrying transient failures until it succeeds.
+     */
+    private void commit(List<JournalEvent> events) throws InterruptedException {
+        long backoffMs = 10;
+        while (true) {
+            try {
+                if (!events.isEmpty()) {
+                    transactionTemplate.executeWithoutResult(status -> batchWriter.write(events));
+                }
+                return;
+            } catch (TransientDataAccessException | RecoverableDataAccessException
+                     | CannotGetJdbcConnectionException e) {
+                // Keep the batch and its position in the journal; appenders see backpressure meanwhile
+                log.warn("Write-behind flush of {} events failed, retrying in {} ms: {}",
+                        events.size(), backoffMs, e.getMessage());
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, 5000);
+            }
+        }
+    }
+
+    private void fail(Entry entry, RuntimeException e) {
+        log.error("Write-behind flush of {} events failed permanently, events dropped: {}", entry.events.size(),
+                entry.events, e);
+        entry.durable.completeExceptionally(e);
+    }
+
+    private void await(CompletableFuture<Void> durable) {
+        try {
+            durable.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the write-behind journal", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Write-behind persistence failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Write-behind persistence not acknowledged in time", e);
+        }
+    }
+
+    private record Entry(List<JournalEvent> events, CompletableFuture<Void> durable) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.finco.trading.position;
+
+import com.finco.trading.util.FixedPoint;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mutable position of one account in one symbol, in fixed point: quantity in lots (signed,
+ * negative when short), prices and P&L in ticks. Guarded by its own monitor; nothing inside
+ * blocks, so holding it on a virtual thread is harmless.
+ */
+final class PositionEntry {
+
+    final long accountId;
+    final String symbol;
+
+    private Long id;
+    private long quantityLots;
+    private long averagePriceTicks;
+    private long realizedPnlTicks;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Snapshot bookkeeping: changes since the last persisted version
+    private long version;
+    private long persistedVersion;
+    private long persistedMarkTicks;
+
+    PositionEntry(long accountId, String symbol, LocalDateTime createdAt) {
+        this.accountId = accountId;
+        this.symbol = symbol;
+        this.createdAt = createdAt;
+        this.updatedAt = createdAt;
+        this.version = 1;
+    }
+
+    /**
+     * Restores a persisted row; the entry starts clean.
+     */
+    static PositionEntry restore(long id, long accountId, String symbol, long quantityLots, long averagePriceTicks,
+                                 long realizedPnlTicks, long markTicks, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        PositionEntry entry = new PositionEntry(accountId, symbol, createdAt);
+        entry.id = id;
+        entry.quantityLots = quantityLots;
+        entry.averagePriceTicks = averagePriceTicks;
+        entry.realizedPnlTicks = realizedPnlTicks;
+        entry.updatedAt = updatedAt;
+        entry.persistedVersion = entry.version;
+        entry.persistedMarkTicks = markTicks;
+        return entry;
+    }
+
+    /**
+     * Applies one fill. Adding to the position moves the average price; reducing it realizes
+     * {@code (price - average) * closed} with the sign of the position; crossing through flat
+     * opens the remainder at the fill price. Returns the quantity before the fill.
+     */
+    synchronized long applyFill(boolean buy, long priceTicks, long lots, LocalDateTime at) {
+        long signed = buy ? lots : -lots;
+        long held = Math.abs(quantityLots);
+        if (quantityLots == 0 || (quantityLots > 0) == buy) {
+            averagePriceTicks += FixedPoint.mulDiv(priceTicks - averagePriceTicks, lots, held + lots);
+        } else {
+            long closed = Math.min(lots, held);
+            long pnl = FixedPoint.mulDiv(priceTicks - averagePriceTicks, closed, FixedPoint.ONE_LOT_UNITS);
+            realizedPnlTicks += quantityLots > 0 ? pnl : -pnl;
+            if (lots > held) {
+                averagePriceTicks = priceTicks;
+            } else if (lots == held) {
+                averagePriceTicks = 0;
+            }
+        }
+        long previous = quantityLots;
+        quantityLots += signed;
+        updatedAt = at;
+        version++;
+        return previous;
+    }
+
+    synchronized Snapshot snapshot(long markTicks) {
+        long mark = markTicks > 0 ? markTicks : averagePriceTicks;
+        return new Snapshot(id, accountId, symbol, quantityLots, averagePriceTicks,
+                FixedPoint.mulDiv(quantityLots, mark, FixedPoint.ONE_LOT_UNITS),
+                FixedPoint.mulDiv(quantityLots, mark - averagePriceTicks, FixedPoint.ONE_LOT_UNITS),
+                realizedPnlTicks, createdAt, updatedAt, version, mark);
+    }
+
+    synchronized long quantityLots() {
+        return quantityLots;
+    }
+
+    synchronized void visit(PositionLedger.PositionVisitor visitor) {
+        visitor.visit(accountId, symbol, quantityLots, averagePriceTicks);
+    }
+
+    synchronized boolean isDirty(long markTicks) {
+        return version != persistedVersion || (markTicks > 0 && markTicks != persistedMarkTicks);
+    }
+
+    synchronized void persisted(Snapshot snapshot, Long assignedId) {
+        if (assignedId != null) {
+            id = assignedId;
+        }
+        persistedVersion = snapshot.version();
+        persistedMarkTicks = snapshot.markTicks();
+    }
+
+    /**
+     * Consistent copy of an entry, with market value and unrealized P&L marked at {@code markTicks}
+     * (the average price when the symbol has no mark yet).
+     */
+    record Snapshot(Long id, long accountId, String symbol, long quantityLots, long averagePriceTicks,
+                    long marketValueTicks, long unrealizedPnlTicks, long realizedPnlTicks,
+                    LocalDateTime createdAt, LocalDateTime updatedAt, long version, long markTicks) {
+    }
+}
@@ -0,0 +1,425 @@
+package com.finco.trading.position;
+
+import com.finco.trading.dto.PositionResponse;
+import com.finco.trading.journal.JournalRecord;
+import com.finco.trading.journal.OrderJournal;
+import com.finco.trading.marketdata.MarketDataStore;
+import com.finco.trading.matching.Fill;
+import com.finco.trading.matching.MatchResult;
+import com.finco.trading.matching.Side;
+import com.finco.trading.model.Position;
+import com.finco.trading.repository.PositionRepository;
+import com.finco.trading.util.FixedPoint;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory positions keyed by (accountId, symbol), maintained from fills
+ * ({@code app.positions.ledger.enabled}). Each fill updates quantity, average price and realized
+ * P&L of both sides incrementally. Market value and unrealized P&L use the mark price of the
+ * {@link MarketDataStore}, which fills also publish to, and are derived when a position is read
+ * so a tick costs nothing per position holding the symbol. Changed positions are upserted into {@code positions}
+ * on a fixed delay and on shutdown; the table is loaded back on startup, or the positions are rebuilt
+ * from the fills of the {@link OrderJournal} when it is the recovery source.
+ */
+@Component
+@Slf4j
+public class PositionLedger {
+
+    private static final String INSERT = "INSERT INTO positions (account_id, symbol, quantity, average_price, "
+            + "market_value, unrealized_pnl, realized_pnl, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (account_id, symbol) DO UPDATE SET quantity = EXCLUDED.quantity, "
+            + "average_price = EXCLUDED.average_price, market_value = EXCLUDED.market_value, "
+            + "unrealized_pnl = EXCLUDED.unrealized_pnl, realized_pnl = EXCLUDED.realized_pnl, "
+            + "updated_at = EXCLUDED.updated_at RETURNING id";
+
+    private static final String UPDATE = "UPDATE positions SET quantity = ?, average_price = ?, market_value = ?, "
+            + "unrealized_pnl = ?, realized_pnl = ?, updated_at = ? WHERE id = ?";
+
+    private final PositionRepository positionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MarketDataStore marketDataStore;
+    private final OrderJournal orderJournal;
+
+    private final Map<Long, Map<String, PositionEntry>> accounts = new ConcurrentHashMap<>();
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<QuantityListener> quantityListeners = new CopyOnWriteArrayList<>();
+
+    @Value("${app.positions.ledger.enabled:false}")
+    private boolean enabled;
+
+    public PositionLedger(PositionRepository positionRepository, JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager, MarketDataStore marketDataStore,
+                          OrderJournal orderJournal) {
+        this.positionRepository = positionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.marketDataStore = marketDataStore;
+        this.orderJournal = orderJournal;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void load() {
+        if (!enabled) {
+            return;
+        }
+        if (orderJournal.isRecoverySource()) {
+            replay();
+            return;
+        }
+        int loaded = 0;
+        for (Position position : positionRepository.findAll()) {
+            long quantity = FixedPoint.toQuantityLots(position.getQuantity());
+            long average = FixedPoint.toPriceTicks(position.getAveragePrice());
+            // Until the symbol trades or is quoted again, the persisted market value is the best mark available
+            long mark = quantity != 0 && position.getMarketValue() != null
+                    ? FixedPoint.mulDiv(FixedPoint.toPriceTicks(position.getMarketValue()), FixedPoint.ONE_LOT_UNITS, quantity)
+                    : 0;
+            if (mark > 0 && marketDataStore.markTicks(position.getSymbol()) == 0) {
+                marketDataStore.onTrade(position.getSymbol(), mark, 0, Timestamp.valueOf(position.getUpdatedAt()).getTime());
+            }
+            String symbol = canonical(position.getSymbol());
+            accounts.computeIfAbsent(position.getAccountId(), id -> new ConcurrentHashMap<>())
+                    .put(symbol, PositionEntry.restore(position.getId(), position.getAccountId(),
+                            symbol, quantity, average, FixedPoint.toPriceTicks(position.getRealizedPnl()),
+                            mark, position.getCreatedAt(), position.getUpdatedAt()));
+            loaded++;
+        }
+        log.info("Position ledger loaded {} positions", loaded);
+    }
+
+    /**
+     * Rebuilds every position from the journaled fills. Rebuilt entries have no id yet, their first
+     * snapshot upserts over the existing rows.
+     */
+    private void replay() {
+        Map<String, long[]> marks = new HashMap<>();
+        long events = orderJournal.replay(record -> {
+            if (record.type() != JournalRecord.FILL) {
+                return;
+            }
+            String symbol = marketDataStore.symbol(marketDataStore.symbolId(record.symbol()));
+            LocalDateTime at = record.dateTime();
+            entry(record.accountId(), symbol, at).applyFill(record.isBuy(), record.priceTicks(), record.quantityLots(), at);
+            long[] mark = marks.computeIfAbsent(symbol, key -> new long[3]);
+            mark[0] = record.priceTicks();
+            mark[1] = record.quantityLots();
+            mark[2] = record.timestamp();
+        });
+        marks.forEach((symbol, mark) -> {
+            if (marketDataStore.markTicks(symbol) == 0) {
+                marketDataStore.onTrade(symbol, mark[0], mark[1],
+                        Timestamp.valueOf(JournalRecord.toDateTime(mark[2])).getTime());
+            }
+        });
+        log.info("Position ledger rebuilt {} positions from {} journal events",
+                accounts.values().stream().mapToInt(Map::size).sum(), events);
+    }
+
+    /**
+     * Books the fills of a match for both counterparties. Inside a transaction this happens after
+     * commit, so a rolled-back execution never reaches the ledger.
+     */
+    public void onFills(MatchResult result) {
+        if (!enabled || result.fills().isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(result);
+                }
+            });
+        } else {
+            apply(result);
+        }
+    }
+
+    /**
+     * Registers a listener told about every position a fill changed, after the fill is booked.
+     */
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Registers a listener told the quantity before and after every fill booked, for keeping
+     * aggregates of positions by adding the difference.
+     */
+    public void addQuantityListener(QuantityListener listener) {
+        quantityListeners.add(listener);
+    }
+
+    /**
+     * Publishes a trade price for a symbol; market value and unrealized P&L of every position in it
+     * follow on the next read or snapshot.
+     */
+    public void mark(String symbol, long priceTicks) {
+        if (priceTicks > 0) {
+            marketDataStore.onTrade(symbol, priceTicks, 0, System.currentTimeMillis());
+        }
+    }
+
+    public List<PositionResponse> getPositions(long accountId) {
+        Map<String, PositionEntry> positions = accounts.get(accountId);
+        if (positions == null) {
+            return new ArrayList<>();
+        }
+        List<PositionResponse> responses = new ArrayList<>(positions.size());
+        for (PositionEntry entry : positions.values()) {
+            responses.add(toResponse(entry.snapshot(markOf(entry.symbol))));
+        }
+        responses.sort(Comparator.comparing(PositionResponse::getSymbol));
+        return responses;
+    }
+
+    public List<PositionResponse> getAllPositions() {
+        List<PositionResponse> responses = new ArrayList<>();
+        for (Long accountId : accounts.keySet()) {
+            responses.addAll(getPositions(accountId));
+        }
+        return responses;
+    }
+
+    /**
+     * Positions in any of {@code symbols}, of one account or of all when {@code accountId} is null.
+     */
+    public List<PositionResponse> getPositionsIn(Long accountId, Set<String> symbols) {
+        List<PositionResponse> responses = new ArrayList<>();
+        for (Map.Entry<Long, Map<String, PositionEntry>> account : accounts.entrySet()) {
+            if (accountId != null && !accountId.equals(account.getKey())) {
+                continue;
+            }
+            for (PositionEntry entry : account.getValue().values()) {
+                if (symbols.contains(entry.symbol)) {
+                    responses.add(toResponse(entry.snapshot(markOf(entry.symbol))));
+                }
+            }
+        }
+        return responses;
+    }
+
+    public Optional<PositionResponse> getPosition(long accountId, String symbol) {
+        PositionEntry entry = accounts.getOrDefault(accountId, Map.of()).get(symbol);
+        return Optional.ofNullable(entry).map(e -> toResponse(e.snapshot(markOf(symbol))));
+    }
+
+    /**
+     * Visits the positions of one account, or of all when {@code accountId} is null, one account
+     * after the other. Each position is read consistently, the whole is not a point-in-time view.
+     */
+    public void forEachPosition(Long accountId, PositionVisitor visitor) {
+        if (accountId != null) {
+            for (PositionEntry entry : accounts.getOrDefault(accountId, Map.of()).values()) {
+                entry.visit(visitor);
+            }
+            return;
+        }
+        for (Map<String, PositionEntry> positions : accounts.values()) {
+            for (PositionEntry entry : positions.values()) {
+                entry.visit(visitor);
+            }
+        }
+    }
+
+    /**
+     * Signed net quantity in lots, 0 when there is no position. Without the ledger this falls back
+     * to the positions table.
+     */
+    public long quantityLots(long accountId, String symbol) {
+        if (!enabled) {
+            return positionRepository.findByAccountIdAndSymbol(accountId, symbol)
+                    .map(position -> FixedPoint.toQuantityLots(position.getQuantity()))
+                    .orElse(0L);
+        }
+        Map<String, PositionEntry> positions = accounts.get(accountId);
+        PositionEntry entry = positions != null ? positions.get(symbol) : null;
+        return entry != null ? entry.quantityLots() : 0;
+    }
+
+    /**
+     * Last mark price of a symbol in ticks, 0 when it has none.
+     */
+    public long markTicks(String symbol) {
+        return markOf(symbol);
+    }
+
+    /**
+     * Upserts every position that changed, or whose mark moved, since its last snapshot.
+     * New positions are inserted one by one to learn their ids, known ones go out as one batch.
+     */
+    @Scheduled(fixedDelayString = "${app.positions.snapshot-interval-ms:1000}")
+    public void persistSnapshots() {
+        if (!enabled) {
+            return;
+        }
+        List<PositionEntry> changed = new ArrayList<>();
+        for (Map<String, PositionEntry> positions : accounts.values()) {
+            for (PositionEntry entry : positions.values()) {
+                if (entry.isDirty(markOf(entry.symbol))) {
+                    changed.add(entry);
+                }
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> write(changed));
+        log.debug("Persisted {} position snapshots", changed.size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        try {
+            persistSnapshots();
+        } catch (RuntimeException e) {
+            log.error("Failed to persist position snapshots on shutdown", e);
+        }
+    }
+
+    private void apply(MatchResult result) {
+        LocalDateTime now = LocalDateTime.now();
+        int symbolId = marketDataStore.symbolId(result.symbol());
+        String symbol = marketDataStore.symbol(symbolId);
+        for (Fill fill : result.fills()) {
+            boolean takerBuys = fill.takerSide() == Side.BUY;
+            long lots = fill.quantityLots();
+            long taker = entry(fill.takerAccountId(), symbol, now).applyFill(takerBuys, fill.priceTicks(), lots, now);
+            long maker = entry(fill.makerAccountId(), symbol, now).applyFill(!takerBuys, fill.priceTicks(), lots, now);
+            for (QuantityListener listener : quantityListeners) {
+                listener.quantityChanged(fill.takerAccountId(), symbol, taker, takerBuys ? taker + lots : taker - lots);
+                listener.quantityChanged(fill.makerAccountId(), symbol, maker, takerBuys ? maker - lots : maker + lots);
+            }
+            for (ChangeListener listener : listeners) {
+                listener.positionChanged(fill.takerAccountId(), symbol);
+                listener.positionChanged(fill.makerAccountId(), symbol);
+            }
+        }
+        Fill last = result.fills().get(result.fills().size() - 1);
+        marketDataStore.onTrade(symbolId, last.priceTicks(), last.quantityLots(), System.currentTimeMillis());
+    }
+
+    private void write(List<PositionEntry> changed) {
+        List<Object[]> updates = new ArrayList<>();
+        List<PositionEntry.Snapshot> updated = new ArrayList<>();
+        List<PositionEntry> updatedEntries = new ArrayList<>();
+        for (PositionEntry entry : changed) {
+            PositionEntry.Snapshot snapshot = entry.snapshot(markOf(entry.symbol));
+            if (snapshot.id() == null) {
+                Long id = jdbcTemplate.queryForObject(INSERT, Long.class,
+                        snapshot.accountId(), snapshot.symbol(), quantity(snapshot), price(snapshot.averagePriceTicks()),
+                        price(snapshot.marketValueTicks()), price(snapshot.unrealizedPnlTicks()),
+                        price(snapshot.realizedPnlTicks()), Timestamp.valueOf(snapshot.createdAt()),
+                        Timestamp.valueOf(snapshot.updatedAt()));
+                afterCommit(() -> entry.persisted(snapshot, id));
+            } else {
+                updates.add(new Object[] {quantity(snapshot), price(snapshot.averagePriceTicks()),
+                    price(snapshot.marketValueTicks()), price(snapshot.unrealizedPnlTicks()),
+                    price(snapshot.realizedPnlTicks()), Timestamp.valueOf(snapshot.updatedAt()), snapshot.id()});
+                updated.add(snapshot);
+                updatedEntries.add(entry);
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE, updates);
+            afterCommit(() -> {
+                for (int i = 0; i < updated.size(); i++) {
+                    updatedEntries.get(i).persisted(updated.get(i), null);
+                }
+            });
+        }
+    }
+
+    private PositionEntry entry(long accountId, String symbol, LocalDateTime now) {
+        return accounts.computeIfAbsent(accountId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(symbol, s -> new PositionEntry(accountId, s, now));
+    }
+
+    /**
+     * The market data store's instance of a symbol when it has one, so positions share one string
+     * per symbol and lookups by symbol compare by identity.
+     */
+    private String canonical(String symbol) {
+        int symbolId = marketDataStore.findSymbolId(symbol);
+        return symbolId >= 0 ? marketDataStore.symbol(symbolId) : symbol;
+    }
+
+    private long markOf(String symbol) {
+        return marketDataStore.markTicks(symbol);
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static BigDecimal quantity(PositionEntry.Snapshot snapshot) {
+        return FixedPoint.fromQuantityLots(snapshot.quantityLots());
+    }
+
+    private static BigDecimal price(long ticks) {
+        return FixedPoint.fromPriceTicks(ticks);
+    }
+
+    private static PositionResponse toResponse(PositionEntry.Snapshot snapshot) {
+        return PositionResponse.builder()
+                .id(snapshot.id())
+                .accountId(snapshot.accountId())
+                .symbol(snapshot.symbol())
+                .quantity(quantity(snapshot))
+                .averagePrice(price(snapshot.averagePriceTicks()))
+                .marketValue(price(snapshot.marketValueTicks()))
+                .unrealizedPnl(price(snapshot.unrealizedPnlTicks()))
+                .realizedPnl(price(snapshot.realizedPnlTicks()))
+                .createdAt(snapshot.createdAt())
+                .updatedAt(snapshot.updatedAt())
+                .build();
+    }
+
+    @FunctionalInterface
+    public interface ChangeListener {
+        void positionChanged(long accountId, String symbol);
+    }
+
+    @FunctionalInterface
+    public interface QuantityListener {
+        void quantityChanged(long accountId, String symbol, long previousLots, long lots);
+    }
+
+    @FunctionalInterface
+    public interface PositionVisitor {
+        void visit(long accountId, String symbol, long quantityLots, long averagePriceTicks);
+    }
+}
@@ -0,0 +1,129 @@
+package com.finco.trading.push;
+
+import com.finco.trading.dto.OrderEvent;
+import com.finco.trading.dto.PositionResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * One SSE client: the updates pending for it, keyed so that a newer update of the same order or
+ * position replaces the older one, and whether a send to it is still in progress.
+ */
+final class UpdateConnection {
+
+    private final SseEmitter emitter;
+    private final Long accountId;
+    private final int maxPending;
+
+    private Map<String, OrderEvent> orders = new LinkedHashMap<>();
+    // A null value is resolved from the ledger when sent
+    private Map<String, PositionResponse> positions = new LinkedHashMap<>();
+    private boolean overflowed;
+    private long sendStartedAt;
+    private long lastSentAt;
+
+    UpdateConnection(SseEmitter emitter, Long accountId, int maxPending, long now) {
+        this.emitter = emitter;
+        this.accountId = accountId;
+        this.maxPending = maxPending;
+        this.lastSentAt = now;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    boolean accepts(long account) {
+        return accountId == null || accountId == account;
+    }
+
+    Long accountId() {
+        return accountId;
+    }
+
+    synchronized void addOrder(OrderEvent event) {
+        orders.put(event.getOrder().getOrderId(), event);
+        checkBound();
+    }
+
+    synchronized void addPosition(long account, String symbol, PositionResponse position) {
+        positions.put(account + ":" + symbol, position);
+        checkBound();
+    }
+
+    synchronized boolean isOverflowed() {
+        return overflowed;
+    }
+
+    /**
+     * Claims the connection for a send when it has something to send, or is due a heartbeat, and
+     * no earlier send is still running.
+     */
+    synchronized boolean startSend(long now, long heartbeatMs) {
+        if (sendStartedAt != 0 || (orders.isEmpty() && positions.isEmpty() && now - lastSentAt < heartbeatMs)) {
+            return false;
+        }
+        sendStartedAt = now;
+        return true;
+    }
+
+    /**
+     * Start of the send in progress, 0 when none is.
+     */
+    synchronized long sendStartedAt() {
+        return sendStartedAt;
+    }
+
+    /**
+     * Writes everything pending as at most two events, {@code orders} and {@code positions}, or a
+     * heartbeat comment when nothing is.
+     */
+    void send(Function<String, PositionResponse> resolver, long now) throws IOException {
+        Map<String, OrderEvent> sendOrders;
+        Map<String, PositionResponse> sendPositions;
+        synchronized (this) {
+            sendOrders = orders;
+            sendPositions = positions;
+            orders = new LinkedHashMap<>();
+            positions = new LinkedHashMap<>();
+        }
+        try {
+            if (sendOrders.isEmpty() && sendPositions.isEmpty()) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+                return;
+            }
+            if (!sendOrders.isEmpty()) {
+                emitter.send(SseEmitter.event().name("orders")
+                        .data(new ArrayList<>(sendOrders.values()), MediaType.APPLICATION_JSON));
+            }
+            if (!sendPositions.isEmpty()) {
+                List<PositionResponse> batch = new ArrayList<>(sendPositions.size());
+                sendPositions.forEach((key, position) -> {
+                    PositionResponse resolved = position != null ? position : resolver.apply(key);
+                    if (resolved != null) {
+                        batch.add(resolved);
+                    }
+                });
+                emitter.send(SseEmitter.event().name("positions").data(batch, MediaType.APPLICATION_JSON));
+            }
+        } finally {
+            synchronized (this) {
+                sendStartedAt = 0;
+                lastSentAt = now;
+            }
+        }
+    }
+
+    private void checkBound() {
+        if (orders.size() + positions.size() > maxPending) {
+            overflowed = true;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.finco.trading.push;
+
+import com.finco.trading.dto.OrderEvent;
+import com.finco.trading.dto.OrderResponse;
+import com.finco.trading.dto.PositionResponse;
+import com.finco.trading.marketdata.MarketDataStore;
+import com.finco.trading.position.PositionLedger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Server-sent events with order lifecycle events and position changes, per account or for all
+ * accounts. Updates are queued per connection and coalesced by order and by position, so a
+ * connection holds at most one pending update per key; every {@code flush-interval-ms} whatever
+ * is pending goes out as one {@code orders} and one {@code positions} event. Positions are
+ * pushed when fills change them and when their symbol's mark moves. Each send runs on its own
+ * virtual thread and a connection is not sent to again until its previous send completes, so a
+ * slow client only delays itself; one that exceeds {@code max-pending} keys or takes longer than
+ * {@code send-timeout-ms} for a send is disconnected and has to reconnect and reload.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UpdateStream {
+
+    private final PositionLedger positionLedger;
+    private final MarketDataStore marketDataStore;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.push.max-connections:1000}")
+    private int maxConnections;
+
+    @Value("${app.push.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${app.push.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    @Value("${app.push.heartbeat-interval-ms:15000}")
+    private long heartbeatMs;
+
+    private final List<UpdateConnection> connections = new CopyOnWriteArrayList<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private MarketDataStore.Subscription marks;
+    private Counter dropped;
+
+    @PostConstruct
+    void start() {
+        positionLedger.addChangeListener(this::positionChanged);
+        marks = marketDataStore.subscribe();
+        dropped = Counter.builder("push.connections.dropped")
+                .description("Update stream clients disconnected for falling behind")
+                .register(meterRegistry);
+        Gauge.builder("push.connections", connections, List::size).register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        marks.close();
+        for (UpdateConnection connection : connections) {
+            connection.emitter().complete();
+        }
+        senders.shutdownNow();
+    }
+
+    /**
+     * Opens a stream for one account, or for all accounts when {@code accountId} is null.
+     */
+    public SseEmitter subscribe(Long accountId) {
+        if (connections.size() >= maxConnections) {
+            throw new RuntimeException("Update stream is at its limit of " + maxConnections + " connections");
+        }
+        SseEmitter emitter = new SseEmitter(0L);
+        UpdateConnection connection = new UpdateConnection(emitter, accountId, maxPending, System.currentTimeMillis());
+        emitter.onCompletion(() -> connections.remove(connection));
+        emitter.onError(e -> connections.remove(connection));
+        connections.add(connection);
+        log.debug("Update stream opened for account {}, {} connections", accountId, connections.size());
+        return emitter;
+    }
+
+    /**
+     * Queues an order event for every connection following the order's account. Inside a
+     * transaction this happens after commit, so clients never see a change that rolled back.
+     */
+    public void publish(OrderResponse order, OrderEvent.Type type) {
+        if (connections.isEmpty()) {
+            return;
+        }
+        OrderEvent event = OrderEvent.builder().type(type).order(order).build();
+        afterCommit(() -> {
+            for (UpdateConnection connection : connections) {
+                if (connection.accepts(order.getAccountId())) {
+                    connection.addOrder(event);
+                }
+            }
+        });
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.push.flush-interval-ms:100}")
+    public void flush() {
+        Set<String> marked = markedSymbols();
+        if (connections.isEmpty()) {
+            return;
+        }
+        if (!marked.isEmpty()) {
+            queueMarkedPositions(marked);
+        }
+        long now = System.currentTimeMillis();
+        for (UpdateConnection connection : connections) {
+            long sendStartedAt = connection.sendStartedAt();
+            if (connection.isOverflowed() || (sendStartedAt != 0 && now - sendStartedAt > sendTimeoutMs)) {
+                drop(connection);
+            } else if (connection.startSend(now, heartbeatMs)) {
+                senders.execute(() -> send(connection, now));
+            }
+        }
+    }
+
+    private void positionChanged(long accountId, String symbol) {
+        for (UpdateConnection connection : connections) {
+            if (connection.accepts(accountId)) {
+                connection.addPosition(accountId, symbol, null);
+            }
+        }
+    }
+
+    private Set<String> markedSymbols() {
+        Set<String> symbols = new HashSet<>();
+        marks.drain(id -> symbols.add(marketDataStore.symbol(id)));
+        return symbols;
+    }
+
+    private void queueMarkedPositions(Set<String> symbols) {
+        List<PositionResponse> all = null;
+        for (UpdateConnection connection : connections) {
+            List<PositionResponse> positions;
+            if (connection.accountId() == null) {
+                positions = all != null ? all : (all = positionLedger.getPositionsIn(null, symbols));
+            } else {
+                positions = positionLedger.getPositionsIn(connection.accountId(), symbols);
+            }
+            for (PositionResponse position : positions) {
+                connection.addPosition(position.getAccountId(), position.getSymbol(), position);
+            }
+        }
+    }
+
+    private void send(UpdateConnection connection, long now) {
+        try {
+            connection.send(this::resolvePosition, now);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Update stream send failed: {}", e.getMessage());
+            connections.remove(connection);
+            connection.emitter().completeWithError(e);
+        }
+    }
+
+    private PositionResponse resolvePosition(String key) {
+        int separator = key.indexOf(':');
+        return positionLedger.getPosition(Long.parseLong(key.substring(0, separator)), key.substring(separator + 1))
+                .orElse(null);
+    }
+
+    private void drop(UpdateConnection connection) {
+        if (connections.remove(connection)) {
+            dropped.increment();
+            log.info("Dropping update stream client of account {}: too far behind", connection.accountId());
+            // Completed off the flush thread, a client stuck mid-write may hold the emitter
+            senders.execute(() -> connection.emitter().complete());
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
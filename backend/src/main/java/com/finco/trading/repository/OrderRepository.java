@@ -1,17 +1,89 @@
 package com.finco.trading.repository;
 
 import com.finco.trading.model.Order;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    String EXPORT_FETCH_SIZE = "500";
+
     Optional<Order> findByOrderId(String orderId);
     List<Order> findByAccountId(Long accountId);
     List<Order> findBySymbol(String symbol);
     List<Order> findByStatus(String status);
     List<Order> findByAccountIdAndStatus(Long accountId, String status);
+    List<Order> findByStatusInOrderByIdAsc(Collection<String> statuses);
+    List<Order> findBySymbolInAndStatusInOrderByIdAsc(Collection<String> symbols, Collection<String> statuses);
+    List<Order> findByAccountIdAndStatusInOrderByIdAsc(Long accountId, Collection<String> statuses);
+
+    @Query("SELECT DISTINCT o.symbol FROM Order o WHERE o.status IN :statuses")
+    List<String> findSymbolsByStatusIn(@Param("statuses") Collection<String> statuses);
+
+    /**
+     * {@code orders} is range-partitioned by {@code created_at}: with a lower bound on it the
+     * planner skips every partition that ends before {@code since} instead of probing each one.
+     */
+    Optional<Order> findByOrderIdAndCreatedAtGreaterThanEqual(String orderId, LocalDateTime since);
+
+    // Keyset pagination: ids are assigned in creation order, so "id > cursor" walks orders oldest first
+    List<Order> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+    List<Order> findByAccountIdAndIdGreaterThanOrderByIdAsc(Long accountId, Long afterId, Limit limit);
+
+    /**
+     * Export cursors: rows are fetched from the server in blocks of {@code EXPORT_FETCH_SIZE}
+     * instead of being buffered whole by the driver. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Order> streamAllByOrderByIdAsc();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Order> streamByAccountIdOrderByIdAsc(Long accountId);
+
+    /**
+     * Loads orders with a row lock, in id order so that concurrent executions touching the same
+     * resting orders cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids ORDER BY o.id")
+    List<Order> findAllForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Amends price and quantity of an order that is still PENDING; returns 0 if it no longer is.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.price = :price, o.quantity = :quantity, o.updatedAt = :updatedAt "
+            + "WHERE o.id = :id AND o.status = 'PENDING'")
+    int amendPending(@Param("id") Long id,
+                     @Param("price") BigDecimal price,
+                     @Param("quantity") BigDecimal quantity,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :status, o.updatedAt = :updatedAt WHERE o.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("status") String status,
+                     @Param("updatedAt") LocalDateTime updatedAt);
 }
@@ -1,15 +1,35 @@
 package com.finco.trading.repository;
 
 import com.finco.trading.model.Position;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PositionRepository extends JpaRepository<Position, Long> {
     Optional<Position> findByAccountIdAndSymbol(Long accountId, String symbol);
     List<Position> findByAccountId(Long accountId);
     List<Position> findBySymbol(String symbol);
+
+    List<Position> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+    List<Position> findByAccountIdAndIdGreaterThanOrderByIdAsc(Long accountId, Long afterId, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = OrderRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Position> streamAllByOrderByIdAsc();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = OrderRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Position> streamByAccountIdOrderByIdAsc(Long accountId);
 }
@@ -0,0 +1,13 @@
+package com.finco.trading.repository;
+
+import com.finco.trading.model.Trade;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TradeRepository extends JpaRepository<Trade, Long> {
+    List<Trade> findByOrderId(Long orderId);
+    List<Trade> findByAccountId(Long accountId);
+}
@@ -0,0 +1,444 @@
+package com.finco.trading.risk;
+
+import com.finco.trading.dto.ExposureResponse;
+import com.finco.trading.dto.PageResponse;
+import com.finco.trading.dto.RiskResponse;
+import com.finco.trading.marketdata.MarketDataStore;
+import com.finco.trading.position.PositionLedger;
+import com.finco.trading.util.FixedPoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Firm-wide risk: long, short, net and gross notional by symbol, by account type
+ * ({@code accounts.account_type}) and by account, with the concentration in the largest symbols
+ * ({@code app.risk.enabled}).
+ *
+ * <p>With the {@link PositionLedger} the per-symbol and per-type figures are live: every fill
+ * adds the change in quantity to long and short lot totals per account type and symbol, which
+ * are valued at the current mark when read, so a read costs a pass over the symbols however many
+ * positions there are. An account's figures are read from its positions in the ledger. Symbols
+ * without a mark count as zero notional here until they trade or are quoted.
+ *
+ * <p>A full recompute copies every position into primitive arrays and adds them up on a
+ * fork-join pool (see {@link RiskComputation}); it also ranks accounts by gross notional. It
+ * runs on a fixed delay and on demand, from the ledger or, without it, from the
+ * {@code positions} table, in which case all figures come from the last recompute. Positions in
+ * symbols without a mark are valued at their average price there. An account's type is read
+ * once; a changed type applies after a restart.
+ */
+@Component
+@Slf4j
+public class RiskAggregator {
+
+    static final String UNKNOWN_TYPE = "UNKNOWN";
+
+    private static final String ACCOUNT_TYPES = "SELECT id, account_type FROM accounts";
+    private static final String ACCOUNT_TYPE = "SELECT account_type FROM accounts WHERE id = ?";
+    private static final String POSITIONS = "SELECT account_id, symbol, quantity, average_price FROM positions "
+            + "WHERE quantity <> 0 ORDER BY account_id";
+    private static final int SCAN_FETCH_SIZE = 10_000;
+
+    // Live lot totals, per account type one array of (long lots, short lots, positions) by symbol id
+    private static final int LONG_LOTS = 0;
+    private static final int SHORT_LOTS = 1;
+    private static final int POSITION_COUNT = 2;
+    private static final int STRIDE = 3;
+
+    private final PositionLedger positionLedger;
+    private final MarketDataStore marketDataStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, Integer> accountTypes = new ConcurrentHashMap<>();
+    private final Map<String, Integer> typeIndexes = new ConcurrentHashMap<>();
+    private volatile Types types = new Types(new String[0], new AtomicLongArray[0]);
+    private volatile Snapshot snapshot;
+    private ForkJoinPool pool;
+    private Timer recomputeTimer;
+
+    @Value("${app.risk.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.risk.parallelism:0}")
+    private int parallelism;
+
+    public RiskAggregator(PositionLedger positionLedger, MarketDataStore marketDataStore, JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.positionLedger = positionLedger;
+        this.marketDataStore = marketDataStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Account type names by index; grown copy-on-write, so a reader sees names and lots that match.
+     */
+    private record Types(String[] names, AtomicLongArray[] lots) {
+    }
+
+    /**
+     * The inputs and result of one full recompute, valued at {@code marks}.
+     */
+    private record Snapshot(RiskPositions positions, long[] marks, String[] typeNames,
+                            RiskComputation.Result result, LocalDateTime asOf, long computeMillis) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        recomputeTimer = Timer.builder("risk.recompute")
+                .description("Time to copy every position and recompute the risk aggregates")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        jdbcTemplate.query(ACCOUNT_TYPES, (RowCallbackHandler) rs ->
+                accountTypes.put(rs.getLong(1), typeIndex(rs.getString(2))));
+        if (positionLedger.isEnabled()) {
+            // Before any order flow, so no fill falls between the seed and the listener
+            positionLedger.forEachPosition(null, (accountId, symbol, lots, averagePriceTicks) ->
+                    quantityChanged(accountId, symbol, 0, lots));
+            positionLedger.addQuantityListener(this::quantityChanged);
+        }
+        log.info("Risk aggregation started over {} accounts in {} account types, {} source, parallelism {}",
+                accountTypes.size(), types.names().length, positionLedger.isEnabled() ? "ledger" : "table",
+                pool.getParallelism());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Firm exposure by symbol and account type, at most {@code limit} symbols.
+     */
+    public RiskResponse getExposure(int limit) {
+        requireEnabled();
+        if (!positionLedger.isEnabled()) {
+            Snapshot current = current();
+            return response(current.result().totals(), current.typeNames(), current.asOf(), null, limit, null);
+        }
+        Types current = types;
+        long[] marks = marks();
+        RiskComputation.Totals totals = new RiskComputation.Totals(marks.length, current.names().length);
+        for (int t = 0; t < current.names().length; t++) {
+            AtomicLongArray lots = current.lots()[t];
+            for (int s = 0; s < marks.length; s++) {
+                int base = s * STRIDE;
+                int positions = (int) lots.get(base + POSITION_COUNT);
+                if (positions == 0) {
+                    continue;
+                }
+                long longLots = lots.get(base + LONG_LOTS);
+                long shortLots = lots.get(base + SHORT_LOTS);
+                long longNotional = FixedPoint.mulDiv(longLots, marks[s], FixedPoint.ONE_LOT_UNITS);
+                long shortNotional = FixedPoint.mulDiv(shortLots, marks[s], FixedPoint.ONE_LOT_UNITS);
+                totals.symbolLong[s] += longNotional;
+                totals.symbolShort[s] += shortNotional;
+                totals.symbolLongLots[s] += longLots;
+                totals.symbolShortLots[s] += shortLots;
+                totals.symbolPositions[s] += positions;
+                totals.typeLong[t] += longNotional;
+                totals.typeShort[t] += shortNotional;
+                totals.typePositions[t] += positions;
+            }
+        }
+        return response(totals, current.names(), LocalDateTime.now(), null, limit, null);
+    }
+
+    /**
+     * One account's exposure by symbol.
+     */
+    public RiskResponse getAccountExposure(long accountId) {
+        requireEnabled();
+        RiskPositions positions = new RiskPositions(16, id -> 0);
+        if (positionLedger.isEnabled()) {
+            positionLedger.forEachPosition(accountId, (id, symbol, lots, averagePriceTicks) ->
+                    positions.add(id, marketDataStore.symbolId(symbol), lots, averagePriceTicks));
+            RiskComputation.Result result = RiskComputation.compute(pool, positions, marks(), 1);
+            return response(result.totals(), null, LocalDateTime.now(), null, PageResponse.MAX_LIMIT, null);
+        }
+        Snapshot current = current();
+        RiskPositions all = current.positions();
+        int index = all.indexOf(accountId);
+        if (index >= 0) {
+            for (int i = all.accountStart[index]; i < all.accountStart[index + 1]; i++) {
+                positions.add(accountId, all.symbol[i], all.lots[i], all.fallbackTicks[i]);
+            }
+        }
+        RiskComputation.Result result = RiskComputation.compute(pool, positions, current.marks(), 1);
+        return response(result.totals(), null, current.asOf(), null, PageResponse.MAX_LIMIT, null);
+    }
+
+    /**
+     * The last full recompute, with the {@code limit} largest symbols and accounts; runs one if
+     * there is none yet.
+     */
+    public RiskResponse getSnapshot(int limit) {
+        requireEnabled();
+        return response(current(), limit);
+    }
+
+    public RiskResponse recompute(int limit) {
+        requireEnabled();
+        return response(refresh(), limit);
+    }
+
+    @Scheduled(fixedDelayString = "${app.risk.recompute-interval-ms:30000}")
+    public void scheduledRecompute() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Risk recompute failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Books the change of one position's quantity into the live lot totals.
+     */
+    void quantityChanged(long accountId, String symbol, long previousLots, long lots) {
+        int type = typeOf(accountId);
+        AtomicLongArray totals = types.lots()[type];
+        int base = marketDataStore.symbolId(symbol) * STRIDE;
+        add(totals, base + LONG_LOTS, Math.max(lots, 0) - Math.max(previousLots, 0));
+        add(totals, base + SHORT_LOTS, Math.max(-lots, 0) - Math.max(-previousLots, 0));
+        add(totals, base + POSITION_COUNT, (lots != 0 ? 1 : 0) - (previousLots != 0 ? 1 : 0));
+    }
+
+    private synchronized Snapshot refresh() {
+        long started = System.nanoTime();
+        RiskPositions positions = new RiskPositions(snapshot != null ? snapshot.positions().size : 1024, this::typeOf);
+        if (positionLedger.isEnabled()) {
+            positionLedger.forEachPosition(null, (accountId, symbol, lots, averagePriceTicks) ->
+                    positions.add(accountId, marketDataStore.symbolId(symbol), lots, averagePriceTicks));
+        } else {
+            readOnlyTransaction.executeWithoutResult(status -> load(positions));
+        }
+        // Read after the copy, which may have added symbols and account types
+        long[] marks = marks();
+        String[] typeNames = types.names();
+        RiskComputation.Result result = RiskComputation.compute(pool, positions, marks, typeNames.length);
+        long elapsed = System.nanoTime() - started;
+        recomputeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        snapshot = new Snapshot(positions, marks, typeNames, result, LocalDateTime.now(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+        log.debug("Risk recomputed over {} positions in {} accounts in {} ms", positions.size, positions.accounts,
+                snapshot.computeMillis());
+        return snapshot;
+    }
+
+    private void load(RiskPositions positions) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(POSITIONS);
+            statement.setFetchSize(SCAN_FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            positions.add(rs.getLong(1), marketDataStore.symbolId(rs.getString(2)),
+                    FixedPoint.toQuantityLots(rs.getBigDecimal(3)), FixedPoint.toPriceTicks(rs.getBigDecimal(4)));
+        });
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        return current != null ? current : refresh();
+    }
+
+    private void requireEnabled() {
+        if (!enabled) {
+            throw new RuntimeException("Risk aggregation is disabled");
+        }
+    }
+
+    private long[] marks() {
+        long[] marks = new long[marketDataStore.symbolCount()];
+        for (int s = 0; s < marks.length; s++) {
+            marks[s] = marketDataStore.markTicks(s);
+        }
+        return marks;
+    }
+
+    private int typeOf(long accountId) {
+        Integer type = accountTypes.get(accountId);
+        if (type != null) {
+            return type;
+        }
+        List<String> found = jdbcTemplate.queryForList(ACCOUNT_TYPE, String.class, accountId);
+        return accountTypes.computeIfAbsent(accountId, id -> typeIndex(found.isEmpty() ? UNKNOWN_TYPE : found.get(0)));
+    }
+
+    private int typeIndex(String name) {
+        Integer index = typeIndexes.get(name);
+        return index != null ? index : registerType(name);
+    }
+
+    private synchronized int registerType(String name) {
+        Integer index = typeIndexes.get(name);
+        if (index != null) {
+            return index;
+        }
+        Types current = types;
+        int next = current.names().length;
+        String[] names = Arrays.copyOf(current.names(), next + 1);
+        AtomicLongArray[] lots = Arrays.copyOf(current.lots(), next + 1);
+        names[next] = name;
+        lots[next] = new AtomicLongArray(marketDataStore.maxSymbols() * STRIDE);
+        types = new Types(names, lots);
+        typeIndexes.put(name, next);
+        return next;
+    }
+
+    private static void add(AtomicLongArray totals, int index, long delta) {
+        if (delta != 0) {
+            totals.addAndGet(index, delta);
+        }
+    }
+
+    private RiskResponse response(Snapshot current, int limit) {
+        return response(current.result().totals(), current.typeNames(), current.asOf(), current.computeMillis(), limit,
+                current);
+    }
+
+    private RiskResponse response(RiskComputation.Totals totals, String[] typeNames, LocalDateTime asOf,
+                                  Long computeMillis, int limit, Snapshot accounts) {
+        int top = PageResponse.clampLimit(limit);
+        long longNotional = 0;
+        long shortNotional = 0;
+        int positions = 0;
+        List<Integer> symbols = new ArrayList<>();
+        for (int s = 0; s < totals.symbolPositions.length; s++) {
+            if (totals.symbolPositions[s] > 0) {
+                longNotional += totals.symbolLong[s];
+                shortNotional += totals.symbolShort[s];
+                positions += totals.symbolPositions[s];
+                symbols.add(s);
+            }
+        }
+        long gross = longNotional + shortNotional;
+        double herfindahl = 0;
+        for (int s : symbols) {
+            double share = gross > 0 ? (double) (totals.symbolLong[s] + totals.symbolShort[s]) / gross : 0;
+            herfindahl += share * share;
+        }
+        symbols.sort(Comparator.comparingLong((Integer s) -> totals.symbolLong[s] + totals.symbolShort[s]).reversed());
+        List<ExposureResponse> symbolExposures = new ArrayList<>();
+        for (int s : symbols.subList(0, Math.min(top, symbols.size()))) {
+            ExposureResponse exposure = exposure(marketDataStore.symbol(s), totals.symbolPositions[s],
+                    totals.symbolLong[s], totals.symbolShort[s], gross);
+            exposure.setNetQuantity(FixedPoint.fromQuantityLots(totals.symbolLongLots[s] - totals.symbolShortLots[s]));
+            symbolExposures.add(exposure);
+        }
+        List<ExposureResponse> typeExposures = null;
+        if (typeNames != null) {
+            typeExposures = new ArrayList<>();
+            for (int t = 0; t < typeNames.length; t++) {
+                if (totals.typePositions[t] > 0) {
+                    typeExposures.add(exposure(typeNames[t], totals.typePositions[t], totals.typeLong[t],
+                            totals.typeShort[t], gross));
+                }
+            }
+            typeExposures.sort(Comparator.comparing(ExposureResponse::getGrossNotional).reversed());
+        }
+        return RiskResponse.builder()
+                .asOf(asOf)
+                .computeMillis(computeMillis)
+                .positions(positions)
+                .longNotional(FixedPoint.fromPriceTicks(longNotional))
+                .shortNotional(FixedPoint.fromPriceTicks(shortNotional))
+                .netNotional(FixedPoint.fromPriceTicks(longNotional - shortNotional))
+                .grossNotional(FixedPoint.fromPriceTicks(gross))
+                .largestSymbolShare(symbols.isEmpty() ? BigDecimal.ZERO : share(
+                        totals.symbolLong[symbols.get(0)] + totals.symbolShort[symbols.get(0)], gross))
+                .herfindahlIndex(BigDecimal.valueOf(herfindahl).setScale(4, RoundingMode.HALF_UP))
+                .symbols(symbolExposures)
+                .accountTypes(typeExposures)
+                .accounts(accounts != null ? largestAccounts(accounts, gross, top) : null)
+                .build();
+    }
+
+    /**
+     * The {@code limit} accounts with the largest gross notional, largest first.
+     */
+    private static List<ExposureResponse> largestAccounts(Snapshot current, long gross, int limit) {
+        RiskPositions positions = current.positions();
+        long[] accountLong = current.result().accountLong();
+        long[] accountShort = current.result().accountShort();
+        Comparator<Integer> byGross = Comparator.comparingLong(a -> accountLong[a] + accountShort[a]);
+        PriorityQueue<Integer> largest = new PriorityQueue<>(limit + 1, byGross);
+        for (int a = 0; a < positions.accounts; a++) {
+            if (largest.size() < limit || byGross.compare(a, largest.peek()) > 0) {
+                largest.add(a);
+                if (largest.size() > limit) {
+                    largest.poll();
+                }
+            }
+        }
+        List<Integer> ranked = new ArrayList<>(largest);
+        ranked.sort(byGross.reversed());
+        List<ExposureResponse> accounts = new ArrayList<>(ranked.size());
+        for (int a : ranked) {
+            ExposureResponse exposure = exposure(Long.toString(positions.accountIds[a]),
+                    positions.accountStart[a + 1] - positions.accountStart[a], accountLong[a], accountShort[a], gross);
+            exposure.setAccountType(current.typeNames()[positions.accountType[a]]);
+            accounts.add(exposure);
+        }
+        return accounts;
+    }
+
+    private static ExposureResponse exposure(String name, int positions, long longTicks, long shortTicks, long gross) {
+        return ExposureResponse.builder()
+                .name(name)
+                .positions(positions)
+                .longNotional(FixedPoint.fromPriceTicks(longTicks))
+                .shortNotional(FixedPoint.fromPriceTicks(shortTicks))
+                .netNotional(FixedPoint.fromPriceTicks(longTicks - shortTicks))
+                .grossNotional(FixedPoint.fromPriceTicks(longTicks + shortTicks))
+                .share(share(longTicks + shortTicks, gross))
+                .build();
+    }
+
+    private static BigDecimal share(long ticks, long gross) {
+        return gross > 0
+                ? BigDecimal.valueOf(ticks).divide(BigDecimal.valueOf(gross), 4, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO.setScale(4);
+    }
+}
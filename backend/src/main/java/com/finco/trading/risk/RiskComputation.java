@@ -0,0 +1,161 @@
+package com.finco.trading.risk;
+
+import com.finco.trading.util.FixedPoint;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Full recompute of the risk aggregates over {@link RiskPositions}. The accounts are split in
+ * halves of about equal position counts until a range is small enough to add up on one thread;
+ * account ranges never share an account, so each leaf writes its accounts' totals straight into
+ * the result arrays and only the per-symbol and per-type sums, arrays the size of the symbol and
+ * type dictionaries, are merged on the way back up.
+ */
+final class RiskComputation extends RecursiveTask<RiskComputation.Totals> {
+
+    private static final int MIN_LEAF_POSITIONS = 4096;
+
+    /**
+     * Sums by symbol id and by account type index: notional in price ticks, quantities in lots.
+     */
+    static final class Totals {
+        final long[] symbolLong;
+        final long[] symbolShort;
+        final long[] symbolLongLots;
+        final long[] symbolShortLots;
+        final int[] symbolPositions;
+        final long[] typeLong;
+        final long[] typeShort;
+        final int[] typePositions;
+
+        Totals(int symbols, int types) {
+            symbolLong = new long[symbols];
+            symbolShort = new long[symbols];
+            symbolLongLots = new long[symbols];
+            symbolShortLots = new long[symbols];
+            symbolPositions = new int[symbols];
+            typeLong = new long[types];
+            typeShort = new long[types];
+            typePositions = new int[types];
+        }
+
+        void add(Totals other) {
+            for (int s = 0; s < symbolLong.length; s++) {
+                symbolLong[s] += other.symbolLong[s];
+                symbolShort[s] += other.symbolShort[s];
+                symbolLongLots[s] += other.symbolLongLots[s];
+                symbolShortLots[s] += other.symbolShortLots[s];
+                symbolPositions[s] += other.symbolPositions[s];
+            }
+            for (int t = 0; t < typeLong.length; t++) {
+                typeLong[t] += other.typeLong[t];
+                typeShort[t] += other.typeShort[t];
+                typePositions[t] += other.typePositions[t];
+            }
+        }
+    }
+
+    /**
+     * Totals plus, by account index, long and short notional and the largest single position.
+     */
+    record Result(Totals totals, long[] accountLong, long[] accountShort, long[] accountLargest) {
+    }
+
+    private final RiskPositions positions;
+    private final long[] marks;
+    private final int types;
+    private final long[] accountLong;
+    private final long[] accountShort;
+    private final long[] accountLargest;
+    private final int from;
+    private final int to;
+    private final int leafPositions;
+
+    private RiskComputation(RiskPositions positions, long[] marks, int types, long[] accountLong,
+                            long[] accountShort, long[] accountLargest, int from, int to, int leafPositions) {
+        this.positions = positions;
+        this.marks = marks;
+        this.types = types;
+        this.accountLong = accountLong;
+        this.accountShort = accountShort;
+        this.accountLargest = accountLargest;
+        this.from = from;
+        this.to = to;
+        this.leafPositions = leafPositions;
+    }
+
+    /**
+     * Values every position at {@code marks[symbolId]}, or at its fallback price when that is 0.
+     * Symbol ids must be below {@code marks.length} and type indexes below {@code types}.
+     */
+    static Result compute(ForkJoinPool pool, RiskPositions positions, long[] marks, int types) {
+        int accounts = positions.accounts;
+        long[] accountLong = new long[accounts];
+        long[] accountShort = new long[accounts];
+        long[] accountLargest = new long[accounts];
+        // A few leaves per worker evens out uneven ranges without multiplying the merges
+        int leafPositions = Math.max(MIN_LEAF_POSITIONS, positions.size / (pool.getParallelism() * 4));
+        Totals totals = accounts == 0
+                ? new Totals(marks.length, types)
+                : pool.invoke(new RiskComputation(positions, marks, types, accountLong, accountShort, accountLargest,
+                        0, accounts, leafPositions));
+        return new Result(totals, accountLong, accountShort, accountLargest);
+    }
+
+    @Override
+    protected Totals compute() {
+        int[] start = positions.accountStart;
+        if (to - from == 1 || start[to] - start[from] <= leafPositions) {
+            return leaf();
+        }
+        int mid = Arrays.binarySearch(start, from + 1, to, (start[from] + start[to]) >>> 1);
+        mid = Math.min(Math.max(mid >= 0 ? mid : -mid - 1, from + 1), to - 1);
+        RiskComputation left = new RiskComputation(positions, marks, types, accountLong, accountShort, accountLargest,
+                from, mid, leafPositions);
+        left.fork();
+        Totals totals = new RiskComputation(positions, marks, types, accountLong, accountShort, accountLargest,
+                mid, to, leafPositions).compute();
+        totals.add(left.join());
+        return totals;
+    }
+
+    private Totals leaf() {
+        Totals totals = new Totals(marks.length, types);
+        int[] start = positions.accountStart;
+        int[] symbol = positions.symbol;
+        long[] lots = positions.lots;
+        long[] fallback = positions.fallbackTicks;
+        for (int a = from; a < to; a++) {
+            long longNotional = 0;
+            long shortNotional = 0;
+            long largest = 0;
+            for (int i = start[a]; i < start[a + 1]; i++) {
+                int s = symbol[i];
+                long quantity = lots[i];
+                long price = marks[s] > 0 ? marks[s] : fallback[i];
+                long notional = FixedPoint.mulDiv(Math.abs(quantity), price, FixedPoint.ONE_LOT_UNITS);
+                if (quantity > 0) {
+                    longNotional += notional;
+                    totals.symbolLong[s] += notional;
+                    totals.symbolLongLots[s] += quantity;
+                } else {
+                    shortNotional += notional;
+                    totals.symbolShort[s] += notional;
+                    totals.symbolShortLots[s] -= quantity;
+                }
+                totals.symbolPositions[s]++;
+                largest = Math.max(largest, notional);
+            }
+            accountLong[a] = longNotional;
+            accountShort[a] = shortNotional;
+            accountLargest[a] = largest;
+            int type = positions.accountType[a];
+            totals.typeLong[type] += longNotional;
+            totals.typeShort[type] += shortNotional;
+            totals.typePositions[type] += start[a + 1] - start[a];
+        }
+        return totals;
+    }
+}
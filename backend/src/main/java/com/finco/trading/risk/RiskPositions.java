@@ -0,0 +1,74 @@
+package com.finco.trading.risk;
+
+import java.util.Arrays;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Positions laid out as parallel primitive arrays for a full recompute: per position the symbol
+ * id of the {@link com.finco.trading.marketdata.MarketDataStore}, the signed quantity in lots and
+ * the price in ticks to value it at when the symbol has no mark. Positions must arrive grouped by
+ * account, so each account owns the range {@code accountStart[a]} to {@code accountStart[a + 1]}
+ * and a range of accounts is a range of positions. An account's type index is looked up once,
+ * when its first position arrives. Flat positions are left out.
+ */
+final class RiskPositions {
+
+    int size;
+    int[] symbol;
+    long[] lots;
+    long[] fallbackTicks;
+
+    int accounts;
+    long[] accountIds;
+    int[] accountType;
+    int[] accountStart;
+
+    private final LongToIntFunction typeOf;
+
+    RiskPositions(int expectedPositions, LongToIntFunction typeOf) {
+        this.typeOf = typeOf;
+        int capacity = Math.max(16, expectedPositions);
+        symbol = new int[capacity];
+        lots = new long[capacity];
+        fallbackTicks = new long[capacity];
+        accountIds = new long[16];
+        accountType = new int[16];
+        accountStart = new int[17];
+    }
+
+    void add(long accountId, int symbolId, long quantityLots, long fallbackPriceTicks) {
+        if (quantityLots == 0) {
+            return;
+        }
+        if (accounts == 0 || accountIds[accounts - 1] != accountId) {
+            if (accounts == accountIds.length) {
+                accountIds = Arrays.copyOf(accountIds, accounts * 2);
+                accountType = Arrays.copyOf(accountType, accounts * 2);
+                accountStart = Arrays.copyOf(accountStart, accounts * 2 + 1);
+            }
+            accountIds[accounts] = accountId;
+            accountType[accounts] = typeOf.applyAsInt(accountId);
+            accountStart[accounts] = size;
+            accounts++;
+        }
+        if (size == lots.length) {
+            symbol = Arrays.copyOf(symbol, size * 2);
+            lots = Arrays.copyOf(lots, size * 2);
+            fallbackTicks = Arrays.copyOf(fallbackTicks, size * 2);
+        }
+        symbol[size] = symbolId;
+        lots[size] = quantityLots;
+        fallbackTicks[size] = fallbackPriceTicks;
+        size++;
+        accountStart[accounts] = size;
+    }
+
+    /**
+     * Index of an account, or -1 when it holds no position. Needs the accounts in id order, as
+     * the {@code positions} table source adds them.
+     */
+    int indexOf(long accountId) {
+        int index = Arrays.binarySearch(accountIds, 0, accounts, accountId);
+        return index >= 0 ? index : -1;
+    }
+}
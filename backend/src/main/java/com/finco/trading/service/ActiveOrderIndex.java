@@ -0,0 +1,195 @@
+package com.finco.trading.service;
+
+import com.finco.trading.dto.OrderResponse;
+import com.finco.trading.journal.OrderJournal;
+import com.finco.trading.model.Order;
+import com.finco.trading.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Working orders (PENDING, PARTIALLY_FILLED) held in memory, keyed by order id with secondary
+ * indexes by account and symbol, so open-order queries and the update/cancel checks do not go to
+ * the database. Loaded on startup from the database, or from the {@link OrderJournal} when it is the
+ * recovery source, and kept current by {@link OrderService} and {@link ExecutionService}; changes
+ * are applied after the transaction making them commits, and an order leaves the index as soon as
+ * it reaches a terminal status. Stored orders are never modified, every change replaces the entry.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActiveOrderIndex {
+
+    private static final Comparator<Order> BY_ID = Comparator.comparing(Order::getId);
+
+    private final OrderRepository orderRepository;
+    private final MeterRegistry meterRegistry;
+    private final OrderJournal orderJournal;
+
+    private final Map<String, Order> orders = new ConcurrentHashMap<>();
+    private final Map<Long, String> orderIds = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> byAccount = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> bySymbol = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void load() {
+        List<Order> working = orderJournal.isRecoverySource()
+                ? orderJournal.recoverWorkingOrders()
+                : orderRepository.findByStatusInOrderByIdAsc(ExecutionService.WORKING_STATUSES);
+        for (Order order : working) {
+            put(order);
+        }
+        Gauge.builder("orders.active", orders, Map::size)
+                .description("Working orders held in the active order index")
+                .register(meterRegistry);
+        log.info("Loaded {} working orders into the active order index", orders.size());
+    }
+
+    public static boolean isWorking(String status) {
+        return ExecutionService.WORKING_STATUSES.contains(status);
+    }
+
+    /**
+     * A copy of the working order, free to modify; empty when the order is unknown or terminal.
+     */
+    public Optional<Order> get(String orderId) {
+        Order order = orders.get(orderId);
+        return order != null ? Optional.of(order.toBuilder().build()) : Optional.empty();
+    }
+
+    /**
+     * Working orders of an account and/or symbol, either may be null for all, in id order.
+     */
+    public List<OrderResponse> find(Long accountId, String symbol) {
+        Collection<String> keys;
+        if (accountId != null) {
+            keys = byAccount.getOrDefault(accountId, Set.of());
+        } else if (symbol != null) {
+            keys = bySymbol.getOrDefault(symbol, Set.of());
+        } else {
+            keys = orders.keySet();
+        }
+        List<Order> matches = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Order order = orders.get(key);
+            if (order != null && (symbol == null || symbol.equals(order.getSymbol()))) {
+                matches.add(order);
+            }
+        }
+        matches.sort(BY_ID);
+        return matches.stream().map(OrderService::toResponse).toList();
+    }
+
+    /**
+     * Copies of all working orders in id order, which is their time priority.
+     */
+    public List<Order> all() {
+        List<Order> all = new ArrayList<>(orders.size());
+        orders.values().forEach(order -> all.add(order.toBuilder().build()));
+        all.sort(BY_ID);
+        return all;
+    }
+
+    public int size() {
+        return orders.size();
+    }
+
+    /**
+     * Records the order's current state once the surrounding transaction commits: working orders
+     * are added or replaced, anything else is removed.
+     */
+    public void update(Order order) {
+        afterCommit(() -> {
+            if (isWorking(order.getStatus())) {
+                put(order.toBuilder().build());
+            } else {
+                remove(order.getOrderId());
+            }
+        });
+    }
+
+    /**
+     * Applies {@code change} to the order with database id {@code id} once the surrounding
+     * transaction commits, for changes known only as deltas such as fills journaled in write-behind
+     * mode. Applied to the state current at that point, so concurrent deltas are not lost.
+     */
+    public void apply(long id, Consumer<Order> change) {
+        afterCommit(() -> applyNow(id, change));
+    }
+
+    /**
+     * Removes orders by database id once the surrounding transaction commits.
+     */
+    public void removeAll(Collection<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        afterCommit(() -> removed.forEach(id -> {
+            String orderId = orderIds.get(id);
+            if (orderId != null) {
+                remove(orderId);
+            }
+        }));
+    }
+
+    private synchronized void applyNow(long id, Consumer<Order> change) {
+        String orderId = orderIds.get(id);
+        Order current = orderId != null ? orders.get(orderId) : null;
+        if (current == null) {
+            return;
+        }
+        Order changed = current.toBuilder().build();
+        change.accept(changed);
+        if (isWorking(changed.getStatus())) {
+            orders.put(orderId, changed);
+        } else {
+            remove(orderId);
+        }
+    }
+
+    private synchronized void put(Order order) {
+        Order previous = orders.put(order.getOrderId(), order);
+        if (previous == null) {
+            orderIds.put(order.getId(), order.getOrderId());
+            byAccount.computeIfAbsent(order.getAccountId(), key -> ConcurrentHashMap.newKeySet()).add(order.getOrderId());
+            bySymbol.computeIfAbsent(order.getSymbol(), key -> ConcurrentHashMap.newKeySet()).add(order.getOrderId());
+        }
+    }
+
+    private synchronized void remove(String orderId) {
+        Order order = orders.remove(orderId);
+        if (order == null) {
+            return;
+        }
+        orderIds.remove(order.getId());
+        byAccount.computeIfPresent(order.getAccountId(), (key, keys) -> keys.remove(orderId) && keys.isEmpty() ? null : keys);
+        bySymbol.computeIfPresent(order.getSymbol(), (key, keys) -> keys.remove(orderId) && keys.isEmpty() ? null : keys);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,53 +1,228 @@
 package com.finco.trading.service;
 
+import com.finco.trading.compliance.ComplianceCode;
+import com.finco.trading.compliance.ComplianceException;
+import com.finco.trading.compliance.ComplianceRuleSet;
 import com.finco.trading.dto.OrderRequest;
+import com.finco.trading.marketdata.MarketDataStore;
+import com.finco.trading.position.PositionLedger;
+import com.finco.trading.service.OrderMetrics.Operation;
+import com.finco.trading.service.OrderMetrics.Stage;
+import com.finco.trading.util.FixedPoint;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
- * Compliance service - placeholder for regulatory compliance checks
- * In production, this would integrate with compliance systems
+ * Pre-trade compliance: restricted symbols, order quantity and notional limits, per-account
+ * position limits and the trading window. The rules are compiled into a {@link ComplianceRuleSet}
+ * at startup and can be replaced at runtime with {@link #install}; a check or batch always sees
+ * one rule set from start to end. Rejections come back as {@link ComplianceCode}s and are counted
+ * by code in {@link OrderMetrics}.
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class ComplianceService {
 
+    private final PositionLedger positionLedger;
+    private final MarketDataStore marketDataStore;
+    private final OrderMetrics metrics;
+
     @Value("${app.compliance-checks-enabled:true}")
     private boolean complianceEnabled;
 
+    @Value("${app.compliance.restricted-symbols:}")
+    private List<String> restrictedSymbols;
+
+    @Value("${app.compliance.max-order-quantity:0}")
+    private BigDecimal maxOrderQuantity;
+
+    @Value("${app.compliance.max-order-notional:0}")
+    private BigDecimal maxOrderNotional;
+
+    @Value("${app.compliance.max-position-quantity:0}")
+    private BigDecimal maxPositionQuantity;
+
+    @Value("${app.compliance.symbol-limits:}")
+    private List<String> symbolLimits;
+
+    @Value("${app.compliance.trading-hours.enabled:false}")
+    private boolean tradingHoursEnabled;
+
+    @Value("${app.compliance.trading-hours.open:09:30}")
+    private String tradingOpen;
+
+    @Value("${app.compliance.trading-hours.close:16:00}")
+    private String tradingClose;
+
+    @Value("${app.compliance.trading-hours.zone:America/New_York}")
+    private String tradingZone;
+
+    @Value("${app.compliance.trading-hours.days:MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY}")
+    private List<DayOfWeek> tradingDays;
+
+    private Clock clock = Clock.systemUTC();
+    private volatile ComplianceRuleSet rules = ComplianceRuleSet.builder().build();
+
+    @PostConstruct
+    void compile() {
+        ComplianceRuleSet.Builder builder = ComplianceRuleSet.builder()
+                .restrict(restrictedSymbols)
+                .maxOrderQuantity(maxOrderQuantity)
+                .maxOrderNotional(maxOrderNotional)
+                .maxPositionQuantity(maxPositionQuantity);
+        for (String entry : symbolLimits) {
+            // SYMBOL:maxOrderQuantity:maxPositionQuantity, either limit may be left empty
+            String[] parts = entry.trim().split(":", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid compliance symbol limit: " + entry);
+            }
+            builder.symbolLimits(parts[0], decimalOrNull(parts[1]), decimalOrNull(parts[2]));
+        }
+        if (tradingHoursEnabled) {
+            builder.tradingHours(LocalTime.parse(tradingOpen), LocalTime.parse(tradingClose),
+                    ZoneId.of(tradingZone), Set.copyOf(tradingDays));
+        }
+        install(builder.build());
+    }
+
+    /**
+     * Replaces the active rules. Checks already running finish on the rules they started with.
+     */
+    public void install(ComplianceRuleSet ruleSet) {
+        this.rules = ruleSet;
+        log.info("Compliance rules installed: {}", ruleSet);
+    }
+
+    public ComplianceRuleSet getRules() {
+        return rules;
+    }
+
+    /**
+     * Checks a single order and throws on rejection, for the single-order API.
+     */
     public void validateOrder(OrderRequest request) {
+        ComplianceCode code = check(request);
+        if (!code.isPassed()) {
+            throw new ComplianceException(code);
+        }
+    }
+
+    public ComplianceCode check(OrderRequest request) {
         if (!complianceEnabled) {
-            log.debug("Compliance checks disabled");
-            return;
+            return ComplianceCode.PASSED;
         }
+        ComplianceRuleSet current = rules;
+        return counted(request, check(current, request, current.isOpen(ZonedDateTime.now(clock)), null));
+    }
 
-        log.info("Performing compliance checks for order: {}", request.getSymbol());
-        
-        // Placeholder: Add actual compliance logic here
-        // - Check for insider trading rules
-        // - Validate trading hours
-        // - Check position limits
-        // - Verify customer suitability
-        // - Check for restricted securities
-        
-        validateSymbol(request.getSymbol());
-        validateQuantity(request.getQuantity());
-        
-        log.info("Compliance checks passed");
+    /**
+     * Checks a whole batch in one pass against one rule set and one reading of the clock, and
+     * returns a code per request, in request order. Position limits count the earlier orders of
+     * the batch for the same account and symbol as if they were filled.
+     */
+    public ComplianceCode[] validateOrders(List<OrderRequest> requests) {
+        ComplianceCode[] codes = new ComplianceCode[requests.size()];
+        if (!complianceEnabled) {
+            Arrays.fill(codes, ComplianceCode.PASSED);
+            return codes;
+        }
+        ComplianceRuleSet current = rules;
+        boolean open = current.isOpen(ZonedDateTime.now(clock));
+        Map<Exposure, long[]> exposures = new HashMap<>();
+        int rejected = 0;
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = counted(requests.get(i), check(current, requests.get(i), open, exposures));
+            if (!codes[i].isPassed()) {
+                rejected++;
+            }
+        }
+        log.debug("Compliance checks done: {} passed, {} rejected", codes.length - rejected, rejected);
+        return codes;
     }
 
-    private void validateSymbol(String symbol) {
-        // Placeholder: Check if symbol is restricted
-        if (symbol == null || symbol.trim().isEmpty()) {
-            throw new RuntimeException("Invalid symbol");
+    private ComplianceCode check(ComplianceRuleSet current, OrderRequest request, boolean open,
+                                 Map<Exposure, long[]> exposures) {
+        String symbol = request.getSymbol();
+        if (symbol == null || symbol.isBlank()) {
+            return ComplianceCode.INVALID_SYMBOL;
+        }
+        BigDecimal quantity = request.getQuantity();
+        if (quantity == null || quantity.signum() <= 0) {
+            return ComplianceCode.INVALID_QUANTITY;
+        }
+        if (!open) {
+            return ComplianceCode.OUTSIDE_TRADING_HOURS;
+        }
+        long lots;
+        try {
+            lots = FixedPoint.toQuantityLots(quantity);
+        } catch (ArithmeticException e) {
+            return ComplianceCode.MAX_QUANTITY_EXCEEDED;
+        }
+        int symbolId = current.symbolId(symbol);
+        boolean buy = "BUY".equalsIgnoreCase(request.getSide());
+        // Market orders are valued at the touch they would take
+        long priceTicks = request.getPrice() != null
+                ? FixedPoint.toPriceTicks(request.getPrice())
+                : marketDataStore.referenceTicks(symbol, buy);
+
+        long[] exposure = null;
+        long positionLots = 0;
+        Long accountId = request.getAccountId();
+        long started = metrics.start();
+        if (accountId != null && current.hasPositionLimit(symbolId)) {
+            if (exposures != null) {
+                exposure = exposures.computeIfAbsent(new Exposure(accountId, symbol),
+                        key -> new long[] {positionLedger.quantityLots(key.accountId(), key.symbol())});
+                positionLots = exposure[0];
+            } else {
+                positionLots = positionLedger.quantityLots(accountId, symbol);
+            }
+            // Without the ledger the position comes from the database
+            started = metrics.lap(Operation.CHECK, Stage.POSITION, symbol, started);
         }
+
+        ComplianceCode code = current.check(symbolId, buy, lots, priceTicks, positionLots);
+        metrics.lap(Operation.CHECK, Stage.RULES, symbol, started);
+        if (code.isPassed() && exposure != null) {
+            exposure[0] += buy ? lots : -lots;
+        } else if (!code.isPassed()) {
+            log.debug("Order for account {} in {} rejected: {}", accountId, symbol, code);
+        }
+        return code;
     }
 
-    private void validateQuantity(java.math.BigDecimal quantity) {
-        // Placeholder: Validate order size limits
-        if (quantity == null || quantity.compareTo(java.math.BigDecimal.ZERO) <= 0) {
-            throw new RuntimeException("Invalid quantity");
+    private ComplianceCode counted(OrderRequest request, ComplianceCode code) {
+        if (!code.isPassed()) {
+            metrics.reject(code.name(), request.getSymbol());
         }
+        return code;
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private static BigDecimal decimalOrNull(String value) {
+        return value.isBlank() ? null : new BigDecimal(value.trim());
+    }
+
+    private record Exposure(long accountId, String symbol) {
     }
 }
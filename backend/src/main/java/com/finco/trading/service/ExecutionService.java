@@ -0,0 +1,621 @@
+package com.finco.trading.service;
+
+import com.finco.trading.account.BuyingPowerLedger;
+import com.finco.trading.cluster.SymbolOwnership;
+import com.finco.trading.dto.OrderEvent;
+import com.finco.trading.journal.OrderJournal;
+import com.finco.trading.matching.Fill;
+import com.finco.trading.matching.MatchResult;
+import com.finco.trading.matching.MatchingEngine;
+import com.finco.trading.matching.NewOrder;
+import com.finco.trading.matching.Side;
+import com.finco.trading.matching.TimeInForce;
+import com.finco.trading.model.Order;
+import com.finco.trading.model.Trade;
+import com.finco.trading.persistence.JournalEvent;
+import com.finco.trading.persistence.OrderRowIds;
+import com.finco.trading.persistence.ReadReplicaGuard;
+import com.finco.trading.persistence.WriteBehindJournal;
+import com.finco.trading.position.PositionLedger;
+import com.finco.trading.push.UpdateStream;
+import com.finco.trading.repository.OrderRepository;
+import com.finco.trading.repository.TradeRepository;
+import com.finco.trading.util.FixedPoint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bridges {@link OrderService} and the in-memory {@link MatchingEngine}: submits orders,
+ * cancels and replacements to the engine and persists the resulting fills to the
+ * {@code orders} and {@code trades} tables, either within the caller's transaction or
+ * through the {@link WriteBehindJournal} when write-behind mode is enabled. Resting orders filled
+ * by an incoming order are pushed to the {@link UpdateStream} in transactional mode; in
+ * write-behind mode their rows are not at hand and clients see those fills as position updates.
+ * <p>
+ * The engine has no rollback, so a transaction holds the books it touches until it completes
+ * (see {@link #lockBooks}): orders only ever match against committed rows, and a book changed by a
+ * transaction that does not commit is rebuilt from the database before anyone else uses it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExecutionService {
+
+    static final Set<String> WORKING_STATUSES = Set.of("PENDING", "PARTIALLY_FILLED");
+
+    private final MatchingEngine matchingEngine;
+    private final OrderRepository orderRepository;
+    private final TradeRepository tradeRepository;
+    private final WriteBehindJournal writeBehindJournal;
+    private final OrderCache orderCache;
+    private final PositionLedger positionLedger;
+    private final BuyingPowerLedger buyingPower;
+    private final UpdateStream updateStream;
+    private final ActiveOrderIndex activeOrders;
+    private final OrderJournal orderJournal;
+    private final SymbolOwnership ownership;
+    private final ReadReplicaGuard readReplica;
+    private final PlatformTransactionManager transactionManager;
+
+    // Transactions hold the read lock with the locks of their symbols, day expiry the write lock
+    private final ReentrantReadWriteLock allBooks = new ReentrantReadWriteLock();
+    private final Map<String, ReentrantLock> bookLocks = new ConcurrentHashMap<>();
+    private final Object heldBooksKey = new Object();
+
+    @Value("${app.matching.enabled:true}")
+    private boolean matchingEnabled;
+
+    @Value("${app.matching.timeout-ms:1000}")
+    private long timeoutMs;
+
+    /**
+     * Matches a new order and returns it with its fill state applied. In transactional mode the
+     * order must already be saved; in write-behind mode it must carry a journal-allocated id and
+     * its insert is journaled here, together with the resulting trades and fills.
+     */
+    @Transactional
+    public Order execute(Order order) {
+        MatchResult result = match(order);
+        if (writeBehindJournal.isEnabled()) {
+            return journal(order, result, new JournalEvent.OrderInsert(order));
+        }
+        return result == null ? order : apply(order, result);
+    }
+
+    /**
+     * Batch counterpart of {@link #execute} for new orders that carry ids from
+     * {@link OrderRowIds} and are not stored yet. Orders are matched in list
+     * order. In transactional mode they are inserted with multi-row INSERTs and matched as managed
+     * entities; in write-behind mode the inserts, trades and fills of the whole batch are journaled
+     * as one write, and a returned order does not show fills from later orders of the same batch.
+     */
+    @Transactional
+    public List<Order> executeAll(List<Order> orders) {
+        lockBooks(orders.stream().filter(this::isMatchable).map(Order::getSymbol).toList());
+        if (writeBehindJournal.isEnabled()) {
+            List<JournalEvent> events = new ArrayList<>();
+            for (Order order : orders) {
+                journal(order, match(order), new JournalEvent.OrderInsert(order), events);
+            }
+            writeBehindJournal.write(events);
+            return orders;
+        }
+        writeBehindJournal.insertOrders(orders);
+        Map<Long, Order> managed = new HashMap<>();
+        for (Order order : orderRepository.findAllById(orders.stream().map(Order::getId).toList())) {
+            managed.put(order.getId(), order);
+        }
+        List<Order> executed = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            Order stored = managed.get(order.getId());
+            MatchResult result = match(stored);
+            executed.add(result == null ? stored : apply(stored, result));
+        }
+        return executed;
+    }
+
+    /**
+     * Rejects orders the engine would refuse (missing limit price, unknown side or time in force)
+     * before anything is stored, so batch creates can report them per order.
+     */
+    public void validate(Order order) {
+        if (!isMatchable(order)) {
+            return;
+        }
+        requirePrice(order);
+        parse(Side.class, order.getSide(), "side");
+        parse(TimeInForce.class, order.getTimeInForce(), "time in force");
+    }
+
+    /**
+     * Re-books an amended order. The replacement loses time priority and may trade immediately.
+     * In write-behind mode the amendment itself is journaled here as well.
+     */
+    @Transactional
+    public Order replace(Order order) {
+        MatchResult result = null;
+        if (isMatchable(order)) {
+            BigDecimal remaining = order.getQuantity().subtract(order.getFilledQuantity());
+            NewOrder replacement = toNewOrder(order, remaining);
+            lockBooks(List.of(order.getSymbol()));
+            result = await(matchingEngine.replace(order.getOrderId(), replacement));
+            if (result == null) {
+                throw new RuntimeException("Order is no longer working: " + order.getOrderId());
+            }
+        }
+        if (writeBehindJournal.isEnabled()) {
+            return journal(order, result, new JournalEvent.OrderAmend(
+                    order.getId(), order.getPrice(), order.getQuantity(), LocalDateTime.now()));
+        }
+        return result == null ? order : apply(order, result);
+    }
+
+    @Transactional
+    public void cancel(Order order) {
+        if (!isMatchable(order)) {
+            return;
+        }
+        lockBooks(List.of(order.getSymbol()));
+        long cancelled = await(matchingEngine.cancel(order.getSymbol(), order.getOrderId()));
+        if (cancelled < 0) {
+            throw new RuntimeException("Order is no longer working: " + order.getOrderId());
+        }
+    }
+
+    @Scheduled(cron = "${app.matching.day-expiry-cron:0 0 16 * * MON-FRI}",
+            zone = "${app.matching.day-expiry-zone:America/New_York}")
+    @Transactional
+    public void expireDayOrders() {
+        if (!matchingEnabled) {
+            return;
+        }
+        HeldBooks held = heldBooks();
+        allBooks.writeLock().lock();
+        held.locks.add(allBooks.writeLock());
+        held.all = true;
+        List<Long> expired = await(matchingEngine.expireDayOrders());
+        LocalDateTime now = LocalDateTime.now();
+        if (expired.isEmpty()) {
+            log.debug("No DAY orders to expire");
+        } else if (writeBehindJournal.isEnabled()) {
+            // Journaled so the status cannot overtake inserts that are still queued
+            writeBehindJournal.write(expired.stream()
+                    .<JournalEvent>map(id -> new JournalEvent.OrderStatus(id, "CANCELLED", now))
+                    .toList());
+        } else {
+            orderRepository.updateStatus(expired, "CANCELLED", now);
+        }
+        if (!expired.isEmpty()) {
+            orderCache.clear();
+            activeOrders.removeAll(expired);
+            buyingPower.releaseAll(expired);
+            orderJournal.ordersCancelled(expired);
+        }
+        log.info("Expired {} DAY orders", expired.size());
+    }
+
+    /**
+     * Rebuilds the books from the working orders loaded into the {@link ActiveOrderIndex}. Resting
+     * orders are restored in id order, which preserves their original time priority. In
+     * multi-region mode orders of symbols owned by other nodes are dropped from the index first.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreBooks() {
+        List<Order> working = activeOrders.all();
+        if (ownership.isEnabled()) {
+            List<Long> foreign = working.stream().filter(order -> !ownership.isLocal(order.getSymbol()))
+                    .map(Order::getId).toList();
+            activeOrders.removeAll(foreign);
+            working = working.stream().filter(order -> ownership.isLocal(order.getSymbol())).toList();
+            log.info("Dropped {} working orders of symbols owned by other nodes", foreign.size());
+        }
+        restore(working);
+    }
+
+    /**
+     * Symbols that have working orders in the database.
+     */
+    public List<String> workingSymbols() {
+        return orderRepository.findSymbolsByStatusIn(WORKING_STATUSES);
+    }
+
+    /**
+     * Hands symbols over to another node: pending write-behind rows are flushed so the new owner
+     * reads current state, then the books and the working orders of the symbols are dropped here.
+     * The orders stay working in the database.
+     */
+    public void releaseSymbols(Collection<String> symbols) {
+        writeBehindJournal.flush();
+        List<Long> released = activeOrders.all().stream().filter(order -> symbols.contains(order.getSymbol()))
+                .map(Order::getId).toList();
+        activeOrders.removeAll(released);
+        if (matchingEnabled) {
+            CompletableFuture.allOf(symbols.stream().map(matchingEngine::dropBook).toArray(CompletableFuture[]::new))
+                    .join();
+        }
+        log.info("Released {} symbols with {} working orders", symbols.size(), released.size());
+    }
+
+    /**
+     * Takes symbols over from another node: their working orders are loaded from the database into
+     * the {@link ActiveOrderIndex} and booked.
+     */
+    public void loadSymbols(Collection<String> symbols) {
+        List<Order> working = orderRepository.findBySymbolInAndStatusInOrderByIdAsc(symbols, WORKING_STATUSES);
+        working.forEach(activeOrders::update);
+        restore(working);
+        log.info("Took over {} symbols with {} working orders", symbols.size(), working.size());
+    }
+
+    private void restore(List<Order> working) {
+        if (!matchingEnabled) {
+            return;
+        }
+        List<CompletableFuture<Void>> restored = new ArrayList<>();
+        for (Order order : working) {
+            if ("LIMIT".equals(order.getOrderType()) && order.getPrice() != null) {
+                BigDecimal remaining = order.getQuantity().subtract(order.getFilledQuantity());
+                restored.add(matchingEngine.restore(toNewOrder(order, remaining)));
+            }
+        }
+        CompletableFuture.allOf(restored.toArray(new CompletableFuture[0])).join();
+        log.info("Restored {} working orders into the matching engine", restored.size());
+    }
+
+    /**
+     * Locks the books of {@code symbols} until the current transaction completes. Symbols this
+     * transaction already holds are skipped; new ones are locked in name order. If the transaction
+     * does not commit, the books are rebuilt from the committed working orders before they are
+     * released. Callers that write order rows before matching lock first, so that no transaction
+     * waits for a row lock while holding a book another one needs.
+     */
+    public void lockBooks(Collection<String> symbols) {
+        if (!matchingEnabled || symbols.isEmpty()) {
+            return;
+        }
+        HeldBooks held = heldBooks();
+        if (held.locks.isEmpty()) {
+            lock(allBooks.readLock(), held);
+        }
+        for (String symbol : new TreeSet<>(symbols)) {
+            if (!held.symbols.contains(symbol)) {
+                lock(bookLocks.computeIfAbsent(symbol, key -> new ReentrantLock()), held);
+                held.symbols.add(symbol);
+            }
+        }
+    }
+
+    private void lock(Lock lock, HeldBooks held) {
+        try {
+            if (!lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Order book is busy, not locked within " + timeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the order book", e);
+        }
+        held.locks.add(lock);
+    }
+
+    /**
+     * The books held by the current transaction, released when it completes.
+     */
+    private HeldBooks heldBooks() {
+        HeldBooks held = (HeldBooks) TransactionSynchronizationManager.getResource(heldBooksKey);
+        if (held != null) {
+            return held;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Order books can only be locked within a transaction");
+        }
+        HeldBooks created = new HeldBooks();
+        TransactionSynchronizationManager.bindResource(heldBooksKey, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(heldBooksKey);
+                try {
+                    if (status != STATUS_COMMITTED) {
+                        rebuild(created);
+                    }
+                } finally {
+                    created.release();
+                }
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Replaces held books with their committed working orders after the transaction holding them
+     * did not commit. The engine may have matched, booked, amended or cancelled orders for it, or
+     * may still do so for a command that timed out; that command is queued ahead of the rebuild.
+     */
+    private void rebuild(HeldBooks held) {
+        try {
+            writeBehindJournal.flush();
+            // The failed transaction's resources are still bound, so the reads need their own
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            List<String> symbols = (held.all ? template.execute(status -> workingSymbols()) : List.copyOf(held.symbols))
+                    .stream().filter(symbol -> !ownership.isEnabled() || ownership.isLocal(symbol)).toList();
+            if (symbols.isEmpty()) {
+                return;
+            }
+            List<Order> working = template.execute(status ->
+                    orderRepository.findBySymbolInAndStatusInOrderByIdAsc(symbols, WORKING_STATUSES));
+            await(CompletableFuture.allOf(symbols.stream().map(matchingEngine::dropBook)
+                    .toArray(CompletableFuture[]::new)));
+            restore(working);
+            log.warn("Rebuilt the order books of {} symbols after a rollback", symbols.size());
+        } catch (RuntimeException e) {
+            log.error("Order books of {} could not be rebuilt and may not match the database",
+                    held.all ? "all symbols" : held.symbols, e);
+        }
+    }
+
+    private MatchResult match(Order order) {
+        if (!isMatchable(order)) {
+            return null;
+        }
+        NewOrder submitted = toNewOrder(order, order.getQuantity());
+        lockBooks(List.of(order.getSymbol()));
+        return await(matchingEngine.submit(submitted));
+    }
+
+    private boolean isMatchable(Order order) {
+        if (!matchingEnabled) {
+            return false;
+        }
+        // STOP and STOP_LIMIT orders are not triggered by the engine yet and stay PENDING
+        return "MARKET".equals(order.getOrderType()) || "LIMIT".equals(order.getOrderType());
+    }
+
+    private Order apply(Order order, MatchResult result) {
+        if (result.isEmpty()) {
+            return order;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Execution execution = collect(order, result, now);
+        tradeRepository.saveAll(execution.trades);
+        // An amended order arrives detached, its fills land on the managed instance loaded here
+        Order managed = order;
+        List<Order> affectedOrders = orderRepository.findAllForUpdate(execution.totals.keySet());
+        if (affectedOrders.size() != execution.totals.size()) {
+            Set<Long> missing = new TreeSet<>(execution.totals.keySet());
+            affectedOrders.forEach(affected -> missing.remove(affected.getId()));
+            throw new RuntimeException("Orders " + missing + " filled by the matching engine are not in the database");
+        }
+        for (Order affected : affectedOrders) {
+            execution.totals.get(affected.getId()).applyTo(affected, now);
+            if (affected.getId().equals(order.getId())) {
+                managed = affected;
+                continue;
+            }
+            activeOrders.update(affected);
+            if (updateStream.getConnectionCount() > 0) {
+                updateStream.publish(OrderService.toResponse(affected), OrderEvent.Type.FILLED);
+            }
+        }
+        if (result.cancelledLots() > 0) {
+            managed.setStatus("CANCELLED");
+            orderJournal.orderCancel(order);
+        }
+        if (managed != order) {
+            copyFillState(managed, order);
+        }
+        logResult(order, result);
+        return order;
+    }
+
+    /**
+     * Write-behind counterpart of {@link #apply}: the order's own fills are folded in memory for the
+     * response, everything else is expressed as journal events behind {@code first}.
+     */
+    private Order journal(Order order, MatchResult result, JournalEvent first) {
+        List<JournalEvent> events = new ArrayList<>();
+        journal(order, result, first, events);
+        writeBehindJournal.write(events);
+        return order;
+    }
+
+    private void journal(Order order, MatchResult result, JournalEvent first, List<JournalEvent> events) {
+        boolean inserted = first instanceof JournalEvent.OrderInsert;
+        events.add(first);
+        if (result != null && !result.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            Execution execution = collect(order, result, now);
+            FillTotals own = execution.totals.remove(order.getId());
+            if (own != null) {
+                own.applyTo(order, now);
+                order.setUpdatedAt(now);
+                if (!inserted) {
+                    events.add(new JournalEvent.OrderFill(order.getId(), own.quantity, own.notional, now));
+                }
+            }
+            execution.trades.forEach(trade -> events.add(new JournalEvent.TradeInsert(trade)));
+            execution.totals.forEach((id, fill) -> {
+                events.add(new JournalEvent.OrderFill(id, fill.quantity, fill.notional, now));
+                activeOrders.apply(id, maker -> {
+                    fill.applyTo(maker, now);
+                    maker.setUpdatedAt(now);
+                });
+            });
+            if (result.cancelledLots() > 0) {
+                order.setStatus("CANCELLED");
+                orderJournal.orderCancel(order);
+                if (!inserted) {
+                    events.add(new JournalEvent.OrderStatus(order.getId(), "CANCELLED", now));
+                }
+            }
+            logResult(order, result);
+        }
+    }
+
+    private static void copyFillState(Order from, Order to) {
+        to.setFilledQuantity(from.getFilledQuantity());
+        to.setAverageFillPrice(from.getAverageFillPrice());
+        to.setStatus(from.getStatus());
+        to.setExecutedAt(from.getExecutedAt());
+        to.setUpdatedAt(from.getUpdatedAt());
+    }
+
+    private Execution collect(Order taker, MatchResult result, LocalDateTime executedAt) {
+        positionLedger.onFills(result);
+        buyingPower.onMatch(result);
+        orderJournal.fills(taker, result, executedAt);
+        Execution execution = new Execution(new ArrayList<>(result.fills().size() * 2), new LinkedHashMap<>());
+        for (Fill fill : result.fills()) {
+            BigDecimal quantity = FixedPoint.fromQuantityLots(fill.quantityLots());
+            BigDecimal price = FixedPoint.fromPriceTicks(fill.priceTicks());
+            BigDecimal notional = price.multiply(quantity);
+            execution.trades.add(toTrade(fill.takerId(), fill.takerAccountId(), result.symbol(), fill.takerSide(),
+                    quantity, price, executedAt));
+            execution.trades.add(toTrade(fill.makerId(), fill.makerAccountId(), result.symbol(),
+                    fill.takerSide().opposite(), quantity, price, executedAt));
+            execution.totals.computeIfAbsent(fill.takerId(), id -> new FillTotals()).add(quantity, notional);
+            execution.totals.computeIfAbsent(fill.makerId(), id -> new FillTotals()).add(quantity, notional);
+            orderCache.evict(fill.makerOrderId(), fill.makerAccountId());
+            readReplica.written(fill.makerAccountId());
+        }
+        return execution;
+    }
+
+    private void logResult(Order order, MatchResult result) {
+        log.debug("Order {} matched: {} fills, {} lots resting, {} lots cancelled",
+                order.getOrderId(), result.fills().size(), result.restingLots(), result.cancelledLots());
+    }
+
+    private NewOrder toNewOrder(Order order, BigDecimal quantity) {
+        boolean market = requirePrice(order);
+        return new NewOrder(
+                order.getId(),
+                order.getOrderId(),
+                order.getAccountId(),
+                order.getSymbol(),
+                parse(Side.class, order.getSide(), "side"),
+                market,
+                parse(TimeInForce.class, order.getTimeInForce(), "time in force"),
+                market ? 0 : FixedPoint.toPriceTicks(order.getPrice()),
+                FixedPoint.toQuantityLots(quantity));
+    }
+
+    /**
+     * Returns whether the order is a market order; any other matchable order must carry a price.
+     */
+    private static boolean requirePrice(Order order) {
+        boolean market = "MARKET".equals(order.getOrderType());
+        if (!market && order.getPrice() == null) {
+            throw new RuntimeException("Limit order requires a price");
+        }
+        return market;
+    }
+
+    private static Trade toTrade(long orderId, long accountId, String symbol, Side side,
+                                 BigDecimal quantity, BigDecimal price, LocalDateTime executedAt) {
+        return Trade.builder()
+                .tradeId(generateTradeId())
+                .orderId(orderId)
+                .accountId(accountId)
+                .symbol(symbol)
+                .side(side.name())
+                .quantity(quantity)
+                .price(price)
+                .commission(BigDecimal.ZERO)
+                .executedAt(executedAt)
+                .build();
+    }
+
+    private static String generateTradeId() {
+        return "TRD-" + UUID.randomUUID().toString().toUpperCase();
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value, String field) {
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new RuntimeException("Unsupported " + field + ": " + value);
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the matching engine", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Matching engine failure", e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Matching engine did not respond within " + timeoutMs + " ms", e);
+        }
+    }
+
+    private record Execution(List<Trade> trades, Map<Long, FillTotals> totals) {
+    }
+
+    private static final class HeldBooks {
+        private final Set<String> symbols = new TreeSet<>();
+        private final List<Lock> locks = new ArrayList<>();
+        private boolean all;
+
+        void release() {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    private static final class FillTotals {
+        private BigDecimal quantity = BigDecimal.ZERO;
+        private BigDecimal notional = BigDecimal.ZERO;
+
+        void add(BigDecimal fillQuantity, BigDecimal fillNotional) {
+            quantity = quantity.add(fillQuantity);
+            notional = notional.add(fillNotional);
+        }
+
+        void applyTo(Order order, LocalDateTime executedAt) {
+            BigDecimal previous = order.getAverageFillPrice() == null
+                    ? BigDecimal.ZERO
+                    : order.getAverageFillPrice().multiply(order.getFilledQuantity());
+            BigDecimal filled = order.getFilledQuantity().add(quantity);
+            order.setAverageFillPrice(previous.add(notional).divide(filled, FixedPoint.PRICE_SCALE, RoundingMode.HALF_UP));
+            order.setFilledQuantity(filled);
+            order.setStatus(filled.compareTo(order.getQuantity()) >= 0 ? "FILLED" : "PARTIALLY_FILLED");
+            order.setExecutedAt(executedAt);
+        }
+    }
+}
@@ -1,46 +1,287 @@
 package com.finco.trading.service;
 
+import com.finco.trading.fix.FixEncoder;
+import com.finco.trading.fix.FixLoopbackAcceptor;
+import com.finco.trading.fix.FixMessage;
+import com.finco.trading.fix.FixMessageStore;
+import com.finco.trading.fix.FixSequenceStore;
+import com.finco.trading.fix.FixSession;
+import com.finco.trading.fix.FixSessionSettings;
+import com.finco.trading.fix.FixTags;
+import com.finco.trading.model.Order;
+import com.finco.trading.util.FixedPoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
 /**
- * FIX Protocol Service - placeholder for FIX protocol integration
- * In production, this would integrate with QuickFIX/J or similar
+ * FIX 4.4 order routing: keeps an initiator {@link FixSession} to the configured venue logged on,
+ * reconnecting as needed, sends NewOrderSingle and OrderCancelRequest, and passes received
+ * ExecutionReports to listeners. Sequence numbers persist under {@code app.fix.store-dir}.
+ * With {@code app.fix.loopback.enabled} the venue is an in-process {@link FixLoopbackAcceptor}.
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
-public class FIXProtocolService {
+public class FIXProtocolService implements FixSession.Application {
+
+    private static final int RESEND_SLOT_SIZE = 512;
+
+    private final MeterRegistry meterRegistry;
 
     @Value("${app.fix-protocol-enabled:false}")
     private boolean fixEnabled;
 
-    public void sendOrder(String orderId) {
+    @Value("${app.fix.host:localhost}")
+    private String host;
+
+    @Value("${app.fix.port:9876}")
+    private int port;
+
+    @Value("${app.fix.sender-comp-id:FINCO}")
+    private String senderCompId;
+
+    @Value("${app.fix.target-comp-id:EXCHANGE}")
+    private String targetCompId;
+
+    @Value("${app.fix.heartbeat-interval-seconds:30}")
+    private int heartbeatIntervalSeconds;
+
+    @Value("${app.fix.reset-on-logon:false}")
+    private boolean resetOnLogon;
+
+    @Value("${app.fix.store-dir:./data/fix}")
+    private String storeDir;
+
+    @Value("${app.fix.resend-capacity:10000}")
+    private int resendCapacity;
+
+    @Value("${app.fix.loopback.enabled:false}")
+    private boolean loopbackEnabled;
+
+    @Value("${app.fix.loopback.port:0}")
+    private int loopbackPort;
+
+    @Value("${app.fix.loopback.auto-fill:true}")
+    private boolean loopbackAutoFill;
+
+    private final List<Consumer<FixMessage>> executionReportListeners = new CopyOnWriteArrayList<>();
+    private final Counter[] executionReports = new Counter[128];
+    private final AtomicLong cancelIds = new AtomicLong();
+    private final FixSession.BodyWriter<Order> cancelWriter = this::writeCancelRequest;
+
+    private FixSessionSettings settings;
+    private InetSocketAddress address;
+    private FixSequenceStore sequences;
+    private FixMessageStore sentMessages;
+    private FixLoopbackAcceptor loopback;
+    private volatile FixSession session;
+    private int connectFailures;
+
+    @PostConstruct
+    void start() throws IOException {
         if (!fixEnabled) {
-            log.debug("FIX protocol disabled");
             return;
         }
+        settings = new FixSessionSettings(senderCompId, targetCompId, heartbeatIntervalSeconds, resetOnLogon);
+        sequences = FixSequenceStore.open(Path.of(storeDir, senderCompId + "-" + targetCompId + ".seq"));
+        sentMessages = new FixMessageStore(resendCapacity, RESEND_SLOT_SIZE);
+        for (byte execType : new byte[] {FixTags.EXEC_NEW, FixTags.EXEC_PARTIAL_FILL, FixTags.EXEC_FILL,
+                FixTags.EXEC_CANCELED, FixTags.EXEC_REJECTED, FixTags.EXEC_TRADE}) {
+            executionReports[execType] = Counter.builder("fix.execution.reports")
+                    .tag("execType", String.valueOf((char) execType))
+                    .register(meterRegistry);
+        }
+        executionReports[0] = Counter.builder("fix.execution.reports").tag("execType", "other").register(meterRegistry);
+
+        address = new InetSocketAddress(host, port);
+        if (loopbackEnabled) {
+            loopback = new FixLoopbackAcceptor(settings.reversed(), loopbackAutoFill);
+            address = new InetSocketAddress("localhost", loopback.start(new InetSocketAddress("localhost", loopbackPort)));
+        }
+        connect();
+    }
 
-        log.info("Sending order via FIX protocol: {}", orderId);
-        
-        // Placeholder: Implement FIX message creation and sending
-        // - Create FIX NewOrderSingle message
-        // - Set required FIX tags
-        // - Send to execution venue
-        // - Handle responses
-        
-        log.info("Order sent via FIX: {}", orderId);
+    @PreDestroy
+    void stop() throws IOException {
+        FixSession current = session;
+        if (current != null) {
+            current.close();
+        }
+        if (loopback != null) {
+            loopback.close();
+        }
+        if (sequences != null) {
+            sequences.close();
+        }
     }
 
-    public void cancelOrder(String orderId) {
+    /**
+     * Reconnects a dropped session and drives heartbeats of the live one.
+     */
+    @Scheduled(fixedDelayString = "${app.fix.timer-interval-ms:1000}")
+    public void maintain() {
         if (!fixEnabled) {
             return;
         }
+        long now = System.currentTimeMillis();
+        FixSession current = session;
+        if (current == null || current.getState() == FixSession.State.CLOSED) {
+            connect();
+        } else {
+            current.onTimer(now);
+        }
+        if (loopback != null) {
+            loopback.onTimer(now);
+        }
+    }
+
+    public boolean isLoggedOn() {
+        FixSession current = session;
+        return current != null && current.isLoggedOn();
+    }
+
+    public void addExecutionReportListener(Consumer<FixMessage> listener) {
+        executionReportListeners.add(listener);
+    }
+
+    public void removeExecutionReportListener(Consumer<FixMessage> listener) {
+        executionReportListeners.remove(listener);
+    }
 
-        log.info("Sending cancel request via FIX protocol: {}", orderId);
-        
-        // Placeholder: Implement FIX OrderCancelRequest
-        
-        log.info("Cancel request sent via FIX: {}", orderId);
+    /**
+     * Sends the order as a NewOrderSingle with the order id as ClOrdID.
+     */
+    public void sendOrder(Order order) {
+        if (!fixEnabled) {
+            log.debug("FIX protocol disabled");
+            return;
+        }
+        requireSession().send(FixTags.NEW_ORDER_SINGLE, FIXProtocolService::writeNewOrderSingle, order);
+    }
+
+    /**
+     * Sends an OrderCancelRequest for an order sent earlier with {@link #sendOrder}.
+     */
+    public void cancelOrder(Order order) {
+        if (!fixEnabled) {
+            return;
+        }
+        requireSession().send(FixTags.ORDER_CANCEL_REQUEST, cancelWriter, order);
+    }
+
+    @Override
+    public void onMessage(FixSession session, FixMessage message) {
+        switch (message.msgType()) {
+            case FixTags.EXECUTION_REPORT -> {
+                byte execType = message.getChar(FixTags.EXEC_TYPE);
+                Counter counter = execType > 0 ? executionReports[execType] : null;
+                (counter != null ? counter : executionReports[0]).increment();
+                for (Consumer<FixMessage> listener : executionReportListeners) {
+                    listener.accept(message);
+                }
+            }
+            case FixTags.ORDER_CANCEL_REJECT -> log.warn("FIX cancel rejected for {}: {}",
+                    message.getString(FixTags.ORIG_CL_ORD_ID), message.getString(FixTags.TEXT));
+            default -> log.debug("Unhandled FIX message {}", message);
+        }
+    }
+
+    @Override
+    public void onLogon(FixSession session) {
+        connectFailures = 0;
+    }
+
+    private FixSession requireSession() {
+        FixSession current = session;
+        if (current == null || !current.isLoggedOn()) {
+            throw new RuntimeException("FIX session to " + targetCompId + " is not logged on");
+        }
+        return current;
+    }
+
+    private void connect() {
+        try {
+            SocketChannel channel = SocketChannel.open(address);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            FixSession next = new FixSession(channel, settings, sequences, sentMessages, this, true);
+            session = next;
+            next.start();
+        } catch (IOException e) {
+            // Log the first failure of a streak only, the scheduler retries every second
+            if (connectFailures++ == 0) {
+                log.warn("FIX connect to {} failed: {}", address, e.getMessage());
+            }
+        }
+    }
+
+    private static void writeNewOrderSingle(FixEncoder encoder, Order order) {
+        encoder.putAscii(FixTags.CL_ORD_ID, order.getOrderId())
+                .putLong(FixTags.ACCOUNT, order.getAccountId())
+                .putAscii(FixTags.SYMBOL, order.getSymbol())
+                .putChar(FixTags.SIDE, side(order.getSide()))
+                .putTimestamp(FixTags.TRANSACT_TIME, System.currentTimeMillis())
+                .putDecimal(FixTags.ORDER_QTY, FixedPoint.toQuantityLots(order.getQuantity()), FixedPoint.QUANTITY_SCALE)
+                .putChar(FixTags.ORD_TYPE, ordType(order.getOrderType()));
+        if (order.getPrice() != null) {
+            encoder.putDecimal(FixTags.PRICE, FixedPoint.toPriceTicks(order.getPrice()), FixedPoint.PRICE_SCALE);
+        }
+        encoder.putChar(FixTags.TIME_IN_FORCE, timeInForce(order.getTimeInForce()));
+    }
+
+    private void writeCancelRequest(FixEncoder encoder, Order order) {
+        encoder.putAscii(FixTags.ORIG_CL_ORD_ID, order.getOrderId())
+                .putTag(FixTags.CL_ORD_ID).appendAscii(order.getOrderId()).appendAscii("-C")
+                .appendNumber(cancelIds.incrementAndGet()).endField()
+                .putAscii(FixTags.SYMBOL, order.getSymbol())
+                .putChar(FixTags.SIDE, side(order.getSide()))
+                .putTimestamp(FixTags.TRANSACT_TIME, System.currentTimeMillis())
+                .putDecimal(FixTags.ORDER_QTY, FixedPoint.toQuantityLots(order.getQuantity()), FixedPoint.QUANTITY_SCALE);
+    }
+
+    private static byte side(String side) {
+        return switch (side) {
+            case "BUY" -> FixTags.SIDE_BUY;
+            case "SELL" -> FixTags.SIDE_SELL;
+            default -> throw new RuntimeException("Unsupported side for FIX: " + side);
+        };
+    }
+
+    private static byte ordType(String orderType) {
+        return switch (orderType) {
+            case "MARKET" -> FixTags.ORD_TYPE_MARKET;
+            case "LIMIT" -> FixTags.ORD_TYPE_LIMIT;
+            case "STOP" -> FixTags.ORD_TYPE_STOP;
+            case "STOP_LIMIT" -> FixTags.ORD_TYPE_STOP_LIMIT;
+            default -> throw new RuntimeException("Unsupported order type for FIX: " + orderType);
+        };
+    }
+
+    private static byte timeInForce(String timeInForce) {
+        if (timeInForce == null) {
+            return FixTags.TIF_DAY;
+        }
+        return switch (timeInForce) {
+            case "GTC" -> FixTags.TIF_GTC;
+            case "IOC" -> FixTags.TIF_IOC;
+            case "FOK" -> FixTags.TIF_FOK;
+            default -> FixTags.TIF_DAY;
+        };
     }
 }
@@ -0,0 +1,52 @@
+package com.finco.trading.service;
+
+import com.finco.trading.dto.MarketDataResponse;
+import com.finco.trading.marketdata.MarketDataStore;
+import com.finco.trading.util.FixedPoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class MarketDataService {
+
+    private final MarketDataStore marketDataStore;
+
+    public List<MarketDataResponse> getQuotes() {
+        MarketDataStore.Quote quote = new MarketDataStore.Quote();
+        List<MarketDataResponse> responses = new ArrayList<>();
+        for (int id = 0; id < marketDataStore.symbolCount(); id++) {
+            if (marketDataStore.read(id, quote)) {
+                responses.add(toResponse(quote));
+            }
+        }
+        responses.sort(Comparator.comparing(MarketDataResponse::getSymbol));
+        return responses;
+    }
+
+    public MarketDataResponse getQuote(String symbol) {
+        MarketDataStore.Quote quote = new MarketDataStore.Quote();
+        if (!marketDataStore.read(symbol, quote)) {
+            throw new RuntimeException("No market data for symbol: " + symbol);
+        }
+        return toResponse(quote);
+    }
+
+    static MarketDataResponse toResponse(MarketDataStore.Quote quote) {
+        return MarketDataResponse.builder()
+                .symbol(quote.symbol())
+                .bidPrice(quote.bidTicks() > 0 ? FixedPoint.fromPriceTicks(quote.bidTicks()) : null)
+                .bidSize(quote.bidTicks() > 0 ? FixedPoint.fromQuantityLots(quote.bidLots()) : null)
+                .askPrice(quote.askTicks() > 0 ? FixedPoint.fromPriceTicks(quote.askTicks()) : null)
+                .askSize(quote.askTicks() > 0 ? FixedPoint.fromQuantityLots(quote.askLots()) : null)
+                .lastPrice(quote.lastTicks() > 0 ? FixedPoint.fromPriceTicks(quote.lastTicks()) : null)
+                .lastSize(quote.lastTicks() > 0 ? FixedPoint.fromQuantityLots(quote.lastLots()) : null)
+                .timestamp(Instant.ofEpochMilli(quote.timeMillis()))
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.finco.trading.service;
+
+import com.finco.trading.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * Targeted eviction for order entries that cannot be expressed with cache annotations,
+ * such as resting orders of other accounts that were filled by an incoming order.
+ * The cache manager is transaction-aware, so evictions take effect after commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderCache {
+
+    private final CacheManager cacheManager;
+
+    public void evict(String orderId, Long accountId) {
+        evictKey(CacheConfig.ORDERS, orderId);
+        evictKey(CacheConfig.ORDERS_BY_ACCOUNT, accountId);
+        evictKey(CacheConfig.ALL_ORDERS, "all");
+    }
+
+    /**
+     * Evicts the per-account lists of the given accounts and the full list once, for batch creates.
+     */
+    public void evictAccounts(Collection<Long> accountIds) {
+        for (Long accountId : new HashSet<>(accountIds)) {
+            evictKey(CacheConfig.ORDERS_BY_ACCOUNT, accountId);
+        }
+        evictKey(CacheConfig.ALL_ORDERS, "all");
+    }
+
+    /**
+     * Drops every order entry, for bulk changes such as end-of-day expiry.
+     */
+    public void clear() {
+        for (String region : new String[] {CacheConfig.ORDERS, CacheConfig.ORDERS_BY_ACCOUNT, CacheConfig.ALL_ORDERS}) {
+            Cache cache = cacheManager.getCache(region);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private void evictKey(String region, Object key) {
+        Cache cache = cacheManager.getCache(region);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+}
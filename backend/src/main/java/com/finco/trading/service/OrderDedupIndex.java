@@ -0,0 +1,151 @@
+package com.finco.trading.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Client order ids already used per account, mapped to the order created for them, so a client
+ * retrying a submission gets its original order back instead of a second one. Claims are held in
+ * memory for {@code app.orders.dedup.local-ttl-seconds}, covering same-node retries without a
+ * network call, and in Redis for {@code app.orders.dedup.redis-ttl-seconds} with SET NX, which
+ * makes them visible to the other nodes and survives restarts. If Redis is unreachable the
+ * in-memory claim alone is used.
+ *
+ * <p>A claim made inside a transaction is released again if the transaction rolls back, so a
+ * rejected or failed submission can be retried with the same client order id.
+ */
+@Component
+@Slf4j
+public class OrderDedupIndex {
+
+    private static final RedisScript<Long> RELEASE = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final String keyPrefix;
+    private final long localTtlMillis;
+    private final Duration redisTtl;
+    private final Clock clock;
+
+    private final Map<String, Claim> claims = new ConcurrentHashMap<>();
+
+    private record Claim(String orderId, long expiresAt) {
+    }
+
+    @Autowired
+    public OrderDedupIndex(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry,
+                           @Value("${app.orders.dedup.enabled:true}") boolean enabled,
+                           @Value("${app.orders.dedup.redis-enabled:true}") boolean redisEnabled,
+                           @Value("${app.orders.dedup.key-prefix:finco:orders:client-id:}") String keyPrefix,
+                           @Value("${app.orders.dedup.local-ttl-seconds:600}") long localTtlSeconds,
+                           @Value("${app.orders.dedup.redis-ttl-seconds:86400}") long redisTtlSeconds) {
+        this(redisEnabled ? redisTemplate : null, enabled, keyPrefix, Duration.ofSeconds(localTtlSeconds),
+                Duration.ofSeconds(redisTtlSeconds), Clock.systemUTC());
+        Gauge.builder("orders.dedup.entries", claims, Map::size)
+                .description("Client order ids held in the in-memory dedup index")
+                .register(meterRegistry);
+    }
+
+    OrderDedupIndex(StringRedisTemplate redisTemplate, boolean enabled, String keyPrefix,
+                    Duration localTtl, Duration redisTtl, Clock clock) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.keyPrefix = keyPrefix;
+        this.localTtlMillis = localTtl.toMillis();
+        this.redisTtl = redisTtl;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Claims {@code clientOrderId} of the account for {@code orderId}. Returns null when the claim
+     * is new, otherwise the order id that already holds it, which may still be in the middle of
+     * being created.
+     */
+    public String claim(Long accountId, String clientOrderId, String orderId) {
+        String key = key(accountId, clientOrderId);
+        long now = clock.millis();
+        Claim claim = new Claim(orderId, now + localTtlMillis);
+        Claim held = claims.compute(key, (k, existing) -> existing == null || existing.expiresAt() <= now ? claim : existing);
+        if (held != claim) {
+            return held.orderId();
+        }
+        if (redisTemplate != null) {
+            try {
+                if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, orderId, redisTtl))) {
+                    String existing = redisTemplate.opsForValue().get(key);
+                    if (existing != null && !existing.equals(orderId)) {
+                        claims.replace(key, claim, new Claim(existing, claim.expiresAt()));
+                        return existing;
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Client order id {} claimed on this node only, Redis unavailable: {}", clientOrderId, e.getMessage());
+            }
+        }
+        releaseOnRollback(accountId, clientOrderId, orderId);
+        return null;
+    }
+
+    /**
+     * Gives up a claim made by {@link #claim}; claims held by another order are left alone.
+     */
+    public void release(Long accountId, String clientOrderId, String orderId) {
+        String key = key(accountId, clientOrderId);
+        claims.computeIfPresent(key, (k, held) -> held.orderId().equals(orderId) ? null : held);
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.execute(RELEASE, List.of(key), orderId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to release client order id {} in Redis: {}", clientOrderId, e.getMessage());
+            }
+        }
+    }
+
+    public int size() {
+        return claims.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.dedup.sweep-interval-ms:60000}")
+    void expire() {
+        long now = clock.millis();
+        claims.values().removeIf(claim -> claim.expiresAt() <= now);
+    }
+
+    private void releaseOnRollback(Long accountId, String clientOrderId, String orderId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(accountId, clientOrderId, orderId);
+                    }
+                }
+            });
+        }
+    }
+
+    private String key(Long accountId, String clientOrderId) {
+        return keyPrefix + accountId + ':' + clientOrderId;
+    }
+}
@@ -0,0 +1,133 @@
+package com.finco.trading.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style business order ids: 41 bits of milliseconds since 2024-01-01, 3 bits of region,
+ * 7 bits of worker and a 12-bit sequence, rendered as {@code ORD-} and 16 upper-case hex digits.
+ * The region is the position of {@code app.region} in {@code app.orders.id.regions} and the
+ * worker is {@code app.orders.id.worker}, so ids are unique across nodes without coordination and
+ * sort in creation order, numerically and as strings.
+ *
+ * <p>Timestamp and sequence are advanced together in one atomic counter: every id is greater
+ * than the previous one and a burst of more than 4096 ids in a millisecond, or the wall clock
+ * stepping back, borrows from the following milliseconds instead of blocking or repeating. On
+ * startup the generator is moved past the creation time of the newest stored order, so a clock
+ * that is behind after a restart does not repeat ids issued before it. {@code orders} can only
+ * enforce order id uniqueness per partition (see {@code V3__Time_Partitioning.sql}) and relies on
+ * this.
+ */
+@Component
+@Slf4j
+public class OrderIdGenerator {
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int SEQUENCE_BITS = 12;
+    static final int WORKER_BITS = 7;
+    static final int REGION_BITS = 3;
+    private static final int NODE_SHIFT = SEQUENCE_BITS;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_BITS + REGION_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final long node;
+    private final Clock clock;
+    // (milliseconds since the epoch << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    @Autowired
+    public OrderIdGenerator(@Value("${app.region:us-east-1}") String region,
+                            @Value("${app.orders.id.regions:us-east-1}") List<String> regions,
+                            @Value("${app.orders.id.worker:0}") int worker,
+                            JdbcTemplate jdbcTemplate) {
+        this(regions.stream().map(String::trim).toList().indexOf(region), worker, Clock.systemUTC());
+        log.info("Order ids generated as region {} ({}), worker {}", node >> WORKER_BITS, region, worker);
+        try {
+            List<Timestamp> newest = jdbcTemplate.queryForList(
+                    "SELECT created_at FROM orders ORDER BY id DESC LIMIT 1", Timestamp.class);
+            if (!newest.isEmpty()) {
+                advancePast(newest.get(0).toInstant());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not read the newest order, order ids follow the clock only", e);
+        }
+    }
+
+    OrderIdGenerator(int region, int worker, Clock clock) {
+        if (region < 0 || region >= 1 << REGION_BITS) {
+            throw new IllegalArgumentException("Region is not one of the " + (1 << REGION_BITS)
+                    + " configured in app.orders.id.regions: " + region);
+        }
+        if (worker < 0 || worker >= 1 << WORKER_BITS) {
+            throw new IllegalArgumentException("Order id worker must be between 0 and "
+                    + ((1 << WORKER_BITS) - 1) + ": " + worker);
+        }
+        this.node = (long) region << WORKER_BITS | worker;
+        this.clock = clock;
+    }
+
+    /**
+     * Makes every id issued from now on carry a time after {@code instant}.
+     */
+    void advancePast(Instant instant) {
+        long floor = (instant.toEpochMilli() + 1 - EPOCH_MILLIS) << SEQUENCE_BITS;
+        last.accumulateAndGet(floor - 1, Math::max);
+    }
+
+    public long nextId() {
+        long now = (clock.millis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long next = last.accumulateAndGet(now, (previous, floor) -> Math.max(previous + 1, floor));
+        return (next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT | node << NODE_SHIFT | (next & SEQUENCE_MASK);
+    }
+
+    /**
+     * The next id as a business order id.
+     */
+    public String nextOrderId() {
+        return format(nextId());
+    }
+
+    /**
+     * Business order id of a numeric id, the inverse of {@link #parse}.
+     */
+    public static String format(long id) {
+        char[] chars = new char[20];
+        chars[0] = 'O';
+        chars[1] = 'R';
+        chars[2] = 'D';
+        chars[3] = '-';
+        for (int i = chars.length - 1; i >= 4; i--) {
+            chars[i] = HEX[(int) (id & 0xF)];
+            id >>>= 4;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Numeric id of a business order id, for the binary order entry protocol.
+     */
+    public static long parse(String orderId) {
+        if (orderId.length() != 20 || !orderId.startsWith("ORD-")) {
+            throw new IllegalArgumentException("Not a business order id: " + orderId);
+        }
+        return Long.parseUnsignedLong(orderId, 4, 20, 16);
+    }
+
+    /**
+     * Creation time encoded in an id from {@link #nextId()}.
+     */
+    static Instant timestamp(long id) {
+        return Instant.ofEpochMilli((id >>> TIMESTAMP_SHIFT) + EPOCH_MILLIS);
+    }
+}
@@ -0,0 +1,170 @@
+package com.finco.trading.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Stage timings of the order lifecycle ({@code app.metrics.orders.enabled}). Each operation is
+ * timed as consecutive laps: a caller takes {@link #start()} and passes the previous lap's end to
+ * {@link #lap}, so one {@code System.nanoTime()} per stage is the whole cost besides the timer.
+ * Timers publish p50/p99/p99.9 from Micrometer's HdrHistogram-based client-side percentiles, over
+ * one histogram per timer that is reset every two minutes instead of the default ring of three,
+ * which takes a quarter off every record. They are tagged {@code operation}, {@code stage} and
+ * {@code symbol}; only the symbols in {@code app.metrics.symbols} get their own tag value, every
+ * other one is counted under {@code other} so the number of series stays fixed. The {@code region}
+ * tag is added to every meter through {@code management.metrics.tags}.
+ */
+@Component
+public class OrderMetrics {
+
+    public enum Operation {
+        CREATE, BULK_CREATE, UPDATE, CANCEL,
+        /** One compliance check, timed from inside {@link ComplianceService} */
+        CHECK
+    }
+
+    public enum Stage {
+        /** Pre-trade checks, for a single order or a whole batch */
+        COMPLIANCE,
+        /** Position lookup of a compliance check, in the ledger or the database */
+        POSITION,
+        /** Evaluation of the compliance rule set */
+        RULES,
+        /** Lookup of the working order in the index, or the database fallback */
+        LOOKUP,
+        /** Insert, amendment or status write, or id allocation in write-behind mode */
+        PERSIST,
+        /** Matching engine round trip and fill persistence */
+        MATCH,
+        /** Registration of index, journal and cache updates, applied after commit */
+        INDEX,
+        /** Entity to response mapping */
+        SERIALIZE,
+        AUDIT,
+        PUBLISH,
+        /** Flush and commit, and the after-commit cache, index and journal work */
+        COMMIT,
+        /** Method entry to commit */
+        TOTAL
+    }
+
+    private static final String OTHER = "other";
+    private static final int STAGES = Stage.values().length;
+    private static final int TIMERS = Operation.values().length * STAGES;
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Map<String, AtomicReferenceArray<Timer>> timers;
+    private final Map<String, Counter> rejects = new ConcurrentHashMap<>();
+
+    public OrderMetrics(MeterRegistry meterRegistry,
+                        @Value("${app.metrics.orders.enabled:true}") boolean enabled,
+                        @Value("${app.metrics.symbols:}") List<String> symbols) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        Map<String, AtomicReferenceArray<Timer>> buckets = new HashMap<>();
+        buckets.put(OTHER, new AtomicReferenceArray<>(TIMERS));
+        for (String symbol : symbols) {
+            if (!symbol.isBlank()) {
+                buckets.put(symbol.trim(), new AtomicReferenceArray<>(TIMERS));
+            }
+        }
+        this.timers = Map.copyOf(buckets);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time since {@code from} as {@code stage} and returns the end of the lap.
+     */
+    public long lap(Operation operation, Stage stage, String symbol, long from) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        timer(operation, stage, symbol).record(now - from, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    /**
+     * Records {@link Stage#COMMIT} and {@link Stage#TOTAL} when the surrounding transaction
+     * completes; outside a transaction only the total, right away.
+     */
+    public void complete(Operation operation, String symbol, long started) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            lap(operation, Stage.TOTAL, symbol, started);
+            return;
+        }
+        long committing = System.nanoTime();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    lap(operation, Stage.COMMIT, symbol, committing);
+                    lap(operation, Stage.TOTAL, symbol, started);
+                }
+            }
+        });
+    }
+
+    /**
+     * Counts an order rejected before it reached the book, by reason.
+     */
+    public void reject(String reason, String symbol) {
+        if (!enabled) {
+            return;
+        }
+        String bucket = bucket(symbol);
+        rejects.computeIfAbsent(reason + '|' + bucket, key -> Counter.builder("orders.rejected")
+                .description("Orders rejected by compliance or validation")
+                .tag("reason", reason)
+                .tag("symbol", bucket)
+                .register(meterRegistry)).increment();
+    }
+
+    private Timer timer(Operation operation, Stage stage, String symbol) {
+        String bucket = bucket(symbol);
+        AtomicReferenceArray<Timer> bucketTimers = timers.get(bucket);
+        int index = operation.ordinal() * STAGES + stage.ordinal();
+        Timer timer = bucketTimers.get(index);
+        if (timer == null) {
+            // Registration is idempotent, a racing thread gets the same timer back
+            timer = Timer.builder("orders.stage")
+                    .description("Time spent in one stage of an order operation")
+                    .tag("operation", operation.name().toLowerCase(Locale.ROOT))
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .tag("symbol", bucket)
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .distributionStatisticBufferLength(1)
+                    .register(meterRegistry);
+            bucketTimers.set(index, timer);
+        }
+        return timer;
+    }
+
+    private String bucket(String symbol) {
+        return symbol != null && timers.containsKey(symbol) ? symbol : OTHER;
+    }
+}
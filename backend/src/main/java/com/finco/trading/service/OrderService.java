@@ -1,40 +1,103 @@
 package com.finco.trading.service;
 
+import com.finco.trading.account.BuyingPowerLedger;
+import com.finco.trading.audit.AuditLogWriter;
+import com.finco.trading.compliance.ComplianceCode;
+import com.finco.trading.compliance.ComplianceException;
+import com.finco.trading.config.CacheConfig;
+import com.finco.trading.dto.BulkOrderResult;
+import com.finco.trading.dto.OrderEvent;
 import com.finco.trading.dto.OrderRequest;
+import com.finco.trading.dto.PageResponse;
 import com.finco.trading.dto.OrderResponse;
+import com.finco.trading.journal.OrderJournal;
 import com.finco.trading.model.Order;
+import com.finco.trading.persistence.JournalEvent;
+import com.finco.trading.persistence.OrderRowIds;
+import com.finco.trading.persistence.ReadReplicaGuard;
+import com.finco.trading.persistence.WriteBehindJournal;
+import com.finco.trading.push.UpdateStream;
 import com.finco.trading.repository.OrderRepository;
+import com.finco.trading.service.OrderMetrics.Operation;
+import com.finco.trading.service.OrderMetrics.Stage;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderService {
 
+    private static final Duration ISSUE_TIME_SLACK = Duration.ofHours(1);
+
     private final OrderRepository orderRepository;
     private final ComplianceService complianceService;
+    private final ExecutionService executionService;
+    private final WriteBehindJournal writeBehindJournal;
+    private final OrderRowIds orderRowIds;
+    private final OrderCache orderCache;
+    private final EntityManager entityManager;
+    private final UpdateStream updateStream;
+    private final AuditLogWriter auditLogWriter;
+    private final ActiveOrderIndex activeOrders;
+    private final OrderJournal orderJournal;
+    private final OrderMetrics metrics;
+    private final OrderIdGenerator orderIdGenerator;
+    private final OrderDedupIndex dedupIndex;
+    private final BuyingPowerLedger buyingPower;
+    private final ReadReplicaGuard readReplica;
+
+    @Value("${app.orders.bulk-max-size:1000}")
+    private int bulkMaxSize;
 
     @Transactional
-    @CacheEvict(value = "orders", allEntries = true)
+    @Caching(
+            put = @CachePut(value = CacheConfig.ORDERS, key = "#result.orderId"),
+            evict = {
+                @CacheEvict(value = CacheConfig.ORDERS_BY_ACCOUNT, key = "#request.accountId"),
+                @CacheEvict(value = CacheConfig.ALL_ORDERS, key = "'all'")
+            })
     public OrderResponse createOrder(OrderRequest request) {
         log.info("Creating order: {}", request);
+        long started = metrics.start();
+        String symbol = request.getSymbol();
+        String orderId = orderIdGenerator.nextOrderId();
+        String existing = claim(request, orderId);
+        if (existing != null) {
+            log.info("Duplicate client order id {}, returning order {}", request.getClientOrderId(), existing);
+            return existingOrder(existing, request.getClientOrderId());
+        }
         
         // Compliance check
         complianceService.validateOrder(request);
+        long lap = metrics.lap(Operation.CREATE, Stage.COMPLIANCE, symbol, started);
         
         Order order = Order.builder()
-                .orderId(generateOrderId())
+                .orderId(orderId)
                 .accountId(request.getAccountId())
                 .symbol(request.getSymbol())
                 .orderType(request.getOrderType())
@@ -46,38 +109,236 @@ public class OrderService {
                 .timeInForce(request.getTimeInForce() != null ? request.getTimeInForce() : "DAY")
                 .build();
         
-        order = orderRepository.save(order);
+        if (writeBehindJournal.isEnabled()) {
+            LocalDateTime now = LocalDateTime.now();
+            order.setId(orderRowIds.next());
+            order.setCreatedAt(now);
+            order.setUpdatedAt(now);
+        } else {
+            order = orderRepository.save(order);
+        }
+        lap = metrics.lap(Operation.CREATE, Stage.PERSIST, symbol, lap);
+        ComplianceCode funds = buyingPower.reserve(order);
+        if (!funds.isPassed()) {
+            metrics.reject(funds.name(), symbol);
+            throw new ComplianceException(funds);
+        }
+        orderJournal.orderNew(order);
+        order = executionService.execute(order);
+        lap = metrics.lap(Operation.CREATE, Stage.MATCH, symbol, lap);
+        activeOrders.update(order);
+        readReplica.written(order.getAccountId());
+        lap = metrics.lap(Operation.CREATE, Stage.INDEX, symbol, lap);
         log.info("Order created with ID: {}", order.getOrderId());
         
-        return toResponse(order);
+        OrderResponse response = toResponse(order);
+        lap = metrics.lap(Operation.CREATE, Stage.SERIALIZE, symbol, lap);
+        audit(response, "CREATE");
+        lap = metrics.lap(Operation.CREATE, Stage.AUDIT, symbol, lap);
+        updateStream.publish(response, OrderEvent.Type.of(response.getStatus(), OrderEvent.Type.CREATED));
+        metrics.lap(Operation.CREATE, Stage.PUBLISH, symbol, lap);
+        metrics.complete(Operation.CREATE, symbol, started);
+        return response;
     }
 
-    @Cacheable(value = "orders", key = "#orderId")
+    /**
+     * Creates a basket of orders in one transaction. Each request is checked on its own and a
+     * failing one is reported as REJECTED without affecting the others; the accepted orders are
+     * inserted together, matched in request order and committed as a unit. Failures that are not
+     * about a single order (database, matching engine) fail the whole batch and nothing is stored.
+     * A client order id repeated within the batch gets the order of its first accepted occurrence.
+     */
+    @Transactional
+    public List<BulkOrderResult> createOrders(List<OrderRequest> requests) {
+        if (requests.size() > bulkMaxSize) {
+            throw new RuntimeException("Batch of " + requests.size() + " orders exceeds the limit of " + bulkMaxSize);
+        }
+        log.info("Creating {} orders", requests.size());
+        long started = metrics.start();
+
+        ComplianceCode[] codes = complianceService.validateOrders(requests);
+        long lap = metrics.lap(Operation.BULK_CREATE, Stage.COMPLIANCE, null, started);
+        List<BulkOrderResult> results = new ArrayList<>(requests.size());
+        List<Order> accepted = new ArrayList<>();
+        Map<String, Integer> acceptedAt = new HashMap<>();
+        Map<Integer, Integer> repeats = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < requests.size(); i++) {
+            OrderRequest request = requests.get(i);
+            BulkOrderResult result = BulkOrderResult.builder().index(i).build();
+            results.add(result);
+            String orderId = orderIdGenerator.nextOrderId();
+            String existing = claim(request, orderId);
+            if (existing != null) {
+                Integer first = acceptedAt.get(existing);
+                if (first != null) {
+                    // Not stored before the batch commits; takes the response of the first occurrence
+                    result.setStatus("ACCEPTED");
+                    repeats.put(i, first);
+                    continue;
+                }
+                try {
+                    result.setOrder(existingOrder(existing, request.getClientOrderId()));
+                    result.setStatus("ACCEPTED");
+                } catch (RuntimeException e) {
+                    result.setStatus("REJECTED");
+                    result.setError(e.getMessage());
+                }
+                continue;
+            }
+            Order order = Order.builder()
+                    .orderId(orderId)
+                    .accountId(request.getAccountId())
+                    .symbol(request.getSymbol())
+                    .orderType(request.getOrderType())
+                    .side(request.getSide())
+                    .quantity(request.getQuantity())
+                    .price(request.getPrice())
+                    .status("PENDING")
+                    .filledQuantity(BigDecimal.ZERO)
+                    .timeInForce(request.getTimeInForce() != null ? request.getTimeInForce() : "DAY")
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build();
+            ComplianceCode code = codes[i];
+            String rejection = code.isPassed() ? null : code.getMessage();
+            if (rejection == null) {
+                try {
+                    executionService.validate(order);
+                } catch (RuntimeException e) {
+                    rejection = e.getMessage();
+                    metrics.reject("INVALID_ORDER", request.getSymbol());
+                }
+            }
+            if (rejection == null) {
+                order.setId(orderRowIds.next());
+                code = buyingPower.reserve(order);
+                if (!code.isPassed()) {
+                    rejection = code.getMessage();
+                    metrics.reject(code.name(), request.getSymbol());
+                }
+            }
+            if (rejection != null) {
+                if (request.getClientOrderId() != null) {
+                    dedupIndex.release(request.getAccountId(), request.getClientOrderId(), orderId);
+                }
+                result.setStatus("REJECTED");
+                result.setErrorCode(code.isPassed() ? null : code.name());
+                result.setError(rejection);
+            } else {
+                accepted.add(order);
+                acceptedAt.put(orderId, i);
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            accepted.forEach(orderJournal::orderNew);
+            Iterator<Order> executed = executionService.executeAll(accepted).iterator();
+            metrics.lap(Operation.BULK_CREATE, Stage.MATCH, null, lap);
+            for (BulkOrderResult result : results) {
+                if (result.getStatus() == null) {
+                    Order order = executed.next();
+                    activeOrders.update(order);
+                    result.setStatus("ACCEPTED");
+                    result.setOrder(toResponse(order));
+                    audit(result.getOrder(), "CREATE");
+                    updateStream.publish(result.getOrder(),
+                            OrderEvent.Type.of(result.getOrder().getStatus(), OrderEvent.Type.CREATED));
+                }
+            }
+            repeats.forEach((i, first) -> results.get(i).setOrder(results.get(first).getOrder()));
+            List<Long> accounts = accepted.stream().map(Order::getAccountId).toList();
+            orderCache.evictAccounts(accounts);
+            readReplica.written(accounts);
+        }
+        log.info("Created {} of {} orders", accepted.size(), requests.size());
+        metrics.complete(Operation.BULK_CREATE, null, started);
+        return results;
+    }
+
+    @Cacheable(value = CacheConfig.ORDERS, key = "#orderId")
     public OrderResponse getOrder(String orderId) {
-        Order order = orderRepository.findByOrderId(orderId)
+        Order order = activeOrders.get(orderId)
+                .or(() -> findOrder(orderId))
                 .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
         return toResponse(order);
     }
 
-    @Cacheable(value = "orders")
+    /**
+     * Working orders, optionally of one account and/or symbol, from the {@link ActiveOrderIndex}.
+     */
+    public List<OrderResponse> getOpenOrders(Long accountId, String symbol) {
+        return activeOrders.find(accountId, symbol);
+    }
+
+    @Cacheable(value = CacheConfig.ALL_ORDERS, key = "'all'")
+    @Transactional(readOnly = true)
     public List<OrderResponse> getAllOrders() {
+        readReplica.readYourWritesAll();
         return orderRepository.findAll().stream()
-                .map(this::toResponse)
+                .map(OrderService::toResponse)
                 .collect(Collectors.toList());
     }
 
-    @Cacheable(value = "orders", key = "#accountId")
+    @Cacheable(value = CacheConfig.ORDERS_BY_ACCOUNT, key = "#accountId")
+    @Transactional(readOnly = true)
     public List<OrderResponse> getOrdersByAccount(Long accountId) {
+        readReplica.readYourWrites(accountId);
         return orderRepository.findByAccountId(accountId).stream()
-                .map(this::toResponse)
+                .map(OrderService::toResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Keyset page of orders in id order, optionally for one account. Pages are not cached, the
+     * query is an index range scan and costs the same for every page.
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<OrderResponse> getOrdersPage(Long accountId, Long after, int limit) {
+        readReplica.readYourWrites(accountId);
+        int pageSize = PageResponse.clampLimit(limit);
+        long afterId = after != null ? after : 0L;
+        List<Order> rows = accountId != null
+                ? orderRepository.findByAccountIdAndIdGreaterThanOrderByIdAsc(accountId, afterId, Limit.of(pageSize + 1))
+                : orderRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return PageResponse.of(rows.stream().map(OrderService::toResponse).collect(Collectors.toList()),
+                pageSize, OrderResponse::getId);
+    }
+
+    /**
+     * Streams every order (optionally of one account) to {@code sink} in id order. Rows come
+     * from a fetch-size cursor and are detached once mapped, so heap use does not grow with the
+     * table.
+     */
+    @Transactional(readOnly = true)
+    public void exportOrders(Long accountId, Consumer<OrderResponse> sink) {
+        readReplica.readYourWrites(accountId);
+        try (Stream<Order> rows = accountId != null
+                ? orderRepository.streamByAccountIdOrderByIdAsc(accountId)
+                : orderRepository.streamAllByOrderByIdAsc()) {
+            rows.forEach(row -> {
+                sink.accept(toResponse(row));
+                entityManager.detach(row);
+            });
+        }
+    }
+
     @Transactional
-    @CacheEvict(value = "orders", allEntries = true)
+    @Caching(
+            put = @CachePut(value = CacheConfig.ORDERS, key = "#orderId"),
+            evict = {
+                @CacheEvict(value = CacheConfig.ORDERS_BY_ACCOUNT, key = "#result.accountId"),
+                @CacheEvict(value = CacheConfig.ALL_ORDERS, key = "'all'")
+            })
     public OrderResponse updateOrder(String orderId, OrderRequest request) {
-        Order order = orderRepository.findByOrderId(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
+        long started = metrics.start();
+        String symbol = activeOrders.get(orderId).orElseThrow(() -> notWorking(orderId, "update")).getSymbol();
+        // The book before the row: the amendment below locks the row a crossing order would fill
+        executionService.lockBooks(List.of(symbol));
+        // Read again under the book lock: a fill committed since is in the index by now, and no
+        // other can happen until this transaction completes
+        Order order = activeOrders.get(orderId).orElseThrow(() -> notWorking(orderId, "update"));
+        long lap = metrics.lap(Operation.UPDATE, Stage.LOOKUP, symbol, started);
         
         if (!"PENDING".equals(order.getStatus())) {
             throw new RuntimeException("Cannot update order in status: " + order.getStatus());
@@ -89,32 +350,129 @@ public class OrderService {
         if (request.getQuantity() != null) {
             order.setQuantity(request.getQuantity());
         }
-        
-        order = orderRepository.save(order);
-        return toResponse(order);
+        order.setUpdatedAt(LocalDateTime.now());
+        buyingPower.amend(order);
+
+        // The order is a detached copy: the amendment is written by statement here, or journaled by replace
+        if (!writeBehindJournal.isEnabled() && orderRepository.amendPending(
+                order.getId(), order.getPrice(), order.getQuantity(), order.getUpdatedAt()) == 0) {
+            throw new RuntimeException("Order is no longer pending: " + orderId);
+        }
+        lap = metrics.lap(Operation.UPDATE, Stage.PERSIST, symbol, lap);
+        orderJournal.orderAmend(order);
+        order = executionService.replace(order);
+        lap = metrics.lap(Operation.UPDATE, Stage.MATCH, symbol, lap);
+        activeOrders.update(order);
+        readReplica.written(order.getAccountId());
+        lap = metrics.lap(Operation.UPDATE, Stage.INDEX, symbol, lap);
+        OrderResponse response = toResponse(order);
+        lap = metrics.lap(Operation.UPDATE, Stage.SERIALIZE, symbol, lap);
+        audit(response, "UPDATE");
+        lap = metrics.lap(Operation.UPDATE, Stage.AUDIT, symbol, lap);
+        updateStream.publish(response, OrderEvent.Type.of(response.getStatus(), OrderEvent.Type.UPDATED));
+        metrics.lap(Operation.UPDATE, Stage.PUBLISH, symbol, lap);
+        metrics.complete(Operation.UPDATE, symbol, started);
+        return response;
     }
 
     @Transactional
-    @CacheEvict(value = "orders", allEntries = true)
     public void cancelOrder(String orderId) {
-        Order order = orderRepository.findByOrderId(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
-        
-        if ("FILLED".equals(order.getStatus()) || "CANCELLED".equals(order.getStatus())) {
-            throw new RuntimeException("Cannot cancel order in status: " + order.getStatus());
-        }
+        long started = metrics.start();
+        Order order = activeOrders.get(orderId).orElseThrow(() -> notWorking(orderId, "cancel"));
+        String symbol = order.getSymbol();
+        long lap = metrics.lap(Operation.CANCEL, Stage.LOOKUP, symbol, started);
         
+        executionService.cancel(order);
+        lap = metrics.lap(Operation.CANCEL, Stage.MATCH, symbol, lap);
         order.setStatus("CANCELLED");
         order.setUpdatedAt(LocalDateTime.now());
-        orderRepository.save(order);
+        if (writeBehindJournal.isEnabled()) {
+            writeBehindJournal.write(List.of(
+                    new JournalEvent.OrderStatus(order.getId(), "CANCELLED", order.getUpdatedAt())));
+        } else {
+            orderRepository.updateStatus(List.of(order.getId()), "CANCELLED", order.getUpdatedAt());
+        }
+        lap = metrics.lap(Operation.CANCEL, Stage.PERSIST, symbol, lap);
+        activeOrders.update(order);
+        buyingPower.release(order.getId());
+        orderJournal.orderCancel(order);
+        orderCache.evict(orderId, order.getAccountId());
+        readReplica.written(order.getAccountId());
+        lap = metrics.lap(Operation.CANCEL, Stage.INDEX, symbol, lap);
+        OrderResponse response = toResponse(order);
+        lap = metrics.lap(Operation.CANCEL, Stage.SERIALIZE, symbol, lap);
+        audit(response, "CANCEL");
+        lap = metrics.lap(Operation.CANCEL, Stage.AUDIT, symbol, lap);
+        updateStream.publish(response, OrderEvent.Type.CANCELLED);
+        metrics.lap(Operation.CANCEL, Stage.PUBLISH, symbol, lap);
+        metrics.complete(Operation.CANCEL, symbol, started);
         log.info("Order cancelled: {}", orderId);
     }
 
-    private String generateOrderId() {
-        return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    /**
+     * The error for an update or cancel of an order that is not in the {@link ActiveOrderIndex}:
+     * only this path reads the database, to tell a terminal order from an unknown one.
+     */
+    private RuntimeException notWorking(String orderId, String action) {
+        writeBehindJournal.flush();
+        return findOrder(orderId)
+                .map(order -> new RuntimeException("Cannot " + action + " order in status: " + order.getStatus()))
+                .orElseGet(() -> new RuntimeException("Order not found: " + orderId));
+    }
+
+    /**
+     * Claims the request's client order id, if it has one, for {@code orderId}; returns the order
+     * id already holding it, or null.
+     */
+    private String claim(OrderRequest request, String orderId) {
+        if (request.getClientOrderId() == null || !dedupIndex.isEnabled()) {
+            return null;
+        }
+        return dedupIndex.claim(request.getAccountId(), request.getClientOrderId(), orderId);
+    }
+
+    /**
+     * The order a repeated client order id refers to; fails while the first submission is still
+     * in flight on this or another node.
+     */
+    private OrderResponse existingOrder(String orderId, String clientOrderId) {
+        return activeOrders.get(orderId)
+                .or(() -> {
+                    writeBehindJournal.flush();
+                    return findOrder(orderId);
+                })
+                .map(OrderService::toResponse)
+                .orElseThrow(() -> new RuntimeException("Order " + orderId + " for client order id "
+                        + clientOrderId + " is still being created"));
+    }
+
+    /**
+     * Loads an order by business id. An id from {@link OrderIdGenerator} carries the time it was
+     * issued, which bounds {@code created_at} from below, so only the partitions from then on are
+     * read. The bound is pulled back by {@link #ISSUE_TIME_SLACK}, as ids can run ahead of the clock
+     * that stamps {@code created_at}. Older ids carry no time and probe every partition.
+     */
+    private Optional<Order> findOrder(String orderId) {
+        Instant issued;
+        try {
+            issued = OrderIdGenerator.timestamp(OrderIdGenerator.parse(orderId));
+        } catch (IllegalArgumentException e) {
+            return orderRepository.findByOrderId(orderId);
+        }
+        return orderRepository.findByOrderIdAndCreatedAtGreaterThanEqual(orderId,
+                LocalDateTime.ofInstant(issued.minus(ISSUE_TIME_SLACK), ZoneId.systemDefault()));
+    }
+
+    private void audit(OrderResponse order, String action) {
+        if (auditLogWriter.isEnabled()) {
+            auditLogWriter.record("ORDER", order.getId(), action, "orderId=" + order.getOrderId()
+                    + " accountId=" + order.getAccountId() + " symbol=" + order.getSymbol() + " side=" + order.getSide()
+                    + " type=" + order.getOrderType() + " quantity=" + order.getQuantity() + " price=" + order.getPrice()
+                    + " status=" + order.getStatus());
+        }
     }
 
-    private OrderResponse toResponse(Order order) {
+    static OrderResponse toResponse(Order order) {
         return OrderResponse.builder()
                 .id(order.getId())
                 .orderId(order.getOrderId())
@@ -1,15 +1,24 @@
 package com.finco.trading.service;
 
+import com.finco.trading.config.CacheConfig;
+import com.finco.trading.dto.PageResponse;
 import com.finco.trading.dto.PositionResponse;
 import com.finco.trading.model.Position;
+import com.finco.trading.persistence.ReadReplicaGuard;
+import com.finco.trading.position.PositionLedger;
 import com.finco.trading.repository.PositionRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -17,29 +26,75 @@ import java.util.stream.Collectors;
 public class PositionService {
 
     private final PositionRepository positionRepository;
+    private final EntityManager entityManager;
+    private final PositionLedger positionLedger;
+    private final ReadReplicaGuard readReplica;
 
-    @Cacheable(value = "positions")
+    // With the ledger enabled positions are served from memory and not cached
+    @Cacheable(value = CacheConfig.ALL_POSITIONS, key = "'all'", condition = "!@positionLedger.enabled")
+    @Transactional(readOnly = true)
     public List<PositionResponse> getAllPositions() {
+        if (positionLedger.isEnabled()) {
+            return positionLedger.getAllPositions();
+        }
+        readReplica.readYourWritesAll();
         return positionRepository.findAll().stream()
-                .map(this::toResponse)
+                .map(PositionService::toResponse)
                 .collect(Collectors.toList());
     }
 
-    @Cacheable(value = "positions", key = "#accountId")
+    @Cacheable(value = CacheConfig.POSITIONS_BY_ACCOUNT, key = "#accountId", condition = "!@positionLedger.enabled")
+    @Transactional(readOnly = true)
     public List<PositionResponse> getPositionsByAccount(Long accountId) {
+        if (positionLedger.isEnabled()) {
+            return positionLedger.getPositions(accountId);
+        }
+        readReplica.readYourWrites(accountId);
         return positionRepository.findByAccountId(accountId).stream()
-                .map(this::toResponse)
+                .map(PositionService::toResponse)
                 .collect(Collectors.toList());
     }
 
-    @Cacheable(value = "positions", key = "#symbol")
+    // Same keyset scheme as OrderService#getOrdersPage
+    @Transactional(readOnly = true)
+    public PageResponse<PositionResponse> getPositionsPage(Long accountId, Long after, int limit) {
+        readReplica.readYourWrites(accountId);
+        int pageSize = PageResponse.clampLimit(limit);
+        long afterId = after != null ? after : 0L;
+        List<Position> rows = accountId != null
+                ? positionRepository.findByAccountIdAndIdGreaterThanOrderByIdAsc(accountId, afterId, Limit.of(pageSize + 1))
+                : positionRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        return PageResponse.of(rows.stream().map(PositionService::toResponse).collect(Collectors.toList()),
+                pageSize, PositionResponse::getId);
+    }
+
+    // Cursor-backed NDJSON export, see OrderService#exportOrders
+    @Transactional(readOnly = true)
+    public void exportPositions(Long accountId, Consumer<PositionResponse> sink) {
+        readReplica.readYourWrites(accountId);
+        try (Stream<Position> rows = accountId != null
+                ? positionRepository.streamByAccountIdOrderByIdAsc(accountId)
+                : positionRepository.streamAllByOrderByIdAsc()) {
+            rows.forEach(row -> {
+                sink.accept(toResponse(row));
+                entityManager.detach(row);
+            });
+        }
+    }
+
+    @Cacheable(value = CacheConfig.POSITIONS, key = "#accountId + ':' + #symbol", condition = "!@positionLedger.enabled")
     public PositionResponse getPositionBySymbol(Long accountId, String symbol) {
+        if (positionLedger.isEnabled()) {
+            return positionLedger.getPosition(accountId, symbol)
+                    .orElseThrow(() -> new RuntimeException("Position not found for symbol: " + symbol));
+        }
         Position position = positionRepository.findByAccountIdAndSymbol(accountId, symbol)
                 .orElseThrow(() -> new RuntimeException("Position not found for symbol: " + symbol));
         return toResponse(position);
     }
 
-    private PositionResponse toResponse(Position position) {
+    // Package-private for the JMH benchmarks in src/jmh/java
+    static PositionResponse toResponse(Position position) {
         return PositionResponse.builder()
                 .id(position.getId())
                 .accountId(position.getAccountId())
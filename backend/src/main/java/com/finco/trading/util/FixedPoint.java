@@ -0,0 +1,56 @@
+package com.finco.trading.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Conversions between the {@link BigDecimal} amounts used by the entities and DTOs
+ * and the scaled {@code long} values used on the hot paths.
+ * Scales match the column definitions in V1__Initial_Schema.sql.
+ */
+public final class FixedPoint {
+
+    public static final int PRICE_SCALE = 4; // DECIMAL(19, 4)
+    public static final int QUANTITY_SCALE = 8; // DECIMAL(19, 8)
+    public static final long ONE_LOT_UNITS = 100_000_000L; // 10^QUANTITY_SCALE
+
+    private FixedPoint() {
+    }
+
+    public static long toPriceTicks(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromPriceTicks(long ticks) {
+        return BigDecimal.valueOf(ticks, PRICE_SCALE);
+    }
+
+    public static long toQuantityLots(BigDecimal quantity) {
+        return quantity.setScale(QUANTITY_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromQuantityLots(long lots) {
+        return BigDecimal.valueOf(lots, QUANTITY_SCALE);
+    }
+
+    /**
+     * {@code a * b / divisor} rounded half-up, exact for any product that fits in 128 bits.
+     * Stays on long arithmetic unless the product overflows, e.g. price ticks times lots.
+     */
+    public static long mulDiv(long a, long b, long divisor) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            long quotient = low / divisor;
+            long remainder = low % divisor;
+            if (Math.abs(remainder) >= Math.abs(divisor) - Math.abs(remainder)) {
+                quotient += (low < 0) == (divisor < 0) ? 1 : -1;
+            }
+            return quotient;
+        }
+        return new BigDecimal(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)))
+                .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+}
@@ -0,0 +1,86 @@
+package com.finco.trading.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and one consumer. Producers claim a sequence with
+ * a CAS on the tail and publish into the slot it maps to; the consumer takes slots in sequence
+ * order and stops at the first one not published yet. Sequences are handed back to producers so
+ * callers can tell when the consumer has passed their element.
+ */
+public final class MpscRingBuffer<E> {
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private final Object[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public MpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an element; returns its sequence, or -1 when the buffer is full.
+     */
+    public long offer(E element) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head >= slots.length) {
+                return -1;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        SLOTS.setRelease(slots, (int) sequence & mask, element);
+        return sequence;
+    }
+
+    /**
+     * Passes up to {@code limit} elements to {@code consumer} in sequence order and returns how
+     * many. Only one thread may drain.
+     */
+    @SuppressWarnings("unchecked")
+    public int drain(Consumer<E> consumer, int limit) {
+        long sequence = head;
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) sequence & mask;
+            E element = (E) SLOTS.getAcquire(slots, index);
+            if (element == null) {
+                break;
+            }
+            SLOTS.setOpaque(slots, index, null);
+            consumer.accept(element);
+            sequence++;
+            drained++;
+        }
+        if (drained > 0) {
+            head = sequence;
+        }
+        return drained;
+    }
+
+    /**
+     * Sequence of the next element the consumer will take.
+     */
+    public long head() {
+        return head;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,3 @@
+-- Per-account keyset pagination ("account_id = ? AND id > ? ORDER BY id") as an index range scan
+CREATE INDEX IF NOT EXISTS idx_orders_account_id_id ON orders(account_id, id);
+CREATE INDEX IF NOT EXISTS idx_positions_account_id_id ON positions(account_id, id);
@@ -0,0 +1,141 @@
+-- Range partitioning by time for the append-mostly history tables: orders and trades by month,
+-- audit_log by day. Each table is rebuilt as a partitioned table and its rows copied over.
+-- Partitions ahead of the current period are created, and expired ones detached into the
+-- archive schema, by PartitionMaintenance.
+--
+-- A partitioned table can only enforce uniqueness on columns that include the partition key, so
+-- the primary keys become (id, <time>) and trades.order_id no longer references orders(id).
+-- orders.order_id and trades.trade_id are kept unique by a unique index on every partition rather
+-- than on the table: a unique (order_id, created_at) would accept the same id at two instants.
+-- Across partitions uniqueness rests on the ids themselves: order ids carry the millisecond they
+-- were issued in (OrderIdGenerator never issues one twice, also across restarts), so a repeated id
+-- would land in the same partition as the first; trade ids are random UUIDs.
+
+CREATE SCHEMA IF NOT EXISTS archive;
+
+-- Creates one partition per period from the period holding "first" up to "months_ahead" months
+-- after the current one, named <table>_pYYYY_MM or <table>_pYYYY_MM_DD, and the default partition.
+-- With "unique_column" each partition gets a unique index <partition>_<column>_key on it, the
+-- index PartitionMaintenance creates on the partitions it adds.
+CREATE FUNCTION pg_temp.create_range_partitions(parent TEXT, period TEXT, first TIMESTAMP, months_ahead INT,
+                                                unique_column TEXT)
+RETURNS VOID AS $$
+DECLARE
+    step INTERVAL := ('1 ' || period)::INTERVAL;
+    pattern TEXT := CASE period WHEN 'month' THEN 'YYYY_MM' ELSE 'YYYY_MM_DD' END;
+    start_at TIMESTAMP := date_trunc(period, LEAST(COALESCE(first, LOCALTIMESTAMP), LOCALTIMESTAMP));
+    partition_name TEXT;
+BEGIN
+    WHILE start_at < date_trunc('month', LOCALTIMESTAMP) + (months_ahead + 1) * INTERVAL '1 month' LOOP
+        partition_name := parent || '_p' || to_char(start_at, pattern);
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, parent, start_at, start_at + step);
+        IF unique_column IS NOT NULL THEN
+            EXECUTE format('CREATE UNIQUE INDEX %I ON %I (%I)', partition_name || '_' || unique_column || '_key',
+                           partition_name, unique_column);
+        END IF;
+        start_at := start_at + step;
+    END LOOP;
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', parent || '_default', parent);
+    IF unique_column IS NOT NULL THEN
+        EXECUTE format('CREATE UNIQUE INDEX %I ON %I (%I)', parent || '_default_' || unique_column || '_key',
+                       parent || '_default', unique_column);
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- orders, by month of created_at
+ALTER TABLE trades DROP CONSTRAINT IF EXISTS trades_order_id_fkey;
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+ALTER SEQUENCE orders_id_seq OWNED BY NONE;
+
+CREATE TABLE orders (
+    id BIGINT NOT NULL DEFAULT nextval('orders_id_seq'),
+    order_id VARCHAR(50) NOT NULL,
+    account_id BIGINT NOT NULL REFERENCES accounts(id),
+    symbol VARCHAR(20) NOT NULL,
+    order_type VARCHAR(20) NOT NULL,
+    side VARCHAR(10) NOT NULL,
+    quantity DECIMAL(19, 8) NOT NULL,
+    price DECIMAL(19, 4),
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    filled_quantity DECIMAL(19, 8) NOT NULL DEFAULT 0.0,
+    average_fill_price DECIMAL(19, 4),
+    time_in_force VARCHAR(20) NOT NULL DEFAULT 'DAY',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    executed_at TIMESTAMP
+) PARTITION BY RANGE (created_at);
+
+SELECT pg_temp.create_range_partitions('orders', 'month', (SELECT min(created_at) FROM orders_unpartitioned), 2,
+                                       'order_id');
+INSERT INTO orders SELECT * FROM orders_unpartitioned;
+DROP TABLE orders_unpartitioned;
+ALTER SEQUENCE orders_id_seq OWNED BY orders.id;
+
+ALTER TABLE orders ADD PRIMARY KEY (id, created_at);
+CREATE INDEX idx_orders_account_id_id ON orders(account_id, id);
+CREATE INDEX idx_orders_account_id_status ON orders(account_id, status);
+CREATE INDEX idx_orders_symbol ON orders(symbol);
+CREATE INDEX idx_orders_status ON orders(status);
+-- Rows arrive in created_at order, a BRIN index covers in-partition ranges at a fraction of a btree
+CREATE INDEX idx_orders_created_at ON orders USING BRIN (created_at);
+
+-- trades, by month of executed_at
+ALTER TABLE trades RENAME TO trades_unpartitioned;
+ALTER SEQUENCE trades_id_seq OWNED BY NONE;
+
+CREATE TABLE trades (
+    id BIGINT NOT NULL DEFAULT nextval('trades_id_seq'),
+    trade_id VARCHAR(50) NOT NULL,
+    order_id BIGINT NOT NULL,
+    account_id BIGINT NOT NULL REFERENCES accounts(id),
+    symbol VARCHAR(20) NOT NULL,
+    side VARCHAR(10) NOT NULL,
+    quantity DECIMAL(19, 8) NOT NULL,
+    price DECIMAL(19, 4) NOT NULL,
+    commission DECIMAL(19, 4) NOT NULL DEFAULT 0.0,
+    executed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+) PARTITION BY RANGE (executed_at);
+
+SELECT pg_temp.create_range_partitions('trades', 'month', (SELECT min(executed_at) FROM trades_unpartitioned), 2,
+                                       'trade_id');
+INSERT INTO trades SELECT * FROM trades_unpartitioned;
+DROP TABLE trades_unpartitioned;
+ALTER SEQUENCE trades_id_seq OWNED BY trades.id;
+
+ALTER TABLE trades ADD PRIMARY KEY (id, executed_at);
+CREATE INDEX idx_trades_order_id ON trades(order_id);
+CREATE INDEX idx_trades_account_id ON trades(account_id);
+CREATE INDEX idx_trades_executed_at ON trades USING BRIN (executed_at);
+
+-- audit_log, by day of created_at. Rows from before today go into a single history partition
+-- rather than one partition per day of existing history.
+ALTER TABLE audit_log RENAME TO audit_log_unpartitioned;
+ALTER SEQUENCE audit_log_id_seq OWNED BY NONE;
+
+CREATE TABLE audit_log (
+    id BIGINT NOT NULL DEFAULT nextval('audit_log_id_seq'),
+    entity_type VARCHAR(50) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    action VARCHAR(50) NOT NULL,
+    user_id VARCHAR(100),
+    details TEXT,
+    ip_address VARCHAR(45),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+) PARTITION BY RANGE (created_at);
+
+DO $$
+BEGIN
+    EXECUTE format('CREATE TABLE audit_log_history PARTITION OF audit_log FOR VALUES FROM (MINVALUE) TO (%L)',
+                   date_trunc('day', LOCALTIMESTAMP));
+END;
+$$;
+SELECT pg_temp.create_range_partitions('audit_log', 'day', LOCALTIMESTAMP, 0, NULL);
+INSERT INTO audit_log SELECT * FROM audit_log_unpartitioned;
+DROP TABLE audit_log_unpartitioned;
+ALTER SEQUENCE audit_log_id_seq OWNED BY audit_log.id;
+
+ALTER TABLE audit_log ADD PRIMARY KEY (id, created_at);
+CREATE INDEX idx_audit_log_entity ON audit_log(entity_type, entity_id);
+CREATE INDEX idx_audit_log_created_at ON audit_log USING BRIN (created_at);
@@ -0,0 +1,140 @@
+package com.finco.trading.account;
+
+import com.finco.trading.compliance.ComplianceCode;
+import com.finco.trading.marketdata.MarketDataStore;
+import com.finco.trading.matching.Fill;
+import com.finco.trading.matching.MatchResult;
+import com.finco.trading.matching.Side;
+import com.finco.trading.model.Account;
+import com.finco.trading.model.Order;
+import com.finco.trading.repository.AccountRepository;
+import com.finco.trading.service.ActiveOrderIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BuyingPowerLedgerTest {
+
+    private static final long LOT = 100_000_000L;
+    private static final long TICK = 10_000L;
+
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final ActiveOrderIndex activeOrders = mock(ActiveOrderIndex.class);
+    private final MarketDataStore marketDataStore = new MarketDataStore(16);
+    private final BuyingPowerLedger ledger = new BuyingPowerLedger(accountRepository, mock(JdbcTemplate.class),
+            mock(PlatformTransactionManager.class), marketDataStore, activeOrders);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ledger, "enabled", true);
+        ReflectionTestUtils.setField(ledger, "marketCollarBps", 500L);
+        when(accountRepository.findAll()).thenReturn(List.of(account(1L, "10000"), account(2L, "0")));
+        when(activeOrders.all()).thenReturn(List.of(order(50L, 1L, "BUY", "LIMIT", "10", "100")));
+        ledger.load();
+    }
+
+    @Test
+    void buyOrdersReserveTheirNotionalUpToTheBalance() {
+        assertThat(ledger.reserved(1L)).isEqualByComparingTo("1000");
+
+        assertThat(ledger.reserve(order(1L, 1L, "BUY", "LIMIT", "80", "100"))).isEqualTo(ComplianceCode.PASSED);
+        assertThat(ledger.available(1L)).isEqualByComparingTo("1000");
+        assertThat(ledger.reserve(order(2L, 1L, "BUY", "LIMIT", "11", "100")))
+                .isEqualTo(ComplianceCode.INSUFFICIENT_BUYING_POWER);
+        assertThat(ledger.reserve(order(3L, 2L, "SELL", "LIMIT", "11", "100"))).isEqualTo(ComplianceCode.PASSED);
+        assertThat(ledger.reserve(order(4L, 1L, "BUY", "MARKET", "1", null))).isEqualTo(ComplianceCode.NO_REFERENCE_PRICE);
+
+        marketDataStore.onTrade("AAPL", 100 * TICK, LOT, 0);
+        assertThat(ledger.reserve(order(5L, 1L, "BUY", "MARKET", "9", null))).isEqualTo(ComplianceCode.PASSED);
+        assertThat(ledger.reserved(1L)).isEqualByComparingTo("9945");
+    }
+
+    @Test
+    void fillsSpendTheReservationAndCancelsReleaseTheRest() {
+        ledger.reserve(order(1L, 1L, "BUY", "LIMIT", "10", "100"));
+
+        // Bought 4 at 90 from account 2, which sold short
+        ledger.onMatch(new MatchResult(1L, "AAPL", List.of(
+                new Fill(9L, "ORD-9", 2L, 1L, 1L, Side.BUY, 90 * TICK, 4 * LOT)), 4 * LOT, 6 * LOT, 0));
+        assertThat(ledger.balance(1L)).isEqualByComparingTo("9640");
+        assertThat(ledger.reserved(1L)).isEqualByComparingTo("1600");
+        assertThat(ledger.available(1L)).isEqualByComparingTo("8040");
+        assertThat(ledger.available(2L)).isEqualByComparingTo("360");
+
+        ledger.release(1L);
+        ledger.releaseAll(List.of(50L));
+        assertThat(ledger.reserved(1L)).isEqualByComparingTo("0");
+        assertThat(ledger.available(1L)).isEqualByComparingTo("9640");
+    }
+
+    @Test
+    void amendmentsResizeTheReservation() {
+        Order order = order(1L, 1L, "BUY", "LIMIT", "10", "100");
+        ledger.reserve(order);
+
+        order.setPrice(new BigDecimal("50"));
+        ledger.amend(order);
+        assertThat(ledger.reserved(1L)).isEqualByComparingTo("1500");
+
+        order.setQuantity(new BigDecimal("1000"));
+        assertThatThrownBy(() -> ledger.amend(order)).hasMessage("Insufficient buying power");
+        assertThat(ledger.reserved(1L)).isEqualByComparingTo("1500");
+    }
+
+    @Test
+    void concurrentOrdersNeverOversubscribeTheAccount() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Order> orders = new ArrayList<>();
+        for (long id = 100; id < 1100; id++) {
+            orders.add(order(id, 1L, "BUY", "LIMIT", "1", "97"));
+        }
+        for (Order order : orders) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (ledger.reserve(order).isPassed()) {
+                    accepted.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // 9000 available buys 92 orders of 97
+        assertThat(accepted.get()).isEqualTo(92);
+        assertThat(ledger.available(1L)).isEqualByComparingTo("76");
+    }
+
+    private static Account account(long id, String balance) {
+        return Account.builder().id(id).accountNumber("ACC-" + id).accountName("Account " + id)
+                .accountType("CASH").balance(new BigDecimal(balance)).currency("USD").status("ACTIVE").build();
+    }
+
+    private static Order order(long id, long accountId, String side, String type, String quantity, String price) {
+        return Order.builder().id(id).orderId("ORD-" + id).accountId(accountId).symbol("AAPL").orderType(type)
+                .side(side).quantity(new BigDecimal(quantity)).price(price != null ? new BigDecimal(price) : null)
+                .filledQuantity(BigDecimal.ZERO).status("PENDING").timeInForce("DAY").build();
+    }
+}
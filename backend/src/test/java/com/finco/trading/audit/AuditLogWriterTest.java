@@ -0,0 +1,146 @@
+package com.finco.trading.audit;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditLogWriterTest {
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private AuditLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:audit-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(2);
+        dataSource.setConnectionTimeout(250);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE audit_log (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "entity_type VARCHAR(50), entity_id BIGINT, action VARCHAR(50), user_id VARCHAR(100), "
+                + "details VARCHAR(20), ip_address VARCHAR(45), created_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY)");
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        writer = new AuditLogWriter(jdbcTemplate, transactionManager, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.stop();
+        dataSource.close();
+    }
+
+    @Test
+    void memoryAckAuditsCommittedChangesOnly() {
+        start(AuditLogWriter.Ack.MEMORY, 1000);
+
+        transactionTemplate.executeWithoutResult(status -> writer.record("ORDER", 1, "CREATE", "ok"));
+        transactionTemplate.executeWithoutResult(status -> {
+            writer.record("ORDER", 2, "CREATE", "ok");
+            status.setRollbackOnly();
+        });
+        writer.flush();
+
+        assertThat(auditedIds()).containsExactly(1L);
+    }
+
+    @Test
+    void durableAckWritesTheRowsBeforeTheChangeCommits() {
+        start(AuditLogWriter.Ack.DURABLE, 1000);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            insertOrder(1);
+            writer.record("ORDER", 1, "CREATE", "ok");
+            writer.record("ORDER", 1, "UPDATE", "ok");
+        });
+
+        // Committed once the order is, without a flush
+        assertThat(auditedIds()).containsExactly(1L, 1L);
+        assertThat(orderIds()).containsExactly(1L);
+    }
+
+    @Test
+    void durableAckRollsTheChangeBackWhenItsAuditRowFails() {
+        start(AuditLogWriter.Ack.DURABLE, 1000);
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            insertOrder(1);
+            writer.record("ORDER", 1, "CREATE", "details longer than the column");
+        })).hasMessage("Audit log write failed");
+
+        assertThat(orderIds()).isEmpty();
+        assertThat(auditedIds()).isEmpty();
+    }
+
+    @Test
+    void eachWaiterLearnsTheOutcomeOfItsOwnBatch() {
+        start(AuditLogWriter.Ack.DURABLE, 1);
+
+        // One row per batch: the first fails, the second is written, the third fails
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            insertOrder(1);
+            writer.record("ORDER", 1, "CREATE", "details longer than the column");
+            writer.record("ORDER", 1, "UPDATE", "ok");
+            writer.record("ORDER", 1, "CANCEL", "details longer than the column");
+        })).hasMessage("Audit log write failed");
+        transactionTemplate.executeWithoutResult(status -> {
+            insertOrder(2);
+            writer.record("ORDER", 2, "CREATE", "ok");
+        });
+
+        assertThat(orderIds()).containsExactly(2L);
+        assertThat(auditedIds()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void durableWriterDoesNotNeedAConnectionFromThePool() {
+        start(AuditLogWriter.Ack.DURABLE, 1000);
+        writer.flush();
+
+        // The writer keeps one of the two connections, this transaction holds the other
+        transactionTemplate.executeWithoutResult(status -> {
+            insertOrder(1);
+            writer.record("ORDER", 1, "CREATE", "ok");
+        });
+
+        assertThat(dataSource.getHikariPoolMXBean().getTotalConnections()).isEqualTo(2);
+        assertThat(auditedIds()).containsExactly(1L);
+    }
+
+    private void start(AuditLogWriter.Ack ack, int maxBatchSize) {
+        ReflectionTestUtils.setField(writer, "enabled", true);
+        ReflectionTestUtils.setField(writer, "capacity", 1024);
+        ReflectionTestUtils.setField(writer, "maxBatchSize", maxBatchSize);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 1L);
+        ReflectionTestUtils.setField(writer, "appendTimeoutMs", 100L);
+        ReflectionTestUtils.setField(writer, "ackTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(writer, "ack", ack);
+        writer.start();
+    }
+
+    private void insertOrder(long id) {
+        jdbcTemplate.update("INSERT INTO orders (id) VALUES (?)", id);
+    }
+
+    private List<Long> orderIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM orders ORDER BY id", Long.class);
+    }
+
+    private List<Long> auditedIds() {
+        return jdbcTemplate.queryForList("SELECT entity_id FROM audit_log ORDER BY id", Long.class);
+    }
+}
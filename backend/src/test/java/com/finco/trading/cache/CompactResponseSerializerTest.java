@@ -0,0 +1,85 @@
+package com.finco.trading.cache;
+
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.finco.trading.dto.OrderResponse;
+import com.finco.trading.dto.PositionResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactResponseSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer json = jsonSerializer();
+    private final CompactResponseSerializer serializer = new CompactResponseSerializer(json);
+
+    @Test
+    void roundTripsOrderListSmallerThanJson() {
+        List<OrderResponse> orders = orders(50);
+
+        byte[] bytes = serializer.serialize(orders);
+
+        assertThat(serializer.deserialize(bytes)).isEqualTo(orders);
+        assertThat(bytes.length * 3).isLessThan(json.serialize(orders).length);
+    }
+
+    @Test
+    void roundTripsPositionsNullFieldsAndWideDecimals() {
+        PositionResponse position = PositionResponse.builder()
+                .id(7L)
+                .accountId(-3L)
+                .symbol("MSFT")
+                .quantity(new BigDecimal("123456789012345678901234.56789"))
+                .averagePrice(new BigDecimal("-0.0001"))
+                .createdAt(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000))
+                .build();
+
+        assertThat(serializer.deserialize(serializer.serialize(position))).isEqualTo(position);
+        assertThat(serializer.deserialize(serializer.serialize(List.of(position)))).isEqualTo(List.of(position));
+        assertThat(serializer.deserialize(serializer.serialize(NullValue.INSTANCE))).isSameAs(NullValue.INSTANCE);
+    }
+
+    @Test
+    void fallsBackToJsonForOtherValuesAndExistingEntries() {
+        OrderResponse order = orders(1).get(0);
+
+        assertThat(serializer.deserialize(json.serialize(order))).isEqualTo(order);
+        assertThat(serializer.deserialize(serializer.serialize("plain"))).isEqualTo("plain");
+    }
+
+    static List<OrderResponse> orders(int count) {
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 14, 30, 15, 123_456_000);
+        List<OrderResponse> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(OrderResponse.builder()
+                    .id((long) i + 1)
+                    .orderId("ORD-" + (1_000_000 + i))
+                    .accountId(42L)
+                    .symbol(i % 2 == 0 ? "AAPL" : "MSFT")
+                    .orderType("LIMIT")
+                    .side(i % 3 == 0 ? "SELL" : "BUY")
+                    .quantity(new BigDecimal("100.00000000"))
+                    .price(new BigDecimal("187.2500").add(BigDecimal.valueOf(i, 4)))
+                    .status("PARTIALLY_FILLED")
+                    .filledQuantity(new BigDecimal("40.00000000"))
+                    .averageFillPrice(new BigDecimal("187.2400"))
+                    .timeInForce("DAY")
+                    .createdAt(now.plusSeconds(i))
+                    .updatedAt(now.plusSeconds(i + 1))
+                    .build());
+        }
+        return orders;
+    }
+
+    static GenericJackson2JsonRedisSerializer jsonSerializer() {
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+        serializer.configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+        return serializer;
+    }
+}
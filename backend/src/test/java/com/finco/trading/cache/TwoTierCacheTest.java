@@ -0,0 +1,135 @@
+package com.finco.trading.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TwoTierCacheTest {
+
+    private final Map<Object, Object> redis = new HashMap<>();
+    private final RedisCache redisCache = redisCache(redis);
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+
+    @Test
+    void localHitDoesNotTouchRedis() {
+        TwoTierCache cache = cache(new CacheInvalidationPublisher(redisTemplate, "invalidations"));
+        cache.getLocalCache().put("ORD-1", "order");
+
+        assertThat(cache.get("ORD-1").get()).isEqualTo("order");
+        assertThat(cache.get("ORD-1", () -> "loaded")).isEqualTo("order");
+        verifyNoInteractions(redisCache);
+    }
+
+    @Test
+    void redisHitIsKeptLocally() {
+        TwoTierCache cache = cache(new CacheInvalidationPublisher(redisTemplate, "invalidations"));
+        redis.put("ORD-1", "order");
+
+        assertThat(cache.get("ORD-1").get()).isEqualTo("order");
+        assertThat(cache.get("ORD-1").get()).isEqualTo("order");
+        assertThat(cache.getLocalCache().getIfPresent("ORD-1")).isEqualTo("order");
+        verify(redisCache, times(1)).get("ORD-1");
+    }
+
+    @Test
+    void loaderMissReadsRedisOnceAndFillsBothTiers() {
+        TwoTierCache cache = cache(new CacheInvalidationPublisher(redisTemplate, "invalidations"));
+        AtomicInteger loads = new AtomicInteger();
+        Callable<String> loader = () -> "loaded-" + loads.incrementAndGet();
+
+        assertThat(cache.get("ORD-1", loader)).isEqualTo("loaded-1");
+        assertThat(cache.get("ORD-1", loader)).isEqualTo("loaded-1");
+
+        assertThat(loads).hasValue(1);
+        assertThat(redis).containsEntry("ORD-1", "loaded-1");
+        verify(redisCache, times(1)).get("ORD-1");
+        verify(redisCache, never()).get(any(), any(Callable.class));
+    }
+
+    @Test
+    void writesOnOneNodeDropTheOtherNodesLocalCopy() {
+        List<TwoTierCacheManager> nodes = new ArrayList<>();
+        doAnswer(invocation -> {
+            String channel = invocation.getArgument(0);
+            String body = invocation.getArgument(1);
+            DefaultMessage message = new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8),
+                    body.getBytes(StandardCharsets.UTF_8));
+            nodes.forEach(node -> node.onMessage(message, null));
+            return 1L;
+        }).when(redisTemplate).convertAndSend(anyString(), any());
+        RedisCacheManager redisCacheManager = mock(RedisCacheManager.class);
+        when(redisCacheManager.getCacheNames()).thenReturn(List.of("orders"));
+        when(redisCacheManager.getCache("orders")).thenReturn(redisCache);
+        for (int i = 0; i < 2; i++) {
+            TwoTierCacheManager node = new TwoTierCacheManager(redisCacheManager,
+                    new CacheInvalidationPublisher(redisTemplate, "invalidations"), 100, Duration.ofMinutes(1));
+            node.afterPropertiesSet();
+            nodes.add(node);
+        }
+        Cache writer = nodes.get(0).getCache("orders");
+        Cache reader = nodes.get(1).getCache("orders");
+
+        writer.put("ORD-1", "v1");
+        assertThat(reader.get("ORD-1").get()).isEqualTo("v1");
+        writer.put("ORD-1", "v2");
+        assertThat(reader.get("ORD-1").get()).isEqualTo("v2");
+        assertThat(writer.get("ORD-1").get()).isEqualTo("v2");
+
+        writer.evict("ORD-1");
+        assertThat(reader.get("ORD-1")).isNull();
+
+        writer.put("ORD-2", "v1");
+        assertThat(reader.get("ORD-2").get()).isEqualTo("v1");
+        writer.clear();
+        assertThat(reader.get("ORD-2")).isNull();
+    }
+
+    private TwoTierCache cache(CacheInvalidationPublisher publisher) {
+        return new TwoTierCache(redisCache, Caffeine.newBuilder().maximumSize(100).build(), publisher);
+    }
+
+    /**
+     * A Redis tier backed by a map.
+     */
+    private static RedisCache redisCache(Map<Object, Object> entries) {
+        RedisCache redisCache = mock(RedisCache.class);
+        when(redisCache.getName()).thenReturn("orders");
+        when(redisCache.get(any())).thenAnswer(invocation -> {
+            Object value = entries.get(invocation.getArgument(0));
+            return value == null ? null : new SimpleValueWrapper(value);
+        });
+        doAnswer(invocation -> entries.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(redisCache).put(any(), any());
+        doAnswer(invocation -> entries.remove(invocation.getArgument(0))).when(redisCache).evict(any());
+        doAnswer(invocation -> {
+            entries.clear();
+            return null;
+        }).when(redisCache).clear();
+        return redisCache;
+    }
+}
@@ -0,0 +1,89 @@
+package com.finco.trading.cluster;
+
+import com.finco.trading.dto.OrderRequest;
+import com.finco.trading.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderRouterTest {
+
+    private static final ClusterMember SELF = ClusterMember.parse("a@us-east-1@http://localhost:1");
+
+    private final SymbolOwnership ownership = mock(SymbolOwnership.class);
+    private final OrderRouter router = new OrderRouter(mock(OrderService.class), ownership,
+            mock(ShardRebalancer.class), new ObjectMapper(), RestClient.builder(), 200);
+    private final List<String> bodies = new ArrayList<>();
+    private HttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void ownerThatDoesNotAnswerLeavesTheOutcomeUnknownWithAClientOrderIdToResubmit() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v1/orders", exchange -> {
+            bodies.add(new String(exchange.getRequestBody().readAllBytes()));
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+        });
+        server.start();
+        ownedBy("b@us-east-1@http://localhost:" + server.getAddress().getPort());
+
+        OrderRequest request = request();
+        assertThatThrownBy(() -> router.createOrder(request, null))
+                .hasMessageStartingWith("Owning node b did not answer")
+                .hasMessageEndingWith("the outcome is unknown; resubmit it with clientOrderId "
+                        + request.getClientOrderId());
+        assertThat(request.getClientOrderId()).isNotNull();
+        assertThat(bodies).singleElement().asString().contains(request.getClientOrderId());
+    }
+
+    @Test
+    void ownerThatRefusesTheConnectionIsUnreachable() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        ownedBy("b@us-east-1@http://localhost:" + port);
+
+        OrderRequest request = request();
+        request.setClientOrderId("client-1");
+        assertThatThrownBy(() -> router.createOrder(request, null))
+                .hasMessageStartingWith("Owning node b is unreachable");
+        assertThat(request.getClientOrderId()).isEqualTo("client-1");
+    }
+
+    private void ownedBy(String member) {
+        when(ownership.isEnabled()).thenReturn(true);
+        when(ownership.self()).thenReturn(SELF);
+        when(ownership.ownerOf("AAPL")).thenReturn(ClusterMember.parse(member));
+    }
+
+    private static OrderRequest request() {
+        return OrderRequest.builder().accountId(1L).symbol("AAPL").orderType("LIMIT").side("BUY")
+                .quantity(BigDecimal.TEN).price(new BigDecimal("100")).timeInForce("DAY").build();
+    }
+}
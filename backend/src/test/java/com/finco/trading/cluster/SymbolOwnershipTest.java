@@ -0,0 +1,87 @@
+package com.finco.trading.cluster;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SymbolOwnershipTest {
+
+    private static final ClusterMember A = ClusterMember.parse("a@us-east-1@http://localhost:8081");
+    private static final ClusterMember B = ClusterMember.parse("b@us-east-1@http://localhost:8082");
+    private static final ClusterMember C = ClusterMember.parse("c@eu-west-1@http://localhost:8083");
+
+    private static final List<String> SYMBOLS = IntStream.range(0, 3000).mapToObj(i -> "SYM" + i).toList();
+
+    @Test
+    void symbolsSpreadEvenlyAndOnlyTheJoiningNodesShareMoves(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("members");
+        Files.writeString(file, "# local cluster\n" + A + "\n" + B + "\n");
+        LocalClusterMembership membership = new LocalClusterMembership(A, List.of(), file.toString());
+        SymbolOwnership ownership = new SymbolOwnership(membership, 128, List.of());
+        List<Predicate<String>> changes = new ArrayList<>();
+        ownership.addChangeListener(changes::add);
+
+        Map<String, ClusterMember> before = owners(ownership);
+        assertThat(count(before, A)).isBetween(1200L, 1800L);
+
+        Files.writeString(file, A + "\n" + B + "\n" + C + "\n");
+        membership.refresh();
+        Map<String, ClusterMember> after = owners(ownership);
+
+        assertThat(changes).hasSize(1);
+        assertThat(count(after, C)).isBetween(700L, 1300L);
+        for (String symbol : SYMBOLS) {
+            if (!after.get(symbol).equals(before.get(symbol))) {
+                assertThat(after.get(symbol)).isEqualTo(C);
+            }
+            assertThat(changes.get(0).test(symbol)).isEqualTo(before.get(symbol).equals(A));
+            assertThat(ownership.isLocal(symbol)).isEqualTo(after.get(symbol).equals(A));
+        }
+
+        // Unreadable files keep the last view
+        Files.writeString(file, "garbage\n");
+        membership.refresh();
+        assertThat(membership.members()).containsExactly(A, B, C);
+    }
+
+    @Test
+    void pinnedSymbolsStayInTheirRegionWhileItHasMembers() {
+        LocalClusterMembership membership = new LocalClusterMembership(A,
+                List.of(A.toString(), B.toString(), C.toString()), "");
+        SymbolOwnership ownership = new SymbolOwnership(membership, 64, List.of("VOD:eu-west-1", "SAP:ap-south-1"));
+
+        assertThat(ownership.ownerOf("VOD")).isEqualTo(C);
+        assertThat(ownership.ownerOf("SAP")).isIn(A, B, C);
+        assertThat(ownership.members()).containsExactly(A, B, C);
+    }
+
+    @Test
+    void everySymbolIsLocalWithoutMultiRegionMode() {
+        SymbolOwnership ownership = new SymbolOwnership(null, 128, List.of());
+
+        assertThat(ownership.isEnabled()).isFalse();
+        assertThat(ownership.isLocal("AAPL")).isTrue();
+        assertThat(ownership.ownerOf("AAPL")).isNull();
+    }
+
+    private static Map<String, ClusterMember> owners(SymbolOwnership ownership) {
+        Map<String, ClusterMember> owners = new HashMap<>();
+        SYMBOLS.forEach(symbol -> owners.put(symbol, ownership.ownerOf(symbol)));
+        return owners;
+    }
+
+    private static long count(Map<String, ClusterMember> owners, ClusterMember member) {
+        return owners.values().stream().filter(member::equals).count();
+    }
+}
@@ -0,0 +1,90 @@
+package com.finco.trading.fix;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FixCodecTest {
+
+    private static final byte[] SENDER = "FINCO".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TARGET = "EXCHANGE".getBytes(StandardCharsets.US_ASCII);
+    private static final long SENDING_TIME = Instant.parse("2024-03-01T14:30:05.123Z").toEpochMilli();
+
+    private final FixEncoder encoder = new FixEncoder(1024);
+
+    @Test
+    void encodesHeaderBodyLengthAndChecksum() {
+        ByteBuffer encoded = encoder.begin(FixTags.NEW_ORDER_SINGLE, SENDER, TARGET, 42, SENDING_TIME)
+                .putAscii(FixTags.CL_ORD_ID, "ORD-1")
+                .putChar(FixTags.SIDE, FixTags.SIDE_BUY)
+                .putDecimal(FixTags.ORDER_QTY, 150_000_000L, 8)
+                .putDecimal(FixTags.PRICE, 1_872_500L, 4)
+                .finish();
+
+        String body = "35=D|49=FINCO|56=EXCHANGE|34=42|52=20240301-14:30:05.123|11=ORD-1|54=1|38=1.5|44=187.25|";
+        String head = "8=FIX.4.4|9=" + body.length() + "|";
+        assertThat(text(encoded)).isEqualTo(head + body + "10=" + checksum(head + body) + "|");
+    }
+
+    @Test
+    void parsesWhatItEncodes() {
+        ByteBuffer encoded = encoder.begin(FixTags.EXECUTION_REPORT, SENDER, TARGET, 7, SENDING_TIME)
+                .putAscii(FixTags.CL_ORD_ID, "ORD-1")
+                .putChar(FixTags.EXEC_TYPE, FixTags.EXEC_TRADE)
+                .putDecimal(FixTags.LAST_QTY, 2_500_000_000L, 8)
+                .putDecimal(FixTags.LAST_PX, -5, 4)
+                .finish();
+        int start = encoded.position();
+        int length = encoded.remaining();
+
+        assertThat(FixMessage.frame(encoded, start, start + length - 1)).isZero();
+        assertThat(FixMessage.frame(encoded, start, start + length)).isEqualTo(length);
+
+        FixMessage message = new FixMessage();
+        assertThat(message.parse(encoded, start, length)).isTrue();
+        assertThat(message.msgType()).isEqualTo(FixTags.EXECUTION_REPORT);
+        assertThat(message.getLong(FixTags.MSG_SEQ_NUM, 0)).isEqualTo(7);
+        assertThat(message.getString(FixTags.CL_ORD_ID)).isEqualTo("ORD-1");
+        assertThat(message.getChar(FixTags.EXEC_TYPE)).isEqualTo(FixTags.EXEC_TRADE);
+        assertThat(message.getDecimal(FixTags.LAST_QTY, 8, 0)).isEqualTo(2_500_000_000L);
+        assertThat(message.getDecimal(FixTags.LAST_PX, 4, 0)).isEqualTo(-5);
+        assertThat(message.getDecimal(FixTags.PRICE, 4, -1)).isEqualTo(-1);
+        assertThat(message.valueEquals(FixTags.SENDER_COMP_ID, SENDER)).isTrue();
+    }
+
+    @Test
+    void roundsExtraDecimalsAndRejectsBadChecksums() {
+        ByteBuffer encoded = encoder.begin(FixTags.EXECUTION_REPORT, SENDER, TARGET, 1, SENDING_TIME)
+                .putAscii(FixTags.LAST_PX, "10.12345")
+                .finish();
+        int start = encoded.position();
+        int length = encoded.remaining();
+        FixMessage message = new FixMessage();
+
+        assertThat(message.parse(encoded, start, length)).isTrue();
+        assertThat(message.getDecimal(FixTags.LAST_PX, 4, 0)).isEqualTo(10_1235);
+
+        encoded.put(start + length - 2, (byte) (encoded.get(start + length - 2) ^ 1));
+        assertThat(message.parse(encoded, start, length)).isFalse();
+    }
+
+    private static String text(ByteBuffer buffer) {
+        StringBuilder text = new StringBuilder();
+        for (int i = buffer.position(); i < buffer.limit(); i++) {
+            text.append(buffer.get(i) == FixEncoder.SOH ? '|' : (char) buffer.get(i));
+        }
+        return text.toString();
+    }
+
+    private static String checksum(String message) {
+        int sum = 0;
+        for (char c : message.replace('|', '\u0001').toCharArray()) {
+            sum += c;
+        }
+        return String.format("%03d", sum % 256);
+    }
+}
@@ -0,0 +1,121 @@
+package com.finco.trading.fix;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class FixSessionTest {
+
+    private static final FixSessionSettings SETTINGS = new FixSessionSettings("FINCO", "LOOPBACK", 30, false);
+
+    @TempDir
+    Path storeDir;
+
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+    private final FixSession.Application application = (session, message) -> received.add(
+            (char) message.msgType() + ":" + message.getString(FixTags.CL_ORD_ID) + ":" + (char) message.getChar(FixTags.EXEC_TYPE)
+                    + (message.isTrue(FixTags.POSS_DUP_FLAG) ? ":dup" : ""));
+
+    private FixLoopbackAcceptor acceptor;
+    private FixSequenceStore sequences;
+    private final FixMessageStore sentMessages = new FixMessageStore(64, 512);
+    private FixSession session;
+    private int port;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (session != null) {
+            session.close();
+        }
+        acceptor.close();
+        sequences.close();
+    }
+
+    @Test
+    void ordersAreAcknowledgedAndFilled() throws Exception {
+        connect(true);
+
+        session.send(FixTags.NEW_ORDER_SINGLE, FixSessionTest::writeOrder, "ORD-1");
+
+        assertThat(received.poll(5, TimeUnit.SECONDS)).isEqualTo("8:ORD-1:0");
+        assertThat(received.poll(5, TimeUnit.SECONDS)).isEqualTo("8:ORD-1:F");
+    }
+
+    @Test
+    void restingOrdersCanBeCancelled() throws Exception {
+        connect(false);
+
+        session.send(FixTags.NEW_ORDER_SINGLE, FixSessionTest::writeOrder, "ORD-1");
+        session.send(FixTags.ORDER_CANCEL_REQUEST, FixSessionTest::writeCancel, "ORD-1");
+        session.send(FixTags.ORDER_CANCEL_REQUEST, FixSessionTest::writeCancel, "ORD-2");
+
+        assertThat(received.poll(5, TimeUnit.SECONDS)).isEqualTo("8:ORD-1:0");
+        assertThat(received.poll(5, TimeUnit.SECONDS)).isEqualTo("8:ORD-1-C:4");
+        assertThat(received.poll(5, TimeUnit.SECONDS)).isEqualTo("9:ORD-2-C:\u0000");
+    }
+
+    @Test
+    void sequenceNumbersPersistAndGapsAreResent() throws Exception {
+        connect(true);
+        session.send(FixTags.NEW_ORDER_SINGLE, FixSessionTest::writeOrder, "ORD-1");
+        assertThat(received.poll(5, TimeUnit.SECONDS)).isEqualTo("8:ORD-1:0");
+        assertThat(received.poll(5, TimeUnit.SECONDS)).isEqualTo("8:ORD-1:F");
+        session.close();
+
+        // Logon, order out; Logon, two reports in
+        sequences.close();
+        sequences = FixSequenceStore.open(storeDir.resolve("FINCO-LOOPBACK.seq"));
+        assertThat(sequences.nextSenderSeq()).isEqualTo(4);
+        assertThat(sequences.nextTargetSeq()).isEqualTo(5);
+
+        // Forget what came in: the acceptor has to resend the reports and gap-fill its session messages
+        sequences.setNextTargetSeq(1);
+        start();
+
+        assertThat(received.poll(5, TimeUnit.SECONDS)).isEqualTo("8:ORD-1:0:dup");
+        assertThat(received.poll(5, TimeUnit.SECONDS)).isEqualTo("8:ORD-1:F:dup");
+        await().atMost(5, TimeUnit.SECONDS).until(() -> sequences.nextTargetSeq() > 5);
+        assertThat(received).isEmpty();
+    }
+
+    private void connect(boolean autoFill) throws IOException {
+        acceptor = new FixLoopbackAcceptor(SETTINGS.reversed(), autoFill);
+        sequences = FixSequenceStore.open(storeDir.resolve("FINCO-LOOPBACK.seq"));
+        port = acceptor.start(new InetSocketAddress("localhost", 0));
+        start();
+    }
+
+    private void start() throws IOException {
+        session = new FixSession(SocketChannel.open(new InetSocketAddress("localhost", port)), SETTINGS, sequences,
+                sentMessages, application, true);
+        session.start();
+        await().atMost(5, TimeUnit.SECONDS).until(session::isLoggedOn);
+    }
+
+    private static void writeOrder(FixEncoder encoder, String clOrdId) {
+        encoder.putAscii(FixTags.CL_ORD_ID, clOrdId)
+                .putAscii(FixTags.SYMBOL, "AAPL")
+                .putChar(FixTags.SIDE, FixTags.SIDE_BUY)
+                .putDecimal(FixTags.ORDER_QTY, 100_000_000L, 8)
+                .putChar(FixTags.ORD_TYPE, FixTags.ORD_TYPE_LIMIT)
+                .putDecimal(FixTags.PRICE, 187_2500, 4);
+    }
+
+    private static void writeCancel(FixEncoder encoder, String origClOrdId) {
+        encoder.putAscii(FixTags.ORIG_CL_ORD_ID, origClOrdId)
+                .putAscii(FixTags.CL_ORD_ID, origClOrdId + "-C")
+                .putAscii(FixTags.SYMBOL, "AAPL")
+                .putChar(FixTags.SIDE, FixTags.SIDE_BUY);
+    }
+}
@@ -0,0 +1,158 @@
+package com.finco.trading.gateway;
+
+import com.finco.trading.cluster.OrderRouter;
+import com.finco.trading.compliance.ComplianceCode;
+import com.finco.trading.compliance.ComplianceException;
+import com.finco.trading.dto.OrderRequest;
+import com.finco.trading.dto.OrderResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderEntryGatewayTest {
+
+    private static final long ORDER_ID = 0x0123456789ABCDEFL;
+
+    private final OrderRouter orderRouter = mock(OrderRouter.class);
+    private OrderEntryGateway gateway;
+    private OrderEntryClient client;
+    private int port;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        gateway = new OrderEntryGateway(orderRouter, 2, 16, 1000);
+        port = gateway.start(new InetSocketAddress("127.0.0.1", 0));
+        client = OrderEntryClient.connect(new InetSocketAddress("127.0.0.1", port));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        gateway.close();
+    }
+
+    @Test
+    void entersOrdersThroughTheOrderApi() throws Exception {
+        when(orderRouter.createOrder(any(), isNull())).thenReturn(OrderResponse.builder()
+                .orderId("ORD-0123456789ABCDEF").status("PARTIALLY_FILLED")
+                .filledQuantity(new BigDecimal("40.00000000")).averageFillPrice(new BigDecimal("187.2500"))
+                .build());
+
+        OrderEntryClient.Response response = client.newOrder(42, 7, "AAPL", OrderEntryProtocol.SIDE_BUY,
+                OrderEntryProtocol.ORDER_TYPE_LIMIT, (byte) 0, 100_00000000L, 187_2500).get(5, TimeUnit.SECONDS);
+
+        assertThat(response.rejected()).isFalse();
+        assertThat(response.clientOrderId()).isEqualTo(42);
+        assertThat(response.orderId()).isEqualTo(ORDER_ID);
+        assertThat(response.status()).isEqualTo(OrderEntryProtocol.STATUS_PARTIALLY_FILLED);
+        assertThat(response.filledLots()).isEqualTo(40_00000000L);
+        assertThat(response.averagePriceTicks()).isEqualTo(187_2500);
+        ArgumentCaptor<OrderRequest> request = ArgumentCaptor.forClass(OrderRequest.class);
+        verify(orderRouter).createOrder(request.capture(), isNull());
+        assertThat(request.getValue()).isEqualTo(OrderRequest.builder()
+                .accountId(7L).symbol("AAPL").side("BUY").orderType("LIMIT").timeInForce("DAY")
+                .quantity(new BigDecimal("100.00000000")).price(new BigDecimal("187.2500")).clientOrderId("42")
+                .build());
+    }
+
+    @Test
+    void modifiesAndCancelsByOrderId() throws Exception {
+        when(orderRouter.updateOrder(eq("ORD-0123456789ABCDEF"), any(), isNull())).thenReturn(OrderResponse.builder()
+                .orderId("ORD-0123456789ABCDEF").status("PENDING").filledQuantity(BigDecimal.ZERO).build());
+
+        OrderEntryClient.Response modified = client.modifyOrder(1, ORDER_ID, 0, 190_0000).get(5, TimeUnit.SECONDS);
+        OrderEntryClient.Response cancelled = client.cancelOrder(2, ORDER_ID).get(5, TimeUnit.SECONDS);
+
+        assertThat(modified.status()).isEqualTo(OrderEntryProtocol.STATUS_PENDING);
+        ArgumentCaptor<OrderRequest> amendment = ArgumentCaptor.forClass(OrderRequest.class);
+        verify(orderRouter).updateOrder(eq("ORD-0123456789ABCDEF"), amendment.capture(), isNull());
+        assertThat(amendment.getValue().getQuantity()).isNull();
+        assertThat(amendment.getValue().getPrice()).isEqualByComparingTo("190");
+        assertThat(cancelled.rejected()).isFalse();
+        assertThat(cancelled.status()).isEqualTo(OrderEntryProtocol.STATUS_CANCELLED);
+        verify(orderRouter).cancelOrder("ORD-0123456789ABCDEF", null);
+    }
+
+    @Test
+    void rejectsWithTheComplianceCode() throws Exception {
+        when(orderRouter.createOrder(any(), isNull()))
+                .thenThrow(new ComplianceException(ComplianceCode.INSUFFICIENT_BUYING_POWER));
+        doThrow(new RuntimeException("Order is not working: ORD-0123456789ABCDEF"))
+                .when(orderRouter).cancelOrder("ORD-0123456789ABCDEF", null);
+
+        OrderEntryClient.Response rejected = client.newOrder(3, 7, "AAPL", OrderEntryProtocol.SIDE_BUY,
+                OrderEntryProtocol.ORDER_TYPE_MARKET, OrderEntryProtocol.TIF_IOC, 100_00000000L, 0)
+                .get(5, TimeUnit.SECONDS);
+        OrderEntryClient.Response cancelRejected = client.cancelOrder(4, ORDER_ID).get(5, TimeUnit.SECONDS);
+        OrderEntryClient.Response invalid = client.newOrder(5, 7, "AAPL", (byte) 9,
+                OrderEntryProtocol.ORDER_TYPE_MARKET, OrderEntryProtocol.TIF_IOC, 1, 0).get(5, TimeUnit.SECONDS);
+
+        assertThat(rejected.rejected()).isTrue();
+        // The number on the wire is pinned, not taken from the enum
+        assertThat(rejected.rejectReason()).isEqualTo(8);
+        assertThat(rejected.rejectText()).isEqualTo("Insufficient buying power");
+        assertThat(cancelRejected.rejectReason()).isEqualTo(OrderEntryProtocol.REASON_OTHER);
+        assertThat(cancelRejected.orderId()).isEqualTo(ORDER_ID);
+        assertThat(cancelRejected.rejectText()).isEqualTo("Order is not working: ORD-0123456789ABCDEF");
+        assertThat(invalid.rejectReason()).isEqualTo(OrderEntryProtocol.REASON_MALFORMED);
+    }
+
+    @Test
+    void answersPipelinedRequestsInOrder() throws Exception {
+        when(orderRouter.createOrder(any(), isNull())).thenAnswer(invocation -> OrderResponse.builder()
+                .orderId(String.format("ORD-%016X", Long.parseLong(invocation.<OrderRequest>getArgument(0)
+                        .getClientOrderId())))
+                .status("PENDING").build());
+
+        List<CompletableFuture<OrderEntryClient.Response>> responses = new ArrayList<>();
+        // More than max-in-flight, so the gateway has to pause and resume reading
+        for (long i = 1; i <= 200; i++) {
+            responses.add(client.newOrder(i, 7, "MSFT", OrderEntryProtocol.SIDE_SELL,
+                    OrderEntryProtocol.ORDER_TYPE_LIMIT, OrderEntryProtocol.TIF_GTC, 1_00000000L, 400_0000));
+        }
+
+        for (int i = 0; i < responses.size(); i++) {
+            OrderEntryClient.Response response = responses.get(i).get(5, TimeUnit.SECONDS);
+            assertThat(response.orderId()).isEqualTo(i + 1);
+        }
+    }
+
+    @Test
+    void rejectsGarbledDataAndCloses() throws Exception {
+        try (SocketChannel raw = SocketChannel.open(new InetSocketAddress("127.0.0.1", port))) {
+            ByteBuffer garbage = OrderEntryProtocol.allocate(OrderEntryProtocol.CANCEL_ORDER_LENGTH);
+            OrderEntryProtocol.putCancelOrder(garbage, 9, ORDER_ID);
+            garbage.put(3, (byte) 99).flip();
+            raw.write(garbage);
+
+            ByteBuffer response = OrderEntryProtocol.allocate(1024);
+            while (raw.read(response) >= 0) {
+                // Read until the gateway closes the connection
+            }
+            assertThat(OrderEntryProtocol.frame(response, 0, response.position()))
+                    .isEqualTo(OrderEntryProtocol.REJECT_LENGTH);
+            assertThat(response.getLong(OrderEntryProtocol.CLIENT_ORDER_ID)).isEqualTo(9);
+            assertThat(response.getShort(OrderEntryProtocol.REJECT_REASON)).isEqualTo((short) OrderEntryProtocol.REASON_MALFORMED);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.finco.trading.journal;
+
+import com.finco.trading.matching.Fill;
+import com.finco.trading.matching.MatchResult;
+import com.finco.trading.matching.Side;
+import com.finco.trading.model.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysAcrossSegmentsAndTruncatesATornTail() throws IOException {
+        try (JournalLog journal = JournalLog.open(dir, 4)) {
+            for (int i = 1; i <= 10; i++) {
+                journal.claim().type(JournalRecord.NEW).id(i).orderId("ORD-" + i).symbol("AAPL").quantityLots(i);
+                assertThat(journal.commit()).isEqualTo(i);
+            }
+        }
+        try (Stream<Path> segments = Files.list(dir)) {
+            assertThat(segments).hasSize(3);
+        }
+        // A crash in the middle of writing record 10: its checksum no longer matches
+        Path last = dir.resolve("00000000000000000009.journal");
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {1}), JournalRecord.SIZE + 40);
+        }
+
+        try (JournalLog journal = JournalLog.open(dir, 4)) {
+            assertThat(journal.nextSequence()).isEqualTo(10);
+            List<String> replayed = new ArrayList<>();
+            assertThat(journal.replay(3, record -> replayed.add(record.sequence() + ":" + record.orderId()
+                    + ":" + record.symbol() + ":" + record.quantityLots()))).isEqualTo(7);
+            assertThat(replayed).first().isEqualTo("3:ORD-3:AAPL:3");
+            assertThat(replayed).last().isEqualTo("9:ORD-9:AAPL:9");
+
+            journal.claim().type(JournalRecord.CANCEL).id(10);
+            assertThat(journal.commit()).isEqualTo(10);
+            assertThat(journal.replay(10, record -> assertThat(record.type()).isEqualTo(JournalRecord.CANCEL)))
+                    .isEqualTo(1);
+        }
+    }
+
+    @Test
+    void rebuildsWorkingOrdersFromEvents() throws IOException {
+        OrderJournal journal = new OrderJournal(true, dir.toString(), 1024, true);
+        journal.open();
+        LocalDateTime now = LocalDateTime.of(2026, 10, 16, 9, 30, 0, 123_456_000);
+        Order maker = order(1L, "SELL", "LIMIT", "10", "100.00", now);
+        Order amended = order(2L, "BUY", "LIMIT", "5", "99.00", now);
+        Order cancelled = order(3L, "BUY", "LIMIT", "5", "98.00", now);
+        Order taker = order(4L, "BUY", "MARKET", "4", null, now);
+        journal.orderNew(maker);
+        journal.orderNew(amended);
+        journal.orderNew(cancelled);
+        amended.setQuantity(new BigDecimal("7"));
+        amended.setUpdatedAt(now.plusSeconds(1));
+        journal.orderAmend(amended);
+        journal.orderCancel(cancelled);
+        journal.orderNew(taker);
+        journal.fills(taker, new MatchResult(4L, "AAPL", List.of(
+                new Fill(1L, "ORD-1", 10L, 4L, 10L, Side.BUY, 1_000_000, 100_000_000),
+                new Fill(1L, "ORD-1", 10L, 4L, 10L, Side.BUY, 1_010_000, 300_000_000)), 400_000_000, 0, 0),
+                now.plusSeconds(2));
+        assertThat(journal.isRecoverySource()).isTrue();
+        journal.close();
+
+        OrderJournal reopened = new OrderJournal(true, dir.toString(), 1024, true);
+        reopened.open();
+        List<Order> working = reopened.recoverWorkingOrders();
+        reopened.close();
+
+        assertThat(working).extracting(Order::getId).containsExactly(1L, 2L);
+        Order recovered = working.get(0);
+        assertThat(recovered.getStatus()).isEqualTo("PARTIALLY_FILLED");
+        assertThat(recovered.getFilledQuantity()).isEqualByComparingTo("4");
+        assertThat(recovered.getAverageFillPrice()).isEqualByComparingTo("100.75");
+        assertThat(recovered.getCreatedAt()).isEqualTo(now);
+        assertThat(recovered.getExecutedAt()).isEqualTo(now.plusSeconds(2));
+        assertThat(working.get(1).getQuantity()).isEqualByComparingTo("7");
+        assertThat(working.get(1).getPrice()).isEqualByComparingTo("99");
+        assertThat(working.get(1).getStatus()).isEqualTo("PENDING");
+    }
+
+    private static Order order(long id, String side, String type, String quantity, String price, LocalDateTime at) {
+        return Order.builder()
+                .id(id)
+                .orderId("ORD-" + id)
+                .accountId(10L)
+                .symbol("AAPL")
+                .side(side)
+                .orderType(type)
+                .timeInForce("GTC")
+                .quantity(new BigDecimal(quantity))
+                .price(price != null ? new BigDecimal(price) : null)
+                .status("PENDING")
+                .filledQuantity(BigDecimal.ZERO)
+                .createdAt(at)
+                .updatedAt(at)
+                .build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.finco.trading.marketdata;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class MarketDataStoreTest {
+
+    private static final long LOT = 100_000_000L;
+
+    private final MarketDataStore store = new MarketDataStore(128);
+    private final MarketDataStore.Quote quote = new MarketDataStore.Quote();
+
+    @Test
+    void keepsTopOfBookAndLastTradePerSymbol() {
+        int aapl = store.symbolId("AAPL");
+        store.onQuote(aapl, 187_2400, 3 * LOT, 187_2600, 5 * LOT, 1_000);
+
+        assertThat(store.markTicks("AAPL")).isEqualTo(187_2500);
+        assertThat(store.referenceTicks("AAPL", true)).isEqualTo(187_2600);
+        assertThat(store.referenceTicks("AAPL", false)).isEqualTo(187_2400);
+
+        store.onTrade("AAPL", 187_2600, 2 * LOT, 2_000);
+        assertThat(store.read("AAPL", quote)).isTrue();
+        assertThat(quote.symbol()).isEqualTo("AAPL");
+        assertThat(quote.bidTicks()).isEqualTo(187_2400);
+        assertThat(quote.askLots()).isEqualTo(5 * LOT);
+        assertThat(quote.lastTicks()).isEqualTo(187_2600);
+        assertThat(quote.lastLots()).isEqualTo(2 * LOT);
+        assertThat(quote.timeMillis()).isEqualTo(2_000);
+        assertThat(store.markTicks("AAPL")).isEqualTo(187_2600);
+
+        assertThat(store.read("MSFT", quote)).isFalse();
+        assertThat(store.markTicks("MSFT")).isZero();
+    }
+
+    @Test
+    void subscriptionsConflateToTheLatestTickPerSymbol() {
+        int aapl = store.symbolId("AAPL");
+        int msft = store.symbolId("MSFT");
+        try (MarketDataStore.Subscription subscription = store.subscribe()) {
+            for (int i = 1; i <= 1000; i++) {
+                store.onTrade(aapl, 100_0000 + i, LOT, i);
+            }
+            store.onTrade(msft, 400_0000, LOT, 1);
+
+            List<Long> seen = new ArrayList<>();
+            assertThat(subscription.drain(id -> {
+                store.read(id, quote);
+                seen.add(quote.lastTicks());
+            })).isEqualTo(2);
+            assertThat(seen).containsExactly(100_1000L, 400_0000L);
+            assertThat(subscription.drain(id -> { })).isZero();
+        }
+    }
+
+    @Test
+    void replaysQuotesAndTradesFromCsv() {
+        String csv = """
+                # symbol,bid,bidSize,ask,askSize,last,lastSize
+                AAPL,187.24,300,187.26,500,,
+                AAPL,,,,,187.26,200
+                MSFT,415.05,100,415.15,100,415.10,50
+                """;
+        ReplayMarketDataFeed feed = new ReplayMarketDataFeed(
+                new ByteArrayResource(csv.getBytes(StandardCharsets.US_ASCII)), 0, false);
+        feed.start(store);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !feed.isRunning());
+
+        assertThat(feed.getPublished()).isEqualTo(3);
+        assertThat(store.read("AAPL", quote)).isTrue();
+        assertThat(quote.bidTicks()).isEqualTo(187_2400);
+        assertThat(quote.bidLots()).isEqualTo(300 * LOT);
+        assertThat(quote.lastTicks()).isEqualTo(187_2600);
+        assertThat(quote.lastLots()).isEqualTo(200 * LOT);
+        assertThat(store.markTicks("MSFT")).isEqualTo(415_1000);
+    }
+}
@@ -0,0 +1,86 @@
+package com.finco.trading.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderBookTest {
+
+    private final OrderBook book = new OrderBook("AAPL");
+    private long nextId = 1;
+
+    @Test
+    void matchesInPriceThenTimePriority() {
+        NewOrder first = limit(Side.SELL, TimeInForce.GTC, 101_0000, 10);
+        NewOrder second = limit(Side.SELL, TimeInForce.GTC, 100_0000, 10);
+        NewOrder third = limit(Side.SELL, TimeInForce.GTC, 100_0000, 10);
+        book.submit(first);
+        book.submit(second);
+        book.submit(third);
+
+        MatchResult result = book.submit(limit(Side.BUY, TimeInForce.GTC, 101_0000, 25));
+
+        assertThat(result.fills()).extracting(Fill::makerId).containsExactly(second.id(), third.id(), first.id());
+        assertThat(result.fills()).extracting(Fill::priceTicks).containsExactly(100_0000L, 100_0000L, 101_0000L);
+        assertThat(result.filledLots()).isEqualTo(25);
+        assertThat(result.restingLots()).isZero();
+        assertThat(book.bestAsk()).isEqualTo(101_0000);
+    }
+
+    @Test
+    void restsUnfilledRemainderOfDayAndGtcOrders() {
+        book.submit(limit(Side.SELL, TimeInForce.GTC, 100_0000, 5));
+
+        MatchResult result = book.submit(limit(Side.BUY, TimeInForce.DAY, 100_0000, 8));
+
+        assertThat(result.filledLots()).isEqualTo(5);
+        assertThat(result.restingLots()).isEqualTo(3);
+        assertThat(book.bestBid()).isEqualTo(100_0000);
+        assertThat(book.expireDayOrders()).containsExactly(result.orderId());
+        assertThat(book.bestBid()).isZero();
+    }
+
+    @Test
+    void cancelsRemainderOfIocAndMarketOrders() {
+        book.submit(limit(Side.SELL, TimeInForce.GTC, 100_0000, 5));
+
+        MatchResult ioc = book.submit(limit(Side.BUY, TimeInForce.IOC, 100_0000, 8));
+        book.submit(limit(Side.SELL, TimeInForce.GTC, 105_0000, 2));
+        MatchResult market = book.submit(new NewOrder(nextId++, "M", 1, "AAPL", Side.BUY, true, TimeInForce.DAY, 0, 4));
+
+        assertThat(ioc.filledLots()).isEqualTo(5);
+        assertThat(ioc.cancelledLots()).isEqualTo(3);
+        assertThat(market.filledLots()).isEqualTo(2);
+        assertThat(market.cancelledLots()).isEqualTo(2);
+        assertThat(book.size()).isZero();
+    }
+
+    @Test
+    void killsFillOrKillWithoutTouchingTheBook() {
+        book.submit(limit(Side.BUY, TimeInForce.GTC, 99_0000, 5));
+        book.submit(limit(Side.BUY, TimeInForce.GTC, 98_0000, 5));
+
+        MatchResult killed = book.submit(limit(Side.SELL, TimeInForce.FOK, 99_0000, 6));
+        MatchResult filled = book.submit(limit(Side.SELL, TimeInForce.FOK, 98_0000, 6));
+
+        assertThat(killed.fills()).isEmpty();
+        assertThat(killed.cancelledLots()).isEqualTo(6);
+        assertThat(filled.filledLots()).isEqualTo(6);
+        assertThat(book.bestBid()).isEqualTo(98_0000);
+    }
+
+    @Test
+    void cancelRemovesRestingOrder() {
+        NewOrder resting = limit(Side.BUY, TimeInForce.GTC, 99_0000, 5);
+        book.submit(resting);
+
+        assertThat(book.cancel(resting.orderId())).isEqualTo(5);
+        assertThat(book.cancel(resting.orderId())).isEqualTo(-1);
+        assertThat(book.bestBid()).isZero();
+    }
+
+    private NewOrder limit(Side side, TimeInForce timeInForce, long priceTicks, long quantityLots) {
+        long id = nextId++;
+        return new NewOrder(id, "ORD-" + id, 1, "AAPL", side, false, timeInForce, priceTicks, quantityLots);
+    }
+}
@@ -0,0 +1,89 @@
+package com.finco.trading.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PartitionMaintenanceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PartitionMaintenance maintenance = new PartitionMaintenance(jdbcTemplate,
+            mock(PlatformTransactionManager.class), true, 2, 7, 12, 12, 30);
+
+    @Test
+    void createsCurrentAndUpcomingPeriodsAcrossTheYearEnd() {
+        PartitionMaintenance.PartitionedTable orders = new PartitionMaintenance.PartitionedTable(
+                "orders", "created_at", PartitionMaintenance.Period.MONTH, 2, 0, "order_id", null);
+
+        maintenance.createPartitions(orders, LocalDate.of(2026, 11, 18));
+
+        ArgumentCaptor<String> ddl = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(ddl.capture());
+        assertThat(ddl.getAllValues()).containsExactly(
+                "CREATE TABLE IF NOT EXISTS orders_p2026_11 PARTITION OF orders FOR VALUES FROM ('2026-11-01') TO ('2026-12-01')",
+                "CREATE UNIQUE INDEX IF NOT EXISTS orders_p2026_11_order_id_key ON orders_p2026_11 (order_id)",
+                "CREATE TABLE IF NOT EXISTS orders_p2026_12 PARTITION OF orders FOR VALUES FROM ('2026-12-01') TO ('2027-01-01')",
+                "CREATE UNIQUE INDEX IF NOT EXISTS orders_p2026_12_order_id_key ON orders_p2026_12 (order_id)",
+                "CREATE TABLE IF NOT EXISTS orders_p2027_01 PARTITION OF orders FOR VALUES FROM ('2027-01-01') TO ('2027-02-01')",
+                "CREATE UNIQUE INDEX IF NOT EXISTS orders_p2027_01_order_id_key ON orders_p2027_01 (order_id)");
+    }
+
+    @Test
+    void movesRowsThatLandedInTheDefaultPartition() {
+        PartitionMaintenance.PartitionedTable trades = new PartitionMaintenance.PartitionedTable(
+                "trades", "executed_at", PartitionMaintenance.Period.MONTH, 0, 0, "trade_id", null);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq("trades_default"))).thenReturn(true);
+        when(jdbcTemplate.queryForObject(contains("FROM trades_default WHERE"), eq(Boolean.class))).thenReturn(true);
+        when(jdbcTemplate.update(anyString())).thenReturn(42);
+
+        maintenance.createPartitions(trades, LocalDate.of(2026, 11, 18));
+
+        ArgumentCaptor<String> ddl = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(ddl.capture());
+        assertThat(ddl.getAllValues()).containsExactly(
+                "CREATE TABLE trades_p2026_11 (LIKE trades INCLUDING DEFAULTS)",
+                "CREATE UNIQUE INDEX IF NOT EXISTS trades_p2026_11_trade_id_key ON trades_p2026_11 (trade_id)",
+                "ALTER TABLE trades ATTACH PARTITION trades_p2026_11 FOR VALUES FROM ('2026-11-01') TO ('2026-12-01')");
+        verify(jdbcTemplate).update("WITH moved AS (DELETE FROM trades_default WHERE executed_at >= '2026-11-01' "
+                + "AND executed_at < '2026-12-01' RETURNING *) INSERT INTO trades_p2026_11 SELECT * FROM moved");
+    }
+
+    @Test
+    void detachesExpiredPartitionsWithoutWorkingOrders() {
+        PartitionMaintenance.PartitionedTable orders = new PartitionMaintenance.PartitionedTable(
+                "orders", "created_at", PartitionMaintenance.Period.MONTH, 2, 2, "order_id", "status = 'PENDING'");
+        when(jdbcTemplate.queryForList(anyString(), eq("orders"))).thenReturn(List.of(
+                partition("orders_default", "DEFAULT"),
+                partition("orders_p2026_06", "FOR VALUES FROM ('2026-06-01 00:00:00') TO ('2026-07-01 00:00:00')"),
+                partition("orders_p2026_07", "FOR VALUES FROM ('2026-07-01 00:00:00') TO ('2026-08-01 00:00:00')"),
+                partition("orders_p2026_08", "FOR VALUES FROM ('2026-08-01 00:00:00') TO ('2026-09-01 00:00:00')")));
+        when(jdbcTemplate.queryForObject(contains("FROM orders_p2026_06 WHERE"), eq(Boolean.class))).thenReturn(true);
+        when(jdbcTemplate.queryForObject(contains("FROM orders_p2026_07 WHERE"), eq(Boolean.class))).thenReturn(false);
+
+        maintenance.detachPartitions(orders, LocalDate.of(2026, 10, 18));
+
+        ArgumentCaptor<String> ddl = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(ddl.capture());
+        assertThat(ddl.getAllValues()).containsExactly(
+                "ALTER TABLE orders DETACH PARTITION orders_p2026_07",
+                "ALTER TABLE orders_p2026_07 SET SCHEMA archive");
+    }
+
+    private static Map<String, Object> partition(String name, String bound) {
+        return Map.of("name", name, "bound", bound);
+    }
+}
@@ -0,0 +1,119 @@
+package com.finco.trading.persistence;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final JdbcDataSource primary = h2("primary");
+    private final JdbcDataSource replica = h2("replica");
+    private final ReadReplicaGuard guard = new ReadReplicaGuard(replica, "SELECT lag FROM replication", 1000, 60_000,
+            Clock.systemUTC());
+    private final DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, guard));
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    private final TransactionTemplate readWrite = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    private final TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+    @BeforeEach
+    void setUp() {
+        readOnly.setReadOnly(true);
+        for (JdbcDataSource node : new JdbcDataSource[] {primary, replica}) {
+            JdbcTemplate template = new JdbcTemplate(node);
+            template.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(16))");
+            template.execute("DELETE FROM node");
+            template.update("INSERT INTO node VALUES (?)", node == primary ? "primary" : "replica");
+        }
+        new JdbcTemplate(replica).execute("CREATE TABLE IF NOT EXISTS replication (lag BIGINT)");
+        setLag(0);
+    }
+
+    @Test
+    void readsOnTheReplicaOnlyInReadOnlyTransactions() {
+        assertThat(node()).isEqualTo("primary");
+        guard.probe();
+
+        assertThat(readOnlyFor(() -> { })).isEqualTo("replica");
+        assertThat(readWriteNode()).isEqualTo("primary");
+        assertThat(node()).isEqualTo("primary");
+    }
+
+    @Test
+    void readsOnThePrimaryUntilTheReplicaLagIsKnownAndLow() {
+        assertThat(readOnlyFor(() -> { })).isEqualTo("primary");
+
+        setLag(5000);
+        guard.probe();
+        assertThat(guard.lagMs()).isEqualTo(5000);
+        assertThat(readOnlyFor(() -> { })).isEqualTo("primary");
+
+        setLag(200);
+        guard.probe();
+        assertThat(readOnlyFor(() -> { })).isEqualTo("replica");
+
+        new JdbcTemplate(replica).execute("DROP TABLE replication");
+        guard.probe();
+        assertThat(guard.lagMs()).isEqualTo(-1);
+        assertThat(readOnlyFor(() -> { })).isEqualTo("primary");
+    }
+
+    @Test
+    void readsAnAccountOnThePrimaryAfterItWasWritten() {
+        guard.probe();
+        readWrite.executeWithoutResult(status -> guard.written(7L));
+
+        assertThat(readOnlyFor(() -> guard.readYourWrites(7L))).isEqualTo("primary");
+        assertThat(readOnlyFor(() -> guard.readYourWrites(8L))).isEqualTo("replica");
+        assertThat(readOnlyFor(guard::readYourWritesAll)).isEqualTo("primary");
+        // The pin ends with its transaction
+        assertThat(readOnlyFor(() -> { })).isEqualTo("replica");
+    }
+
+    @Test
+    void writesThatRollBackDoNotPinTheAccount() {
+        guard.probe();
+        readWrite.executeWithoutResult(status -> {
+            guard.written(7L);
+            status.setRollbackOnly();
+        });
+
+        assertThat(readOnlyFor(() -> guard.readYourWrites(7L))).isEqualTo("replica");
+        assertThat(readOnlyFor(guard::readYourWritesAll)).isEqualTo("replica");
+    }
+
+    private String readOnlyFor(Runnable declareRead) {
+        return readOnly.execute(status -> {
+            declareRead.run();
+            return node();
+        });
+    }
+
+    private String readWriteNode() {
+        return readWrite.execute(status -> node());
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private void setLag(long lagMs) {
+        JdbcTemplate template = new JdbcTemplate(replica);
+        template.execute("DELETE FROM replication");
+        template.update("INSERT INTO replication VALUES (?)", lagMs);
+    }
+
+    private static JdbcDataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+}
@@ -0,0 +1,32 @@
+package com.finco.trading.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SequenceOrderRowIdsTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SequenceOrderRowIds ids = new SequenceOrderRowIds(jdbcTemplate);
+
+    @Test
+    void idsComeFromSequenceBlocksRefilledWhenUsedUp() {
+        ReflectionTestUtils.setField(ids, "idBlockSize", 2);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any()))
+                .thenReturn(List.of(1L, 2L), List.of(10L, 11L));
+
+        assertThat(List.of(ids.next(), ids.next(), ids.next(), ids.next())).containsExactly(1L, 2L, 10L, 11L);
+        verify(jdbcTemplate, times(2)).queryForList(anyString(), eq(Long.class), eq(2));
+    }
+}
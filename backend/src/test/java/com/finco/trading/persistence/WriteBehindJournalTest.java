@@ -0,0 +1,149 @@
+package com.finco.trading.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class WriteBehindJournalTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    private final JournalBatchWriter batchWriter = mock(JournalBatchWriter.class);
+    private final WriteBehindJournal journal = new WriteBehindJournal(batchWriter,
+            mock(PlatformTransactionManager.class));
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final List<List<JournalEvent>> writes = new CopyOnWriteArrayList<>();
+    private final Set<JournalEvent> failing = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger transientFailures = new AtomicInteger();
+    private volatile boolean hold;
+
+    @BeforeEach
+    void setUp() {
+        // One answer for the whole test: the flusher thread calls the mock while the test runs
+        doAnswer(invocation -> {
+            List<JournalEvent> events = List.copyOf(invocation.<List<JournalEvent>>getArgument(0));
+            writes.add(events);
+            if (hold) {
+                hold = false;
+                writing.countDown();
+                release.await();
+            }
+            if (transientFailures.getAndDecrement() > 0) {
+                throw new TransientDataAccessResourceException("connection reset");
+            }
+            if (events.stream().anyMatch(failing::contains)) {
+                throw new DataIntegrityViolationException("duplicate key");
+            }
+            return null;
+        }).when(batchWriter).write(anyList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        journal.stop();
+    }
+
+    @Test
+    void appendsFailOnceTheQueueIsFull() throws Exception {
+        start(1, WriteBehindJournal.Ack.DURABLE);
+        hold = true;
+
+        CompletableFuture<Void> first = journal.append(List.of(status(1)));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> queued = journal.append(List.of(status(2)));
+
+        assertThatThrownBy(() -> journal.append(List.of(status(3))))
+                .hasMessage("Write-behind journal is full, retry later");
+        release.countDown();
+        CompletableFuture.allOf(first, queued).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void transientFailuresAreRetriedUntilTheBatchCommits() {
+        start(16, WriteBehindJournal.Ack.DURABLE);
+        transientFailures.set(2);
+
+        journal.write(List.of(status(1)));
+
+        assertThat(writes).containsExactly(List.of(status(1)), List.of(status(1)), List.of(status(1)));
+    }
+
+    @Test
+    void permanentFailureDropsOnlyTheFailingEntryOfABatch() throws Exception {
+        start(16, WriteBehindJournal.Ack.DURABLE);
+        failing.add(status(3));
+        hold = true;
+        CompletableFuture<Void> first = journal.append(List.of(status(1)));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        // Queued behind the held flush, so the three are drained as one batch
+        CompletableFuture<Void> before = journal.append(List.of(status(2)));
+        CompletableFuture<Void> bad = journal.append(List.of(status(3)));
+        CompletableFuture<Void> after = journal.append(List.of(status(4)));
+        release.countDown();
+
+        CompletableFuture.allOf(first, before, after).get(5, TimeUnit.SECONDS);
+        assertThat(bad).isCompletedExceptionally();
+        assertThat(writes).containsExactly(List.of(status(1)), List.of(status(2), status(3), status(4)),
+                List.of(status(2)), List.of(status(3)), List.of(status(4)));
+    }
+
+    @Test
+    void durableAckWaitsForTheCommitAndReportsItsFailure() {
+        start(16, WriteBehindJournal.Ack.DURABLE);
+        failing.add(status(1));
+
+        assertThatThrownBy(() -> journal.write(List.of(status(1))))
+                .hasMessage("Write-behind persistence failed")
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void memoryAckReturnsBeforeTheCommit() throws Exception {
+        start(16, WriteBehindJournal.Ack.MEMORY);
+        hold = true;
+
+        journal.write(List.of(status(1)));
+
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+        journal.flush();
+        assertThat(writes).containsExactly(List.of(status(1)));
+    }
+
+    private void start(int capacity, WriteBehindJournal.Ack ack) {
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "capacity", capacity);
+        ReflectionTestUtils.setField(journal, "maxBatchSize", 1000);
+        ReflectionTestUtils.setField(journal, "flushIntervalMs", 5L);
+        ReflectionTestUtils.setField(journal, "appendTimeoutMs", 50L);
+        ReflectionTestUtils.setField(journal, "ackTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(journal, "ack", ack);
+        journal.start();
+    }
+
+    private static JournalEvent status(long id) {
+        return new JournalEvent.OrderStatus(id, "CANCELLED", NOW);
+    }
+}
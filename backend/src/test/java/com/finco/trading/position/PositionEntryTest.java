@@ -0,0 +1,63 @@
+package com.finco.trading.position;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PositionEntryTest {
+
+    private static final long LOT = 100_000_000L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    private final PositionEntry entry = new PositionEntry(1L, "AAPL", NOW);
+
+    @Test
+    void averagesPriceWhileAddingAndRealizesWhileReducing() {
+        entry.applyFill(true, 100_0000, 10 * LOT, NOW);
+        entry.applyFill(true, 110_0000, 30 * LOT, NOW);
+
+        PositionEntry.Snapshot snapshot = entry.snapshot(120_0000);
+        assertThat(snapshot.quantityLots()).isEqualTo(40 * LOT);
+        assertThat(snapshot.averagePriceTicks()).isEqualTo(107_5000);
+        assertThat(snapshot.marketValueTicks()).isEqualTo(4800_0000);
+        assertThat(snapshot.unrealizedPnlTicks()).isEqualTo(500_0000);
+
+        entry.applyFill(false, 112_5000, 15 * LOT, NOW);
+
+        snapshot = entry.snapshot(120_0000);
+        assertThat(snapshot.quantityLots()).isEqualTo(25 * LOT);
+        assertThat(snapshot.averagePriceTicks()).isEqualTo(107_5000);
+        assertThat(snapshot.realizedPnlTicks()).isEqualTo(75_0000);
+    }
+
+    @Test
+    void flipsFromLongToShortAtTheFillPrice() {
+        entry.applyFill(true, 50_0000, 10 * LOT, NOW);
+        entry.applyFill(false, 45_0000, 25 * LOT, NOW);
+
+        PositionEntry.Snapshot snapshot = entry.snapshot(40_0000);
+        assertThat(snapshot.quantityLots()).isEqualTo(-15 * LOT);
+        assertThat(snapshot.averagePriceTicks()).isEqualTo(45_0000);
+        assertThat(snapshot.realizedPnlTicks()).isEqualTo(-50_0000);
+        assertThat(snapshot.unrealizedPnlTicks()).isEqualTo(75_0000);
+
+        entry.applyFill(true, 42_0000, 15 * LOT, NOW);
+
+        snapshot = entry.snapshot(40_0000);
+        assertThat(snapshot.quantityLots()).isZero();
+        assertThat(snapshot.realizedPnlTicks()).isEqualTo(-5_0000);
+    }
+
+    @Test
+    void tracksWhetherTheLastSnapshotIsStale() {
+        entry.applyFill(true, 100_0000, LOT, NOW);
+        PositionEntry.Snapshot snapshot = entry.snapshot(100_0000);
+        entry.persisted(snapshot, 7L);
+
+        assertThat(entry.isDirty(100_0000)).isFalse();
+        assertThat(entry.isDirty(101_0000)).isTrue();
+        assertThat(entry.snapshot(0).id()).isEqualTo(7L);
+    }
+}
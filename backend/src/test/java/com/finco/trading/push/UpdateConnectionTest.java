@@ -0,0 +1,74 @@
+package com.finco.trading.push;
+
+import com.finco.trading.dto.OrderEvent;
+import com.finco.trading.dto.OrderResponse;
+import com.finco.trading.dto.PositionResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpdateConnectionTest {
+
+    private final List<Object> sent = new ArrayList<>();
+    private final SseEmitter emitter = new SseEmitter(0L) {
+        @Override
+        public void send(SseEventBuilder builder) {
+            Set<ResponseBodyEmitter.DataWithMediaType> parts = builder.build();
+            parts.stream().map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .filter(data -> !(data instanceof String))
+                    .forEach(sent::add);
+        }
+    };
+
+    @Test
+    void coalescesUpdatesPerOrderAndPositionBetweenSends() throws IOException {
+        UpdateConnection connection = new UpdateConnection(emitter, 1L, 100, 0);
+        connection.addOrder(event("ORD-1", "PENDING", OrderEvent.Type.CREATED));
+        connection.addOrder(event("ORD-2", "PENDING", OrderEvent.Type.CREATED));
+        connection.addOrder(event("ORD-1", "FILLED", OrderEvent.Type.FILLED));
+        connection.addPosition(1L, "AAPL", null);
+        connection.addPosition(1L, "AAPL", null);
+
+        assertThat(connection.startSend(10, 15_000)).isTrue();
+        assertThat(connection.startSend(10, 15_000)).isFalse();
+        connection.send(key -> PositionResponse.builder().accountId(1L).symbol(key.substring(2)).build(), 10);
+
+        assertThat(sent).hasSize(2);
+        @SuppressWarnings("unchecked")
+        List<OrderEvent> orders = (List<OrderEvent>) sent.get(0);
+        assertThat(orders).extracting(e -> e.getOrder().getOrderId()).containsExactly("ORD-1", "ORD-2");
+        assertThat(orders.get(0).getType()).isEqualTo(OrderEvent.Type.FILLED);
+        assertThat((List<?>) sent.get(1)).hasSize(1);
+        assertThat(connection.startSend(20, 15_000)).isFalse();
+    }
+
+    @Test
+    void overflowsOncePendingKeysExceedTheBound() {
+        UpdateConnection connection = new UpdateConnection(emitter, null, 2, 0);
+        connection.addOrder(event("ORD-1", "PENDING", OrderEvent.Type.CREATED));
+        connection.addPosition(1L, "AAPL", null);
+        connection.addOrder(event("ORD-1", "FILLED", OrderEvent.Type.FILLED));
+        assertThat(connection.isOverflowed()).isFalse();
+
+        connection.addPosition(2L, "AAPL", null);
+        assertThat(connection.isOverflowed()).isTrue();
+    }
+
+    private static OrderEvent event(String orderId, String status, OrderEvent.Type type) {
+        OrderResponse order = OrderResponse.builder()
+                .orderId(orderId)
+                .accountId(1L)
+                .status(status)
+                .quantity(BigDecimal.TEN)
+                .build();
+        return OrderEvent.builder().type(type).order(order).build();
+    }
+}
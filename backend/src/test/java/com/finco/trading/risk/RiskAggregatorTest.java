@@ -0,0 +1,137 @@
+package com.finco.trading.risk;
+
+import com.finco.trading.dto.ExposureResponse;
+import com.finco.trading.dto.RiskResponse;
+import com.finco.trading.journal.OrderJournal;
+import com.finco.trading.marketdata.MarketDataStore;
+import com.finco.trading.matching.Fill;
+import com.finco.trading.matching.MatchResult;
+import com.finco.trading.matching.Side;
+import com.finco.trading.position.PositionLedger;
+import com.finco.trading.repository.PositionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RiskAggregatorTest {
+
+    private static final long LOT = 100_000_000L;
+    private static final long TICK = 10_000L;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final MarketDataStore marketDataStore = new MarketDataStore(16);
+    private final PositionLedger ledger = new PositionLedger(mock(PositionRepository.class), jdbcTemplate,
+            mock(PlatformTransactionManager.class), marketDataStore, mock(OrderJournal.class));
+    private final RiskAggregator aggregator = new RiskAggregator(ledger, marketDataStore, jdbcTemplate,
+            mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ledger, "enabled", true);
+        ReflectionTestUtils.setField(aggregator, "enabled", true);
+        ReflectionTestUtils.setField(aggregator, "parallelism", 2);
+        // Odd accounts are institutional, even ones individual
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(1L))).thenReturn(List.of("INSTITUTIONAL"));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(3L))).thenReturn(List.of("INSTITUTIONAL"));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(2L))).thenReturn(List.of("INDIVIDUAL"));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(4L))).thenReturn(List.of("INDIVIDUAL"));
+        aggregator.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        aggregator.stop();
+    }
+
+    @Test
+    void followsFillsAndMarks() {
+        // Account 1 buys 10 AAPL at 100 from account 2, which goes short; 3 buys 5 MSFT at 200 from 4
+        ledger.onFills(match("AAPL", fill(2L, 1L, Side.BUY, 100 * TICK, 10 * LOT)));
+        ledger.onFills(match("MSFT", fill(4L, 3L, Side.BUY, 200 * TICK, 5 * LOT)));
+
+        RiskResponse firm = aggregator.getExposure(10);
+        assertThat(firm.getPositions()).isEqualTo(4);
+        assertThat(firm.getLongNotional()).isEqualByComparingTo("2000");
+        assertThat(firm.getShortNotional()).isEqualByComparingTo("2000");
+        assertThat(firm.getNetNotional()).isEqualByComparingTo("0");
+        assertThat(firm.getGrossNotional()).isEqualByComparingTo("4000");
+        assertThat(firm.getLargestSymbolShare()).isEqualByComparingTo("0.5");
+        assertThat(firm.getHerfindahlIndex()).isEqualByComparingTo("0.5");
+        assertThat(firm.getSymbols()).extracting(ExposureResponse::getName).containsExactlyInAnyOrder("AAPL", "MSFT");
+        assertThat(firm.getSymbols().get(0).getNetQuantity()).isEqualByComparingTo("0");
+        assertThat(firm.getAccountTypes()).extracting(ExposureResponse::getName)
+                .containsExactlyInAnyOrder("INSTITUTIONAL", "INDIVIDUAL");
+        assertThat(firm.getAccountTypes()).allSatisfy(type -> {
+            assertThat(type.getGrossNotional()).isEqualByComparingTo("2000");
+            assertThat(type.getShare()).isEqualByComparingTo("0.5");
+        });
+
+        // AAPL rallies to 130 and account 2 covers half its short at that price from account 3
+        ledger.onFills(match("AAPL", fill(3L, 2L, Side.BUY, 130 * TICK, 5 * LOT)));
+
+        firm = aggregator.getExposure(10);
+        assertThat(firm.getPositions()).isEqualTo(5);
+        assertThat(firm.getLongNotional()).isEqualByComparingTo("2300");
+        assertThat(firm.getShortNotional()).isEqualByComparingTo("2300");
+        ExposureResponse aapl = firm.getSymbols().get(0);
+        assertThat(aapl.getName()).isEqualTo("AAPL");
+        assertThat(aapl.getGrossNotional()).isEqualByComparingTo("2600");
+        assertThat(aapl.getNetQuantity()).isEqualByComparingTo("0");
+
+        RiskResponse account = aggregator.getAccountExposure(3L);
+        assertThat(account.getLongNotional()).isEqualByComparingTo("1000");
+        assertThat(account.getShortNotional()).isEqualByComparingTo("650");
+        assertThat(account.getSymbols()).extracting(ExposureResponse::getName).containsExactly("MSFT", "AAPL");
+        assertThat(aggregator.getAccountExposure(99L).getPositions()).isZero();
+    }
+
+    @Test
+    void recomputeAgreesWithTheLiveFigures() {
+        Random random = new Random(7);
+        String[] symbols = {"AAPL", "MSFT", "TSLA", "NVDA"};
+        for (int i = 0; i < 2_000; i++) {
+            long maker = 1 + random.nextInt(4);
+            long taker = 1 + (maker + random.nextInt(3)) % 4;
+            ledger.onFills(match(symbols[random.nextInt(symbols.length)], fill(maker, taker,
+                    random.nextBoolean() ? Side.BUY : Side.SELL, (50 + random.nextInt(100)) * TICK,
+                    (1 + random.nextInt(20)) * LOT)));
+        }
+
+        RiskResponse live = aggregator.getExposure(10);
+        RiskResponse recomputed = aggregator.recompute(10);
+
+        assertThat(recomputed.getPositions()).isEqualTo(live.getPositions());
+        assertThat(recomputed.getGrossNotional()).isEqualByComparingTo(live.getGrossNotional());
+        assertThat(recomputed.getNetNotional()).isEqualByComparingTo(live.getNetNotional());
+        assertThat(recomputed.getSymbols()).extracting(ExposureResponse::getName)
+                .containsExactlyElementsOf(live.getSymbols().stream().map(ExposureResponse::getName).toList());
+        assertThat(recomputed.getAccounts()).hasSize(4);
+        assertThat(recomputed.getAccounts()).extracting(ExposureResponse::getAccountType)
+                .containsOnly("INSTITUTIONAL", "INDIVIDUAL");
+        assertThat(recomputed.getAccounts().get(0).getGrossNotional())
+                .isGreaterThanOrEqualTo(recomputed.getAccounts().get(3).getGrossNotional());
+        assertThat(recomputed.getComputeMillis()).isNotNull();
+    }
+
+    private static MatchResult match(String symbol, Fill fill) {
+        return new MatchResult(fill.takerId(), symbol, List.of(fill), fill.quantityLots(), 0, 0);
+    }
+
+    private static Fill fill(long makerAccountId, long takerAccountId, Side takerSide, long priceTicks, long lots) {
+        return new Fill(makerAccountId * 100, "ORD-" + makerAccountId, makerAccountId, takerAccountId * 100,
+                takerAccountId, takerSide, priceTicks, lots);
+    }
+}
@@ -0,0 +1,71 @@
+package com.finco.trading.risk;
+
+import com.finco.trading.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RiskComputationTest {
+
+    private static final long LOT = 100_000_000L;
+
+    @Test
+    void parallelTotalsMatchOnePass() {
+        Random random = new Random(11);
+        int symbols = 50;
+        int types = 3;
+        long[] marks = new long[symbols];
+        for (int s = 1; s < symbols; s++) {
+            marks[s] = (1 + random.nextInt(500)) * 10_000L;
+        }
+        // Symbol 0 has no mark and is valued at each position's fallback price
+        RiskPositions positions = new RiskPositions(16, accountId -> (int) (accountId % 3));
+        for (long accountId = 1; accountId <= 20_000; accountId++) {
+            // Skewed sizes, so equal account ranges would not be equal position ranges
+            int held = accountId % 1_000 == 0 ? 2_000 : random.nextInt(8);
+            for (int p = 0; p < held; p++) {
+                positions.add(accountId, random.nextInt(symbols), (random.nextInt(2_001) - 1_000) * LOT / 4,
+                        (1 + random.nextInt(100)) * 10_000L);
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        RiskComputation.Result result;
+        try {
+            result = RiskComputation.compute(pool, positions, marks, types);
+        } finally {
+            pool.shutdown();
+        }
+
+        RiskComputation.Totals expected = new RiskComputation.Totals(symbols, types);
+        for (int a = 0; a < positions.accounts; a++) {
+            long longNotional = 0;
+            long shortNotional = 0;
+            for (int i = positions.accountStart[a]; i < positions.accountStart[a + 1]; i++) {
+                int s = positions.symbol[i];
+                long price = marks[s] > 0 ? marks[s] : positions.fallbackTicks[i];
+                long notional = FixedPoint.mulDiv(Math.abs(positions.lots[i]), price, LOT);
+                if (positions.lots[i] > 0) {
+                    longNotional += notional;
+                    expected.symbolLong[s] += notional;
+                } else {
+                    shortNotional += notional;
+                    expected.symbolShort[s] += notional;
+                }
+                expected.symbolPositions[s]++;
+            }
+            assertThat(result.accountLong()[a]).isEqualTo(longNotional);
+            assertThat(result.accountShort()[a]).isEqualTo(shortNotional);
+            expected.typeLong[positions.accountType[a]] += longNotional;
+            expected.typeShort[positions.accountType[a]] += shortNotional;
+        }
+        assertThat(result.totals().symbolLong).isEqualTo(expected.symbolLong);
+        assertThat(result.totals().symbolShort).isEqualTo(expected.symbolShort);
+        assertThat(result.totals().symbolPositions).isEqualTo(expected.symbolPositions);
+        assertThat(result.totals().typeLong).isEqualTo(expected.typeLong);
+        assertThat(result.totals().typeShort).isEqualTo(expected.typeShort);
+    }
+}
@@ -0,0 +1,74 @@
+package com.finco.trading.service;
+
+import com.finco.trading.dto.OrderResponse;
+import com.finco.trading.journal.OrderJournal;
+import com.finco.trading.model.Order;
+import com.finco.trading.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ActiveOrderIndexTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final ActiveOrderIndex index = new ActiveOrderIndex(orderRepository, new SimpleMeterRegistry(),
+            new OrderJournal(false, "data/journal", 1, false));
+
+    @BeforeEach
+    void setUp() {
+        when(orderRepository.findByStatusInOrderByIdAsc(any())).thenReturn(List.of(
+                order(1L, 10L, "AAPL", "PENDING"),
+                order(2L, 10L, "MSFT", "PARTIALLY_FILLED"),
+                order(3L, 20L, "AAPL", "PENDING")));
+        index.load();
+    }
+
+    @Test
+    void findsWorkingOrdersByAccountAndSymbol() {
+        assertThat(ids(index.find(null, null))).containsExactly(1L, 2L, 3L);
+        assertThat(ids(index.find(10L, null))).containsExactly(1L, 2L);
+        assertThat(ids(index.find(null, "AAPL"))).containsExactly(1L, 3L);
+        assertThat(ids(index.find(10L, "AAPL"))).containsExactly(1L);
+        assertThat(index.find(30L, null)).isEmpty();
+
+        Order copy = index.get("ORD-1").orElseThrow();
+        copy.setPrice(BigDecimal.ONE);
+        assertThat(index.get("ORD-1").orElseThrow().getPrice()).isEqualByComparingTo("100");
+    }
+
+    @Test
+    void terminalOrdersLeaveTheIndex() {
+        Order filled = index.get("ORD-1").orElseThrow();
+        filled.setStatus("FILLED");
+        index.update(filled);
+        index.update(order(4L, 20L, "MSFT", "PENDING"));
+        index.apply(2L, order -> order.setStatus("FILLED"));
+        index.apply(3L, order -> order.setFilledQuantity(BigDecimal.ONE));
+
+        assertThat(index.get("ORD-1")).isEmpty();
+        assertThat(ids(index.find(10L, null))).isEmpty();
+        assertThat(ids(index.find(null, "MSFT"))).containsExactly(4L);
+        assertThat(index.get("ORD-3").orElseThrow().getFilledQuantity()).isEqualByComparingTo("1");
+
+        index.removeAll(List.of(3L, 4L));
+        assertThat(index.size()).isZero();
+    }
+
+    private static Order order(long id, long accountId, String symbol, String status) {
+        return Order.builder().id(id).orderId("ORD-" + id).accountId(accountId).symbol(symbol)
+                .orderType("LIMIT").side("BUY").quantity(BigDecimal.TEN).price(new BigDecimal("100"))
+                .filledQuantity(BigDecimal.ZERO).status(status).timeInForce("DAY").build();
+    }
+
+    private static List<Long> ids(List<OrderResponse> orders) {
+        return orders.stream().map(OrderResponse::getId).toList();
+    }
+}
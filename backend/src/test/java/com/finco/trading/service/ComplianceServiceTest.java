@@ -0,0 +1,149 @@
+package com.finco.trading.service;
+
+import com.finco.trading.compliance.ComplianceCode;
+import com.finco.trading.compliance.ComplianceException;
+import com.finco.trading.compliance.ComplianceRuleSet;
+import com.finco.trading.dto.OrderRequest;
+import com.finco.trading.marketdata.MarketDataStore;
+import com.finco.trading.position.PositionLedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ComplianceServiceTest {
+
+    private static final long LOT = 100_000_000L;
+
+    private final PositionLedger positionLedger = mock(PositionLedger.class);
+    private final MarketDataStore marketDataStore = new MarketDataStore(16);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ComplianceService complianceService = new ComplianceService(positionLedger, marketDataStore,
+            new OrderMetrics(meterRegistry, true, List.of("AAPL")));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(complianceService, "complianceEnabled", true);
+        complianceService.install(ComplianceRuleSet.builder()
+                .restrict(List.of("XYZ"))
+                .maxOrderQuantity(new BigDecimal("1000"))
+                .maxOrderNotional(new BigDecimal("50000"))
+                .maxPositionQuantity(new BigDecimal("500"))
+                .symbolLimits("TSLA", new BigDecimal("10"), null)
+                .build());
+    }
+
+    @Test
+    void returnsCodeOfTheFirstFailingRule() {
+        assertThat(complianceService.check(order("AAPL", "BUY", "100", "150"))).isEqualTo(ComplianceCode.PASSED);
+        assertThat(complianceService.check(order(" ", "BUY", "100", "150"))).isEqualTo(ComplianceCode.INVALID_SYMBOL);
+        assertThat(complianceService.check(order("AAPL", "BUY", "0", "150"))).isEqualTo(ComplianceCode.INVALID_QUANTITY);
+        assertThat(complianceService.check(order("XYZ", "BUY", "1", "150"))).isEqualTo(ComplianceCode.RESTRICTED_SYMBOL);
+        assertThat(complianceService.check(order("TSLA", "BUY", "11", "150")))
+                .isEqualTo(ComplianceCode.MAX_QUANTITY_EXCEEDED);
+        assertThat(complianceService.check(order("AAPL", "BUY", "400", "150")))
+                .isEqualTo(ComplianceCode.MAX_NOTIONAL_EXCEEDED);
+
+        assertThatThrownBy(() -> complianceService.validateOrder(order("XYZ", "BUY", "1", "150")))
+                .isInstanceOfSatisfying(ComplianceException.class,
+                        e -> assertThat(e.getCode()).isEqualTo(ComplianceCode.RESTRICTED_SYMBOL))
+                .hasMessage(ComplianceCode.RESTRICTED_SYMBOL.getMessage());
+    }
+
+    @Test
+    void everyCodeHasItsOwnNumber() {
+        assertThat(EnumSet.allOf(ComplianceCode.class).stream().map(ComplianceCode::getNumber))
+                .doesNotHaveDuplicates();
+        assertThat(ComplianceCode.PASSED.getNumber()).isZero();
+    }
+
+    @Test
+    void countsRejectionsByCodeAndSymbolBucket() {
+        complianceService.check(order("XYZ", "BUY", "1", "150"));
+        complianceService.validateOrders(List.of(order("XYZ", "BUY", "1", "150"),
+                order("AAPL", "BUY", "400", "150"), order("AAPL", "BUY", "1", "150")));
+
+        assertThat(meterRegistry.get("orders.rejected").tags("reason", "RESTRICTED_SYMBOL", "symbol", "other")
+                .counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("orders.rejected").tags("reason", "MAX_NOTIONAL_EXCEEDED", "symbol", "AAPL")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("orders.stage").tags("operation", "check", "stage", "position", "symbol", "AAPL")
+                .timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void batchCountsEarlierOrdersTowardsThePositionLimit() {
+        when(positionLedger.quantityLots(1L, "AAPL")).thenReturn(300 * LOT);
+
+        ComplianceCode[] codes = complianceService.validateOrders(List.of(
+                order("AAPL", "BUY", "150", "10"),
+                order("AAPL", "BUY", "100", "10"),
+                order("AAPL", "SELL", "100", "10"),
+                order("AAPL", "BUY", "50", "10")));
+
+        assertThat(codes).containsExactly(ComplianceCode.PASSED, ComplianceCode.POSITION_LIMIT_EXCEEDED,
+                ComplianceCode.PASSED, ComplianceCode.PASSED);
+    }
+
+    @Test
+    void reducingOrdersPassAboveThePositionLimit() {
+        when(positionLedger.quantityLots(1L, "AAPL")).thenReturn(800 * LOT);
+
+        assertThat(complianceService.check(order("AAPL", "SELL", "100", "10"))).isEqualTo(ComplianceCode.PASSED);
+        assertThat(complianceService.check(order("AAPL", "BUY", "1", "10")))
+                .isEqualTo(ComplianceCode.POSITION_LIMIT_EXCEEDED);
+    }
+
+    @Test
+    void marketOrdersAreValuedAtTheTouchTheyWouldTake() {
+        marketDataStore.onQuote(marketDataStore.symbolId("AAPL"), 100_0000, 500 * LOT, 200_0000, 500 * LOT, 0);
+
+        assertThat(complianceService.check(order("AAPL", "BUY", "300", null)))
+                .isEqualTo(ComplianceCode.MAX_NOTIONAL_EXCEEDED);
+        assertThat(complianceService.check(order("AAPL", "SELL", "300", null))).isEqualTo(ComplianceCode.PASSED);
+    }
+
+    @Test
+    void rejectsOutsideTheTradingWindowOfTheInstalledRules() {
+        complianceService.install(ComplianceRuleSet.builder()
+                .tradingHours(LocalTime.of(9, 30), LocalTime.of(16, 0), ZoneId.of("America/New_York"),
+                        EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY))
+                .build());
+
+        // Friday 10:00 and 16:30 New York, then Saturday 10:00
+        complianceService.setClock(Clock.fixed(Instant.parse("2024-03-01T15:00:00Z"), ZoneOffset.UTC));
+        assertThat(complianceService.check(order("AAPL", "BUY", "1", "10"))).isEqualTo(ComplianceCode.PASSED);
+        complianceService.setClock(Clock.fixed(Instant.parse("2024-03-01T21:30:00Z"), ZoneOffset.UTC));
+        assertThat(complianceService.check(order("AAPL", "BUY", "1", "10")))
+                .isEqualTo(ComplianceCode.OUTSIDE_TRADING_HOURS);
+        complianceService.setClock(Clock.fixed(Instant.parse("2024-03-02T15:00:00Z"), ZoneOffset.UTC));
+        assertThat(complianceService.check(order("AAPL", "BUY", "1", "10")))
+                .isEqualTo(ComplianceCode.OUTSIDE_TRADING_HOURS);
+    }
+
+    private static OrderRequest order(String symbol, String side, String quantity, String price) {
+        return OrderRequest.builder()
+                .accountId(1L)
+                .symbol(symbol)
+                .orderType(price != null ? "LIMIT" : "MARKET")
+                .side(side)
+                .quantity(new BigDecimal(quantity))
+                .price(price != null ? new BigDecimal(price) : null)
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.finco.trading.service;
+
+import com.finco.trading.account.BuyingPowerLedger;
+import com.finco.trading.cluster.SymbolOwnership;
+import com.finco.trading.journal.OrderJournal;
+import com.finco.trading.matching.MatchingEngine;
+import com.finco.trading.model.Order;
+import com.finco.trading.persistence.ReadReplicaGuard;
+import com.finco.trading.persistence.WriteBehindJournal;
+import com.finco.trading.position.PositionLedger;
+import com.finco.trading.push.UpdateStream;
+import com.finco.trading.repository.OrderRepository;
+import com.finco.trading.repository.TradeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExecutionServiceTest {
+
+    private final MatchingEngine matchingEngine = new MatchingEngine(1);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final ExecutionService executionService = new ExecutionService(matchingEngine, orderRepository,
+            mock(TradeRepository.class), mock(WriteBehindJournal.class), mock(OrderCache.class),
+            mock(PositionLedger.class), mock(BuyingPowerLedger.class), mock(UpdateStream.class),
+            mock(ActiveOrderIndex.class), mock(OrderJournal.class), mock(SymbolOwnership.class),
+            mock(ReadReplicaGuard.class), mock(PlatformTransactionManager.class));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(executionService, "matchingEnabled", true);
+        ReflectionTestUtils.setField(executionService, "timeoutMs", 1000L);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        matchingEngine.shutdown();
+    }
+
+    @Test
+    void committedOrdersStayBookedAndReleaseTheBook() throws Exception {
+        executionService.execute(order(1, "SELL", "100"));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(matchingEngine.topOfBook("AAPL").join()[1]).isEqualTo(100_0000L);
+        // Another transaction can take the book now
+        CompletableFuture.runAsync(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                executionService.lockBooks(List.of("AAPL"));
+            } finally {
+                complete(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        }).get();
+    }
+
+    @Test
+    void rollbackRebuildsTheBookFromCommittedOrders() {
+        Order maker = order(1, "SELL", "100");
+        executionService.execute(maker);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        // The crossing order fills the maker in the engine, but its row update cannot be made
+        TransactionSynchronizationManager.initSynchronization();
+        Order taker = order(2, "BUY", "100");
+        when(orderRepository.findAllForUpdate(anyCollection())).thenReturn(List.of(taker));
+        assertThatThrownBy(() -> executionService.execute(taker)).hasMessageContaining("[1]");
+        assertThat(matchingEngine.topOfBook("AAPL").join()[1]).isZero();
+
+        when(orderRepository.findBySymbolInAndStatusInOrderByIdAsc(anyCollection(), any())).thenReturn(List.of(maker));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(matchingEngine.topOfBook("AAPL").join()[1]).isEqualTo(100_0000L);
+        assertThat(matchingEngine.cancel("AAPL", maker.getOrderId()).join()).isEqualTo(10_0000_0000L);
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static Order order(long id, String side, String price) {
+        return Order.builder().id(id).orderId("ORD-" + id).accountId(id).symbol("AAPL")
+                .orderType("LIMIT").side(side).quantity(BigDecimal.TEN).price(new BigDecimal(price))
+                .filledQuantity(BigDecimal.ZERO).status("PENDING").timeInForce("DAY").build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.finco.trading.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderDedupIndexTest {
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2026-03-02T14:30:00Z"));
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.get();
+        }
+    };
+
+    @Test
+    void repeatedClientOrderIdReturnsTheFirstOrderUntilItExpires() {
+        OrderDedupIndex index = new OrderDedupIndex(null, true, "dedup:", Duration.ofMinutes(10), Duration.ofDays(1), clock);
+
+        assertThat(index.claim(10L, "abc-1", "ORD-1")).isNull();
+        assertThat(index.claim(10L, "abc-1", "ORD-2")).isEqualTo("ORD-1");
+        assertThat(index.claim(20L, "abc-1", "ORD-3")).isNull();
+
+        now.set(now.get().plus(Duration.ofMinutes(11)));
+        index.expire();
+        assertThat(index.size()).isZero();
+        assertThat(index.claim(10L, "abc-1", "ORD-4")).isNull();
+    }
+
+    @Test
+    void releaseOnlyDropsTheOwnClaim() {
+        OrderDedupIndex index = new OrderDedupIndex(null, true, "dedup:", Duration.ofMinutes(10), Duration.ofDays(1), clock);
+
+        index.claim(10L, "abc-1", "ORD-1");
+        index.release(10L, "abc-1", "ORD-2");
+        assertThat(index.claim(10L, "abc-1", "ORD-3")).isEqualTo("ORD-1");
+
+        index.release(10L, "abc-1", "ORD-1");
+        assertThat(index.claim(10L, "abc-1", "ORD-3")).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void claimHeldByAnotherNodeInRedisWins() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redis.opsForValue()).thenReturn(values);
+        when(values.setIfAbsent(eq("dedup:10:abc-1"), any(), any(Duration.class))).thenReturn(false);
+        when(values.get("dedup:10:abc-1")).thenReturn("ORD-REMOTE");
+        when(values.setIfAbsent(eq("dedup:10:abc-2"), any(), any(Duration.class))).thenThrow(new IllegalStateException("down"));
+        OrderDedupIndex index = new OrderDedupIndex(redis, true, "dedup:", Duration.ofMinutes(10), Duration.ofDays(1), clock);
+
+        assertThat(index.claim(10L, "abc-1", "ORD-1")).isEqualTo("ORD-REMOTE");
+        assertThat(index.claim(10L, "abc-1", "ORD-2")).isEqualTo("ORD-REMOTE");
+        // Without Redis the claim still holds on this node
+        assertThat(index.claim(10L, "abc-2", "ORD-3")).isNull();
+        assertThat(index.claim(10L, "abc-2", "ORD-4")).isEqualTo("ORD-3");
+    }
+}
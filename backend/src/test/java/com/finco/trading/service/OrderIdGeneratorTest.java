@@ -0,0 +1,84 @@
+package com.finco.trading.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class OrderIdGeneratorTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-02T14:30:00Z");
+
+    @Test
+    void idsIncreaseAndEncodeTimeAndNode() {
+        OrderIdGenerator generator = new OrderIdGenerator(2, 5, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        long first = generator.nextId();
+        Set<Long> ids = new HashSet<>();
+        long previous = first;
+        // More than one millisecond's sequence on a stopped clock still yields increasing ids
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            ids.add(id);
+            previous = id;
+        }
+        assertThat(ids).hasSize(10_000);
+        assertThat(OrderIdGenerator.timestamp(first)).isEqualTo(NOW);
+        assertThat(first >>> OrderIdGenerator.SEQUENCE_BITS & (1 << OrderIdGenerator.WORKER_BITS) - 1).isEqualTo(5);
+        assertThat(first >>> OrderIdGenerator.SEQUENCE_BITS + OrderIdGenerator.WORKER_BITS
+                & (1 << OrderIdGenerator.REGION_BITS) - 1).isEqualTo(2);
+    }
+
+    @Test
+    void orderIdsAreFixedWidthHexAndSortInCreationOrder() {
+        OrderIdGenerator generator = new OrderIdGenerator(0, 1, Clock.systemUTC());
+
+        String first = generator.nextOrderId();
+        String second = generator.nextOrderId();
+
+        assertThat(first).matches("ORD-[0-9A-F]{16}");
+        assertThat(second).isGreaterThan(first);
+        assertThat(Long.parseUnsignedLong(first.substring(4), 16)).isPositive();
+        assertThat(OrderIdGenerator.format(OrderIdGenerator.parse(first))).isEqualTo(first);
+        assertThatThrownBy(() -> OrderIdGenerator.parse("ORD-1A2B")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void nodesOfDifferentRegionsOrWorkersNeverCollide() {
+        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+        OrderIdGenerator east = new OrderIdGenerator(0, 0, clock);
+        OrderIdGenerator west = new OrderIdGenerator(1, 0, clock);
+        OrderIdGenerator eastWorker = new OrderIdGenerator(0, 1, clock);
+
+        assertThat(Set.of(east.nextId(), west.nextId(), eastWorker.nextId())).hasSize(3);
+    }
+
+    @Test
+    void staysPastTheNewestStoredOrderWhenTheClockIsBehind() {
+        OrderIdGenerator generator = new OrderIdGenerator(0, 0, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        generator.advancePast(NOW.plusSeconds(5));
+
+        assertThat(OrderIdGenerator.timestamp(generator.nextId())).isEqualTo(NOW.plusSeconds(5).plusMillis(1));
+        generator.advancePast(NOW);
+        assertThat(OrderIdGenerator.timestamp(generator.nextId())).isEqualTo(NOW.plusSeconds(5).plusMillis(1));
+    }
+
+    @Test
+    void rejectsRegionsAndWorkersOutOfRange() {
+        assertThatThrownBy(() -> new OrderIdGenerator("mars-1", List.of("us-east-1"), 0, mock(JdbcTemplate.class)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new OrderIdGenerator(0, 128, Clock.systemUTC()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,156 @@
+package com.finco.trading.service;
+
+import com.finco.trading.account.BuyingPowerLedger;
+import com.finco.trading.audit.AuditLogWriter;
+import com.finco.trading.compliance.ComplianceCode;
+import com.finco.trading.dto.BulkOrderResult;
+import com.finco.trading.dto.OrderRequest;
+import com.finco.trading.journal.OrderJournal;
+import com.finco.trading.model.Order;
+import com.finco.trading.persistence.OrderRowIds;
+import com.finco.trading.persistence.ReadReplicaGuard;
+import com.finco.trading.persistence.WriteBehindJournal;
+import com.finco.trading.push.UpdateStream;
+import com.finco.trading.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderServiceTest {
+
+    private final ComplianceService complianceService = mock(ComplianceService.class);
+    private final ExecutionService executionService = mock(ExecutionService.class);
+    private final WriteBehindJournal writeBehindJournal = mock(WriteBehindJournal.class);
+    private final OrderRowIds orderRowIds = mock(OrderRowIds.class);
+    private final ActiveOrderIndex activeOrders = mock(ActiveOrderIndex.class);
+    private final OrderIdGenerator orderIdGenerator = mock(OrderIdGenerator.class);
+    private final OrderDedupIndex dedupIndex = new OrderDedupIndex(null, true, "orders:", Duration.ofMinutes(10),
+            Duration.ofDays(1), Clock.systemUTC());
+    private final BuyingPowerLedger buyingPower = mock(BuyingPowerLedger.class);
+    private final List<List<Order>> matched = new ArrayList<>();
+    private final OrderService orderService = new OrderService(mock(OrderRepository.class), complianceService,
+            executionService, writeBehindJournal, orderRowIds, mock(OrderCache.class), mock(EntityManager.class),
+            mock(UpdateStream.class), mock(AuditLogWriter.class), activeOrders, mock(OrderJournal.class),
+            mock(OrderMetrics.class), orderIdGenerator, dedupIndex, buyingPower, mock(ReadReplicaGuard.class));
+
+    @Test
+    void amendmentSeesAFillCommittedBeforeItTookTheBook() {
+        when(writeBehindJournal.isEnabled()).thenReturn(true);
+        // The fill commits between the first lookup and the book lock
+        when(activeOrders.get("ORD-1")).thenReturn(Optional.of(order("PENDING", "0")),
+                Optional.of(order("PARTIALLY_FILLED", "4")));
+        OrderRequest amendment = OrderRequest.builder().quantity(new BigDecimal("20")).build();
+
+        assertThatThrownBy(() -> orderService.updateOrder("ORD-1", amendment))
+                .hasMessage("Cannot update order in status: PARTIALLY_FILLED");
+
+        InOrder lockThenRead = inOrder(executionService, activeOrders);
+        lockThenRead.verify(executionService).lockBooks(List.of("AAPL"));
+        lockThenRead.verify(activeOrders).get("ORD-1");
+        verify(buyingPower, never()).amend(any());
+        verify(executionService, never()).replace(any());
+    }
+
+    @Test
+    void rejectedOrderLeavesTheRestOfTheBatchInRequestOrder() {
+        bulk(ComplianceCode.PASSED, ComplianceCode.RESTRICTED_SYMBOL, ComplianceCode.PASSED);
+
+        List<BulkOrderResult> results = orderService.createOrders(List.of(request(null), request(null), request(null)));
+
+        assertThat(results).extracting(BulkOrderResult::getIndex).containsExactly(0, 1, 2);
+        assertThat(results).extracting(BulkOrderResult::getStatus).containsExactly("ACCEPTED", "REJECTED", "ACCEPTED");
+        assertThat(results.get(0).getOrder().getOrderId()).isEqualTo("ORD-1");
+        assertThat(results.get(1).getErrorCode()).isEqualTo("RESTRICTED_SYMBOL");
+        assertThat(results.get(1).getError()).isEqualTo("Symbol is restricted");
+        assertThat(results.get(2).getOrder().getOrderId()).isEqualTo("ORD-3");
+        assertThat(matched).singleElement().satisfies(orders -> assertThat(orders)
+                .extracting(Order::getOrderId, Order::getId).containsExactly(tuple("ORD-1", 101L), tuple("ORD-3", 102L)));
+    }
+
+    @Test
+    void rejectionReleasesTheClientOrderIdClaim() {
+        bulk(ComplianceCode.PASSED);
+        when(buyingPower.reserve(any())).thenReturn(ComplianceCode.INSUFFICIENT_BUYING_POWER);
+
+        List<BulkOrderResult> results = orderService.createOrders(List.of(request("c-1")));
+
+        assertThat(results).singleElement().extracting(BulkOrderResult::getStatus).isEqualTo("REJECTED");
+        assertThat(dedupIndex.claim(1L, "c-1", "ORD-9")).isNull();
+        assertThat(matched).isEmpty();
+    }
+
+    @Test
+    void clientOrderIdRepeatedInTheBatchGetsTheOrderOfItsFirstOccurrence() {
+        bulk(ComplianceCode.PASSED, ComplianceCode.PASSED, ComplianceCode.PASSED);
+
+        List<BulkOrderResult> results = orderService.createOrders(
+                List.of(request("c-1"), request("c-2"), request("c-1")));
+
+        assertThat(results).extracting(BulkOrderResult::getStatus).containsExactly("ACCEPTED", "ACCEPTED", "ACCEPTED");
+        assertThat(results.get(2).getOrder()).isSameAs(results.get(0).getOrder());
+        assertThat(results.get(0).getOrder().getOrderId()).isEqualTo("ORD-1");
+        assertThat(matched).singleElement().satisfies(orders -> assertThat(orders)
+                .extracting(Order::getOrderId).containsExactly("ORD-1", "ORD-2"));
+    }
+
+    @Test
+    void clientOrderIdRepeatedAfterARejectionIsCreated() {
+        bulk(ComplianceCode.MAX_QUANTITY_EXCEEDED, ComplianceCode.PASSED);
+
+        List<BulkOrderResult> results = orderService.createOrders(List.of(request("c-1"), request("c-1")));
+
+        assertThat(results).extracting(BulkOrderResult::getStatus).containsExactly("REJECTED", "ACCEPTED");
+        assertThat(results.get(1).getOrder().getOrderId()).isEqualTo("ORD-2");
+        assertThat(dedupIndex.claim(1L, "c-1", "ORD-9")).isEqualTo("ORD-2");
+    }
+
+    /**
+     * Stubs a bulk create whose requests get {@code codes} from compliance; everything else passes.
+     */
+    private void bulk(ComplianceCode... codes) {
+        ReflectionTestUtils.setField(orderService, "bulkMaxSize", 10);
+        when(complianceService.validateOrders(anyList())).thenReturn(codes);
+        AtomicLong ids = new AtomicLong();
+        when(orderIdGenerator.nextOrderId()).thenAnswer(invocation -> "ORD-" + ids.incrementAndGet());
+        AtomicLong rowIds = new AtomicLong(100);
+        when(orderRowIds.next()).thenAnswer(invocation -> rowIds.incrementAndGet());
+        when(buyingPower.reserve(any())).thenReturn(ComplianceCode.PASSED);
+        when(executionService.executeAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            matched.add(List.copyOf(orders));
+            return orders;
+        });
+    }
+
+    private static OrderRequest request(String clientOrderId) {
+        return OrderRequest.builder().accountId(1L).symbol("AAPL").orderType("LIMIT").side("BUY")
+                .quantity(BigDecimal.TEN).price(new BigDecimal("100")).timeInForce("DAY")
+                .clientOrderId(clientOrderId).build();
+    }
+
+    private static Order order(String status, String filled) {
+        return Order.builder().id(1L).orderId("ORD-1").accountId(1L).symbol("AAPL").orderType("LIMIT")
+                .side("BUY").quantity(BigDecimal.TEN).price(new BigDecimal("100"))
+                .filledQuantity(new BigDecimal(filled)).status(status).timeInForce("DAY").build();
+    }
+}
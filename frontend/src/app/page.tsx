@@ -1,8 +1,27 @@
 'use client';
 
 import { useState, useEffect } from 'react';
-import { Order, Position, OrderRequest } from '@/types';
-import { orderApi, positionApi } from '@/lib/api';
+import { Order, OrderEvent, Position, OrderRequest } from '@/types';
+import { orderApi, positionApi, subscribeUpdates } from '@/lib/api';
+
+const upsertOrders = (orders: Order[], events: OrderEvent[]): Order[] => {
+  const byId = new Map(orders.map((order) => [order.orderId, order]));
+  const added: Order[] = [];
+  for (const { order } of events) {
+    if (!byId.has(order.orderId)) {
+      added.push(order);
+    }
+    byId.set(order.orderId, order);
+  }
+  return [...added.reverse(), ...orders.map((order) => byId.get(order.orderId)!)];
+};
+
+const upsertPositions = (positions: Position[], updates: Position[]): Position[] => {
+  const key = (p: Position) => `${p.accountId}:${p.symbol}`;
+  const byKey = new Map(positions.map((position) => [key(position), position]));
+  updates.forEach((position) => byKey.set(key(position), position));
+  return Array.from(byKey.values());
+};
 
 export default function Home() {
   const [orders, setOrders] = useState<Order[]>([]);
@@ -20,8 +39,14 @@ export default function Home() {
     timeInForce: 'DAY',
   });
 
+  // Loaded once per (re)connect of the update stream, which then keeps both lists current
   useEffect(() => {
-    loadData();
+    return subscribeUpdates({
+      onOrders: (events) => setOrders((current) => upsertOrders(current, events)),
+      onPositions: (updates) => setPositions((current) => upsertPositions(current, updates)),
+      onOpen: loadData,
+      onError: () => setError('Live updates disconnected, reconnecting...'),
+    });
   }, []);
 
   const loadData = async () => {
@@ -58,7 +83,7 @@ export default function Home() {
         quantity: 0,
         timeInForce: 'DAY',
       });
-      loadData();
+      setOrders((current) => upsertOrders(current, [{ type: 'CREATED', order }]));
     } catch (err) {
       setError('Failed to create order. Please try again.');
       console.error(err);
@@ -69,7 +94,6 @@ export default function Home() {
     try {
       await orderApi.cancelOrder(orderId);
       setSuccess(`Order ${orderId} cancelled successfully`);
-      loadData();
     } catch (err) {
       setError('Failed to cancel order');
       console.error(err);
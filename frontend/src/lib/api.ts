@@ -1,5 +1,5 @@
 import axios from 'axios';
-import { Order, OrderRequest, Position } from '@/types';
+import { Order, OrderEvent, OrderRequest, Position } from '@/types';
 
 const API_URL = process.env.NEXT_PUBLIC_API_URL || 'http://localhost:8080/api/v1';
 
@@ -53,3 +53,25 @@ export const positionApi = {
     return response.data;
   },
 };
+
+export interface UpdateHandlers {
+  onOrders: (events: OrderEvent[]) => void;
+  onPositions: (positions: Position[]) => void;
+  // Called on every (re)connect; updates missed while disconnected are not replayed, so reload here
+  onOpen?: () => void;
+  onError?: () => void;
+}
+
+/**
+ * Subscribes to server-sent order and position updates, for one account or all of them.
+ * EventSource reconnects on its own; returns a function that closes the stream.
+ */
+export const subscribeUpdates = (handlers: UpdateHandlers, accountId?: number): (() => void) => {
+  const url = `${API_URL}/stream${accountId ? `?accountId=${accountId}` : ''}`;
+  const source = new EventSource(url);
+  source.addEventListener('orders', (e) => handlers.onOrders(JSON.parse((e as MessageEvent).data)));
+  source.addEventListener('positions', (e) => handlers.onPositions(JSON.parse((e as MessageEvent).data)));
+  source.onopen = () => handlers.onOpen?.();
+  source.onerror = () => handlers.onError?.();
+  return () => source.close();
+};
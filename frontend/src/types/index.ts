@@ -16,6 +16,11 @@ export interface Order {
   executedAt?: string;
 }
 
+export interface OrderEvent {
+  type: 'CREATED' | 'UPDATED' | 'CANCELLED' | 'FILLED';
+  order: Order;
+}
+
 export interface OrderRequest {
   accountId: number;
   symbol: string;
@@ -0,0 +1,134 @@
+#!/usr/bin/env python3
+"""Compare a JMH JSON result against the checked-in baseline.
+
+Usage: scripts/jmh-compare.py [RESULT] [BASELINE] [--threshold PCT] [--relative]
+       scripts/jmh-compare.py --record [RESULT] [BASELINE]
+
+Defaults to backend/target/jmh-result.json and backend/src/jmh/baseline.json.
+Flags every benchmark whose score or allocation (gc.alloc.rate.norm, present
+when run with -prof gc) got worse by more than the threshold, and exits 1 if
+any did. Time-based scores get worse as they grow, throughput scores as they
+shrink.
+
+--relative compares scores against the rest of the run instead of absolutely:
+the median change over all benchmarks is taken as the speed difference between
+the two machines and divided out, so a result from other hardware only flags
+benchmarks that got slower than the suite as a whole. Allocation per operation
+does not depend on the machine and is always compared absolutely.
+
+--record writes RESULT to BASELINE keeping only what the comparison reads:
+score, error and unit of each benchmark and its gc.alloc.rate.norm.
+"""
+import argparse
+import json
+import statistics
+import sys
+
+ALLOC = "gc.alloc.rate.norm"
+METRIC_FIELDS = ("score", "scoreError", "scoreUnit")
+
+
+def key_of(entry):
+    params = entry.get("params") or {}
+    return entry["benchmark"] + "".join(f" {k}={v}" for k, v in sorted(params.items()))
+
+
+def load(path):
+    with open(path) as f:
+        results = {}
+        for entry in json.load(f):
+            primary = entry["primaryMetric"]
+            alloc = entry.get("secondaryMetrics", {}).get(ALLOC)
+            # Flip throughput so that a positive change always means slower
+            sign = -1 if entry.get("mode") == "thrpt" else 1
+            results[key_of(entry)] = (primary["score"], primary["scoreUnit"], alloc["score"] if alloc else None, sign)
+        return results
+
+
+def record(result_path, baseline_path):
+    with open(result_path) as f:
+        entries = json.load(f)
+    slim = []
+    for entry in sorted(entries, key=key_of):
+        kept = {"benchmark": entry["benchmark"], "mode": entry["mode"]}
+        if entry.get("params"):
+            kept["params"] = entry["params"]
+        kept["primaryMetric"] = {field: entry["primaryMetric"][field] for field in METRIC_FIELDS}
+        alloc = entry.get("secondaryMetrics", {}).get(ALLOC)
+        if alloc:
+            kept["secondaryMetrics"] = {ALLOC: {field: alloc[field] for field in METRIC_FIELDS}}
+        slim.append(kept)
+    with open(baseline_path, "w") as f:
+        json.dump(slim, f, indent=2)
+        f.write("\n")
+    print(f"Recorded {len(slim)} benchmarks to {baseline_path}")
+
+
+def change(old, new):
+    if old is None or new is None:
+        return None
+    if old == 0:
+        return 0.0 if new == 0 else float("inf")
+    return (new - old) / old * 100
+
+
+def slowdown(old, new, sign):
+    """How many times slower the new score is, below 1 when it is faster."""
+    if old <= 0 or new <= 0:
+        return None
+    return new / old if sign > 0 else old / new
+
+
+def main():
+    parser = argparse.ArgumentParser()
+    parser.add_argument("result", nargs="?", default="backend/target/jmh-result.json")
+    parser.add_argument("baseline", nargs="?", default="backend/src/jmh/baseline.json")
+    parser.add_argument("--threshold", type=float, default=15.0, help="allowed regression in percent")
+    parser.add_argument("--relative", action="store_true",
+                        help="divide out the median change of the run before comparing scores")
+    parser.add_argument("--record", action="store_true", help="write RESULT as the new BASELINE")
+    args = parser.parse_args()
+
+    if args.record:
+        record(args.result, args.baseline)
+        return 0
+
+    result, baseline = load(args.result), load(args.baseline)
+    factor = 1.0
+    if args.relative:
+        ratios = [slowdown(baseline[key][0], result[key][0], result[key][3]) for key in result if key in baseline]
+        ratios = [ratio for ratio in ratios if ratio is not None]
+        if ratios:
+            factor = statistics.median(ratios)
+        print(f"This run is {factor:.2f}x the baseline time overall; scores are compared after dividing that out\n")
+
+    regressions = 0
+    print(f"{'benchmark':<70} {'baseline':>12} {'current':>12} {'time':>8} {'alloc':>8}")
+    for key in sorted(result):
+        score, unit, alloc, sign = result[key]
+        if key not in baseline:
+            print(f"{key:<70} {'-':>12} {score:>9.2f} {unit:<2} (new)")
+            continue
+        base_score, _, base_alloc, _ = baseline[key]
+        ratio = slowdown(base_score, score, sign) if args.relative else None
+        if ratio is None:
+            time_change = sign * change(base_score, score)
+        else:
+            time_change = (ratio / factor - 1) * 100
+        alloc_change = change(base_alloc, alloc)
+        worse = time_change > args.threshold or (alloc_change is not None and alloc_change > args.threshold)
+        regressions += worse
+        alloc_text = "-" if alloc_change is None else f"{alloc_change:+.1f}%"
+        print(f"{key:<70} {base_score:>12.2f} {score:>12.2f} {time_change:>+7.1f}% {alloc_text:>8}"
+              + ("  REGRESSION" if worse else ""))
+    for key in sorted(set(baseline) - set(result)):
+        print(f"{key:<70} (not run)")
+
+    if regressions:
+        print(f"\n{regressions} benchmark(s) regressed by more than {args.threshold:g}%")
+        return 1
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,2 @@
+\set account random(:first, :last)
+SELECT * FROM orders WHERE account_id = :account AND status = :status AND created_at >= :since;
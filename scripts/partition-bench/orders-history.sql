@@ -0,0 +1,75 @@
+-- Synthetic order history for run.sh: :orders orders spread evenly over the :months months up to
+-- three days ago, on :accounts accounts, 80% FILLED with one trade each and the rest CANCELLED,
+-- plus :pending PENDING orders per account in the last three days. Rows go in in created_at
+-- order, so ids follow time as they do in production. Expects the V1/V2 schema without orders.
+--
+--   psql -v orders=3000000 -v accounts=1000 -v months=24 -v pending=4 -f orders-history.sql
+
+\set ON_ERROR_STOP on
+\if :{?orders}
+\else
+    \set orders 3000000
+\endif
+\if :{?accounts}
+\else
+    \set accounts 1000
+\endif
+\if :{?months}
+\else
+    \set months 24
+\endif
+\if :{?pending}
+\else
+    \set pending 4
+\endif
+
+INSERT INTO accounts (account_number, account_name, account_type, balance)
+SELECT 'BENCH-' || a, 'Benchmark account ' || a, 'TRADING', 1000000
+FROM generate_series(1, :accounts) a;
+
+CREATE TEMP TABLE bench_accounts AS
+SELECT array_agg(id ORDER BY id) AS ids FROM accounts WHERE account_number LIKE 'BENCH-%';
+
+INSERT INTO orders (order_id, account_id, symbol, order_type, side, quantity, price, status, filled_quantity,
+                    average_fill_price, time_in_force, created_at, updated_at, executed_at)
+SELECT 'ORD-H' || lpad(h.i::TEXT, 15, '0'), h.account_id, h.symbol, 'LIMIT', h.side, h.quantity, h.price, h.status,
+       CASE h.status WHEN 'FILLED' THEN h.quantity ELSE 0 END,
+       CASE h.status WHEN 'FILLED' THEN h.price END,
+       'DAY', h.created_at, h.created_at,
+       CASE h.status WHEN 'FILLED' THEN h.created_at END
+FROM (
+    SELECT i,
+           b.ids[1 + floor(random() * cardinality(b.ids))::INT] AS account_id,
+           (ARRAY['AAPL', 'MSFT', 'GOOGL', 'AMZN', 'TSLA', 'NVDA', 'META', 'JPM'])[1 + i % 8] AS symbol,
+           CASE WHEN i % 2 = 0 THEN 'BUY' ELSE 'SELL' END AS side,
+           (1 + floor(random() * 100))::DECIMAL(19, 8) AS quantity,
+           round((50 + random() * 450)::NUMERIC, 2) AS price,
+           CASE WHEN random() < 0.8 THEN 'FILLED' ELSE 'CANCELLED' END AS status,
+           -- A fraction of the span rather than i * step, which overflows the interval's day count
+           r.first_at + ((i - 1)::FLOAT8 / :orders) * (r.last_at - r.first_at) AS created_at
+    FROM bench_accounts b,
+         (SELECT LOCALTIMESTAMP - :months * INTERVAL '1 month' AS first_at,
+                 LOCALTIMESTAMP - INTERVAL '3 days' AS last_at) r,
+         generate_series(1, :orders) i
+) h
+ORDER BY h.i;
+
+INSERT INTO orders (order_id, account_id, symbol, order_type, side, quantity, price, status, time_in_force,
+                    created_at, updated_at)
+SELECT 'ORD-P' || lpad((row_number() OVER (ORDER BY p.created_at))::TEXT, 15, '0'), p.account_id,
+       (ARRAY['AAPL', 'MSFT', 'GOOGL', 'AMZN', 'TSLA', 'NVDA', 'META', 'JPM'])[1 + floor(random() * 8)::INT],
+       'LIMIT', 'BUY', 10, 100, 'PENDING', 'DAY', p.created_at, p.created_at
+FROM (
+    SELECT a.id AS account_id, LOCALTIMESTAMP - random() * INTERVAL '3 days' AS created_at
+    FROM accounts a, generate_series(1, :pending)
+    WHERE a.account_number LIKE 'BENCH-%'
+) p
+ORDER BY p.created_at;
+
+INSERT INTO trades (trade_id, order_id, account_id, symbol, side, quantity, price, executed_at)
+SELECT 'TRD-' || o.id, o.id, o.account_id, o.symbol, o.side, o.quantity, o.price, o.executed_at
+FROM orders o
+WHERE o.status = 'FILLED'
+ORDER BY o.id;
+
+ANALYZE accounts, orders, trades;
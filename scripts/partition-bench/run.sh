@@ -0,0 +1,80 @@
+#!/bin/bash
+
+# findByAccountIdAndStatus(account, PENDING) on a synthetic order history, before and after the
+# V3 time partitioning. Needs psql and pgbench (PostgreSQL 16 client tools) and a server the PG*
+# variables point at, e.g. the docker-compose one:
+#
+#   PGHOST=localhost PGUSER=finco_user PGPASSWORD=finco_password scripts/partition-bench/run.sh
+#
+# Drops and recreates the database $BENCH_DB, applies the migrations with psql and fills it with
+# orders-history.sql. Each figure is the p50 of $QUERIES queries for random accounts on one
+# connection, sent as prepared statements with the parameters Hibernate binds.
+
+set -euo pipefail
+
+HERE="$(cd "$(dirname "$0")" && pwd)"
+MIGRATIONS="$HERE/../../backend/src/main/resources/db/migration"
+BENCH_DB="${BENCH_DB:-finco_partition_bench}"
+ORDERS="${ORDERS:-3000000}"
+ACCOUNTS="${ACCOUNTS:-1000}"
+MONTHS="${MONTHS:-24}"
+PENDING="${PENDING:-4}"
+QUERIES="${QUERIES:-2000}"
+LOGS="$(mktemp -d)"
+trap 'rm -rf "$LOGS"' EXIT
+
+sql() {
+    psql -X -q -v ON_ERROR_STOP=1 -d "$BENCH_DB" "$@"
+}
+
+# Prints the median latency of SCRIPT after a warm-up run, from the per-transaction log (-l)
+bench() {
+    local label="$1" script="$2"
+    local args=(-n -M prepared -c 1 -f "$HERE/$script" -D "first=$FIRST" -D "last=$LAST" -D status=PENDING
+                -D "since=$SINCE" "$BENCH_DB")
+    pgbench -t 200 "${args[@]}" > /dev/null
+    rm -f "$LOGS"/*
+    pgbench -t "$QUERIES" -l --log-prefix="$LOGS/tx" "${args[@]}" > /dev/null
+    local p50
+    p50=$(cat "$LOGS"/tx* | awk '{ print $3 }' | sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }')
+    printf '%-55s %8s us\n' "$label" "$p50"
+}
+
+index_size() {
+    sql -tA -c "SELECT pg_size_pretty(sum(pg_indexes_size(relid)))
+                FROM unnest(ARRAY['orders', 'trades', 'audit_log']) AS t, pg_partition_tree(t::regclass)"
+}
+
+psql -X -q -v ON_ERROR_STOP=1 -d postgres -c "DROP DATABASE IF EXISTS $BENCH_DB" -c "CREATE DATABASE $BENCH_DB"
+sql -f "$MIGRATIONS/V1__Initial_Schema.sql" -f "$MIGRATIONS/V2__Keyset_Pagination_Indexes.sql"
+
+echo "Generating $ORDERS orders over $MONTHS months on $ACCOUNTS accounts..."
+sql -v orders="$ORDERS" -v accounts="$ACCOUNTS" -v months="$MONTHS" -v pending="$PENDING" \
+    -f "$HERE/orders-history.sql"
+read -r FIRST LAST < <(sql -tA -F ' ' -c "SELECT min(id), max(id) FROM accounts WHERE account_number LIKE 'BENCH-%'")
+SINCE=$(sql -tA -c "SELECT LOCALTIMESTAMP - INTERVAL '7 days'")
+
+echo
+echo "findByAccountIdAndStatus(account, PENDING), p50 of $QUERIES queries:"
+bench "before V3 (V2 indexes)" find-by-account-and-status.sql
+sql -c "CREATE INDEX bench_orders_account_id_status ON orders(account_id, status)" -c "ANALYZE orders"
+bench "before V3 plus an (account_id, status) index" find-by-account-and-status.sql
+sql -c "DROP INDEX bench_orders_account_id_status"
+BEFORE=$(index_size)
+
+SECONDS=0
+# One transaction, as Flyway runs it
+sql -1 -f "$MIGRATIONS/V3__Time_Partitioning.sql"
+MIGRATION=$SECONDS
+sql -c "ANALYZE"
+PARTITIONS=$(sql -tA -c "SELECT count(*) FROM pg_partition_tree('orders') WHERE isleaf")
+
+bench "after V3, unbounded ($PARTITIONS partitions)" find-by-account-and-status.sql
+PGOPTIONS="-c plan_cache_mode=force_custom_plan" \
+    bench "after V3, created_at >= now - 7 days, custom plans" find-by-account-and-status-since.sql
+PGOPTIONS="-c plan_cache_mode=force_generic_plan" \
+    bench "after V3, created_at >= now - 7 days, generic plan" find-by-account-and-status-since.sql
+
+echo
+echo "Index size of orders, trades and audit_log: $BEFORE before V3, $(index_size) after"
+echo "V3 migration: ${MIGRATION}s"